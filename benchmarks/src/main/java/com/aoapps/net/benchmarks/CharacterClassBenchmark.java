@@ -0,0 +1,204 @@
+/*
+ * ao-net-types - Networking-related value types.
+ * Copyright (C) 2021  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-net-types.
+ *
+ * ao-net-types is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-net-types is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-net-types.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aoapps.net.benchmarks;
+
+import java.util.BitSet;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Character classification and percent-encoding, comparing the single <code>byte[128]</code> table of classes and
+ * packed hex table now shared by the URI parsing, encoding, and decoding against the {@link BitSet} they replaced
+ * and the <code>switch</code> still used to encode reserved characters.
+ * <p>
+ * The implementations are package-private, so are copied here.  Each benchmark processes every character of a URI.
+ * </p>
+ *
+ * @author  AO Industries, Inc.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CharacterClassBenchmark {
+
+	private static final String GEN_DELIMS = ":/?#[]@";
+	private static final String SUB_DELIMS = "!$&'()*+,;=";
+
+	// <editor-fold defaultstate="collapsed" desc="Before">
+	private static final BitSet RESERVED_BITSET = new BitSet(128);
+	private static final BitSet UNRESERVED_BITSET = new BitSet(128);
+	static {
+		for(char ch : (GEN_DELIMS + SUB_DELIMS).toCharArray()) RESERVED_BITSET.set(ch);
+		UNRESERVED_BITSET.set('A', 'Z' + 1);
+		UNRESERVED_BITSET.set('a', 'z' + 1);
+		UNRESERVED_BITSET.set('0', '9' + 1);
+		UNRESERVED_BITSET.set('-');
+		UNRESERVED_BITSET.set('.');
+		UNRESERVED_BITSET.set('_');
+		UNRESERVED_BITSET.set('~');
+	}
+
+	private static String encodeReservedSwitch(char ch) {
+		switch(ch) {
+			case ':' : return "%3A";
+			case '/' : return "%2F";
+			case '?' : return "%3F";
+			case '#' : return "%23";
+			case '[' : return "%5B";
+			case ']' : return "%5D";
+			case '@' : return "%40";
+			case '!' : return "%21";
+			case '$' : return "%24";
+			case '&' : return "%26";
+			case '\'' : return "%27";
+			case '(' : return "%28";
+			case ')' : return "%29";
+			case '*' : return "%2A";
+			case '+' : return "%2B";
+			case ',' : return "%2C";
+			case ';' : return "%3B";
+			case '=' : return "%3D";
+			case '%' : return "%25";
+			default : return null;
+		}
+	}
+	// </editor-fold>
+
+	// <editor-fold defaultstate="collapsed" desc="After">
+	private static final int RESERVED = 0x03;
+	private static final int UNRESERVED = 0x04;
+	private static final int PERCENT = 0x80;
+
+	private static final byte[] CLASSES = new byte[128];
+	static {
+		for(char ch : (GEN_DELIMS + SUB_DELIMS).toCharArray()) CLASSES[ch] |= RESERVED;
+		for(char ch = 0; ch < 128; ch++) {
+			if(UNRESERVED_BITSET.get(ch)) CLASSES[ch] |= UNRESERVED;
+		}
+		CLASSES['%'] |= PERCENT;
+	}
+
+	private static boolean is(int ch, int classes) {
+		return ch < 128 && (CLASSES[ch] & classes) != 0;
+	}
+
+	private static final char[] HEX_PAIRS = new char[256 * 2];
+	static {
+		char[] hexChars = "0123456789ABCDEF".toCharArray();
+		for(int b = 0; b < 256; b++) {
+			HEX_PAIRS[b << 1] = hexChars[b >>> 4];
+			HEX_PAIRS[(b << 1) + 1] = hexChars[b & 0xF];
+		}
+	}
+	// </editor-fold>
+
+	private String[] uris;
+	private StringBuilder sb;
+
+	@Setup
+	public void setup() {
+		uris = Corpora.uris();
+		sb = new StringBuilder();
+	}
+
+	private int index;
+
+	/**
+	 * Cycles through the corpus.
+	 */
+	private int next() {
+		int i = index;
+		index = (i + 1) & Corpora.MASK;
+		return i;
+	}
+
+	@Benchmark
+	public int classifyBitSet() {
+		String uri = uris[next()];
+		int count = 0;
+		for(int i = 0, len = uri.length(); i < len; i++) {
+			char ch = uri.charAt(i);
+			if(RESERVED_BITSET.get(ch)) count++;
+			else if(UNRESERVED_BITSET.get(ch)) count += 2;
+		}
+		return count;
+	}
+
+	@Benchmark
+	public int classifyTable() {
+		String uri = uris[next()];
+		int count = 0;
+		for(int i = 0, len = uri.length(); i < len; i++) {
+			char ch = uri.charAt(i);
+			if(is(ch, RESERVED)) count++;
+			else if(is(ch, UNRESERVED)) count += 2;
+		}
+		return count;
+	}
+
+	/**
+	 * Percent-encodes the reserved characters and '%', as when decoding leaves them encoded.
+	 */
+	@Benchmark
+	public StringBuilder encodeReservedSwitch() {
+		String uri = uris[next()];
+		sb.setLength(0);
+		for(int i = 0, len = uri.length(); i < len; i++) {
+			char ch = uri.charAt(i);
+			String replacement = encodeReservedSwitch(ch);
+			if(replacement == null) sb.append(ch);
+			else sb.append(replacement);
+		}
+		return sb;
+	}
+
+	/**
+	 * Percent-encodes the reserved characters and '%', as when decoding leaves them encoded.
+	 */
+	@Benchmark
+	public StringBuilder encodeReservedTable() {
+		String uri = uris[next()];
+		sb.setLength(0);
+		for(int i = 0, len = uri.length(); i < len; i++) {
+			char ch = uri.charAt(i);
+			if(is(ch, RESERVED | PERCENT)) {
+				sb.append('%').append(HEX_PAIRS[ch << 1]).append(HEX_PAIRS[(ch << 1) + 1]);
+			} else {
+				sb.append(ch);
+			}
+		}
+		return sb;
+	}
+}
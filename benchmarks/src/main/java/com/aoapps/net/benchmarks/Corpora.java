@@ -0,0 +1,280 @@
+/*
+ * ao-net-types - Networking-related value types.
+ * Copyright (C) 2021  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-net-types.
+ *
+ * ao-net-types is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-net-types is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-net-types.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aoapps.net.benchmarks;
+
+import java.util.Random;
+
+/**
+ * Deterministic corpora of realistic inputs, so results are comparable between runs.
+ * Each corpus has {@link #SIZE} entries, a power of two, so benchmarks may cycle through them with a mask.
+ *
+ * @author  AO Industries, Inc.
+ */
+final class Corpora {
+
+	/** Make no instances. */
+	private Corpora() {throw new AssertionError();}
+
+	/**
+	 * The number of entries in each corpus.  Large enough to defeat branch prediction on any single input,
+	 * small enough to stay in cache.
+	 */
+	static final int SIZE = 1024;
+
+	static final int MASK = SIZE - 1;
+
+	private static final long SEED = 0x5eed_2021L;
+
+	private static final String[] TLDS = {"com", "net", "org", "io", "de", "co.uk", "info", "us"};
+
+	private static final String[] WORDS = {
+		"www", "mail", "api", "cdn", "static", "shop", "blog", "login", "aoindustries", "example",
+		"images", "search", "news", "portal", "cloud", "secure", "m", "app", "dev", "status"
+	};
+
+	private static String word(Random random) {
+		return WORDS[random.nextInt(WORDS.length)];
+	}
+
+	/**
+	 * IPv4 addresses, mostly public unicast with some private and loopback.
+	 */
+	static String[] ipv4() {
+		Random random = new Random(SEED);
+		String[] corpus = new String[SIZE];
+		for(int i = 0; i < SIZE; i++) {
+			switch(random.nextInt(8)) {
+				case 0 :
+					corpus[i] = "10." + random.nextInt(256) + '.' + random.nextInt(256) + '.' + random.nextInt(256);
+					break;
+				case 1 :
+					corpus[i] = "192.168." + random.nextInt(256) + '.' + random.nextInt(256);
+					break;
+				case 2 :
+					corpus[i] = "127.0.0.1";
+					break;
+				default :
+					corpus[i] = (1 + random.nextInt(223)) + "." + random.nextInt(256) + '.' + random.nextInt(256) + '.' + random.nextInt(256);
+			}
+		}
+		return corpus;
+	}
+
+	/**
+	 * IPv6 addresses, in the compressed, full, and IPv4-suffix forms seen in logs.
+	 */
+	static String[] ipv6() {
+		Random random = new Random(SEED);
+		String[] corpus = new String[SIZE];
+		for(int i = 0; i < SIZE; i++) {
+			switch(random.nextInt(6)) {
+				case 0 :
+					corpus[i] = "2001:db8::" + Integer.toHexString(random.nextInt(0x10000));
+					break;
+				case 1 :
+					corpus[i] = "fe80::" + Integer.toHexString(random.nextInt(0x10000)) + ':' + Integer.toHexString(random.nextInt(0x10000)) + ":ff:fe" + Integer.toHexString(random.nextInt(0x100)) + ':' + Integer.toHexString(random.nextInt(0x10000));
+					break;
+				case 2 :
+					corpus[i] = "::ffff:" + (1 + random.nextInt(223)) + '.' + random.nextInt(256) + '.' + random.nextInt(256) + '.' + random.nextInt(256);
+					break;
+				case 3 :
+					corpus[i] = "::1";
+					break;
+				default : {
+					StringBuilder sb = new StringBuilder("2");
+					sb.append(Integer.toHexString(random.nextInt(0x1000)));
+					for(int w = 1; w < 8; w++) sb.append(':').append(Integer.toHexString(random.nextInt(0x10000)));
+					corpus[i] = sb.toString();
+				}
+			}
+		}
+		return corpus;
+	}
+
+	/**
+	 * Domain names with one to four labels before the top-level domain, and some reverse DNS names.
+	 */
+	static String[] domains() {
+		Random random = new Random(SEED);
+		String[] corpus = new String[SIZE];
+		for(int i = 0; i < SIZE; i++) {
+			if(random.nextInt(10) == 0) {
+				corpus[i] = random.nextInt(256) + "." + random.nextInt(256) + '.' + random.nextInt(256) + '.' + (1 + random.nextInt(223)) + ".in-addr.arpa";
+			} else {
+				StringBuilder sb = new StringBuilder();
+				int labels = 1 + random.nextInt(4);
+				for(int l = 0; l < labels; l++) {
+					sb.append(word(random));
+					if(random.nextInt(4) == 0) sb.append(random.nextInt(100));
+					sb.append('.');
+				}
+				// Mixed case, as given by users
+				String domain = sb.append(TLDS[random.nextInt(TLDS.length)]).toString();
+				corpus[i] = random.nextInt(8) == 0 ? domain.toUpperCase(java.util.Locale.ROOT) : domain;
+			}
+		}
+		return corpus;
+	}
+
+	private static String[] zones(Random random, int count) {
+		String[] zones = new String[count];
+		for(int z = 0; z < count; z++) {
+			zones[z] = word(random) + z + '.' + TLDS[random.nextInt(TLDS.length)];
+		}
+		return zones;
+	}
+
+	/**
+	 * Distinct zone names, such as hosted by a large DNS provider.  Unlike the other corpora, this has the
+	 * requested size.
+	 */
+	static String[] zones(int count) {
+		return zones(new Random(SEED), count);
+	}
+
+	/**
+	 * The host names of a large DNS zone export: many hosts under a smaller number of zones, in random order,
+	 * as read from the zone files before being sorted.  Unlike the other corpora, this has the requested size
+	 * and is meant to be sorted as a whole.
+	 */
+	static String[] zone(int size) {
+		Random random = new Random(SEED);
+		String[] zones = zones(random, Math.max(1, size / 64));
+		String[] corpus = new String[size];
+		for(int i = 0; i < size; i++) {
+			String zone = zones[random.nextInt(zones.length)];
+			switch(random.nextInt(8)) {
+				case 0 :
+					corpus[i] = zone;
+					break;
+				case 1 :
+					corpus[i] = word(random) + '.' + word(random) + random.nextInt(100) + '.' + zone;
+					break;
+				case 2 :
+					// Mixed case, as given by users
+					corpus[i] = (word(random) + random.nextInt(1000) + '.' + zone).toUpperCase(java.util.Locale.ROOT);
+					break;
+				default :
+					corpus[i] = word(random) + random.nextInt(1000) + '.' + zone;
+			}
+		}
+		return corpus;
+	}
+
+	/**
+	 * Email addresses at the domains of {@link #domains()}.
+	 */
+	static String[] emails() {
+		Random random = new Random(SEED);
+		String[] domains = domains();
+		String[] corpus = new String[SIZE];
+		for(int i = 0; i < SIZE; i++) {
+			StringBuilder sb = new StringBuilder();
+			sb.append(word(random));
+			switch(random.nextInt(4)) {
+				case 0 : sb.append('.').append(word(random)); break;
+				case 1 : sb.append('+').append(word(random)); break;
+				case 2 : sb.append(random.nextInt(10000)); break;
+				default : // Nothing
+			}
+			String domain = domains[i];
+			// Email addresses are not sent to reverse DNS names
+			if(domain.endsWith(".arpa")) domain = "example.com";
+			corpus[i] = sb.append('@').append(domain).toString();
+		}
+		return corpus;
+	}
+
+	/**
+	 * Query strings of one to eight parameters, with some values needing encoding.
+	 */
+	static String[] queryStrings() {
+		Random random = new Random(SEED);
+		String[] corpus = new String[SIZE];
+		for(int i = 0; i < SIZE; i++) {
+			corpus[i] = queryString(random);
+		}
+		return corpus;
+	}
+
+	private static String queryString(Random random) {
+		StringBuilder sb = new StringBuilder();
+		int params = 1 + random.nextInt(8);
+		for(int p = 0; p < params; p++) {
+			if(p > 0) sb.append('&');
+			sb.append(word(random)).append('=');
+			switch(random.nextInt(4)) {
+				case 0 : sb.append(random.nextInt(1000000)); break;
+				case 1 : sb.append(word(random)).append('+').append(word(random)); break;
+				case 2 : sb.append(word(random)).append("%20%26%C3%A9"); break;
+				default : sb.append(word(random));
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Decoded URIs, as might be given to an encoder: mostly ASCII, with some spaces, reserved characters,
+	 * and non-ASCII characters.
+	 */
+	static String[] uris() {
+		Random random = new Random(SEED);
+		String[] corpus = new String[SIZE];
+		for(int i = 0; i < SIZE; i++) {
+			StringBuilder sb = new StringBuilder();
+			sb.append(random.nextBoolean() ? "https://" : "http://").append(word(random)).append(".example.com");
+			int segments = random.nextInt(5);
+			for(int s = 0; s < segments; s++) {
+				sb.append('/');
+				switch(random.nextInt(6)) {
+					case 0 : sb.append(word(random)).append(' ').append(word(random)); break;
+					case 1 : sb.append("café"); break;
+					case 2 : sb.append("日本語"); break;
+					case 3 : sb.append(word(random)).append(".html"); break;
+					default : sb.append(word(random));
+				}
+			}
+			if(random.nextInt(3) == 0) sb.append('?').append(word(random)).append('=').append(word(random));
+			if(random.nextInt(5) == 0) sb.append('#').append(word(random));
+			corpus[i] = sb.toString();
+		}
+		return corpus;
+	}
+
+	/**
+	 * URI components, such as parameter values, that frequently need encoding.
+	 */
+	static String[] components() {
+		Random random = new Random(SEED);
+		String[] corpus = new String[SIZE];
+		for(int i = 0; i < SIZE; i++) {
+			switch(random.nextInt(5)) {
+				case 0 : corpus[i] = word(random) + ' ' + word(random) + " & " + word(random); break;
+				case 1 : corpus[i] = "café 日本語"; break;
+				case 2 : corpus[i] = "a/b?c=d#e"; break;
+				default : corpus[i] = word(random) + random.nextInt(1000);
+			}
+		}
+		return corpus;
+	}
+}
@@ -0,0 +1,112 @@
+/*
+ * ao-net-types - Networking-related value types.
+ * Copyright (C) 2021  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-net-types.
+ *
+ * ao-net-types is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-net-types is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-net-types.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aoapps.net.benchmarks;
+
+import com.aoapps.lang.validation.ValidationException;
+import com.aoapps.lang.validation.ValidationResult;
+import com.aoapps.net.DomainName;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Validation and ordering of domain names.
+ *
+ * @author  AO Industries, Inc.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DomainNameBenchmark {
+
+	private String[] strings;
+	private DomainName[] domains;
+
+	@Setup
+	public void setup() throws ValidationException {
+		strings = Corpora.domains();
+		domains = new DomainName[Corpora.SIZE];
+		for(int i = 0; i < Corpora.SIZE; i++) domains[i] = DomainName.valueOf(strings[i]);
+	}
+
+	private int index;
+
+	/**
+	 * Cycles through the corpus.
+	 */
+	private int next() {
+		int i = index;
+		index = (i + 1) & Corpora.MASK;
+		return i;
+	}
+
+	@Benchmark
+	public ValidationResult validate() {
+		return DomainName.validate(strings[next()]);
+	}
+
+	@Benchmark
+	public DomainName valueOf() throws ValidationException {
+		return DomainName.valueOf(strings[next()]);
+	}
+
+	/**
+	 * Compares each domain to the next, as when sorting.
+	 */
+	@Benchmark
+	public int compareLabels() {
+		int i = next();
+		return DomainName.compareLabels(strings[i], strings[(i + 1) & Corpora.MASK]);
+	}
+
+	@Benchmark
+	public int compareTo() {
+		int i = next();
+		return domains[i].compareTo(domains[(i + 1) & Corpora.MASK]);
+	}
+
+	@Benchmark
+	public boolean isArpa() {
+		return DomainName.isArpa(strings[next()]);
+	}
+
+	/**
+	 * The straightforward implementation that {@link DomainName#isArpa(java.lang.String)} replaced.
+	 */
+	@Benchmark
+	public boolean isArpaBaseline() {
+		return strings[next()].toLowerCase(Locale.ENGLISH).endsWith(".in-addr.arpa");
+	}
+}
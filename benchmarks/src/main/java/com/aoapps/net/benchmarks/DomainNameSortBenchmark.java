@@ -0,0 +1,123 @@
+/*
+ * ao-net-types - Networking-related value types.
+ * Copyright (C) 2021  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-net-types.
+ *
+ * ao-net-types is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-net-types is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-net-types.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aoapps.net.benchmarks;
+
+import com.aoapps.lang.util.ComparatorUtils;
+import com.aoapps.lang.validation.ValidationException;
+import com.aoapps.net.DomainName;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Sorting of large DNS zone corpora, where the comparison of labels dominates.
+ * Run with the GC profiler to see the allocation rate of each comparator.
+ *
+ * @author  AO Industries, Inc.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class DomainNameSortBenchmark {
+
+	@Param({"10000", "100000"})
+	public int size;
+
+	private String[] strings;
+	private DomainName[] domains;
+
+	@Setup
+	public void setup() throws ValidationException {
+		strings = Corpora.zone(size);
+		domains = new DomainName[size];
+		for(int i = 0; i < size; i++) domains[i] = DomainName.valueOf(strings[i]);
+	}
+
+	@Benchmark
+	public String[] sortCompareLabels() {
+		String[] sorted = strings.clone();
+		Arrays.sort(sorted, DomainName::compareLabels);
+		return sorted;
+	}
+
+	@Benchmark
+	public DomainName[] sortDomainNames() {
+		DomainName[] sorted = domains.clone();
+		Arrays.sort(sorted);
+		return sorted;
+	}
+
+	/**
+	 * The substring-based implementation that {@link DomainName#compareLabels(java.lang.String, java.lang.String)}
+	 * replaced.
+	 */
+	@SuppressWarnings("StringEquality")
+	private static int compareLabelsBaseline(String labels1, String labels2) {
+		if(labels1==labels2) return 0;
+		while(labels1.length()>0 && labels2.length()>0) {
+			int pos=labels1.lastIndexOf('.');
+			String section1;
+			if(pos==-1) {
+				section1=labels1;
+				labels1="";
+			} else {
+				section1=labels1.substring(pos+1);
+				labels1=labels1.substring(0, pos);
+			}
+
+			pos=labels2.lastIndexOf('.');
+			String section2;
+			if(pos==-1) {
+				section2=labels2;
+				labels2="";
+			} else {
+				section2=labels2.substring(pos+1);
+				labels2=labels2.substring(0, pos);
+			}
+
+			int diff=ComparatorUtils.compareIgnoreCaseConsistentWithEquals(section1, section2);
+			if(diff!=0) return diff;
+		}
+		return ComparatorUtils.compareIgnoreCaseConsistentWithEquals(labels1, labels2);
+	}
+
+	@Benchmark
+	public String[] sortCompareLabelsBaseline() {
+		String[] sorted = strings.clone();
+		Arrays.sort(sorted, DomainNameSortBenchmark::compareLabelsBaseline);
+		return sorted;
+	}
+}
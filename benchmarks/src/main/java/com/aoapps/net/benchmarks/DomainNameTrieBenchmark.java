@@ -0,0 +1,101 @@
+/*
+ * ao-net-types - Networking-related value types.
+ * Copyright (C) 2021  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-net-types.
+ *
+ * ao-net-types is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-net-types is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-net-types.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aoapps.net.benchmarks;
+
+import com.aoapps.lang.validation.ValidationException;
+import com.aoapps.net.DomainName;
+import com.aoapps.net.DomainNameTrie;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Finding which of 300,000 hosted zones each host name falls under.
+ *
+ * @author  AO Industries, Inc.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DomainNameTrieBenchmark {
+
+	private static final int ZONES = 300000;
+
+	private DomainNameTrie<DomainName> trie;
+	private DomainName[] hosts;
+
+	@Setup
+	public void setup() throws ValidationException {
+		String[] zones = Corpora.zones(ZONES);
+		DomainNameTrie.Builder<DomainName> builder = new DomainNameTrie.Builder<>();
+		for(String zone : zones) {
+			DomainName domain = DomainName.valueOf(zone);
+			builder.putSuffix(domain, domain);
+		}
+		trie = builder.build();
+		// Half the hosts are in the zones, the others are not under any
+		Random random = new Random(Corpora.SIZE);
+		String[] domains = Corpora.domains();
+		hosts = new DomainName[Corpora.SIZE];
+		for(int i = 0; i < Corpora.SIZE; i++) {
+			hosts[i] = DomainName.valueOf(
+				(i & 1) == 0
+				? "www" + random.nextInt(10) + '.' + zones[random.nextInt(ZONES)]
+				: domains[i]
+			);
+		}
+	}
+
+	private int index;
+
+	/**
+	 * Cycles through the hosts.
+	 */
+	private int next() {
+		int i = index;
+		index = (i + 1) & Corpora.MASK;
+		return i;
+	}
+
+	@Benchmark
+	public DomainName getLongestMatch() {
+		return trie.getLongestMatch(hosts[next()]);
+	}
+
+	@Benchmark
+	public boolean matches() {
+		return trie.matches(hosts[next()]);
+	}
+}
@@ -0,0 +1,85 @@
+/*
+ * ao-net-types - Networking-related value types.
+ * Copyright (C) 2021  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-net-types.
+ *
+ * ao-net-types is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-net-types is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-net-types.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aoapps.net.benchmarks;
+
+import com.aoapps.lang.validation.ValidationException;
+import com.aoapps.lang.validation.ValidationResult;
+import com.aoapps.net.Email;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing and validation of email addresses.
+ *
+ * @author  AO Industries, Inc.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EmailBenchmark {
+
+	private String[] strings;
+
+	@Setup
+	public void setup() {
+		strings = Corpora.emails();
+	}
+
+	private int index;
+
+	/**
+	 * Cycles through the corpus.
+	 */
+	private int next() {
+		int i = index;
+		index = (i + 1) & Corpora.MASK;
+		return i;
+	}
+
+	@Benchmark
+	public Email valueOf() throws ValidationException {
+		return Email.valueOf(strings[next()]);
+	}
+
+	@Benchmark
+	public Email tryValueOf() {
+		return Email.tryValueOf(strings[next()]);
+	}
+
+	@Benchmark
+	public ValidationResult validate() {
+		return Email.validate(strings[next()]);
+	}
+}
@@ -0,0 +1,146 @@
+/*
+ * ao-net-types - Networking-related value types.
+ * Copyright (C) 2021  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-net-types.
+ *
+ * ao-net-types is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-net-types is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-net-types.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aoapps.net.benchmarks;
+
+import com.aoapps.lang.validation.ValidationException;
+import com.aoapps.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing and formatting of IP addresses.
+ *
+ * @author  AO Industries, Inc.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class InetAddressBenchmark {
+
+	@Param({"IPv4", "IPv6"})
+	public String family;
+
+	private String[] strings;
+	private InetAddress[] addresses;
+	private final long[] hiLo = new long[2];
+	private final StringBuilder sb = new StringBuilder(InetAddress.MAX_STRING_LENGTH);
+	private final byte[] bytes = new byte[InetAddress.MAX_STRING_LENGTH];
+	private final ByteBuffer heapBuffer = ByteBuffer.allocate(InetAddress.MAX_STRING_LENGTH);
+	private final ByteBuffer directBuffer = ByteBuffer.allocateDirect(InetAddress.MAX_STRING_LENGTH);
+
+	@Setup
+	public void setup() throws ValidationException {
+		strings = "IPv4".equals(family) ? Corpora.ipv4() : Corpora.ipv6();
+		addresses = new InetAddress[Corpora.SIZE];
+		for(int i = 0; i < Corpora.SIZE; i++) addresses[i] = InetAddress.valueOf(strings[i]);
+	}
+
+	private int index;
+
+	/**
+	 * Cycles through the corpus.
+	 */
+	private int next() {
+		int i = index;
+		index = (i + 1) & Corpora.MASK;
+		return i;
+	}
+
+	@Benchmark
+	public InetAddress valueOf() throws ValidationException {
+		return InetAddress.valueOf(strings[next()]);
+	}
+
+	@Benchmark
+	public InetAddress tryValueOf() {
+		return InetAddress.tryValueOf(strings[next()]);
+	}
+
+	/**
+	 * Parsing without creating any objects.
+	 */
+	@Benchmark
+	public int parse() {
+		return InetAddress.parse(strings[next()], hiLo);
+	}
+
+	@Benchmark
+	public String format() {
+		return addresses[next()].toString();
+	}
+
+	/**
+	 * Formatting into a reused {@link StringBuilder}, compared to {@link #format()}.
+	 */
+	@Benchmark
+	public StringBuilder appendTo() {
+		sb.setLength(0);
+		addresses[next()].appendTo(sb);
+		return sb;
+	}
+
+	/**
+	 * Formatting into a reused {@code byte[]}, compared to {@link #format()}.
+	 */
+	@Benchmark
+	public int writeToBytes() {
+		return addresses[next()].writeTo(bytes, 0);
+	}
+
+	/**
+	 * Formatting into a reused heap {@link ByteBuffer}, compared to {@link #format()}.
+	 */
+	@Benchmark
+	public int writeToHeapBuffer() {
+		heapBuffer.clear();
+		return addresses[next()].writeTo(heapBuffer);
+	}
+
+	/**
+	 * Formatting into a reused direct {@link ByteBuffer}, compared to {@link #format()}.
+	 */
+	@Benchmark
+	public int writeToDirectBuffer() {
+		directBuffer.clear();
+		return addresses[next()].writeTo(directBuffer);
+	}
+
+	@Benchmark
+	public String formatBracketed() {
+		return addresses[next()].toBracketedString();
+	}
+}
@@ -0,0 +1,140 @@
+/*
+ * ao-net-types - Networking-related value types.
+ * Copyright (C) 2021  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-net-types.
+ *
+ * ao-net-types is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-net-types is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-net-types.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aoapps.net.benchmarks;
+
+import com.aoapps.lang.validation.ValidationException;
+import com.aoapps.net.InetAddress;
+import com.aoapps.net.InetAddressPrefix;
+import java.net.StandardProtocolFamily;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Containment and coalescing of prefixes, as used when building and checking address lists.
+ *
+ * @author  AO Industries, Inc.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class InetAddressPrefixBenchmark {
+
+	@Param({"IPv4", "IPv6"})
+	public String family;
+
+	private InetAddressPrefix[] prefixes;
+	private InetAddress[] addresses;
+	/**
+	 * Pairs of prefixes for coalescing, alternating between contained, adjacent, and disjoint.
+	 */
+	private InetAddressPrefix[] others;
+	private String[] strings;
+
+	@Setup
+	public void setup() throws ValidationException {
+		String[] addressStrings = "IPv4".equals(family) ? Corpora.ipv4() : Corpora.ipv6();
+		Random random = new Random(addressStrings.length);
+		prefixes = new InetAddressPrefix[Corpora.SIZE];
+		addresses = new InetAddress[Corpora.SIZE];
+		others = new InetAddressPrefix[Corpora.SIZE];
+		strings = new String[Corpora.SIZE];
+		for(int i = 0; i < Corpora.SIZE; i++) {
+			InetAddress address = InetAddress.valueOf(addressStrings[i]);
+			// The IPv6 corpus includes IPv4-mapped addresses
+			boolean inet = address.getProtocolFamily() == StandardProtocolFamily.INET;
+			int maxPrefix = inet ? 32 : 128;
+			int minPrefix = inet ? 8 : 32;
+			// Addresses are half in the prefix, half random
+			addresses[i] = random.nextBoolean() ? address : InetAddress.valueOf(addressStrings[random.nextInt(Corpora.SIZE)]);
+			int prefix = minPrefix + random.nextInt(maxPrefix - minPrefix);
+			prefixes[i] = InetAddressPrefix.valueOf(address, prefix).normalize();
+			switch(i % 3) {
+				case 0 :
+					// Contained
+					others[i] = InetAddressPrefix.valueOf(address, prefix + 1).normalize();
+					break;
+				case 1 : {
+					// Adjacent halves of the same parent
+					InetAddressPrefix parent = prefixes[i];
+					prefixes[i] = InetAddressPrefix.valueOf(parent.getFrom(), prefix + 1);
+					others[i] = InetAddressPrefix.valueOf(parent.getTo(), prefix + 1).normalize();
+					break;
+				}
+				default :
+					// Usually disjoint, chosen below
+			}
+			strings[i] = prefixes[i].toString();
+		}
+		for(int i = 2; i < Corpora.SIZE; i += 3) {
+			others[i] = prefixes[random.nextInt(Corpora.SIZE)];
+		}
+	}
+
+	private int index;
+
+	/**
+	 * Cycles through the corpus.
+	 */
+	private int next() {
+		int i = index;
+		index = (i + 1) & Corpora.MASK;
+		return i;
+	}
+
+	@Benchmark
+	public boolean containsAddress() {
+		int i = next();
+		return prefixes[i].contains(addresses[i]);
+	}
+
+	@Benchmark
+	public boolean containsPrefix() {
+		int i = next();
+		return prefixes[i].contains(others[i]);
+	}
+
+	@Benchmark
+	public InetAddressPrefix coalesce() {
+		int i = next();
+		return prefixes[i].coalesce(others[i]);
+	}
+
+	@Benchmark
+	public InetAddressPrefix valueOf() throws ValidationException {
+		return InetAddressPrefix.valueOf(strings[next()]);
+	}
+}
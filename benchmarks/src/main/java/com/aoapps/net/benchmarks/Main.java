@@ -0,0 +1,69 @@
+/*
+ * ao-net-types - Networking-related value types.
+ * Copyright (C) 2021  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-net-types.
+ *
+ * ao-net-types is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-net-types is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-net-types.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aoapps.net.benchmarks;
+
+import java.io.IOException;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.ProfilerConfig;
+
+/**
+ * Runs the benchmarks selected by the standard JMH command line, always adding the
+ * {@link GCProfiler} (<code>-prof gc</code>) so allocation is reported with every score.
+ *
+ * @author  AO Industries, Inc.
+ */
+public final class Main {
+
+	/** Make no instances. */
+	private Main() {throw new AssertionError();}
+
+	private static boolean hasGCProfiler(CommandLineOptions cmdOptions) {
+		for(ProfilerConfig profiler : cmdOptions.getProfilers()) {
+			String name = profiler.getKlass();
+			if("gc".equals(name) || GCProfiler.class.getName().equals(name)) return true;
+		}
+		return false;
+	}
+
+	public static void main(String[] args) throws CommandLineOptionException, RunnerException, IOException {
+		CommandLineOptions cmdOptions = new CommandLineOptions(args);
+		if(cmdOptions.shouldHelp()) {
+			cmdOptions.showHelp();
+			return;
+		}
+		if(cmdOptions.shouldList() || cmdOptions.shouldListWithParams() || cmdOptions.shouldListProfilers() || cmdOptions.shouldListResultFormats()) {
+			// Delegate listing to JMH
+			org.openjdk.jmh.Main.main(args);
+			return;
+		}
+		OptionsBuilder options = new OptionsBuilder();
+		options.parent(cmdOptions);
+		if(!hasGCProfiler(cmdOptions)) options.addProfiler(GCProfiler.class);
+		new Runner(options.build()).run();
+	}
+}
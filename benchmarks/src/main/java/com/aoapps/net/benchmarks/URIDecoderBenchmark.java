@@ -0,0 +1,98 @@
+/*
+ * ao-net-types - Networking-related value types.
+ * Copyright (C) 2021  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-net-types.
+ *
+ * ao-net-types is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-net-types is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-net-types.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aoapps.net.benchmarks;
+
+import com.aoapps.net.URIDecoder;
+import com.aoapps.net.URIEncoder;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Decoding of URIs and their components.
+ *
+ * @author  AO Industries, Inc.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class URIDecoderBenchmark {
+
+	private String[] uris;
+	private String[] components;
+
+	@Setup
+	public void setup() {
+		String[] decodedUris = Corpora.uris();
+		String[] decodedComponents = Corpora.components();
+		uris = new String[Corpora.SIZE];
+		components = new String[Corpora.SIZE];
+		for(int i = 0; i < Corpora.SIZE; i++) {
+			uris[i] = URIEncoder.encodeURI(decodedUris[i]);
+			components[i] = URIEncoder.encodeURIComponent(decodedComponents[i]);
+		}
+	}
+
+	private int index;
+
+	/**
+	 * Cycles through the corpus.
+	 */
+	private int next() {
+		int i = index;
+		index = (i + 1) & Corpora.MASK;
+		return i;
+	}
+
+	@Benchmark
+	public String decodeURI() {
+		return URIDecoder.decodeURI(uris[next()]);
+	}
+
+	@Benchmark
+	public String decodeURIComponent() {
+		return URIDecoder.decodeURIComponent(components[next()]);
+	}
+
+	/**
+	 * The previous implementation of {@link URIDecoder#decodeURIComponent(java.lang.String)}.
+	 */
+	@Benchmark
+	public String decodeURIComponentURLDecoder() throws UnsupportedEncodingException {
+		return URLDecoder.decode(components[next()], StandardCharsets.UTF_8.name());
+	}
+}
@@ -0,0 +1,100 @@
+/*
+ * ao-net-types - Networking-related value types.
+ * Copyright (C) 2021  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-net-types.
+ *
+ * ao-net-types is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-net-types is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-net-types.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aoapps.net.benchmarks;
+
+import com.aoapps.net.IRI;
+import com.aoapps.net.InternPool;
+import com.aoapps.net.URI;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Creation of {@link URI} and {@link IRI} by constructor versus the {@code valueOf} caches,
+ * for a corpus that fits within the cache.
+ *
+ * @author  AO Industries, Inc.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class URIValueOfBenchmark {
+
+	private String[] uris;
+
+	@Setup
+	public void setup() {
+		uris = Corpora.uris();
+		URI.setValueOfCache(InternPool.bounded(Corpora.SIZE * 2));
+		IRI.setValueOfCache(InternPool.bounded(Corpora.SIZE * 2));
+	}
+
+	@TearDown
+	public void tearDown() {
+		URI.setValueOfCache(null);
+		IRI.setValueOfCache(null);
+	}
+
+	private int index;
+
+	/**
+	 * Cycles through the corpus.
+	 */
+	private int next() {
+		int i = index;
+		index = (i + 1) & Corpora.MASK;
+		return i;
+	}
+
+	@Benchmark
+	public URI newURI() {
+		return new URI(uris[next()]);
+	}
+
+	@Benchmark
+	public URI uriValueOf() {
+		return URI.valueOf(uris[next()]);
+	}
+
+	@Benchmark
+	public IRI newIRI() {
+		return new IRI(uris[next()]);
+	}
+
+	@Benchmark
+	public IRI iriValueOf() {
+		return IRI.valueOf(uris[next()]);
+	}
+}
@@ -0,0 +1,40 @@
+/*
+ * ao-net-types - Networking-related value types.
+ * Copyright (C) 2021  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-net-types.
+ *
+ * ao-net-types is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-net-types is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-net-types.  If not, see <http://www.gnu.org/licenses/>.
+ */
+/**
+ * <a href="https://openjdk.java.net/projects/code-tools/jmh/">JMH</a> benchmarks of the parsers, formatters,
+ * and URI encoders.
+ * <p>
+ * Build and run all benchmarks, with allocation profiling by default:
+ * </p>
+ * <pre>mvn package
+java -jar target/benchmarks.jar</pre>
+ * <p>
+ * Any standard JMH options may be given, such as a regular expression to select benchmarks:
+ * </p>
+ * <pre>java -jar target/benchmarks.jar InetAddressBenchmark -f 1 -wi 3 -i 5</pre>
+ * <p>
+ * Compare the <code>gc.alloc.rate.norm</code> (bytes per operation) along with the score, since a
+ * change in allocation is often the first sign of a regression.
+ * </p>
+ */
+package com.aoapps.net.benchmarks;
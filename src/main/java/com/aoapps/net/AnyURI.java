@@ -156,7 +156,12 @@ public class AnyURI {
 	 */
 	private final int fragmentIndex;
 
-	// TODO: Thread-local AnyURI/URI/IRI LRU instance caches, getIRI(String) instead of constructor?
+	/**
+	 * Splits the given {@code uri} as-is.  This performs no encoding or decoding, so is not cached.
+	 *
+	 * @see  URI#valueOf(java.lang.String)
+	 * @see  IRI#valueOf(java.lang.String)
+	 */
 	public AnyURI(String uri) {
 		this.uri = uri;
 		schemeLength = URIParser.getSchemeLength(uri);
@@ -843,10 +848,10 @@ public class AnyURI {
 	public IRI toIRI() {
 		IRI toIri = toIRICache;
 		if(toIri != null) return toIri;
-		toIri = new IRI(uri);
+		toIri = IRI.valueOf(uri);
 		// IRI.toURI() gives a more normalized output, which may be different than previously cached calls to AnyURI.toURI()
 		URI toUri = toURICache;
-		if(toUri != null && toUri.isEncodingNormalized()) {
+		if(toUri != null && toUri.isEncodingNormalized() && toIri.toURICache == null) {
 			toIri.toURICache = toUri;
 		}
 		this.toIRICache = toIri;
@@ -22,6 +22,7 @@
  */
 package com.aoapps.net;
 
+import com.aoapps.lang.NullArgumentException;
 import com.aoapps.lang.dto.DtoFactory;
 import com.aoapps.lang.i18n.Resources;
 import com.aoapps.lang.io.FastExternalizable;
@@ -39,8 +40,6 @@ import java.io.ObjectInput;
 import java.io.ObjectOutput;
 import java.util.Locale;
 import java.util.ResourceBundle;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 
 /**
  * Represents a DNS domain label (a single part of a domain name between dots).  Domain labels must:
@@ -93,27 +92,99 @@ final public class DomainLabel implements
 		return ValidResult.getInstance();
 	}
 
-	private static final ConcurrentMap<String, DomainLabel> interned = new ConcurrentHashMap<>();
+	private static volatile InternPool<DomainLabel> internPool = InternPool.strong();
+
+	/**
+	 * Gets the pool used by {@link #intern()}, which defaults to {@link InternPool#strong()}.
+	 *
+	 * @see  InternPool
+	 */
+	public static InternPool<DomainLabel> getInternPool() {
+		return internPool;
+	}
+
+	/**
+	 * Replaces the pool used by {@link #intern()}.
+	 *
+	 * @see  InternPool
+	 */
+	public static void setInternPool(InternPool<DomainLabel> pool) {
+		internPool = NullArgumentException.checkNotNull(pool, "pool");
+	}
+
+	private static volatile InternPool<DomainLabel> valueOfCache;
+
+	/**
+	 * Gets the cache used by {@link #valueOf(java.lang.String)}, or {@code null} when disabled, which is the default.
+	 *
+	 * @see  InternPool
+	 */
+	public static InternPool<DomainLabel> getValueOfCache() {
+		return valueOfCache;
+	}
+
+	/**
+	 * Sets the cache used by {@link #valueOf(java.lang.String)}, or {@code null} to disable it.
+	 *
+	 * @see  InternPool
+	 */
+	public static void setValueOfCache(InternPool<DomainLabel> cache) {
+		valueOfCache = cache;
+	}
 
 	/**
 	 * @param label  when {@code null}, returns {@code null}
 	 */
 	public static DomainLabel valueOf(String label) throws ValidationException {
 		if(label == null) return null;
-		//DomainLabel existing = interned.get(label);
-		//return existing!=null ? existing : new DomainLabel(label);
-		return new DomainLabel(label, true);
+		ValidationResult[] invalid = new ValidationResult[1];
+		DomainLabel value = parseValueOf(label, invalid);
+		if(value == null) throw new ValidationException(invalid[0]);
+		return value;
 	}
 
-	private String label;
-	private String lowerLabel;
+	/**
+	 * Parses without throwing an exception, for when invalid input is expected to be common, such as from
+	 * untrusted sources.  When invalid, {@link #validate(java.lang.String)} gives the reason.
+	 *
+	 * @param label  when {@code null}, returns {@code null}
+	 *
+	 * @return  the value or {@code null} when invalid
+	 */
+	public static DomainLabel tryValueOf(String label) {
+		return parseValueOf(label, null);
+	}
 
-	private DomainLabel(String label, boolean validate) throws ValidationException {
-		this.label = label;
-		this.lowerLabel = label.toLowerCase(Locale.ROOT);
-		if(validate) validate();
+	/**
+	 * Parses once for both {@link #valueOf(java.lang.String)} and {@link #tryValueOf(java.lang.String)}.
+	 *
+	 * @param  invalid  when non-null, receives the reason at index 0 when invalid
+	 *
+	 * @return  the value or {@code null} when {@code label} is {@code null} or invalid
+	 */
+	private static DomainLabel parseValueOf(String label, ValidationResult[] invalid) {
+		if(label == null) return null;
+		InternPool<DomainLabel> cache = valueOfCache;
+		// If found in the cache, it is valid
+		DomainLabel value = (cache == null) ? null : cache.get(label);
+		if(value == null) {
+			ValidationResult result = validate(label);
+			if(!result.isValid()) {
+				if(invalid != null) invalid[0] = result;
+				return null;
+			}
+			value = new DomainLabel(label, label.toLowerCase(Locale.ROOT));
+			if(cache != null) {
+				DomainLabel existing = cache.putIfAbsent(label, value);
+				if(existing != null) value = existing;
+			}
+		}
+		return value;
 	}
 
+	private String label;
+	private String lowerLabel;
+
 	/**
 	 * @param  label  Does not validate, should only be used with a known valid value.
 	 * @param  lowerLabel  Does not validate, should only be used with a known valid value.
@@ -171,13 +242,13 @@ final public class DomainLabel implements
 	 */
 	@Override
 	public DomainLabel intern() {
-		DomainLabel existing = interned.get(label);
+		DomainLabel existing = internPool.get(label);
 		if(existing==null) {
 			String internedLabel = label.intern();
 			String internedLowerLabel = lowerLabel.intern();
 			@SuppressWarnings("StringEquality")
 			DomainLabel addMe = (label == internedLabel) && (lowerLabel == internedLowerLabel) ? this : new DomainLabel(internedLabel, internedLowerLabel);
-			existing = interned.putIfAbsent(internedLabel, addMe);
+			existing = internPool.putIfAbsent(internedLabel, addMe);
 			if(existing==null) existing = addMe;
 		}
 		return existing;
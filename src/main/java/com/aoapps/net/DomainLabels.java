@@ -22,6 +22,7 @@
  */
 package com.aoapps.net;
 
+import com.aoapps.lang.NullArgumentException;
 import com.aoapps.lang.dto.DtoFactory;
 import com.aoapps.lang.i18n.Resources;
 import com.aoapps.lang.io.FastExternalizable;
@@ -38,8 +39,6 @@ import java.io.ObjectInput;
 import java.io.ObjectOutput;
 import java.util.Locale;
 import java.util.ResourceBundle;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 
 /**
  * Represents a set of one or more domain labels.  These may be prepended to a domain name
@@ -86,27 +85,99 @@ implements
 		return ValidResult.getInstance();
 	}
 
-	private static final ConcurrentMap<String, DomainLabels> interned = new ConcurrentHashMap<>();
+	private static volatile InternPool<DomainLabels> internPool = InternPool.strong();
+
+	/**
+	 * Gets the pool used by {@link #intern()}, which defaults to {@link InternPool#strong()}.
+	 *
+	 * @see  InternPool
+	 */
+	public static InternPool<DomainLabels> getInternPool() {
+		return internPool;
+	}
+
+	/**
+	 * Replaces the pool used by {@link #intern()}.
+	 *
+	 * @see  InternPool
+	 */
+	public static void setInternPool(InternPool<DomainLabels> pool) {
+		internPool = NullArgumentException.checkNotNull(pool, "pool");
+	}
+
+	private static volatile InternPool<DomainLabels> valueOfCache;
+
+	/**
+	 * Gets the cache used by {@link #valueOf(java.lang.String)}, or {@code null} when disabled, which is the default.
+	 *
+	 * @see  InternPool
+	 */
+	public static InternPool<DomainLabels> getValueOfCache() {
+		return valueOfCache;
+	}
+
+	/**
+	 * Sets the cache used by {@link #valueOf(java.lang.String)}, or {@code null} to disable it.
+	 *
+	 * @see  InternPool
+	 */
+	public static void setValueOfCache(InternPool<DomainLabels> cache) {
+		valueOfCache = cache;
+	}
 
 	/**
 	 * @param labels  when {@code null}, returns {@code null}
 	 */
 	public static DomainLabels valueOf(String labels) throws ValidationException {
 		if(labels == null) return null;
-		//DomainLabels existing = interned.get(labels);
-		//return existing!=null ? existing : new DomainLabels(labels);
-		return new DomainLabels(labels, true);
+		ValidationResult[] invalid = new ValidationResult[1];
+		DomainLabels value = parseValueOf(labels, invalid);
+		if(value == null) throw new ValidationException(invalid[0]);
+		return value;
 	}
 
-	private String labels;
-	private String lowerLabels;
+	/**
+	 * Parses without throwing an exception, for when invalid input is expected to be common, such as from
+	 * untrusted sources.  When invalid, {@link #validate(java.lang.String)} gives the reason.
+	 *
+	 * @param labels  when {@code null}, returns {@code null}
+	 *
+	 * @return  the value or {@code null} when invalid
+	 */
+	public static DomainLabels tryValueOf(String labels) {
+		return parseValueOf(labels, null);
+	}
 
-	private DomainLabels(String labels, boolean validate) throws ValidationException {
-		this.labels = labels;
-		this.lowerLabels = labels.toLowerCase(Locale.ROOT);
-		if(validate) validate();
+	/**
+	 * Parses once for both {@link #valueOf(java.lang.String)} and {@link #tryValueOf(java.lang.String)}.
+	 *
+	 * @param  invalid  when non-null, receives the reason at index 0 when invalid
+	 *
+	 * @return  the value or {@code null} when {@code labels} is {@code null} or invalid
+	 */
+	private static DomainLabels parseValueOf(String labels, ValidationResult[] invalid) {
+		if(labels == null) return null;
+		InternPool<DomainLabels> cache = valueOfCache;
+		// If found in the cache, it is valid
+		DomainLabels value = (cache == null) ? null : cache.get(labels);
+		if(value == null) {
+			ValidationResult result = validate(labels);
+			if(!result.isValid()) {
+				if(invalid != null) invalid[0] = result;
+				return null;
+			}
+			value = new DomainLabels(labels, labels.toLowerCase(Locale.ROOT));
+			if(cache != null) {
+				DomainLabels existing = cache.putIfAbsent(labels, value);
+				if(existing != null) value = existing;
+			}
+		}
+		return value;
 	}
 
+	private String labels;
+	private String lowerLabels;
+
 	/**
 	 * @param  labels  Does not validate, should only be used with a known valid value.
 	 * @param  lowerLabels  Does not validate, should only be used with a known valid value.
@@ -168,13 +239,13 @@ implements
 	 */
 	@Override
 	public DomainLabels intern() {
-		DomainLabels existing = interned.get(labels);
+		DomainLabels existing = internPool.get(labels);
 		if(existing==null) {
 			String internedLabels = labels.intern();
 			String internedLowerLabels = lowerLabels.intern();
 			@SuppressWarnings("StringEquality")
 			DomainLabels addMe = (labels == internedLabels) && (lowerLabels == internedLowerLabels) ? this : new DomainLabels(internedLabels, internedLowerLabels);
-			existing = interned.putIfAbsent(internedLabels, addMe);
+			existing = internPool.putIfAbsent(internedLabels, addMe);
 			if(existing==null) existing = addMe;
 		}
 		return existing;
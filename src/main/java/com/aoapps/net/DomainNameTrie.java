@@ -0,0 +1,430 @@
+/*
+ * ao-net-types - Networking-related value types.
+ * Copyright (C) 2021  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-net-types.
+ *
+ * ao-net-types is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-net-types is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-net-types.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aoapps.net;
+
+import com.aoapps.lang.NullArgumentException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable table of values keyed by {@link DomainName}, supporting exact-match, wildcard, longest-suffix-match,
+ * and subtree queries, such as finding which hosted zone a host name falls under, or whether a host is under any
+ * blocked suffix.
+ * <p>
+ * This is a trie of the reversed, {@linkplain DomainName#toLowerCase() lower-cased} labels, so
+ * <code>www.example.com</code> is found under <code>com</code> then <code>example</code> then <code>www</code>.
+ * Each node may have two values:
+ * </p>
+ * <ul>
+ * <li>An exact value, matching only the domain itself, added by {@link Builder#put(com.aoapps.net.DomainName, java.lang.Object)}.</li>
+ * <li>A wildcard value, as <code>*.example.com</code>, matching every domain strictly under the domain at any depth,
+ *     but not the domain itself, added by {@link Builder#putWildcard(com.aoapps.net.DomainName, java.lang.Object)}.</li>
+ * </ul>
+ * <p>
+ * A zone, matching both itself and everything under it, has both, as added by
+ * {@link Builder#putSuffix(com.aoapps.net.DomainName, java.lang.Object)}.
+ * </p>
+ * <p>
+ * The children of each node are a sorted array of labels, searched in place on the lower-case domain, so lookups do
+ * not create any objects.  Once built, a trie is never modified, so is thread-safe and may be shared freely.  To
+ * change a trie, create a new {@link Builder} from it and build a new snapshot.
+ * </p>
+ *
+ * @author  AO Industries, Inc.
+ */
+final public class DomainNameTrie<V> {
+
+	/**
+	 * Receives the entries of a trie.
+	 */
+	@FunctionalInterface
+	public static interface EntryConsumer<V> {
+
+		/**
+		 * @param  domain    The domain as most recently put
+		 * @param  wildcard  {@code true} for a wildcard value, which matches everything strictly under the domain
+		 */
+		void accept(DomainName domain, boolean wildcard, V value);
+	}
+
+	/**
+	 * Builds a trie.  Putting a domain that is already in the builder, in any case, replaces its value.
+	 */
+	public static class Builder<V> {
+
+		private static class Node<V> {
+
+			private final Map<String, Node<V>> children = new HashMap<>();
+
+			private DomainName domain;
+
+			private V value;
+
+			private V wildcardValue;
+		}
+
+		private final Node<V> root = new Node<>();
+
+		public Builder() {
+		}
+
+		/**
+		 * Creates a builder with all the entries of the given trie.
+		 */
+		public Builder(DomainNameTrie<? extends V> trie) {
+			putAll(trie);
+		}
+
+		private Node<V> getNode(DomainName domain) {
+			String lower = domain.toLowerCase();
+			Node<V> node = root;
+			int end = lower.length();
+			while(end > 0) {
+				int pos = lower.lastIndexOf('.', end - 1);
+				node = node.children.computeIfAbsent(lower.substring(pos + 1, end), label -> new Node<>());
+				end = Math.max(pos, 0);
+			}
+			node.domain = domain;
+			return node;
+		}
+
+		/**
+		 * Associates a value with exactly the given domain.
+		 *
+		 * @param  value  must be non-null
+		 */
+		public Builder<V> put(DomainName domain, V value) {
+			NullArgumentException.checkNotNull(value, "value");
+			getNode(domain).value = value;
+			return this;
+		}
+
+		/**
+		 * Associates a value with everything strictly under the given domain, as <code>*.<i>domain</i></code>.
+		 *
+		 * @param  value  must be non-null
+		 */
+		public Builder<V> putWildcard(DomainName domain, V value) {
+			NullArgumentException.checkNotNull(value, "value");
+			getNode(domain).wildcardValue = value;
+			return this;
+		}
+
+		/**
+		 * Associates a value with both the given domain and everything under it.
+		 *
+		 * @param  value  must be non-null
+		 */
+		public Builder<V> putSuffix(DomainName domain, V value) {
+			NullArgumentException.checkNotNull(value, "value");
+			Node<V> node = getNode(domain);
+			node.value = value;
+			node.wildcardValue = value;
+			return this;
+		}
+
+		/**
+		 * Adds all the entries of another trie.
+		 */
+		public Builder<V> putAll(DomainNameTrie<? extends V> trie) {
+			trie.forEach((domain, wildcard, value) -> {
+				if(wildcard) putWildcard(domain, value);
+				else put(domain, value);
+			});
+			return this;
+		}
+
+		private static <V> DomainNameTrie.Node<V> build(Node<V> node) {
+			int numChildren = node.children.size();
+			String[] labels = node.children.keySet().toArray(new String[numChildren]);
+			Arrays.sort(labels);
+			@SuppressWarnings({"unchecked", "rawtypes"})
+			DomainNameTrie.Node<V>[] children = (DomainNameTrie.Node<V>[])new DomainNameTrie.Node[numChildren];
+			for(int i = 0; i < numChildren; i++) {
+				children[i] = build(node.children.get(labels[i]));
+			}
+			return new DomainNameTrie.Node<>(labels, children, node.domain, node.value, node.wildcardValue);
+		}
+
+		private static int count(Node<?> node) {
+			int count = 0;
+			if(node.value != null) count++;
+			if(node.wildcardValue != null) count++;
+			for(Node<?> child : node.children.values()) count += count(child);
+			return count;
+		}
+
+		/**
+		 * Creates an immutable trie of everything put so far.  The builder may continue to be used.
+		 */
+		public DomainNameTrie<V> build() {
+			return new DomainNameTrie<>(build(root), count(root));
+		}
+	}
+
+	private static class Node<V> {
+
+		private static final String[] EMPTY_LABELS = new String[0];
+
+		/**
+		 * The lower-case labels of the children, sorted.
+		 */
+		private final String[] labels;
+
+		private final Node<V>[] children;
+
+		/**
+		 * The domain as most recently put, or {@code null} for an internal node without any value.
+		 */
+		private final DomainName domain;
+
+		private final V value;
+
+		private final V wildcardValue;
+
+		private Node(String[] labels, Node<V>[] children, DomainName domain, V value, V wildcardValue) {
+			this.labels = labels.length == 0 ? EMPTY_LABELS : labels;
+			this.children = children;
+			this.domain = domain;
+			this.value = value;
+			this.wildcardValue = wildcardValue;
+		}
+
+		/**
+		 * Finds the child for the label in the given range, without creating the substring.
+		 *
+		 * @return  the child or {@code null} when not found
+		 */
+		private Node<V> getChild(String lower, int beginIndex, int endIndex) {
+			int low = 0;
+			int high = labels.length - 1;
+			while(low <= high) {
+				int mid = (low + high) >>> 1;
+				int diff = compare(labels[mid], lower, beginIndex, endIndex);
+				if(diff < 0) low = mid + 1;
+				else if(diff > 0) high = mid - 1;
+				else return children[mid];
+			}
+			return null;
+		}
+
+		/**
+		 * Compares a label to a range of characters, consistent with {@link String#compareTo(java.lang.String)}.
+		 */
+		private static int compare(String label, String lower, int beginIndex, int endIndex) {
+			int len1 = label.length();
+			int len2 = endIndex - beginIndex;
+			int min = Math.min(len1, len2);
+			for(int i = 0; i < min; i++) {
+				char c1 = label.charAt(i);
+				char c2 = lower.charAt(beginIndex + i);
+				if(c1 != c2) return c1 - c2;
+			}
+			return len1 - len2;
+		}
+	}
+
+	private static final DomainNameTrie<?> EMPTY = new Builder<>().build();
+
+	/**
+	 * Gets the empty trie.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <V> DomainNameTrie<V> empty() {
+		return (DomainNameTrie<V>)EMPTY;
+	}
+
+	private final Node<V> root;
+
+	private final int size;
+
+	private DomainNameTrie(Node<V> root, int size) {
+		this.root = root;
+		this.size = size;
+	}
+
+	/**
+	 * Gets the number of values in this trie, counting exact and wildcard values separately.
+	 */
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Finds the node exactly matching the given domain.
+	 *
+	 * @return  the node or {@code null} when not found.  The node may be an internal node without any value.
+	 */
+	private Node<V> findNode(DomainName domain) {
+		String lower = domain.toLowerCase();
+		Node<V> node = root;
+		int end = lower.length();
+		while(end > 0) {
+			int pos = lower.lastIndexOf('.', end - 1);
+			node = node.getChild(lower, pos + 1, end);
+			if(node == null) return null;
+			end = Math.max(pos, 0);
+		}
+		return node;
+	}
+
+	/**
+	 * Gets the exact value for the given domain, ignoring any wildcards.
+	 *
+	 * @return  the value or {@code null} when not in this trie
+	 */
+	public V get(DomainName domain) {
+		Node<V> node = findNode(domain);
+		return node == null ? null : node.value;
+	}
+
+	/**
+	 * Gets the wildcard value for the given domain, as <code>*.<i>domain</i></code>.
+	 *
+	 * @return  the value or {@code null} when not in this trie
+	 */
+	public V getWildcard(DomainName domain) {
+		Node<V> node = findNode(domain);
+		return node == null ? null : node.wildcardValue;
+	}
+
+	/**
+	 * Gets the value of the longest suffix matching the given domain.  An exact value for the domain is preferred,
+	 * otherwise the wildcard value of its nearest ancestor with one is used.
+	 *
+	 * @return  the value or {@code null} when nothing matches the domain
+	 */
+	public V getLongestMatch(DomainName domain) {
+		String lower = domain.toLowerCase();
+		V longest = null;
+		Node<V> node = root;
+		int end = lower.length();
+		while(end > 0) {
+			if(node.wildcardValue != null) longest = node.wildcardValue;
+			int pos = lower.lastIndexOf('.', end - 1);
+			node = node.getChild(lower, pos + 1, end);
+			if(node == null) return longest;
+			end = Math.max(pos, 0);
+		}
+		return node.value != null ? node.value : longest;
+	}
+
+	/**
+	 * Gets the domain of the longest suffix matching the given domain, which is the given domain itself for an exact
+	 * match or the nearest ancestor with a wildcard value.
+	 *
+	 * @return  the domain as most recently put or {@code null} when nothing matches the domain
+	 *
+	 * @see  #getLongestMatch(com.aoapps.net.DomainName)
+	 */
+	public DomainName getLongestSuffix(DomainName domain) {
+		String lower = domain.toLowerCase();
+		DomainName longest = null;
+		Node<V> node = root;
+		int end = lower.length();
+		while(end > 0) {
+			if(node.wildcardValue != null) longest = node.domain;
+			int pos = lower.lastIndexOf('.', end - 1);
+			node = node.getChild(lower, pos + 1, end);
+			if(node == null) return longest;
+			end = Math.max(pos, 0);
+		}
+		return node.value != null ? node.domain : longest;
+	}
+
+	/**
+	 * Checks if anything in this trie matches the given domain.
+	 */
+	public boolean matches(DomainName domain) {
+		return getLongestMatch(domain) != null;
+	}
+
+	/**
+	 * Calls the action for every entry matching the given domain, from the shortest suffix to the longest,
+	 * in a single walk of the trie.  This is the wildcard values of the ancestors, then any exact value of the
+	 * domain itself.
+	 */
+	public void forEachMatch(DomainName domain, EntryConsumer<? super V> action) {
+		String lower = domain.toLowerCase();
+		Node<V> node = root;
+		int end = lower.length();
+		while(end > 0) {
+			if(node.wildcardValue != null) action.accept(node.domain, true, node.wildcardValue);
+			int pos = lower.lastIndexOf('.', end - 1);
+			node = node.getChild(lower, pos + 1, end);
+			if(node == null) return;
+			end = Math.max(pos, 0);
+		}
+		if(node.value != null) action.accept(node.domain, false, node.value);
+	}
+
+	/**
+	 * Pre-order traversal, with the exact value before the wildcard value of each node.
+	 * Children are in label order, so this is {@link DomainName#compareLabels(java.lang.String, java.lang.String)} order.
+	 */
+	private static <V> void forEach(Node<V> node, EntryConsumer<? super V> action) {
+		if(node.value != null) action.accept(node.domain, false, node.value);
+		if(node.wildcardValue != null) action.accept(node.domain, true, node.wildcardValue);
+		for(Node<V> child : node.children) forEach(child, action);
+	}
+
+	/**
+	 * Calls the action for every entry at or under the given domain,
+	 * in {@link DomainName#compareTo(com.aoapps.net.DomainName) natural order},
+	 * with the exact value before the wildcard value of each domain.
+	 */
+	public void forEachUnder(DomainName domain, EntryConsumer<? super V> action) {
+		Node<V> node = findNode(domain);
+		if(node != null) forEach(node, action);
+	}
+
+	/**
+	 * Gets the domains of every exact value at or under the given domain,
+	 * in {@link DomainName#compareTo(com.aoapps.net.DomainName) natural order}.
+	 *
+	 * @return  a new list, which is empty when nothing is at or under the domain
+	 */
+	public List<DomainName> getDomainsUnder(DomainName domain) {
+		List<DomainName> domains = new ArrayList<>();
+		forEachUnder(domain, (d, wildcard, value) -> {
+			if(!wildcard) domains.add(d);
+		});
+		return domains;
+	}
+
+	/**
+	 * Calls the action for every entry in this trie,
+	 * in {@link DomainName#compareTo(com.aoapps.net.DomainName) natural order},
+	 * with the exact value before the wildcard value of each domain.
+	 */
+	public void forEach(EntryConsumer<? super V> action) {
+		forEach(root, action);
+	}
+}
@@ -22,6 +22,7 @@
  */
 package com.aoapps.net;
 
+import com.aoapps.lang.NullArgumentException;
 import com.aoapps.lang.dto.DtoFactory;
 import com.aoapps.lang.i18n.Resources;
 import com.aoapps.lang.io.FastExternalizable;
@@ -42,10 +43,10 @@ import java.sql.SQLData;
 import java.sql.SQLException;
 import java.sql.SQLInput;
 import java.sql.SQLOutput;
+import java.util.AbstractMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.ResourceBundle;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 
 /**
  * Represents an email address.  Email addresses must:
@@ -166,7 +167,45 @@ final public class Email implements
 		return ValidResult.getInstance();
 	}
 
-	private static final ConcurrentMap<DomainName, ConcurrentMap<String, Email>> interned = new ConcurrentHashMap<>();
+	private static volatile InternPool<Email> internPool = InternPool.strong();
+
+	/**
+	 * Gets the pool used by {@link #intern()}, which defaults to {@link InternPool#strong()}.
+	 *
+	 * @see  InternPool
+	 */
+	public static InternPool<Email> getInternPool() {
+		return internPool;
+	}
+
+	/**
+	 * Replaces the pool used by {@link #intern()}.
+	 *
+	 * @see  InternPool
+	 */
+	public static void setInternPool(InternPool<Email> pool) {
+		internPool = NullArgumentException.checkNotNull(pool, "pool");
+	}
+
+	private static volatile InternPool<Email> valueOfCache;
+
+	/**
+	 * Gets the cache used by {@link #valueOf(java.lang.String)}, or {@code null} when disabled, which is the default.
+	 *
+	 * @see  InternPool
+	 */
+	public static InternPool<Email> getValueOfCache() {
+		return valueOfCache;
+	}
+
+	/**
+	 * Sets the cache used by {@link #valueOf(java.lang.String)}, or {@code null} to disable it.
+	 *
+	 * @see  InternPool
+	 */
+	public static void setValueOfCache(InternPool<Email> cache) {
+		valueOfCache = cache;
+	}
 
 	/**
 	 * @param email  when {@code null}, returns {@code null}
@@ -175,19 +214,72 @@ final public class Email implements
 	 */
 	public static Email valueOf(String email) throws ValidationException {
 		if(email == null) return null;
+		ValidationResult[] invalid = new ValidationResult[1];
+		Email value = parseValueOf(email, invalid);
+		if(value == null) throw new ValidationException(invalid[0]);
+		return value;
+	}
+
+	/**
+	 * Parses without throwing an exception, for when invalid input is expected to be common, such as from
+	 * untrusted sources.  When invalid, {@link #validate(java.lang.String)} gives the reason.
+	 *
+	 * @param email  when {@code null}, returns {@code null}
+	 *
+	 * @return  the value or {@code null} when invalid
+	 */
+	public static Email tryValueOf(String email) {
+		return parseValueOf(email, null);
+	}
+
+	/**
+	 * Parses once for both {@link #valueOf(java.lang.String)} and {@link #tryValueOf(java.lang.String)}.
+	 *
+	 * @param  invalid  when non-null, receives the reason at index 0 when invalid
+	 *
+	 * @return  the value or {@code null} when {@code email} is {@code null} or invalid
+	 */
+	private static Email parseValueOf(String email, ValidationResult[] invalid) {
+		if(email == null) return null;
+		InternPool<Email> cache = valueOfCache;
+		// If found in the cache, it is valid
+		Email value = (cache == null) ? null : cache.get(email);
+		if(value == null) {
+			value = parseEmail(email, invalid);
+			if(value == null) return null;
+			if(cache != null) {
+				Email existing = cache.putIfAbsent(email, value);
+				if(existing != null) value = existing;
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * Reports the same reason as {@link #validate(java.lang.String)} when invalid.
+	 */
+	private static Email parseEmail(String email, ValidationResult[] invalid) {
+		ValidationResult result;
 		// Be non-empty
-		if(email.length()==0) throw new ValidationException(new InvalidResult(RESOURCES, "validate.empty"));
-		int atPos = email.indexOf('@');
-		if(atPos==-1) throw new ValidationException(new InvalidResult(RESOURCES, "validate.noAt"));
-		return valueOf(email.substring(0, atPos), DomainName.valueOf(email.substring(atPos+1)));
+		if(email.length() == 0) {
+			result = new InvalidResult(RESOURCES, "validate.empty");
+		} else {
+			int atPos = email.indexOf('@');
+			if(atPos == -1) {
+				result = new InvalidResult(RESOURCES, "validate.noAt");
+			} else {
+				DomainName domain = DomainName.parseValueOf(email.substring(atPos + 1), invalid);
+				if(domain == null) return null;
+				String localPart = email.substring(0, atPos);
+				result = validate(localPart, domain);
+				if(result.isValid()) return new Email(localPart, domain);
+			}
+		}
+		if(invalid != null) invalid[0] = result;
+		return null;
 	}
 
 	public static Email valueOf(String localPart, DomainName domain) throws ValidationException {
-		//ConcurrentMap<String, Email> domainMap = interned.get(domain);
-		//if(domainMap!=null) {
-		//    Email existing = domainMap.get(localPart);
-		//    if(existing!=null) return existing;
-		//}
 		return new Email(localPart, domain, true);
 	}
 
@@ -257,21 +349,14 @@ final public class Email implements
 		// Intern the domain
 		DomainName internedDomain = domain.intern();
 
-		// Atomically get/create the per-domain map
-		ConcurrentMap<String, Email> domainMap = interned.get(internedDomain);
-		if(domainMap==null) {
-			ConcurrentMap<String, Email> newDomainInterned = new ConcurrentHashMap<>();
-			domainMap = interned.putIfAbsent(internedDomain, newDomainInterned);
-			if(domainMap==null) domainMap = newDomainInterned;
-		}
-
-		// Atomically get/create the Email object within the domainMap
-		Email existing = domainMap.get(localPart);
+		// Keyed by domain then local part, since a key must not strongly reference its value
+		Map.Entry<DomainName, String> key = new AbstractMap.SimpleImmutableEntry<>(internedDomain, localPart);
+		Email existing = internPool.get(key);
 		if(existing==null) {
 			String internedLocalPart = localPart.intern();
 			@SuppressWarnings("StringEquality")
 			Email addMe = (localPart == internedLocalPart) && (domain == internedDomain) ? this : new Email(internedLocalPart, internedDomain);
-			existing = domainMap.putIfAbsent(internedLocalPart, addMe);
+			existing = internPool.putIfAbsent(key, addMe);
 			if(existing==null) existing = addMe;
 		}
 		return existing;
@@ -22,6 +22,7 @@
  */
 package com.aoapps.net;
 
+import com.aoapps.lang.NullArgumentException;
 import com.aoapps.lang.dto.DtoFactory;
 import com.aoapps.lang.i18n.Resources;
 import com.aoapps.lang.util.Internable;
@@ -34,8 +35,6 @@ import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.Objects;
 import java.util.ResourceBundle;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 
 /**
  * Represents a host's address as either a <code>DomainName</code> or an <code>InetAddress</code>.
@@ -95,9 +94,28 @@ final public class HostAddress implements
 		else return DomainName.validate(address);
 	}
 
-	private static final ConcurrentMap<DomainName, HostAddress> internedByDomainName = new ConcurrentHashMap<>();
+	/**
+	 * Keyed by either {@link DomainName} or {@link InetAddress}, which are never equal to each other.
+	 */
+	private static volatile InternPool<HostAddress> internPool = InternPool.strong();
 
-	private static final ConcurrentMap<InetAddress, HostAddress> internedByInetAddress = new ConcurrentHashMap<>();
+	/**
+	 * Gets the pool used by {@link #intern()}, which defaults to {@link InternPool#strong()}.
+	 *
+	 * @see  InternPool
+	 */
+	public static InternPool<HostAddress> getInternPool() {
+		return internPool;
+	}
+
+	/**
+	 * Replaces the pool used by {@link #intern()}.
+	 *
+	 * @see  InternPool
+	 */
+	public static void setInternPool(InternPool<HostAddress> pool) {
+		internPool = NullArgumentException.checkNotNull(pool, "pool");
+	}
 
 	/**
 	 * When enclosed in brackets <code>"[...]"</code>, will be parsed as an IPv6 {@link InetAddress}
@@ -106,11 +124,38 @@ final public class HostAddress implements
 	 * @param address  when {@code null}, returns {@code null}
 	 */
 	public static HostAddress valueOf(String address) throws ValidationException {
+		if(address == null) return null;
+		ValidationResult[] invalid = new ValidationResult[1];
+		HostAddress value = parseValueOf(address, invalid);
+		if(value == null) throw new ValidationException(invalid[0]);
+		return value;
+	}
+
+	/**
+	 * Parses without throwing an exception, for when invalid input is expected to be common, such as from
+	 * untrusted sources.  When invalid, {@link #validate(java.lang.String)} gives the reason.
+	 *
+	 * @param address  when {@code null}, returns {@code null}
+	 *
+	 * @return  the value or {@code null} when invalid
+	 */
+	public static HostAddress tryValueOf(String address) {
+		return parseValueOf(address, null);
+	}
+
+	/**
+	 * Parses once for both {@link #valueOf(java.lang.String)} and {@link #tryValueOf(java.lang.String)}.
+	 *
+	 * @param  invalid  when non-null, receives the reason at index 0 when invalid
+	 *
+	 * @return  the value or {@code null} when {@code address} is {@code null} or invalid
+	 */
+	private static HostAddress parseValueOf(String address, ValidationResult[] invalid) {
 		if(address == null) return null;
 		return
 			isIp(address)
-			? valueOf(InetAddress.valueOf(address))
-			: valueOf(DomainName.valueOf(address))
+			? valueOf(InetAddress.parseValueOf(address, invalid))
+			: valueOf(DomainName.parseValueOf(address, invalid))
 		;
 	}
 
@@ -119,7 +164,7 @@ final public class HostAddress implements
 	 */
 	public static HostAddress valueOf(DomainName domainName) {
 		if(domainName==null) return null;
-		//HostAddress existing = internedByDomainName.get(domainName);
+		//HostAddress existing = internPool.get(domainName);
 		//return existing!=null ? existing : new HostAddress(domainName);
 		return new HostAddress(domainName);
 	}
@@ -129,7 +174,7 @@ final public class HostAddress implements
 	 */
 	public static HostAddress valueOf(InetAddress ip) {
 		if(ip==null) return null;
-		//HostAddress existing = internedByInetAddress.get(ip);
+		//HostAddress existing = internPool.get(ip);
 		//return existing!=null ? existing : new HostAddress(ip);
 		return new HostAddress(ip);
 	}
@@ -210,20 +255,20 @@ final public class HostAddress implements
 	@Override
 	public HostAddress intern() {
 		if(domainName!=null) {
-			HostAddress existing = internedByDomainName.get(domainName);
+			HostAddress existing = internPool.get(domainName);
 			if(existing==null) {
 				DomainName internedDomainName = domainName.intern();
 				HostAddress addMe = (domainName == internedDomainName) ? this : new HostAddress(internedDomainName);
-				existing = internedByDomainName.putIfAbsent(internedDomainName, addMe);
+				existing = internPool.putIfAbsent(internedDomainName, addMe);
 				if(existing==null) existing = addMe;
 			}
 			return existing;
 		} else {
-			HostAddress existing = internedByInetAddress.get(inetAddress);
+			HostAddress existing = internPool.get(inetAddress);
 			if(existing==null) {
 				InetAddress internedInetAddress = inetAddress.intern();
 				HostAddress addMe = (inetAddress == internedInetAddress) ? this : new HostAddress(internedInetAddress);
-				existing = internedByInetAddress.putIfAbsent(internedInetAddress, addMe);
+				existing = internPool.putIfAbsent(internedInetAddress, addMe);
 				if(existing==null) existing = addMe;
 			}
 			return existing;
@@ -76,6 +76,18 @@ abstract public class IPortRange implements
 		}
 	}
 
+	/**
+	 * @see  Port#tryValueOf(int, com.aoapps.net.Protocol)  Used when {@code from == to}.
+	 * @see  PortRange#tryValueOf(int, int, com.aoapps.net.Protocol)  Used when {@code from != to}.
+	 */
+	public static IPortRange tryValueOf(int from, int to, Protocol protocol) {
+		if(from == to) {
+			return Port.tryValueOf(from, protocol);
+		} else {
+			return PortRange.tryValueOf(from, to, protocol);
+		}
+	}
+
 	/**
 	 * @see  Port#valueOfNoValidate(int, com.aoapps.net.Protocol)  Used when {@code from == to}.
 	 * @see  PortRange#valueOfNoValidate(int, int, com.aoapps.net.Protocol)  Used when {@code from != to}.
@@ -55,7 +55,53 @@ public class IRI extends AnyURI {
 	 */
 	public static final Charset ENCODING = StandardCharsets.UTF_8;
 
-	// TODO: Thread-local AnyURI/URI/IRI LRU instance caches, getIRI(String) instead of constructor?
+	private static volatile InternPool<IRI> valueOfCache;
+
+	/**
+	 * Gets the cache used by {@link #valueOf(java.lang.String)}, or {@code null} when disabled, which is the default.
+	 *
+	 * @see  InternPool
+	 */
+	public static InternPool<IRI> getValueOfCache() {
+		return valueOfCache;
+	}
+
+	/**
+	 * Sets the cache used by {@link #valueOf(java.lang.String)} and {@link AnyURI#toIRI()}, or {@code null} to disable it.
+	 *
+	 * @see  InternPool
+	 */
+	public static void setValueOfCache(InternPool<IRI> cache) {
+		valueOfCache = cache;
+	}
+
+	/**
+	 * Gets the {@link IRI} for the given {@code anyUri}, from the {@linkplain #setValueOfCache(com.aoapps.net.InternPool) cache}
+	 * when enabled.  Cached instances retain their {@link #toURI()}, so it is also only encoded once.
+	 *
+	 * @param  anyUri  when {@code null}, returns {@code null}
+	 *
+	 * @see  #IRI(java.lang.String)
+	 */
+	public static IRI valueOf(String anyUri) {
+		if(anyUri == null) return null;
+		InternPool<IRI> cache = valueOfCache;
+		if(cache == null) return new IRI(anyUri);
+		IRI value = cache.get(anyUri);
+		if(value == null) {
+			value = new IRI(anyUri);
+			IRI existing = cache.putIfAbsent(anyUri, value);
+			if(existing != null) value = existing;
+		}
+		return value;
+	}
+
+	/**
+	 * {@linkplain URIDecoder#decodeURI(java.lang.String) Decodes} the given
+	 * {@code anyUri} for this {@link IRI}.
+	 *
+	 * @see  #valueOf(java.lang.String)
+	 */
 	public IRI(String anyUri) {
 		super(URIDecoder.decodeURI(anyUri));
 		this.toIRICache = this;
@@ -22,21 +22,27 @@
  */
 package com.aoapps.net;
 
+import com.aoapps.lang.NullArgumentException;
 import com.aoapps.lang.dto.DtoFactory;
 import com.aoapps.lang.i18n.Resources;
-import com.aoapps.lang.io.IoUtils;
 import com.aoapps.lang.math.LongLong;
 import com.aoapps.lang.util.Internable;
 import com.aoapps.lang.validation.InvalidResult;
 import com.aoapps.lang.validation.ValidResult;
 import com.aoapps.lang.validation.ValidationException;
 import com.aoapps.lang.validation.ValidationResult;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.io.Serializable;
+import java.io.StreamCorruptedException;
 import java.net.ProtocolFamily;
 import java.net.StandardProtocolFamily;
+import java.net.UnknownHostException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 import java.util.ResourceBundle;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 
 /**
  * Represents either an IPv4 or an IPv6 IP address.
@@ -82,25 +88,59 @@ final public class InetAddress implements
 	;
 
 	/**
-	 * Checks if the address is valid by calling <code>parse(String)</code> and discarding the result.
+	 * Checks if the address is valid by calling {@link #parse(java.lang.String, long[])} and discarding the result.
 	 * <p>
 	 * When enclosed in brackets <code>"[...]"</code>, will be parsed as an IPv6 {@link InetAddress}
 	 * (see {@link #toBracketedString()}).
 	 * </p>
 	 *
-	 * @see  #parse(String)
+	 * @see  #parse(java.lang.String, long[])
 	 */
 	public static ValidationResult validate(String address) {
 		// Be non-null
 		if(address==null) return new InvalidResult(RESOURCES, "validate.isNull");
-		Object result = parse(address);
-		if(result instanceof InvalidResult) return (InvalidResult)result;
-		assert result instanceof LongLong;
-		return ValidResult.getInstance();
+		return getValidationResult(parse(address, null));
 	}
 
-	private static final ConcurrentMap<LongLong, InetAddress> interned = new ConcurrentHashMap<>();
-	private static final ConcurrentMap<String, InetAddress> internedByAddress = new ConcurrentHashMap<>();
+	private static volatile InternPool<InetAddress> internPool = InternPool.strong();
+
+	/**
+	 * Gets the pool used by {@link #intern()}, which defaults to {@link InternPool#strong()}.
+	 *
+	 * @see  InternPool
+	 */
+	public static InternPool<InetAddress> getInternPool() {
+		return internPool;
+	}
+
+	/**
+	 * Replaces the pool used by {@link #intern()}.
+	 *
+	 * @see  InternPool
+	 */
+	public static void setInternPool(InternPool<InetAddress> pool) {
+		internPool = NullArgumentException.checkNotNull(pool, "pool");
+	}
+
+	private static volatile InternPool<InetAddress> valueOfCache;
+
+	/**
+	 * Gets the cache used by {@link #valueOf(java.lang.String)}, or {@code null} when disabled, which is the default.
+	 *
+	 * @see  InternPool
+	 */
+	public static InternPool<InetAddress> getValueOfCache() {
+		return valueOfCache;
+	}
+
+	/**
+	 * Sets the cache used by {@link #valueOf(java.lang.String)}, or {@code null} to disable it.
+	 *
+	 * @see  InternPool
+	 */
+	public static void setValueOfCache(InternPool<InetAddress> cache) {
+		valueOfCache = cache;
+	}
 
 	/**
 	 * Parses either an IPv4 or IPv6 address.
@@ -110,15 +150,123 @@ final public class InetAddress implements
 	 * </p>
 	 *
 	 * @param address  when {@code null}, returns {@code null}
+	 *
+	 * @see  #parse(java.lang.String, long[])
 	 */
 	public static InetAddress valueOf(String address) throws ValidationException {
 		if(address == null) return null;
-		// If found in interned, it is valid
-		//InetAddress existing = internedByAddress.get(address);
-		//return existing!=null ? existing : valueOf(parse(address));
-		Object result = parse(address);
-		if(result instanceof LongLong) return valueOf((LongLong)result);
-		throw new ValidationException((InvalidResult)result);
+		ValidationResult[] invalid = new ValidationResult[1];
+		InetAddress value = parseValueOf(address, invalid);
+		if(value == null) throw new ValidationException(invalid[0]);
+		return value;
+	}
+
+	/**
+	 * Parses without throwing an exception, for when invalid input is expected to be common, such as from
+	 * untrusted sources.  When invalid, {@link #parse(java.lang.String, long[])} gives the reason as a status
+	 * without creating any objects.
+	 *
+	 * @param address  when {@code null}, returns {@code null}
+	 *
+	 * @return  the value or {@code null} when invalid
+	 */
+	public static InetAddress tryValueOf(String address) {
+		return parseValueOf(address, null);
+	}
+
+	/**
+	 * Parses once for both {@link #valueOf(java.lang.String)} and {@link #tryValueOf(java.lang.String)}.
+	 *
+	 * @param  invalid  when non-null, receives the reason at index 0 when invalid
+	 *
+	 * @return  the value or {@code null} when {@code address} is {@code null} or invalid
+	 */
+	static InetAddress parseValueOf(String address, ValidationResult[] invalid) {
+		if(address == null) return null;
+		InternPool<InetAddress> cache = valueOfCache;
+		// If found in the cache, it is valid
+		InetAddress value = (cache == null) ? null : cache.get(address);
+		if(value == null) {
+			long[] hiLo = new long[2];
+			int status = parse(address, hiLo);
+			if(status != PARSE_VALID) {
+				if(invalid != null) invalid[0] = getValidationResult(status);
+				return null;
+			}
+			value = valueOf(hiLo[0], hiLo[1]);
+			if(cache != null) {
+				InetAddress existing = cache.putIfAbsent(address, value);
+				if(existing != null) value = existing;
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * Parses either an IPv4 or IPv6 address from a range of characters, without first creating a substring.
+	 *
+	 * @param address  when {@code null}, returns {@code null}
+	 *
+	 * @throws  IndexOutOfBoundsException  when the range is not within {@code address}
+	 *
+	 * @see  #parse(java.lang.CharSequence, int, int, long[])
+	 */
+	public static InetAddress valueOf(CharSequence address, int start, int end) throws ValidationException, IndexOutOfBoundsException {
+		if(address == null) return null;
+		long[] hiLo = new long[2];
+		int status = parse(address, start, end, hiLo);
+		if(status != PARSE_VALID) throw new ValidationException(getValidationResult(status));
+		return valueOf(hiLo[0], hiLo[1]);
+	}
+
+	/**
+	 * Parses either an IPv4 or IPv6 address from a range of characters.
+	 *
+	 * @param address  when {@code null}, returns {@code null}
+	 *
+	 * @throws  IndexOutOfBoundsException  when the range is not within {@code address}
+	 *
+	 * @see  #parse(char[], int, int, long[])
+	 */
+	public static InetAddress valueOf(char[] address, int start, int end) throws ValidationException, IndexOutOfBoundsException {
+		if(address == null) return null;
+		long[] hiLo = new long[2];
+		int status = parse(address, start, end, hiLo);
+		if(status != PARSE_VALID) throw new ValidationException(getValidationResult(status));
+		return valueOf(hiLo[0], hiLo[1]);
+	}
+
+	/**
+	 * Parses either an IPv4 or IPv6 address from a range of US-ASCII bytes, without first decoding to a {@link String}.
+	 *
+	 * @param address  when {@code null}, returns {@code null}
+	 *
+	 * @throws  IndexOutOfBoundsException  when the range is not within {@code address}
+	 *
+	 * @see  #parseAscii(byte[], int, int, long[])
+	 */
+	public static InetAddress valueOfAscii(byte[] address, int start, int end) throws ValidationException, IndexOutOfBoundsException {
+		if(address == null) return null;
+		long[] hiLo = new long[2];
+		int status = parseAscii(address, start, end, hiLo);
+		if(status != PARSE_VALID) throw new ValidationException(getValidationResult(status));
+		return valueOf(hiLo[0], hiLo[1]);
+	}
+
+	/**
+	 * Parses either an IPv4 or IPv6 address from the remaining US-ASCII bytes of a buffer, without first decoding to a {@link String}.
+	 * The position of the buffer is not changed.
+	 *
+	 * @param address  when {@code null}, returns {@code null}
+	 *
+	 * @see  #parseAscii(java.nio.ByteBuffer, long[])
+	 */
+	public static InetAddress valueOfAscii(ByteBuffer address) throws ValidationException {
+		if(address == null) return null;
+		long[] hiLo = new long[2];
+		int status = parseAscii(address, hiLo);
+		if(status != PARSE_VALID) throw new ValidationException(getValidationResult(status));
+		return valueOf(hiLo[0], hiLo[1]);
 	}
 
 	/**
@@ -130,7 +278,7 @@ final public class InetAddress implements
 	 */
 	public static InetAddress valueOf(LongLong ip) {
 		if(ip == null) return null;
-		//InetAddress existing = interned.get(ip);
+		//InetAddress existing = internPool.get(ip);
 		//return existing!=null ? existing : new InetAddress(ip);
 		return valueOf(ip.getHigh(), ip.getLow());
 	}
@@ -141,133 +289,157 @@ final public class InetAddress implements
 	 * @see  #valueOf(com.aoapps.lang.math.LongLong)
 	 */
 	public static InetAddress valueOf(long hi, long lo) {
-		//InetAddress existing = interned.get(ip);
+		//InetAddress existing = internPool.get(ip);
 		//return existing!=null ? existing : new InetAddress(ip);
 		return new InetAddress(hi, lo);
 	}
 
+	// <editor-fold defaultstate="collapsed" desc="Parsing">
+	/**
+	 * The status returned by {@link #parse(java.lang.String, long[])} when the address is valid.
+	 */
+	public static final int PARSE_VALID = 0;
+
+	// Reasons an address is invalid, stored in the low-order byte of a parse status
+	private static final int
+		PARSE_EMPTY                 = 1,
+		PARSE_TOO_LONG              = 2,
+		PARSE_BRACKETS_EMPTY_IPV6   = 3,
+		PARSE_ONE_DOT               = 4,
+		PARSE_TWO_DOTS              = 5,
+		PARSE_BRACKETS_NOT_IPV6     = 6,
+		PARSE_NOT_ENOUGH_COLONS     = 7,
+		PARSE_TOO_MANY_COLONS       = 8,
+		PARSE_OCTET_EMPTY           = 9,
+		PARSE_OCTET_TOO_LONG        = 10,
+		PARSE_OCTET_NON_DECIMAL     = 11,
+		PARSE_OCTET_TOO_BIG         = 12,
+		PARSE_HEX_WORD_EMPTY        = 13,
+		PARSE_HEX_WORD_TOO_LONG     = 14,
+		GET_HEX_VALUE_BAD_CHARACTER = 15;
+
+	/**
+	 * The resource keys for each reason, indexed by reason.
+	 */
+	private static final String[] PARSE_ERROR_KEYS = {
+		null,
+		"parse.empty",
+		"parse.tooLong",
+		"parse.bracketsEmptyIPv6",
+		"parse.oneDot",
+		"parse.twoDots",
+		"parse.bracketsNotIPv6",
+		"parse.notEnoughColons",
+		"parse.tooManyColons",
+		"parseOctet.empty",
+		"parseOctet.tooLong",
+		"parseOctet.nonDecimal",
+		"parseOctet.tooBig",
+		"parseHexWord.empty",
+		"parseHexWord.tooLong",
+		"getHexValue.badCharacter"
+	};
+
+	/**
+	 * Packs a reason and the offending character into a parse status.
+	 */
+	private static int parseError(int reason, char ch) {
+		return reason | (ch << 8);
+	}
+
 	/**
-	 * @param octet The result is added at index zero (an "out" parameter)
+	 * Converts a status returned by {@link #parse(java.lang.String, long[])} into its {@link ValidationResult}.
+	 * This is where any localized message is created, so callers that only need to know
+	 * whether an address is valid may simply compare the status to {@link #PARSE_VALID}.
+	 *
+	 * @return  {@link ValidResult} when {@code status == PARSE_VALID}, otherwise an {@link InvalidResult}
+	 *          explaining why the address could not be parsed.
 	 *
-	 * @return  A message why invalid or {@code null} when valid and octet placed in {@code octet} parameter
+	 * @throws  IllegalArgumentException  when {@code status} is not a status returned by {@code parse}
+	 */
+	public static ValidationResult getValidationResult(int status) throws IllegalArgumentException {
+		if(status == PARSE_VALID) return ValidResult.getInstance();
+		int reason = status & 0xff;
+		if(reason >= PARSE_ERROR_KEYS.length || (status >>> 24) != 0) throw new IllegalArgumentException("Invalid parse status: " + status);
+		String key = PARSE_ERROR_KEYS[reason];
+		if(key == null) throw new IllegalArgumentException("Invalid parse status: " + status);
+		if(reason == PARSE_OCTET_NON_DECIMAL || reason == GET_HEX_VALUE_BAD_CHARACTER) {
+			return new InvalidResult(RESOURCES, key, (char)(status >>> 8));
+		} else {
+			return new InvalidResult(RESOURCES, key);
+		}
+	}
+
+	/**
+	 * @return  The octet value (0-255) or the negated parse status when invalid
 	 */
-	private static InvalidResult parseOctet(String address, int start, int end, int[] octet) {
+	private static int parseOctet(Object address, int start, int end) {
 		int len = end-start;
 		char ch1, ch2, ch3;
 		if(len==3) {
-			ch1 = address.charAt(start);
-			ch2 = address.charAt(start+1);
-			ch3 = address.charAt(start+2);
+			ch1 = charAt(address, start);
+			ch2 = charAt(address, start+1);
+			ch3 = charAt(address, start+2);
 		} else if(len==2) {
 			ch1 = '0';
-			ch2 = address.charAt(start);
-			ch3 = address.charAt(start+1);
+			ch2 = charAt(address, start);
+			ch3 = charAt(address, start+1);
 		} else if(len==1) {
 			ch1 = '0';
 			ch2 = '0';
-			ch3 = address.charAt(start);
+			ch3 = charAt(address, start);
 		} else {
-			if(len==0) return new InvalidResult(RESOURCES, "parseOctet.empty");
-			else return new InvalidResult(RESOURCES, "parseOctet.tooLong");
+			if(len==0) return -PARSE_OCTET_EMPTY;
+			else return -PARSE_OCTET_TOO_LONG;
 		}
 		// Must each be 0-9
-		if(ch1<'0' || ch1>'9') return new InvalidResult(RESOURCES, "parseOctet.nonDecimal", ch1);
-		if(ch2<'0' || ch2>'9') return new InvalidResult(RESOURCES, "parseOctet.nonDecimal", ch2);
-		if(ch3<'0' || ch3>'9') return new InvalidResult(RESOURCES, "parseOctet.nonDecimal", ch3);
+		if(ch1<'0' || ch1>'9') return -parseError(PARSE_OCTET_NON_DECIMAL, ch1);
+		if(ch2<'0' || ch2>'9') return -parseError(PARSE_OCTET_NON_DECIMAL, ch2);
+		if(ch3<'0' || ch3>'9') return -parseError(PARSE_OCTET_NON_DECIMAL, ch3);
 		int o =
 			(ch1-'0')*100
 			+ (ch2-'0')*10
 			+ (ch3-'0');
-		if(o > 255) return new InvalidResult(RESOURCES, "parseOctet.tooBig");
-		octet[0] = o;
-		return null;
+		if(o > 255) return -PARSE_OCTET_TOO_BIG;
+		return o;
 	}
 
 	/**
-	 * @param value The result is added at index zero (an "out" parameter)
-	 *
-	 * @return  A message why invalid or {@code null} when valid and result placed in {@code value} parameter
+	 * @return  The value (0-15) or {@code -1} when not a hexadecimal character
 	 */
-	private static InvalidResult getHexValue(char ch, int[] value) {
-		if(ch>='0' && ch<='9') {
-			value[0] = ch-'0';
-			return null;
-		}
-		if(ch>='a' && ch<='f') {
-			value[0] = ch-'a'+10;
-			return null;
-		}
-		if(ch>='A' && ch<='F') {
-			value[0] = ch-'A'+10;
-			return null;
-		}
-		return new InvalidResult(RESOURCES, "getHexValue.badCharacter", ch);
+	private static int getHexValue(char ch) {
+		if(ch>='0' && ch<='9') return ch-'0';
+		if(ch>='a' && ch<='f') return ch-'a'+10;
+		if(ch>='A' && ch<='F') return ch-'A'+10;
+		return -1;
 	}
 
 	/**
-	 * @param value The result is added at index zero (an "out" parameter)
-	 *
-	 * @return  A message why invalid or {@code null} when valid and result placed in {@code value} parameter
+	 * @return  The word value (0-0xffff) or the negated parse status when invalid
 	 */
-	private static InvalidResult parseHexWord(String address, int start, int end, int[] value) {
-		// Must each be 0-9 or a-f or A-F
+	private static int parseHexWord(Object address, int start, int end) {
 		int len = end-start;
-		if(len == 4) {
-			InvalidResult result = getHexValue(address.charAt(start), value);
-			if(result != null) return result;
-			int h1 = value[0];
-			result = getHexValue(address.charAt(start + 1), value);
-			if(result != null) return result;
-			int h2 = value[0];
-			result = getHexValue(address.charAt(start + 2), value);
-			if(result != null) return result;
-			int h3 = value[0];
-			result = getHexValue(address.charAt(start + 3), value);
-			if(result != null) return result;
-			int h4 = value[0];
-			value[0] =
-				  (h1 << 12)
-				| (h2 << 8)
-				| (h3 << 4)
-				|  h4;
-			return null;
-		} else if(len == 3) {
-			InvalidResult result = getHexValue(address.charAt(start), value);
-			if(result != null) return result;
-			int h1 = value[0];
-			result = getHexValue(address.charAt(start + 1), value);
-			if(result != null) return result;
-			int h2 = value[0];
-			result = getHexValue(address.charAt(start + 2), value);
-			if(result != null) return result;
-			int h3 = value[0];
-			value[0] =
-				  (h1 << 8)
-				| (h2 << 4)
-				|  h3;
-			return null;
-		} else if(len == 2) {
-			InvalidResult result = getHexValue(address.charAt(start), value);
-			if(result != null) return result;
-			int h1 = value[0];
-			result = getHexValue(address.charAt(start + 1), value);
-			if(result != null) return result;
-			int h2 = value[0];
-			value[0] =
-				  (h1 << 4)
-				|  h2;
-			return null;
-		} else if(len == 1) {
-			return getHexValue(address.charAt(start), value);
-		} else if(len == 0) {
-			return new InvalidResult(RESOURCES, "parseHexWord.empty");
-		} else {
-			return new InvalidResult(RESOURCES, "parseHexWord.tooLong");
+		if(len == 0) return -PARSE_HEX_WORD_EMPTY;
+		if(len > 4) return -PARSE_HEX_WORD_TOO_LONG;
+		// Must each be 0-9 or a-f or A-F
+		int value = 0;
+		for(int i = start; i < end; i++) {
+			char ch = charAt(address, i);
+			int h = getHexValue(ch);
+			if(h == -1) return -parseError(GET_HEX_VALUE_BAD_CHARACTER, ch);
+			value = (value << 4) | h;
 		}
+		return value;
 	}
 
 	/**
+	 * Parses either an IPv4 or IPv6 address without creating any objects, on either
+	 * success or failure.  This is the basis of {@link #validate(java.lang.String)}
+	 * and {@link #valueOf(java.lang.String)}, and may be used directly in high-volume
+	 * parsing where the same {@code hiLo} array is reused between calls.
+	 * <p>
 	 * Supports the following formats:
+	 * </p>
 	 * <ol>
 	 *   <li><code>ddd.ddd.ddd.ddd</code> - IPv4</li>
 	 *   <li><code>hhhh:hhhh:hhhh:hhhh:hhhh:hhhh:hhhh:hhhh</code> (with single :: shortcut) - IPv6</li>
@@ -278,43 +450,202 @@ final public class InetAddress implements
 	 *     unless resolves to an IPv4-mapped address (::ffff:a.b.c.d) it will be considered IPv4.</li>
 	 * </ol>
 	 *
-	 * @return  Either the resulting {@link LongLong} or an {@link InvalidResult} explaining why can't parse.
+	 * @param  address  must be non-null
+	 * @param  hiLo     When valid, the high-order 64 bits are stored at index zero and the low-order 64 bits at index one.
+	 *                  Unmodified when invalid.  May be {@code null} to only validate.
+	 *
+	 * @return  {@link #PARSE_VALID} or a non-zero status explaining why can't parse.
+	 *          See {@link #getValidationResult(int)}.
+	 *
+	 * @see  #parse(java.lang.CharSequence, int, int, long[])
+	 */
+	public static int parse(String address, long[] hiLo) {
+		return parseImpl(address, 0, address.length(), hiLo);
+	}
+
+	/**
+	 * Parses either an IPv4 or IPv6 address from a range of characters, without creating any objects.
+	 * This allows parsing directly from a {@link java.nio.CharBuffer}, {@link StringBuilder},
+	 * or a slice of a larger {@link String} without first creating a substring.
+	 *
+	 * @param  address  must be non-null
+	 * @param  start    the index of the first character, inclusive
+	 * @param  end      the index of the last character, exclusive
+	 * @param  hiLo     When valid, the high-order 64 bits are stored at index zero and the low-order 64 bits at index one.
+	 *                  Unmodified when invalid.  May be {@code null} to only validate.
+	 *
+	 * @return  {@link #PARSE_VALID} or a non-zero status explaining why can't parse.
+	 *          See {@link #getValidationResult(int)}.
+	 *
+	 * @throws  IndexOutOfBoundsException  when the range is not within {@code address}
+	 *
+	 * @see  #parse(java.lang.String, long[])
+	 */
+	public static int parse(CharSequence address, int start, int end, long[] hiLo) throws IndexOutOfBoundsException {
+		checkRange(start, end, address.length());
+		return parseImpl(address, start, end, hiLo);
+	}
+
+	/**
+	 * Parses either an IPv4 or IPv6 address from a range of characters, without creating any objects.
+	 *
+	 * @param  address  must be non-null
+	 * @param  start    the index of the first character, inclusive
+	 * @param  end      the index of the last character, exclusive
+	 * @param  hiLo     When valid, the high-order 64 bits are stored at index zero and the low-order 64 bits at index one.
+	 *                  Unmodified when invalid.  May be {@code null} to only validate.
+	 *
+	 * @return  {@link #PARSE_VALID} or a non-zero status explaining why can't parse.
+	 *          See {@link #getValidationResult(int)}.
+	 *
+	 * @throws  IndexOutOfBoundsException  when the range is not within {@code address}
+	 *
+	 * @see  #parse(java.lang.String, long[])
+	 */
+	public static int parse(char[] address, int start, int end, long[] hiLo) throws IndexOutOfBoundsException {
+		checkRange(start, end, address.length);
+		return parseImpl(address, start, end, hiLo);
+	}
+
+	/**
+	 * Parses either an IPv4 or IPv6 address from a range of US-ASCII bytes, without creating any objects.
+	 * This allows parsing directly from network buffers without first decoding to a {@link String}.
+	 *
+	 * @param  address  must be non-null
+	 * @param  start    the index of the first byte, inclusive
+	 * @param  end      the index of the last byte, exclusive
+	 * @param  hiLo     When valid, the high-order 64 bits are stored at index zero and the low-order 64 bits at index one.
+	 *                  Unmodified when invalid.  May be {@code null} to only validate.
+	 *
+	 * @return  {@link #PARSE_VALID} or a non-zero status explaining why can't parse.
+	 *          See {@link #getValidationResult(int)}.
+	 *
+	 * @throws  IndexOutOfBoundsException  when the range is not within {@code address}
+	 *
+	 * @see  #parse(java.lang.String, long[])
+	 */
+	public static int parseAscii(byte[] address, int start, int end, long[] hiLo) throws IndexOutOfBoundsException {
+		checkRange(start, end, address.length);
+		return parseImpl(address, start, end, hiLo);
+	}
+
+	/**
+	 * Parses either an IPv4 or IPv6 address from the remaining US-ASCII bytes of a buffer.
+	 * The position of the buffer is not changed.  This creates no objects, reading through the
+	 * {@linkplain ByteBuffer#array() array} when accessible, otherwise by absolute gets.
+	 *
+	 * @param  address  must be non-null
+	 * @param  hiLo     When valid, the high-order 64 bits are stored at index zero and the low-order 64 bits at index one.
+	 *                  Unmodified when invalid.  May be {@code null} to only validate.
+	 *
+	 * @return  {@link #PARSE_VALID} or a non-zero status explaining why can't parse.
+	 *          See {@link #getValidationResult(int)}.
+	 *
+	 * @see  #parse(java.lang.String, long[])
+	 */
+	public static int parseAscii(ByteBuffer address, long[] hiLo) {
+		int start = address.position();
+		int end = address.limit();
+		final int maxLen = "[hhhh:hhhh:hhhh:hhhh:hhhh:hhhh:ddd.ddd.ddd.ddd]".length();
+		if(end - start > maxLen) return PARSE_TOO_LONG;
+		if(address.hasArray()) {
+			int offset = address.arrayOffset();
+			return parseImpl(address.array(), offset + start, offset + end, hiLo);
+		}
+		return parseImpl(address, start, end, hiLo);
+	}
+
+	static void checkRange(int start, int end, int length) throws IndexOutOfBoundsException {
+		if(start < 0 || end > length || start > end) {
+			throw new IndexOutOfBoundsException("start: " + start + ", end: " + end + ", length: " + length);
+		}
+	}
+
+	/**
+	 * Gets a character from any of the supported sources, so all sources share one parser.
+	 * Bytes are US-ASCII, with any non-ASCII byte becoming a character that will not parse.
+	 * <p>
+	 * The final classes are checked first, each a single class comparison, with {@link String} first
+	 * so the common case is unchanged.  Only other {@link CharSequence} implementations make an
+	 * interface call, which becomes megamorphic when several of them are parsed.
+	 * </p>
+	 *
+	 * @param  address  One of {@link String}, {@code byte[]}, {@code char[]}, {@link ByteBuffer}
+	 *                  (by absolute index), or any other {@link CharSequence}.
+	 */
+	static char charAt(Object address, int index) {
+		if(address instanceof String) return ((String)address).charAt(index);
+		if(address instanceof byte[]) return (char)(((byte[])address)[index] & 0xff);
+		if(address instanceof char[]) return ((char[])address)[index];
+		if(address instanceof ByteBuffer) return (char)(((ByteBuffer)address).get(index) & 0xff);
+		return ((CharSequence)address).charAt(index);
+	}
+
+	/**
+	 * Searches backward from {@code fromIndex}, stopping at {@code start}.
+	 *
+	 * @return  The index or {@code -1} when not found
+	 */
+	private static int lastIndexOf(Object address, char ch, int fromIndex, int start) {
+		for(int i = fromIndex; i >= start; i--) {
+			if(charAt(address, i) == ch) return i;
+		}
+		return -1;
+	}
+
+	/**
+	 * Searches forward from {@code fromIndex}, stopping before {@code end}.
+	 *
+	 * @return  The index or {@code -1} when not found
+	 */
+	static int indexOf(Object address, char ch, int fromIndex, int end) {
+		for(int i = fromIndex; i < end; i++) {
+			if(charAt(address, i) == ch) return i;
+		}
+		return -1;
+	}
+
+	/**
+	 * Implementation of the state machine, shared by all sources.
+	 *
+	 * @param  address  One of the sources supported by {@link #charAt(java.lang.Object, int)}
+	 *
+	 * @see  #parse(java.lang.String, long[])
 	 */
-	private static Object parse(String address) {
-		int[] outValue = new int[1];
+	static int parseImpl(Object address, int rangeStart, int rangeEnd, long[] hiLo) {
 		boolean requireIPv6;
 		int start;
 		int end;
 		{
 			// Be non-empty
-			int len = address.length();
-			if(len == 0) return new InvalidResult(RESOURCES, "parse.empty");
+			int len = rangeEnd - rangeStart;
+			if(len == 0) return PARSE_EMPTY;
 			{
 				final int maxLen = "[hhhh:hhhh:hhhh:hhhh:hhhh:hhhh:ddd.ddd.ddd.ddd]".length();
-				if(len > maxLen) return new InvalidResult(RESOURCES, "parse.tooLong");
+				if(len > maxLen) return PARSE_TOO_LONG;
 			}
 			if(
 				len >= 2
-				&& address.charAt(0) == '['
-				&& address.charAt(len - 1) == ']'
+				&& charAt(address, rangeStart) == '['
+				&& charAt(address, rangeEnd - 1) == ']'
 			) {
 				requireIPv6 = true;
-				start = 1;
-				end = len - 1;
-				if(start == end) return new InvalidResult(RESOURCES, "parse.bracketsEmptyIPv6");
+				start = rangeStart + 1;
+				end = rangeEnd - 1;
+				if(start == end) return PARSE_BRACKETS_EMPTY_IPV6;
 				final int maxLen = "hhhh:hhhh:hhhh:hhhh:hhhh:hhhh:ddd.ddd.ddd.ddd".length();
 				assert (end - start) == (len - 2);
-				if((end - start) > maxLen) return new InvalidResult(RESOURCES, "parse.tooLong");
+				if((end - start) > maxLen) return PARSE_TOO_LONG;
 			} else {
 				requireIPv6 = false;
-				start = 0;
-				end = len;
+				start = rangeStart;
+				end = rangeEnd;
 			}
 		}
 		// Look for any dot, stopping at a colon
 		int dot3Pos = -1;
 		for(int c = end - 1; c >= start; c--) {
-			char ch = address.charAt(c);
+			char ch = charAt(address, c);
 			if(ch == '.') {
 				dot3Pos = c;
 				break;
@@ -326,24 +657,20 @@ final public class InetAddress implements
 		int rightWord;
 		if(dot3Pos != -1) {
 			// May be either IPv4 or IPv6 with : and . mix
-			int dot2Pos = address.lastIndexOf('.', dot3Pos - 1);
-			if(dot2Pos == -1) return new InvalidResult(RESOURCES, "parse.oneDot");
-			int dot1Pos = address.lastIndexOf('.', dot2Pos - 1);
-			if(dot1Pos == -1) return new InvalidResult(RESOURCES, "parse.twoDots");
-			rightColonPos = address.lastIndexOf(':', dot1Pos - 1);
+			int dot2Pos = lastIndexOf(address, '.', dot3Pos - 1, start);
+			if(dot2Pos == -1) return PARSE_ONE_DOT;
+			int dot1Pos = lastIndexOf(address, '.', dot2Pos - 1, start);
+			if(dot1Pos == -1) return PARSE_TWO_DOTS;
+			rightColonPos = lastIndexOf(address, ':', dot1Pos - 1, start);
 			// Must be all [0-9] between dots and beginning/colon
-			InvalidResult result = parseOctet(address, (rightColonPos == -1) ? start : (rightColonPos + 1), dot1Pos, outValue);
-			if(result != null) return result;
-			int o1 = outValue[0];
-			result = parseOctet(address, dot1Pos + 1, dot2Pos, outValue);
-			if(result != null) return result;
-			int o2 = outValue[0];
-			result = parseOctet(address, dot2Pos + 1, dot3Pos, outValue);
-			if(result != null) return result;
-			int o3 = outValue[0];
-			result = parseOctet(address, dot3Pos + 1, end, outValue);
-			if(result != null) return result;
-			int o4 = outValue[0];
+			int o1 = parseOctet(address, (rightColonPos == -1) ? start : (rightColonPos + 1), dot1Pos);
+			if(o1 < 0) return -o1;
+			int o2 = parseOctet(address, dot1Pos + 1, dot2Pos);
+			if(o2 < 0) return -o2;
+			int o3 = parseOctet(address, dot2Pos + 1, dot3Pos);
+			if(o3 < 0) return -o3;
+			int o4 = parseOctet(address, dot3Pos + 1, end);
+			if(o4 < 0) return -o4;
 			ipLow =
 				(long)o1 << 24
 				| (long)o2 << 16
@@ -351,11 +678,12 @@ final public class InetAddress implements
 				| (long)o4;
 			if(rightColonPos == -1) {
 				// IPv4
-				if(requireIPv6) return new InvalidResult(RESOURCES, "parse.bracketsNotIPv6");
-				return LongLong.valueOf(
-					IPV4_HI,
-					IPV4_NET_MAPPED_LO | ipLow
-				);
+				if(requireIPv6) return PARSE_BRACKETS_NOT_IPV6;
+				if(hiLo != null) {
+					hiLo[0] = IPV4_HI;
+					hiLo[1] = IPV4_NET_MAPPED_LO | ipLow;
+				}
+				return PARSE_VALID;
 			} else {
 				// IPv6 with : and . mix
 				rightWord = 6;
@@ -368,30 +696,29 @@ final public class InetAddress implements
 		}
 		long ipHigh = 0;
 		while(rightWord > 0) {
-			int prevColonPos = address.lastIndexOf(':', rightColonPos - 1);
+			int prevColonPos = lastIndexOf(address, ':', rightColonPos - 1, start);
 			if(prevColonPos == -1) {
-				if(rightWord != 1) return new InvalidResult(RESOURCES, "parse.notEnoughColons");
+				if(rightWord != 1) return PARSE_NOT_ENOUGH_COLONS;
 			} else {
-				if(rightWord == 1) return new InvalidResult(RESOURCES, "parse.tooManyColons");
+				if(rightWord == 1) return PARSE_TOO_MANY_COLONS;
 			}
 			// This address ends with :: - don't confuse with shortcut, just leave as zero
 			if(prevColonPos == (end - 1)) {
-				if(end >= (start + 2) && address.charAt(end - 2) == ':') {
+				if(end >= (start + 2) && charAt(address, end - 2) == ':') {
 					rightColonPos = end - 2;
 					break;
 				} else {
 					// Ends in : but doesn't end in ::
-					return new InvalidResult(RESOURCES, "parseHexWord.empty");
+					return PARSE_HEX_WORD_EMPTY;
 				}
 			} else {
-				// Check for shortcut
-				if(prevColonPos == (rightColonPos - 1)) {
+				// Check for shortcut, with the start of the range as if just after a colon
+				if(((prevColonPos == -1) ? (start - 1) : prevColonPos) == (rightColonPos - 1)) {
 					rightColonPos = prevColonPos;
 					break;
 				}
-				InvalidResult result = parseHexWord(address, (prevColonPos == -1) ? start : (prevColonPos + 1), rightColonPos, outValue);
-				if(result != null) return result;
-				int wordValue = outValue[0];
+				int wordValue = parseHexWord(address, (prevColonPos == -1) ? start : (prevColonPos + 1), rightColonPos);
+				if(wordValue < 0) return -wordValue;
 				rightWord--;
 				if(rightWord < 4) {
 					ipHigh |= (long)wordValue << ((3 - rightWord) << 4);
@@ -404,13 +731,13 @@ final public class InetAddress implements
 		int leftColonPos = start - 1;
 		int leftWord = 0;
 		while(leftColonPos < rightColonPos) {
-			if(leftWord >= rightWord) return new InvalidResult(RESOURCES, "parse.tooManyColons");
-			int nextColonPos = address.indexOf(':', leftColonPos + 1);
+			if(leftWord >= rightWord) return PARSE_TOO_MANY_COLONS;
+			int nextColonPos = indexOf(address, ':', leftColonPos + 1, end);
 			if(nextColonPos == -1) {
-				if(leftWord != 7) return new InvalidResult(RESOURCES, "parse.notEnoughColons");
+				if(leftWord != 7) return PARSE_NOT_ENOUGH_COLONS;
 				nextColonPos = end;
 			} else {
-				if(leftWord == 7) return new InvalidResult(RESOURCES, "parse.tooManyColons");
+				if(leftWord == 7) return PARSE_TOO_MANY_COLONS;
 			}
 			// Handle beginning ::
 			if(nextColonPos == start) {
@@ -419,12 +746,11 @@ final public class InetAddress implements
 					// OK - we match the scan from right
 					break;
 				} else {
-					return new InvalidResult(RESOURCES, "parseHexWord.empty");
+					return PARSE_HEX_WORD_EMPTY;
 				}
 			} else {
-				InvalidResult result = parseHexWord(address, leftColonPos + 1, nextColonPos, outValue);
-				if(result != null) return result;
-				int wordValue = outValue[0];
+				int wordValue = parseHexWord(address, leftColonPos + 1, nextColonPos);
+				if(wordValue < 0) return -wordValue;
 				if(leftWord < 4) {
 					ipHigh |= (long)wordValue << ((3 - leftWord) << 4);
 				} else {
@@ -434,8 +760,13 @@ final public class InetAddress implements
 				leftColonPos = nextColonPos;
 			}
 		}
-		return LongLong.valueOf(ipHigh, ipLow);
+		if(hiLo != null) {
+			hiLo[0] = ipHigh;
+			hiLo[1] = ipLow;
+		}
+		return PARSE_VALID;
 	}
+	// </editor-fold>
 
 	public static final InetAddress UNSPECIFIED_IPV4 = valueOf(
 		UNSPECIFIED_HI, IPV4_UNSPECIFIED_LO
@@ -453,8 +784,6 @@ final public class InetAddress implements
 		LOOPBACK_HI, IPV6_LOOPBACK_LO
 	).intern();
 
-	private static final long serialVersionUID = 2L;
-
 	final long hi, lo;
 
 	private InetAddress(long hi, long lo) {
@@ -489,60 +818,46 @@ final public class InetAddress implements
 		return Long.compareUnsigned(lo, other.lo);
 	}
 
+	// <editor-fold defaultstate="collapsed" desc="Formatting">
 	/**
-	 * Converts this IP address to its String representation.
+	 * The maximum number of characters in the String representation of any IP address.
+	 * This is a sufficient buffer size for {@link #writeTo(byte[], int)} and {@link #writeTo(java.nio.ByteBuffer)}.
 	 */
-	@Override
-	public String toString() {
-		if(hi == UNSPECIFIED_HI && lo == IPV6_UNSPECIFIED_LO) return "::";
-		if(hi == LOOPBACK_HI    && lo == IPV6_LOOPBACK_LO   ) return "::1";
-		if(hi == IPV4_HI) {
-			if((lo & IPV6_NET_MASK_96_LO) == IPV4_NET_MAPPED_LO) {
-				// IPv4-mapped (used to store IPv4 addresses)
-				int loInt = (int)lo;
-				return new StringBuilder("aaa.bbb.ccc.ddd".length())
-					.append((loInt >>> 24) & 255)
-					.append('.')
-					.append((loInt >>> 16) & 255)
-					.append('.')
-					.append((loInt >>> 8) & 255)
-					.append('.')
-					.append(loInt & 255)
-					.toString();
-			}
-			if((lo & IPV6_NET_MASK_96_LO) == IPV4_NET_COMPAT_LO) {
-				// IPv4-compatible address
-				int loInt = (int)lo;
-				return new StringBuilder("::aaa.bbb.ccc.ddd".length())
-					.append("::")
-					.append((loInt >>> 24) & 255)
-					.append('.')
-					.append((loInt >>> 16) & 255)
-					.append('.')
-					.append((loInt >>> 8) & 255)
-					.append('.')
-					.append(loInt & 255)
-					.toString();
-			}
-		}
-		// Find the longest string of zeros
-		byte[] bytes = new byte[16];
-		IoUtils.longToBuffer(hi, bytes);
-		IoUtils.longToBuffer(lo, bytes, 8);
-		int longestFirstZero = -1;
+	public static final int MAX_STRING_LENGTH = "hhhh:hhhh:hhhh:hhhh:hhhh:hhhh:hhhh:hhhh".length();
+
+	private static final byte[] HEX_BYTES = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'};
+
+	private static final char[] HEX_CHARS = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'};
+
+	/**
+	 * Gets one of the eight 16-bit words of this address.
+	 */
+	private int getWord(int index) {
+		long bits = index < 4 ? hi : lo;
+		return (int)(bits >>> (48 - ((index & 3) << 4))) & 0xffff;
+	}
+
+	/**
+	 * Finds the longest run of zero words to shorten to "::", first run wins a tie.
+	 *
+	 * @return  The index of the first zero word shifted left by four, or'ed with the number of zero words,
+	 *          or {@code 0} when there is no run of at least two zero words
+	 */
+	private int findLongestZeros() {
+		int longestFirstZero = 0;
 		int longestNumZeros = 0;
 		int currentFirstZero = -1;
 		int currentNumZeros = 0;
-		for(int c=0; c<16; c+=2) {
-			if(bytes[c]==0 && bytes[c+1]==0) {
-				if(currentFirstZero==-1) {
-					currentFirstZero = c;
-					currentNumZeros = 2;
+		for(int i = 0; i < 8; i++) {
+			if(getWord(i) == 0) {
+				if(currentFirstZero == -1) {
+					currentFirstZero = i;
+					currentNumZeros = 1;
 				} else {
-					currentNumZeros += 2;
+					currentNumZeros++;
 				}
 			} else {
-				if(currentNumZeros>longestNumZeros) {
+				if(currentNumZeros > longestNumZeros) {
 					longestFirstZero = currentFirstZero;
 					longestNumZeros = currentNumZeros;
 				}
@@ -550,104 +865,690 @@ final public class InetAddress implements
 				currentNumZeros = 0;
 			}
 		}
-		if(currentNumZeros>longestNumZeros) {
+		if(currentNumZeros > longestNumZeros) {
 			longestFirstZero = currentFirstZero;
 			longestNumZeros = currentNumZeros;
 		}
-		StringBuilder SB = new StringBuilder("aaaa:bbbb:cccc:dddd:eeee:ffff:gggg:hhhh".length());
-		if(longestFirstZero == -1) {
-			for(int c=0; c<16; c+=2) {
-				if(c>0) SB.append(':');
-				SB.append(
-					Integer.toHexString(
-						((bytes[c]&255)<<8)
-						| (bytes[c+1]&255)
-					)
-				);
-			}
-		} else {
-			for(int c=0; c<longestFirstZero; c+=2) {
-				if(c>0) SB.append(':');
-				SB.append(
-					Integer.toHexString(
-						((bytes[c]&255)<<8)
-						| (bytes[c+1]&255)
-					)
-				);
-			}
-			SB.append("::");
-			for(int c=longestFirstZero+longestNumZeros; c<16; c+=2) {
-				if(c>(longestFirstZero+longestNumZeros)) SB.append(':');
-				SB.append(
-					Integer.toHexString(
-						((bytes[c]&255)<<8)
-						| (bytes[c+1]&255)
-					)
-				);
-			}
+		// RFC 5952 Section 4.2.2: "::" must not be used to shorten just one 16-bit 0 field
+		if(longestNumZeros < 2) return 0;
+		return (longestFirstZero << 4) | longestNumZeros;
+	}
+
+	/**
+	 * Gets the number of characters in an IPv4 address in dotted-decimal form.
+	 */
+	private static int getIPv4Length(int ipv4) {
+		int len = 3;
+		for(int shift = 24; shift >= 0; shift -= 8) {
+			int octet = (ipv4 >>> shift) & 0xff;
+			len += (octet >= 100) ? 3 : (octet >= 10) ? 2 : 1;
 		}
-		return SB.toString();
+		return len;
 	}
 
 	/**
-	 * Gets an optionally-bracketed String representation of this IP address.
-	 * If IPv6, the address is surrounded by [...]
+	 * Gets the number of characters in a 16-bit word in hexadecimal without leading zeros.
 	 */
-	public String toBracketedString() {
-		@SuppressWarnings("deprecation")
-		AddressFamily family = getAddressFamily();
-		switch(family) {
-			case INET6 :
-				return '[' + toString() + ']';
-			case INET :
-				return toString();
-			default :
-				throw new AssertionError("Unexpected address family: " + family);
+	private static int getHexWordLength(int word) {
+		return (word >= 0x1000) ? 4 : (word >= 0x100) ? 3 : (word >= 0x10) ? 2 : 1;
+	}
+
+	/**
+	 * Gets the exact number of characters in the String representation of this IP address, without formatting it.
+	 */
+	private int getStringLength() {
+		if(hi == UNSPECIFIED_HI && lo == IPV6_UNSPECIFIED_LO) return 2;
+		if(hi == LOOPBACK_HI && lo == IPV6_LOOPBACK_LO) return 3;
+		if(hi == IPV4_HI) {
+			if((lo & IPV6_NET_MASK_96_LO) == IPV4_NET_MAPPED_LO) return getIPv4Length((int)lo);
+			if((lo & IPV6_NET_MASK_96_LO) == IPV4_NET_COMPAT_LO) return 2 + getIPv4Length((int)lo);
+		}
+		int longestZeros = findLongestZeros();
+		int longestFirstZero = longestZeros >>> 4;
+		int longestNumZeros = longestZeros & 0xf;
+		int len;
+		if(longestNumZeros == 0) {
+			len = 7;
+			for(int i = 0; i < 8; i++) len += getHexWordLength(getWord(i));
+		} else {
+			int afterZeros = longestFirstZero + longestNumZeros;
+			// "::" plus the ':' between the words on each side
+			len = 2 + Math.max(longestFirstZero - 1, 0) + Math.max(8 - afterZeros - 1, 0);
+			for(int i = 0; i < longestFirstZero; i++) len += getHexWordLength(getWord(i));
+			for(int i = afterZeros; i < 8; i++) len += getHexWordLength(getWord(i));
 		}
+		return len;
 	}
 
 	/**
-	 * Interns this IP much in the same fashion as <code>String.intern()</code>.
+	 * Writes an IPv4 address in dotted-decimal form as US-ASCII bytes.
 	 *
-	 * @see  String#intern()
+	 * @return  The offset after the last byte written
 	 */
-	@Override
-	public InetAddress intern() {
-		LongLong key = getIp();
-		InetAddress existing = interned.get(key);
-		if(existing==null) {
-			existing = interned.putIfAbsent(key, this);
-			if(existing==null) existing = this;
-			InetAddress existing2 = internedByAddress.putIfAbsent(existing.toString(), existing);
-			if(existing2!=null && existing2!=existing) throw new AssertionError("existing2!=null && existing2!=existing");
+	private static int putIPv4(byte[] out, int off, int ipv4) {
+		for(int shift = 24; shift >= 0; shift -= 8) {
+			if(shift != 24) out[off++] = '.';
+			int octet = (ipv4 >>> shift) & 0xff;
+			if(octet >= 100) out[off++] = (byte)('0' + octet / 100);
+			if(octet >= 10) out[off++] = (byte)('0' + (octet / 10) % 10);
+			out[off++] = (byte)('0' + octet % 10);
 		}
-		return existing;
+		return off;
 	}
 
 	/**
-	 * Gets the high-order 64 bits of the numeric address.
+	 * Writes a 16-bit word in lower-case hexadecimal without leading zeros as US-ASCII bytes.
 	 *
-	 * @see #getLow()
-	 * @see #getIp()
+	 * @return  The offset after the last byte written
 	 */
-	public long getHigh() {
-		return hi;
+	private static int putHexWord(byte[] out, int off, int word) {
+		boolean started = false;
+		for(int shift = 12; shift > 0; shift -= 4) {
+			int h = (word >>> shift) & 0xf;
+			if(started || h != 0) {
+				out[off++] = HEX_BYTES[h];
+				started = true;
+			}
+		}
+		out[off++] = HEX_BYTES[word & 0xf];
+		return off;
 	}
 
 	/**
-	 * Gets the low-order 64 bits of the numeric address.
+	 * Writes the String representation of this IP address as US-ASCII bytes, directly from {@link #hi} and {@link #lo}.
+	 * {@code out} must have room for {@link #getStringLength()} bytes starting at {@code off}.
 	 *
-	 * @see #getHigh()
-	 * @see #getIp()
+	 * @return  The offset after the last byte written
 	 */
-	public long getLow() {
-		return lo;
+	private int format(byte[] out, int off) {
+		if(hi == UNSPECIFIED_HI && lo == IPV6_UNSPECIFIED_LO) {
+			out[off++] = ':';
+			out[off++] = ':';
+			return off;
+		}
+		if(hi == LOOPBACK_HI && lo == IPV6_LOOPBACK_LO) {
+			out[off++] = ':';
+			out[off++] = ':';
+			out[off++] = '1';
+			return off;
+		}
+		if(hi == IPV4_HI) {
+			if((lo & IPV6_NET_MASK_96_LO) == IPV4_NET_MAPPED_LO) {
+				// IPv4-mapped (used to store IPv4 addresses)
+				return putIPv4(out, off, (int)lo);
+			}
+			if((lo & IPV6_NET_MASK_96_LO) == IPV4_NET_COMPAT_LO) {
+				// IPv4-compatible address
+				out[off++] = ':';
+				out[off++] = ':';
+				return putIPv4(out, off, (int)lo);
+			}
+		}
+		int longestZeros = findLongestZeros();
+		int longestFirstZero = longestZeros >>> 4;
+		int longestNumZeros = longestZeros & 0xf;
+		if(longestNumZeros == 0) {
+			for(int i = 0; i < 8; i++) {
+				if(i > 0) out[off++] = ':';
+				off = putHexWord(out, off, getWord(i));
+			}
+		} else {
+			for(int i = 0; i < longestFirstZero; i++) {
+				if(i > 0) out[off++] = ':';
+				off = putHexWord(out, off, getWord(i));
+			}
+			out[off++] = ':';
+			out[off++] = ':';
+			int afterZeros = longestFirstZero + longestNumZeros;
+			for(int i = afterZeros; i < 8; i++) {
+				if(i > afterZeros) out[off++] = ':';
+				off = putHexWord(out, off, getWord(i));
+			}
+		}
+		return off;
 	}
 
 	/**
-	 * Gets the numeric address as a 128-bit integer.
+	 * Writes an IPv4 address in dotted-decimal form as US-ASCII bytes, with absolute puts.
 	 *
-	 * @see #getHigh()
+	 * @return  The index after the last byte written
+	 */
+	private static int putIPv4(ByteBuffer out, int index, int ipv4) {
+		for(int shift = 24; shift >= 0; shift -= 8) {
+			if(shift != 24) out.put(index++, (byte)'.');
+			int octet = (ipv4 >>> shift) & 0xff;
+			if(octet >= 100) out.put(index++, (byte)('0' + octet / 100));
+			if(octet >= 10) out.put(index++, (byte)('0' + (octet / 10) % 10));
+			out.put(index++, (byte)('0' + octet % 10));
+		}
+		return index;
+	}
+
+	/**
+	 * Writes a 16-bit word in lower-case hexadecimal without leading zeros as US-ASCII bytes, with absolute puts.
+	 *
+	 * @return  The index after the last byte written
+	 */
+	private static int putHexWord(ByteBuffer out, int index, int word) {
+		boolean started = false;
+		for(int shift = 12; shift > 0; shift -= 4) {
+			int h = (word >>> shift) & 0xf;
+			if(started || h != 0) {
+				out.put(index++, HEX_BYTES[h]);
+				started = true;
+			}
+		}
+		out.put(index++, HEX_BYTES[word & 0xf]);
+		return index;
+	}
+
+	/**
+	 * Writes the String representation of this IP address as US-ASCII bytes with absolute puts, for buffers without
+	 * an accessible array.  This is the same sequence of bytes as {@link #format(byte[], int)}.
+	 * {@code out} must have room for {@link #getStringLength()} bytes starting at {@code index}.
+	 *
+	 * @return  The index after the last byte written
+	 */
+	private int format(ByteBuffer out, int index) {
+		if(hi == UNSPECIFIED_HI && lo == IPV6_UNSPECIFIED_LO) {
+			out.put(index++, (byte)':');
+			out.put(index++, (byte)':');
+			return index;
+		}
+		if(hi == LOOPBACK_HI && lo == IPV6_LOOPBACK_LO) {
+			out.put(index++, (byte)':');
+			out.put(index++, (byte)':');
+			out.put(index++, (byte)'1');
+			return index;
+		}
+		if(hi == IPV4_HI) {
+			if((lo & IPV6_NET_MASK_96_LO) == IPV4_NET_MAPPED_LO) {
+				// IPv4-mapped (used to store IPv4 addresses)
+				return putIPv4(out, index, (int)lo);
+			}
+			if((lo & IPV6_NET_MASK_96_LO) == IPV4_NET_COMPAT_LO) {
+				// IPv4-compatible address
+				out.put(index++, (byte)':');
+				out.put(index++, (byte)':');
+				return putIPv4(out, index, (int)lo);
+			}
+		}
+		int longestZeros = findLongestZeros();
+		int longestFirstZero = longestZeros >>> 4;
+		int longestNumZeros = longestZeros & 0xf;
+		if(longestNumZeros == 0) {
+			for(int i = 0; i < 8; i++) {
+				if(i > 0) out.put(index++, (byte)':');
+				index = putHexWord(out, index, getWord(i));
+			}
+		} else {
+			for(int i = 0; i < longestFirstZero; i++) {
+				if(i > 0) out.put(index++, (byte)':');
+				index = putHexWord(out, index, getWord(i));
+			}
+			out.put(index++, (byte)':');
+			out.put(index++, (byte)':');
+			int afterZeros = longestFirstZero + longestNumZeros;
+			for(int i = afterZeros; i < 8; i++) {
+				if(i > afterZeros) out.put(index++, (byte)':');
+				index = putHexWord(out, index, getWord(i));
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * Appends an IPv4 address in dotted-decimal form.
+	 */
+	private static void appendIPv4(Appendable out, int ipv4) throws IOException {
+		for(int shift = 24; shift >= 0; shift -= 8) {
+			if(shift != 24) out.append('.');
+			int octet = (ipv4 >>> shift) & 0xff;
+			if(octet >= 100) out.append((char)('0' + octet / 100));
+			if(octet >= 10) out.append((char)('0' + (octet / 10) % 10));
+			out.append((char)('0' + octet % 10));
+		}
+	}
+
+	/**
+	 * Appends a 16-bit word in lower-case hexadecimal without leading zeros.
+	 */
+	private static void appendHexWord(Appendable out, int word) throws IOException {
+		boolean started = false;
+		for(int shift = 12; shift > 0; shift -= 4) {
+			int h = (word >>> shift) & 0xf;
+			if(started || h != 0) {
+				out.append(HEX_CHARS[h]);
+				started = true;
+			}
+		}
+		out.append(HEX_CHARS[word & 0xf]);
+	}
+
+	/**
+	 * Appends the String representation of this IP address, directly from {@link #hi} and {@link #lo}.
+	 * This is the same sequence of characters as {@link #format(byte[], int)}.
+	 */
+	private void format(Appendable out) throws IOException {
+		if(hi == UNSPECIFIED_HI && lo == IPV6_UNSPECIFIED_LO) {
+			out.append(':').append(':');
+			return;
+		}
+		if(hi == LOOPBACK_HI && lo == IPV6_LOOPBACK_LO) {
+			out.append(':').append(':').append('1');
+			return;
+		}
+		if(hi == IPV4_HI) {
+			if((lo & IPV6_NET_MASK_96_LO) == IPV4_NET_MAPPED_LO) {
+				// IPv4-mapped (used to store IPv4 addresses)
+				appendIPv4(out, (int)lo);
+				return;
+			}
+			if((lo & IPV6_NET_MASK_96_LO) == IPV4_NET_COMPAT_LO) {
+				// IPv4-compatible address
+				out.append(':').append(':');
+				appendIPv4(out, (int)lo);
+				return;
+			}
+		}
+		int longestZeros = findLongestZeros();
+		int longestFirstZero = longestZeros >>> 4;
+		int longestNumZeros = longestZeros & 0xf;
+		if(longestNumZeros == 0) {
+			for(int i = 0; i < 8; i++) {
+				if(i > 0) out.append(':');
+				appendHexWord(out, getWord(i));
+			}
+		} else {
+			for(int i = 0; i < longestFirstZero; i++) {
+				if(i > 0) out.append(':');
+				appendHexWord(out, getWord(i));
+			}
+			out.append(':').append(':');
+			int afterZeros = longestFirstZero + longestNumZeros;
+			for(int i = afterZeros; i < 8; i++) {
+				if(i > afterZeros) out.append(':');
+				appendHexWord(out, getWord(i));
+			}
+		}
+	}
+
+	/**
+	 * Converts this IP address to its String representation.
+	 * This is the canonical form from
+	 * <a href="https://tools.ietf.org/html/rfc5952#section-4">RFC 5952, Section 4. A Recommendation for IPv6 Text Representation</a>.
+	 *
+	 * @see  #appendTo(java.lang.StringBuilder)
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder(MAX_STRING_LENGTH);
+		appendTo(sb);
+		return sb.toString();
+	}
+
+	/**
+	 * Appends the String representation of this IP address without any intermediate String.
+	 *
+	 * @see  #toString()
+	 */
+	public void appendTo(Appendable out) throws IOException {
+		format(out);
+	}
+
+	/**
+	 * Appends the String representation of this IP address without any intermediate String.
+	 *
+	 * @see  #toString()
+	 */
+	public void appendTo(StringBuilder sb) {
+		try {
+			format(sb);
+		} catch(IOException e) {
+			throw new AssertionError("IOException should not occur on StringBuilder", e);
+		}
+	}
+
+	/**
+	 * Writes the String representation of this IP address as US-ASCII bytes, without any allocation.
+	 *
+	 * @param  buf  Always large enough with {@link #MAX_STRING_LENGTH} bytes starting at {@code off}.
+	 *
+	 * @return  The number of bytes written
+	 *
+	 * @throws  IndexOutOfBoundsException  when {@code buf} is too small, in which case nothing is written
+	 *
+	 * @see  #toString()
+	 */
+	public int writeTo(byte[] buf, int off) throws IndexOutOfBoundsException {
+		if(off < 0 || off > buf.length) throw new IndexOutOfBoundsException();
+		if(buf.length - off < MAX_STRING_LENGTH && buf.length - off < getStringLength()) {
+			throw new IndexOutOfBoundsException();
+		}
+		return format(buf, off) - off;
+	}
+
+	/**
+	 * Writes the String representation of this IP address as US-ASCII bytes at the buffer's position, without any
+	 * allocation.  The position is advanced by the number of bytes written.
+	 *
+	 * @return  The number of bytes written
+	 *
+	 * @throws  BufferOverflowException  when {@code buf} has insufficient remaining space,
+	 *                                   in which case nothing is written and the position is unchanged
+	 *
+	 * @see  #toString()
+	 */
+	public int writeTo(ByteBuffer buf) throws BufferOverflowException {
+		int pos = buf.position();
+		int remaining = buf.limit() - pos;
+		if(remaining < MAX_STRING_LENGTH && remaining < getStringLength()) throw new BufferOverflowException();
+		int len;
+		if(buf.hasArray()) {
+			int start = buf.arrayOffset() + pos;
+			len = format(buf.array(), start) - start;
+		} else {
+			len = format(buf, pos) - pos;
+		}
+		buf.position(pos + len);
+		return len;
+	}
+	// </editor-fold>
+
+	// <editor-fold defaultstate="collapsed" desc="Binary">
+	/**
+	 * The tag preceding the 4 bytes of an IPv4 address in the binary format.
+	 */
+	public static final byte BINARY_TAG_INET = 4;
+
+	/**
+	 * The tag preceding the 16 bytes of an IPv6 address in the binary format.
+	 */
+	public static final byte BINARY_TAG_INET6 = 6;
+
+	/**
+	 * The maximum number of bytes in the binary format of any IP address.
+	 * This is a sufficient buffer size for {@link #writeBinary(java.nio.ByteBuffer)}.
+	 */
+	public static final int MAX_BINARY_LENGTH = 1 + 16;
+
+	/**
+	 * Gets the number of bytes in the binary format of this address: 5 for IPv4 or 17 for IPv6.
+	 */
+	public int getBinaryLength() {
+		return InetAddressBits.isInet(hi, lo) ? (1 + 4) : (1 + 16);
+	}
+
+	/**
+	 * Writes this address in its compact binary format: a one-byte tag of either {@link #BINARY_TAG_INET} or
+	 * {@link #BINARY_TAG_INET6}, followed by the address in network byte order.
+	 *
+	 * @see  #readBinary(java.io.DataInput)
+	 */
+	public void writeBinary(DataOutput out) throws IOException {
+		if(InetAddressBits.isInet(hi, lo)) {
+			out.writeByte(BINARY_TAG_INET);
+			out.writeInt((int)lo);
+		} else {
+			out.writeByte(BINARY_TAG_INET6);
+			out.writeLong(hi);
+			out.writeLong(lo);
+		}
+	}
+
+	/**
+	 * Writes this address in its compact binary format, advancing the position of the buffer.
+	 *
+	 * @throws  BufferOverflowException  when fewer than {@link #getBinaryLength()} bytes remain,
+	 *                                   in which case nothing is written
+	 *
+	 * @see  #writeBinary(java.io.DataOutput)
+	 * @see  #readBinary(java.nio.ByteBuffer)
+	 */
+	public void writeBinary(ByteBuffer out) throws BufferOverflowException {
+		if(out.remaining() < getBinaryLength()) throw new BufferOverflowException();
+		if(InetAddressBits.isInet(hi, lo)) {
+			out.put(BINARY_TAG_INET);
+			out.putInt((int)lo);
+		} else {
+			out.put(BINARY_TAG_INET6);
+			out.putLong(hi);
+			out.putLong(lo);
+		}
+	}
+
+	/**
+	 * Reads an address in the format written by {@link #writeBinary(java.io.DataOutput)}.
+	 *
+	 * @throws  StreamCorruptedException  when the tag is unexpected
+	 */
+	public static InetAddress readBinary(DataInput in) throws IOException {
+		byte tag = in.readByte();
+		switch(tag) {
+			case BINARY_TAG_INET :
+				return valueOf(IPV4_HI, IPV4_NET_MAPPED_LO | (in.readInt() & 0xffffffffL));
+			case BINARY_TAG_INET6 : {
+				long hi = in.readLong();
+				long lo = in.readLong();
+				return valueOf(hi, lo);
+			}
+			default :
+				throw new StreamCorruptedException("Unexpected binary tag: " + tag);
+		}
+	}
+
+	/**
+	 * Reads an address in the format written by {@link #writeBinary(java.nio.ByteBuffer)}, advancing the position
+	 * of the buffer.
+	 *
+	 * @throws  BufferUnderflowException  when the buffer ends before the address, in which case the position is unchanged
+	 * @throws  IllegalArgumentException  when the tag is unexpected, in which case the position is unchanged
+	 */
+	public static InetAddress readBinary(ByteBuffer in) throws BufferUnderflowException, IllegalArgumentException {
+		int pos = in.position();
+		if(in.remaining() < 1) throw new BufferUnderflowException();
+		byte tag = in.get(pos);
+		switch(tag) {
+			case BINARY_TAG_INET : {
+				if(in.remaining() < 1 + 4) throw new BufferUnderflowException();
+				long lo = IPV4_NET_MAPPED_LO | (in.getInt(pos + 1) & 0xffffffffL);
+				in.position(pos + 1 + 4);
+				return valueOf(IPV4_HI, lo);
+			}
+			case BINARY_TAG_INET6 : {
+				if(in.remaining() < 1 + 16) throw new BufferUnderflowException();
+				long hi = in.getLong(pos + 1);
+				long lo = in.getLong(pos + 1 + 8);
+				in.position(pos + 1 + 16);
+				return valueOf(hi, lo);
+			}
+			default :
+				throw new IllegalArgumentException("Unexpected binary tag: " + tag);
+		}
+	}
+
+	// </editor-fold>
+
+	// <editor-fold defaultstate="collapsed" desc="Network Bytes">
+	/**
+	 * Gets an address from its raw bytes in network byte order, as returned by
+	 * {@link java.net.InetAddress#getAddress()}.  Does not perform any name resolution.
+	 * <p>
+	 * Sixteen bytes that are an IPv4-mapped address are an IPv4 address, since that is how IPv4 is stored.
+	 * </p>
+	 *
+	 * @param  address  Either 4 bytes for IPv4 or 16 bytes for IPv6.  If address is null, returns null.
+	 *
+	 * @see  #writeBytes(byte[], int)
+	 */
+	public static InetAddress valueOf(byte[] address) throws ValidationException {
+		if(address == null) return null;
+		switch(address.length) {
+			case 4 :
+				return valueOf(IPV4_HI, IPV4_NET_MAPPED_LO | (getInt(address, 0) & 0xffffffffL));
+			case 16 :
+				return valueOf(
+					((long)getInt(address, 0) << 32) | (getInt(address, 4) & 0xffffffffL),
+					((long)getInt(address, 8) << 32) | (getInt(address, 12) & 0xffffffffL)
+				);
+			default :
+				throw new ValidationException(new InvalidResult(RESOURCES, "valueOf.byteLength", address.length));
+		}
+	}
+
+	private static int getInt(byte[] buf, int off) {
+		return
+			(buf[off] << 24)
+			| ((buf[off + 1] & 0xff) << 16)
+			| ((buf[off + 2] & 0xff) << 8)
+			| (buf[off + 3] & 0xff);
+	}
+
+	private static void putInt(byte[] buf, int off, int value) {
+		buf[off] = (byte)(value >>> 24);
+		buf[off + 1] = (byte)(value >>> 16);
+		buf[off + 2] = (byte)(value >>> 8);
+		buf[off + 3] = (byte)value;
+	}
+
+	/**
+	 * Gets an address from a {@link java.net.InetAddress}, using only its raw bytes.
+	 * Does not perform any name resolution, and any host name or IPv6 scope is not retained.
+	 *
+	 * @param  address  If address is null, returns null.
+	 *
+	 * @see  #toJavaInetAddress()
+	 */
+	public static InetAddress valueOf(java.net.InetAddress address) {
+		if(address == null) return null;
+		try {
+			return valueOf(address.getAddress());
+		} catch(ValidationException e) {
+			throw new AssertionError("java.net.InetAddress is always 4 or 16 bytes", e);
+		}
+	}
+
+	/**
+	 * Gets the number of raw bytes in this address: 4 for IPv4 or 16 for IPv6.
+	 */
+	public int getByteLength() {
+		return InetAddressBits.isInet(hi, lo) ? 4 : 16;
+	}
+
+	/**
+	 * Writes the raw bytes of this address in network byte order, without any allocation.
+	 *
+	 * @param  buf  Must have room for {@link #getByteLength()} bytes starting at {@code off}.
+	 *
+	 * @return  The number of bytes written: 4 for IPv4 or 16 for IPv6
+	 *
+	 * @throws  IndexOutOfBoundsException  when {@code buf} is too small, in which case nothing is written
+	 *
+	 * @see  #valueOf(byte[])
+	 */
+	public int writeBytes(byte[] buf, int off) throws IndexOutOfBoundsException {
+		int len = getByteLength();
+		if(off < 0 || off > buf.length - len) {
+			throw new IndexOutOfBoundsException("off=" + off + ", len=" + len + ", buf.length=" + buf.length);
+		}
+		if(len == 4) {
+			putInt(buf, off, (int)lo);
+		} else {
+			putInt(buf, off, (int)(hi >>> 32));
+			putInt(buf, off + 4, (int)hi);
+			putInt(buf, off + 8, (int)(lo >>> 32));
+			putInt(buf, off + 12, (int)lo);
+		}
+		return len;
+	}
+
+	/**
+	 * Gets the raw bytes of this address in network byte order: 4 bytes for IPv4 or 16 bytes for IPv6.
+	 *
+	 * @return  a new array
+	 *
+	 * @see  #writeBytes(byte[], int)
+	 */
+	public byte[] getBytes() {
+		byte[] bytes = new byte[getByteLength()];
+		writeBytes(bytes, 0);
+		return bytes;
+	}
+
+	/**
+	 * Converts to a {@link java.net.InetAddress} directly from the raw bytes, without any string formatting
+	 * or name resolution.  IPv4 addresses are {@link java.net.Inet4Address} and IPv6 addresses are
+	 * {@link java.net.Inet6Address}.
+	 *
+	 * @see  #valueOf(java.net.InetAddress)
+	 */
+	public java.net.InetAddress toJavaInetAddress() {
+		try {
+			return java.net.InetAddress.getByAddress(getBytes());
+		} catch(UnknownHostException e) {
+			throw new AssertionError("Address is always 4 or 16 bytes", e);
+		}
+	}
+	// </editor-fold>
+
+	/**
+	 * Gets an optionally-bracketed String representation of this IP address.
+	 * If IPv6, the address is surrounded by [...]
+	 */
+	public String toBracketedString() {
+		@SuppressWarnings("deprecation")
+		AddressFamily family = getAddressFamily();
+		switch(family) {
+			case INET6 :
+				return '[' + toString() + ']';
+			case INET :
+				return toString();
+			default :
+				throw new AssertionError("Unexpected address family: " + family);
+		}
+	}
+
+	/**
+	 * Interns this IP much in the same fashion as <code>String.intern()</code>.
+	 *
+	 * @see  String#intern()
+	 */
+	@Override
+	public InetAddress intern() {
+		// Keyed by LongLong, since a key must not strongly reference its value
+		LongLong key = getIp();
+		InetAddress existing = internPool.get(key);
+		if(existing==null) {
+			existing = internPool.putIfAbsent(key, this);
+			if(existing==null) existing = this;
+		}
+		return existing;
+	}
+
+	/**
+	 * Gets the high-order 64 bits of the numeric address.
+	 *
+	 * @see #getLow()
+	 * @see #getIp()
+	 */
+	public long getHigh() {
+		return hi;
+	}
+
+	/**
+	 * Gets the low-order 64 bits of the numeric address.
+	 *
+	 * @see #getHigh()
+	 * @see #getIp()
+	 */
+	public long getLow() {
+		return lo;
+	}
+
+	/**
+	 * Gets the numeric address as a 128-bit integer.
+	 *
+	 * @see #getHigh()
 	 * @see #getLow()
 	 */
 	public LongLong getIp() {
@@ -659,6 +1560,195 @@ final public class InetAddress implements
 		return new com.aoapps.net.dto.InetAddress(toString());
 	}
 
+	// <editor-fold defaultstate="collapsed" desc="Classification">
+	/**
+	 * Classification bit for {@link #isUnspecified()}.
+	 *
+	 * @see  #getClassification()
+	 */
+	public static final int CLASS_UNSPECIFIED = 1 << 0;
+
+	/**
+	 * Classification bit for {@link #isLoopback()}.
+	 *
+	 * @see  #getClassification()
+	 */
+	public static final int CLASS_LOOPBACK = 1 << 1;
+
+	/**
+	 * Classification bit for {@link #isBroadcast()}.
+	 *
+	 * @see  #getClassification()
+	 */
+	public static final int CLASS_BROADCAST = 1 << 2;
+
+	/**
+	 * Classification bit for {@link #isLinkLocal()}.
+	 *
+	 * @see  #getClassification()
+	 */
+	public static final int CLASS_LINK_LOCAL = 1 << 3;
+
+	/**
+	 * Classification bit for {@link #isMulticast()}.
+	 *
+	 * @see  #getClassification()
+	 */
+	public static final int CLASS_MULTICAST = 1 << 4;
+
+	/**
+	 * Classification bit for {@link #isUniqueLocal()}.
+	 *
+	 * @see  #getClassification()
+	 */
+	public static final int CLASS_UNIQUE_LOCAL = 1 << 5;
+
+	/**
+	 * Classification bit for {@link #is6to4()}.
+	 *
+	 * @see  #getClassification()
+	 */
+	public static final int CLASS_6TO4 = 1 << 6;
+
+	/**
+	 * Classification bit for {@link #isTeredo()}.
+	 *
+	 * @see  #getClassification()
+	 */
+	public static final int CLASS_TEREDO = 1 << 7;
+
+	/**
+	 * Classification bit for {@link #isDocumentation()}.
+	 *
+	 * @see  #getClassification()
+	 */
+	public static final int CLASS_DOCUMENTATION = 1 << 8;
+
+	/**
+	 * Classification bit for {@link #isNetworkBenchmark()}.
+	 *
+	 * @see  #getClassification()
+	 */
+	public static final int CLASS_NETWORK_BENCHMARK = 1 << 9;
+
+	/**
+	 * Classification bit for {@link #isOrchid()}.
+	 *
+	 * @see  #getClassification()
+	 */
+	public static final int CLASS_ORCHID = 1 << 10;
+
+	/**
+	 * Classification bit for {@link #isCarrierGradeNat()}.
+	 *
+	 * @see  #getClassification()
+	 */
+	public static final int CLASS_CARRIER_GRADE_NAT = 1 << 11;
+
+	/**
+	 * Set on {@link #classification} once computed, so a computed classification is never zero.
+	 */
+	private static final int CLASS_COMPUTED = 1 << 31;
+
+	/**
+	 * The classifying prefixes as primitive masks, resolved on first use so there is no cycle during class
+	 * initialization with {@link InetAddressPrefixes}.
+	 */
+	private static class Classifier {
+
+		private static final int NUM_PREFIXES = 20;
+
+		private static final long[] netHi = new long[NUM_PREFIXES];
+		private static final long[] netLo = new long[NUM_PREFIXES];
+		private static final long[] maskHi = new long[NUM_PREFIXES];
+		private static final long[] maskLo = new long[NUM_PREFIXES];
+		private static final int[] flags = new int[NUM_PREFIXES];
+		private static int numPrefixes;
+
+		private static void add(InetAddressPrefix prefix, int flag) {
+			InetAddress address = prefix.getAddress();
+			int bits = InetAddressBits.getKeyBits(prefix);
+			int i = numPrefixes++;
+			maskHi[i] = InetAddressBits.maskHi(-1, bits);
+			maskLo[i] = InetAddressBits.maskLo(-1, bits);
+			netHi[i] = address.hi & maskHi[i];
+			netLo[i] = address.lo & maskLo[i];
+			flags[i] = flag;
+		}
+
+		static {
+			add(InetAddressPrefixes.LOOPBACK_IPV4,          CLASS_LOOPBACK);
+			add(InetAddressPrefixes.LINK_LOCAL_IPV4,        CLASS_LINK_LOCAL);
+			add(InetAddressPrefixes.LINK_LOCAL_IPV6,        CLASS_LINK_LOCAL);
+			add(InetAddressPrefixes.MULTICAST_IPV4,         CLASS_MULTICAST);
+			add(InetAddressPrefixes.MULTICAST_IPV6,         CLASS_MULTICAST);
+			add(InetAddressPrefixes.UNIQUE_LOCAL_IPV4_8,    CLASS_UNIQUE_LOCAL);
+			add(InetAddressPrefixes.UNIQUE_LOCAL_IPV4_12,   CLASS_UNIQUE_LOCAL);
+			add(InetAddressPrefixes.UNIQUE_LOCAL_IPV4_16,   CLASS_UNIQUE_LOCAL);
+			add(InetAddressPrefixes.UNIQUE_LOCAL_IPV6,      CLASS_UNIQUE_LOCAL);
+			add(InetAddressPrefixes._6TO4_IPV4,             CLASS_6TO4);
+			add(InetAddressPrefixes._6TO4_IPV6,             CLASS_6TO4);
+			add(InetAddressPrefixes.TEREDO_IPV6,            CLASS_TEREDO);
+			add(InetAddressPrefixes.DOCUMENTATION_IPV4_1,   CLASS_DOCUMENTATION);
+			add(InetAddressPrefixes.DOCUMENTATION_IPV4_2,   CLASS_DOCUMENTATION);
+			add(InetAddressPrefixes.DOCUMENTATION_IPV4_3,   CLASS_DOCUMENTATION);
+			add(InetAddressPrefixes.DOCUMENTATION_IPV6,     CLASS_DOCUMENTATION);
+			add(InetAddressPrefixes.BENCHMARK_IPV4,         CLASS_NETWORK_BENCHMARK);
+			add(InetAddressPrefixes.BENCHMARK_IPV6,         CLASS_NETWORK_BENCHMARK);
+			add(InetAddressPrefixes.ORCHID_IPV6,            CLASS_ORCHID);
+			add(InetAddressPrefixes.CARRIER_GRADE_NAT_IPV4, CLASS_CARRIER_GRADE_NAT);
+			assert numPrefixes == NUM_PREFIXES;
+		}
+
+		/**
+		 * Computes the classification, including {@link #CLASS_COMPUTED}.
+		 * Since IPv4 is stored IPv4-mapped, IPv4 prefixes never match IPv6 addresses and vice versa.
+		 */
+		private static int classify(long hi, long lo) {
+			int classification = CLASS_COMPUTED;
+			if(hi == UNSPECIFIED_HI && (lo == IPV6_UNSPECIFIED_LO || lo == IPV4_UNSPECIFIED_LO)) {
+				classification |= CLASS_UNSPECIFIED;
+			}
+			if(hi == LOOPBACK_HI && lo == IPV6_LOOPBACK_LO) classification |= CLASS_LOOPBACK;
+			if(hi == IPV4_HI && lo == IPV4_BROADCAST_LO) classification |= CLASS_BROADCAST;
+			for(int i = 0; i < NUM_PREFIXES; i++) {
+				if((hi & maskHi[i]) == netHi[i] && (lo & maskLo[i]) == netLo[i]) classification |= flags[i];
+			}
+			return classification;
+		}
+	}
+
+	/**
+	 * The lazily computed classification, or zero when not yet computed.
+	 * Racy single-check, like {@link String#hashCode()}, since any thread computes the same value.
+	 */
+	private transient int classification;
+
+	/**
+	 * Gets all the classifications of this address as a bitmask of the {@code CLASS_*} constants, such as
+	 * {@link #CLASS_LOOPBACK}.  This is computed once per instance, so repeated classification is a field read.
+	 * <p>
+	 * For hot paths, test several classes at once with {@link #isAny(int)}.
+	 * </p>
+	 */
+	public int getClassification() {
+		int c = classification;
+		if(c == 0) classification = c = Classifier.classify(hi, lo);
+		return c & ~CLASS_COMPUTED;
+	}
+
+	/**
+	 * Checks if this address has any of the given classifications.
+	 *
+	 * @param  classes  A bitmask of the {@code CLASS_*} constants, such as
+	 *                  <code>CLASS_LOOPBACK | CLASS_LINK_LOCAL</code>
+	 *
+	 * @see  #getClassification()
+	 */
+	public boolean isAny(int classes) {
+		return (getClassification() & classes) != 0;
+	}
+
 	public boolean isUnspecified() {
 		return
 			hi == UNSPECIFIED_HI
@@ -672,12 +1762,10 @@ final public class InetAddress implements
 	/**
 	 * @see  #LOOPBACK_IPV6
 	 * @see  InetAddressPrefixes#LOOPBACK_IPV4
+	 * @see  #CLASS_LOOPBACK
 	 */
 	public boolean isLoopback() {
-		return
-			   (hi == LOOPBACK_HI && lo == IPV6_LOOPBACK_LO)
-			|| InetAddressPrefixes.LOOPBACK_IPV4.contains(this)
-		;
+		return isAny(CLASS_LOOPBACK);
 	}
 
 	/**
@@ -695,23 +1783,19 @@ final public class InetAddress implements
 	/**
 	 * @see  InetAddressPrefixes#LINK_LOCAL_IPV4
 	 * @see  InetAddressPrefixes#LINK_LOCAL_IPV6
+	 * @see  #CLASS_LINK_LOCAL
 	 */
 	public boolean isLinkLocal() {
-		return
-			   InetAddressPrefixes.LINK_LOCAL_IPV4.contains(this)
-			|| InetAddressPrefixes.LINK_LOCAL_IPV6.contains(this)
-		;
+		return isAny(CLASS_LINK_LOCAL);
 	}
 
 	/**
 	 * @see  InetAddressPrefixes#MULTICAST_IPV4
 	 * @see  InetAddressPrefixes#MULTICAST_IPV6
+	 * @see  #CLASS_MULTICAST
 	 */
 	public boolean isMulticast() {
-		return
-			   InetAddressPrefixes.MULTICAST_IPV4.contains(this)
-			|| InetAddressPrefixes.MULTICAST_IPV6.contains(this)
-		;
+		return isAny(CLASS_MULTICAST);
 	}
 
 	/**
@@ -719,32 +1803,27 @@ final public class InetAddress implements
 	 * @see  InetAddressPrefixes#UNIQUE_LOCAL_IPV4_12
 	 * @see  InetAddressPrefixes#UNIQUE_LOCAL_IPV4_16
 	 * @see  InetAddressPrefixes#UNIQUE_LOCAL_IPV6
+	 * @see  #CLASS_UNIQUE_LOCAL
 	 */
 	public boolean isUniqueLocal() {
-		return
-			   InetAddressPrefixes.UNIQUE_LOCAL_IPV4_8.contains(this)
-			|| InetAddressPrefixes.UNIQUE_LOCAL_IPV4_12.contains(this)
-			|| InetAddressPrefixes.UNIQUE_LOCAL_IPV4_16.contains(this)
-			|| InetAddressPrefixes.UNIQUE_LOCAL_IPV6.contains(this)
-		;
+		return isAny(CLASS_UNIQUE_LOCAL);
 	}
 
 	/**
 	 * @see  InetAddressPrefixes#_6TO4_IPV4
 	 * @see  InetAddressPrefixes#_6TO4_IPV6
+	 * @see  #CLASS_6TO4
 	 */
 	public boolean is6to4() {
-		return
-			   InetAddressPrefixes._6TO4_IPV4.contains(this)
-			|| InetAddressPrefixes._6TO4_IPV6.contains(this)
-		;
+		return isAny(CLASS_6TO4);
 	}
 
 	/**
 	 * @see  InetAddressPrefixes#TEREDO_IPV6
+	 * @see  #CLASS_TEREDO
 	 */
 	public boolean isTeredo() {
-		return InetAddressPrefixes.TEREDO_IPV6.contains(this);
+		return isAny(CLASS_TEREDO);
 	}
 
 	/**
@@ -752,40 +1831,37 @@ final public class InetAddress implements
 	 * @see  InetAddressPrefixes#DOCUMENTATION_IPV4_2
 	 * @see  InetAddressPrefixes#DOCUMENTATION_IPV4_3
 	 * @see  InetAddressPrefixes#DOCUMENTATION_IPV6
+	 * @see  #CLASS_DOCUMENTATION
 	 */
 	public boolean isDocumentation() {
-		return
-			   InetAddressPrefixes.DOCUMENTATION_IPV4_1.contains(this)
-			|| InetAddressPrefixes.DOCUMENTATION_IPV4_2.contains(this)
-			|| InetAddressPrefixes.DOCUMENTATION_IPV4_3.contains(this)
-			|| InetAddressPrefixes.DOCUMENTATION_IPV6.contains(this)
-		;
+		return isAny(CLASS_DOCUMENTATION);
 	}
 
 	/**
 	 * @see  InetAddressPrefixes#BENCHMARK_IPV4
 	 * @see  InetAddressPrefixes#BENCHMARK_IPV6
+	 * @see  #CLASS_NETWORK_BENCHMARK
 	 */
 	public boolean isNetworkBenchmark() {
-		return
-			   InetAddressPrefixes.BENCHMARK_IPV4.contains(this)
-			|| InetAddressPrefixes.BENCHMARK_IPV6.contains(this)
-		;
+		return isAny(CLASS_NETWORK_BENCHMARK);
 	}
 
 	/**
 	 * @see  InetAddressPrefixes#ORCHID_IPV6
+	 * @see  #CLASS_ORCHID
 	 */
 	public boolean isOrchid() {
-		return InetAddressPrefixes.ORCHID_IPV6.contains(this);
+		return isAny(CLASS_ORCHID);
 	}
 
 	/**
 	 * @see  InetAddressPrefixes#CARRIER_GRADE_NAT_IPV4
+	 * @see  #CLASS_CARRIER_GRADE_NAT
 	 */
 	public boolean isCarrierGradeNat() {
-		return InetAddressPrefixes.CARRIER_GRADE_NAT_IPV4.contains(this);
+		return isAny(CLASS_CARRIER_GRADE_NAT);
 	}
+	// </editor-fold>
 
 	/**
 	 * @deprecated  Please use {@link #getProtocolFamily()} as of Java 1.7.
@@ -817,10 +1893,11 @@ final public class InetAddress implements
 	 * Gets the type for this address.
 	 */
 	public AddressType getAddressType() {
-		if(isUnspecified()) return AddressType.UNSPECIFIED;
-		if(isLoopback())    return AddressType.LOOPBACK;
-		if(isMulticast())   return AddressType.MULTICAST;
-		if(isLinkLocal())   return AddressType.LINK_LOCAL_UNICAST;
+		int c = getClassification();
+		if((c & CLASS_UNSPECIFIED) != 0) return AddressType.UNSPECIFIED;
+		if((c & CLASS_LOOPBACK) != 0)    return AddressType.LOOPBACK;
+		if((c & CLASS_MULTICAST) != 0)   return AddressType.MULTICAST;
+		if((c & CLASS_LINK_LOCAL) != 0)  return AddressType.LINK_LOCAL_UNICAST;
 		// (everything else)
 		return AddressType.GLOBAL_UNICAST;
 	}
@@ -840,4 +1917,20 @@ final public class InetAddress implements
 	public boolean isIPv6() {
 		return getAddressFamily() == AddressFamily.INET6;
 	}
+
+	// <editor-fold defaultstate="collapsed" desc="Serializable">
+	/**
+	 * The serialized form is the default form of {@link #hi} and {@link #lo}, unchanged so existing streams
+	 * remain readable.  For the compact encoding, use {@link #writeBinary(java.io.DataOutput)} and
+	 * {@link #readBinary(java.io.DataInput)}.
+	 */
+	private static final long serialVersionUID = 2L;
+
+	/**
+	 * Replaces deserialized instances with the canonical instance from {@link #valueOf(long, long)}.
+	 */
+	private Object readResolve() {
+		return valueOf(hi, lo);
+	}
+	// </editor-fold>
 }
@@ -0,0 +1,259 @@
+/*
+ * ao-net-types - Networking-related value types.
+ * Copyright (C) 2021  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-net-types.
+ *
+ * ao-net-types is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-net-types is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-net-types.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aoapps.net;
+
+/**
+ * Bit manipulation over the 128-bit {@link InetAddress#hi}/{@link InetAddress#lo} representation,
+ * shared by the prefix-based data structures.
+ * <p>
+ * IPv4 addresses are stored IPv4-mapped, so an IPv4 prefix of length <i>n</i> is the
+ * 128-bit prefix of length <code>96 + <i>n</i></code>.
+ * </p>
+ *
+ * @author  AO Industries, Inc.
+ */
+final class InetAddressBits {
+
+	/** Make no instances. */
+	private InetAddressBits() {throw new AssertionError();}
+
+	/**
+	 * The number of leading bits shared by every IPv4-mapped address.
+	 */
+	static final int IPV4_MAPPED_BITS = 96;
+
+	/**
+	 * Checks if the given bits are an IPv4 address (stored IPv4-mapped).
+	 *
+	 * @see  InetAddress#getProtocolFamily()
+	 */
+	static boolean isInet(long hi, long lo) {
+		return
+			hi == InetAddress.IPV4_HI
+			&& (lo & 0xffffffff00000000L) == InetAddress.IPV4_NET_MAPPED_LO;
+	}
+
+	/**
+	 * Gets the number of bits of the 128-bit key for the given prefix.
+	 */
+	static int getKeyBits(InetAddressPrefix prefix) {
+		InetAddress address = prefix.getAddress();
+		return isInet(address.hi, address.lo) ? (IPV4_MAPPED_BITS + prefix.getPrefix()) : prefix.getPrefix();
+	}
+
+	/**
+	 * Keeps the first {@code bits} bits of the high-order 64 bits.
+	 */
+	static long maskHi(long hi, int bits) {
+		// Note: Careful of Java's left shift modulo 64 behavior
+		if(bits >= 64) return hi;
+		if(bits == 0) return 0;
+		return hi & (0xffffffffffffffffL << (64 - bits));
+	}
+
+	/**
+	 * Keeps the first {@code bits} bits of the low-order 64 bits, where {@code bits} counts from the start of the high-order bits.
+	 */
+	static long maskLo(long lo, int bits) {
+		// Note: Careful of Java's left shift modulo 64 behavior
+		if(bits <= 64) return 0;
+		if(bits == 128) return lo;
+		return lo & (0xffffffffffffffffL << (128 - bits));
+	}
+
+	/**
+	 * Gets the bit at the given index, where index zero is the most significant bit of the high-order 64 bits.
+	 *
+	 * @return  {@code 0} or {@code 1}
+	 */
+	static int getBit(long hi, long lo, int index) {
+		assert index >= 0 && index < 128;
+		if(index < 64) return (int)(hi >>> (63 - index)) & 1;
+		return (int)(lo >>> (127 - index)) & 1;
+	}
+
+	/**
+	 * Gets the number of leading bits in common.
+	 *
+	 * @return  {@code 0} through {@code 128}
+	 */
+	static int commonPrefixLength(long hi1, long lo1, long hi2, long lo2) {
+		long diff = hi1 ^ hi2;
+		if(diff != 0) return Long.numberOfLeadingZeros(diff);
+		diff = lo1 ^ lo2;
+		if(diff != 0) return 64 + Long.numberOfLeadingZeros(diff);
+		return 128;
+	}
+
+	/**
+	 * Compares two 128-bit values as unsigned.
+	 */
+	static int compare(long hi1, long lo1, long hi2, long lo2) {
+		int diff = Long.compareUnsigned(hi1, hi2);
+		if(diff != 0) return diff;
+		return Long.compareUnsigned(lo1, lo2);
+	}
+
+	/**
+	 * Gets the number of trailing zero bits of a 128-bit value.
+	 *
+	 * @return  {@code 0} through {@code 128}
+	 */
+	static int numberOfTrailingZeros(long hi, long lo) {
+		if(lo != 0) return Long.numberOfTrailingZeros(lo);
+		if(hi != 0) return 64 + Long.numberOfTrailingZeros(hi);
+		return 128;
+	}
+
+	/**
+	 * Gets the high-order 64 bits of a value with the {@code bits} lowest bits set.
+	 */
+	static long lowBitsHi(int bits) {
+		// Note: Careful of Java's right shift modulo 64 behavior
+		if(bits <= 64) return 0;
+		return 0xffffffffffffffffL >>> (128 - bits);
+	}
+
+	/**
+	 * Gets the low-order 64 bits of a value with the {@code bits} lowest bits set.
+	 */
+	static long lowBitsLo(int bits) {
+		// Note: Careful of Java's right shift modulo 64 behavior
+		if(bits >= 64) return 0xffffffffffffffffL;
+		if(bits == 0) return 0;
+		return 0xffffffffffffffffL >>> (64 - bits);
+	}
+
+	/**
+	 * Decomposes an inclusive range into the minimal list of prefixes, in order.
+	 * The range must be within a single address family.
+	 *
+	 * @param  maxPrefix  {@code 32} for IPv4 or {@code 128} for IPv6
+	 */
+	static void forEachPrefix(
+		long fromHi,
+		long fromLo,
+		long toHi,
+		long toLo,
+		int maxPrefix,
+		InetAddressRange.PrefixConsumer action
+	) {
+		assert compare(fromHi, fromLo, toHi, toLo) <= 0;
+		while(true) {
+			// The largest block aligned at from that does not extend past to
+			int hostBits = Math.min(numberOfTrailingZeros(fromHi, fromLo), maxPrefix);
+			long endHi, endLo;
+			while(true) {
+				endHi = fromHi | lowBitsHi(hostBits);
+				endLo = fromLo | lowBitsLo(hostBits);
+				if(compare(endHi, endLo, toHi, toLo) <= 0) break;
+				hostBits--;
+			}
+			action.accept(fromHi, fromLo, maxPrefix - hostBits);
+			if(endHi == toHi && endLo == toLo) break;
+			// from = end + 1
+			fromLo = endLo + 1;
+			fromHi = fromLo == 0 ? (endHi + 1) : endHi;
+		}
+	}
+
+	/**
+	 * The last IPv6 address before, and the first IPv6 address after, the IPv4-mapped <code>::ffff:0:0/96</code>,
+	 * which are all zero in the high-order 64 bits.
+	 */
+	static final long
+		MAPPED_BEFORE_LO = InetAddress.IPV4_NET_MAPPED_LO - 1,
+		MAPPED_AFTER_LO  = InetAddress.IPV4_NET_MAPPED_LO + 0x100000000L;
+
+	/**
+	 * Counts the prefixes that {@link #forEachPrefix(long, long, long, long, int, com.aoapps.net.InetAddressRange.PrefixConsumer)}
+	 * would give for an IPv6 range, not counting any within the IPv4-mapped space.
+	 */
+	private static int countPrefixesInet6(long fromHi, long fromLo, long toHi, long toLo) {
+		assert compare(fromHi, fromLo, toHi, toLo) <= 0;
+		int count = 0;
+		while(true) {
+			int hostBits = numberOfTrailingZeros(fromHi, fromLo);
+			long endHi, endLo;
+			while(true) {
+				endHi = fromHi | lowBitsHi(hostBits);
+				endLo = fromLo | lowBitsLo(hostBits);
+				if(compare(endHi, endLo, toHi, toLo) <= 0) break;
+				hostBits--;
+			}
+			if(!isInet(fromHi, fromLo)) count++;
+			if(endHi == toHi && endLo == toLo) return count;
+			fromLo = endLo + 1;
+			fromHi = fromLo == 0 ? (endHi + 1) : endHi;
+		}
+	}
+
+	/**
+	 * Decomposes an inclusive IPv6 range into the minimal list of IPv6 prefixes, in order.
+	 * <p>
+	 * IPv6 prefixes never contain IPv4-mapped addresses, so <code>::ffff:0:0/96</code> is excluded from the range.
+	 * Prefixes may still span it, such as <code>::/0</code>, when this gives fewer prefixes than stopping on
+	 * either side of it.  No prefix starts within it.
+	 * </p>
+	 */
+	static void forEachPrefixInet6(
+		long fromHi,
+		long fromLo,
+		long toHi,
+		long toLo,
+		InetAddressRange.PrefixConsumer action
+	) {
+		assert compare(fromHi, fromLo, toHi, toLo) <= 0;
+		if(
+			compare(toHi, toLo, 0, MAPPED_BEFORE_LO) < 0
+			|| compare(fromHi, fromLo, 0, MAPPED_AFTER_LO) > 0
+		) {
+			// Does not reach the IPv4-mapped space
+			forEachPrefix(fromHi, fromLo, toHi, toLo, 128, action);
+			return;
+		}
+		boolean hasBefore = compare(fromHi, fromLo, 0, MAPPED_BEFORE_LO) <= 0;
+		boolean hasAfter = compare(toHi, toLo, 0, MAPPED_AFTER_LO) >= 0;
+		if(!hasBefore && !hasAfter) return;
+		// Separately on each side
+		int separate =
+			(hasBefore ? countPrefixesInet6(fromHi, fromLo, 0, MAPPED_BEFORE_LO) : 0)
+			+ (hasAfter ? countPrefixesInet6(0, MAPPED_AFTER_LO, toHi, toLo) : 0);
+		// Spanning the IPv4-mapped space
+		long spanFromLo = hasBefore ? fromLo : InetAddress.IPV4_NET_MAPPED_LO;
+		long spanFromHi = hasBefore ? fromHi : 0;
+		long spanToLo = hasAfter ? toLo : (MAPPED_AFTER_LO - 1);
+		long spanToHi = hasAfter ? toHi : 0;
+		if(countPrefixesInet6(spanFromHi, spanFromLo, spanToHi, spanToLo) < separate) {
+			forEachPrefix(
+				spanFromHi, spanFromLo, spanToHi, spanToLo, 128,
+				(hi, lo, prefix) -> {
+					if(!isInet(hi, lo)) action.accept(hi, lo, prefix);
+				}
+			);
+		} else {
+			if(hasBefore) forEachPrefix(fromHi, fromLo, 0, MAPPED_BEFORE_LO, 128, action);
+			if(hasAfter) forEachPrefix(0, MAPPED_AFTER_LO, toHi, toLo, 128, action);
+		}
+	}
+}
@@ -0,0 +1,372 @@
+/*
+ * ao-net-types - Networking-related value types.
+ * Copyright (C) 2021  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-net-types.
+ *
+ * ao-net-types is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-net-types is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-net-types.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aoapps.net;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * An immutable, sorted column of IP addresses stored in primitive arrays, for scanning large numbers
+ * of addresses without an {@link InetAddress} per row.
+ * <p>
+ * IPv4 addresses are stored as a single {@code int[]} and IPv6 addresses as two {@code long[]} columns,
+ * {@link InetAddress#getHigh() hi} and {@link InetAddress#getLow() lo}.  Rows are in the order of
+ * {@link InetAddress#compareTo(com.aoapps.net.InetAddress)}: all IPv4 then all IPv6, each numerically.
+ * Duplicate addresses are retained, so counts are of rows.
+ * </p>
+ * <p>
+ * Since the rows are sorted, the rows in any prefix are contiguous and found by binary search.
+ * </p>
+ *
+ * @author  AO Industries, Inc.
+ */
+final public class InetAddressColumn {
+
+	private static final int[] EMPTY_INTS = new int[0];
+	private static final long[] EMPTY_LONGS = new long[0];
+
+	public static final InetAddressColumn EMPTY = new InetAddressColumn(EMPTY_INTS, 0, EMPTY_LONGS, EMPTY_LONGS, 0);
+
+	/**
+	 * Builds a column from any number of addresses, in any order.
+	 */
+	public static class Builder {
+
+		private int[] inet = EMPTY_INTS;
+		private int inetSize;
+		private long[] inet6Hi = EMPTY_LONGS;
+		private long[] inet6Lo = EMPTY_LONGS;
+		private int inet6Size;
+
+		public Builder() {
+		}
+
+		private static int grow(int length) {
+			long newLength = Math.max(16, (long)length << 1);
+			if(newLength > Integer.MAX_VALUE - 8) newLength = Integer.MAX_VALUE - 8;
+			if(newLength <= length) throw new IllegalStateException("Maximum size reached: " + length);
+			return (int)newLength;
+		}
+
+		/**
+		 * Adds an address by its numerical representation.
+		 *
+		 * @param  hi  See {@link InetAddress#getHigh()}
+		 * @param  lo  See {@link InetAddress#getLow()}
+		 */
+		public Builder add(long hi, long lo) {
+			if(InetAddressBits.isInet(hi, lo)) {
+				if(inetSize == inet.length) inet = Arrays.copyOf(inet, grow(inetSize));
+				inet[inetSize++] = (int)lo;
+			} else {
+				if(inet6Size == inet6Hi.length) {
+					int newLength = grow(inet6Size);
+					inet6Hi = Arrays.copyOf(inet6Hi, newLength);
+					inet6Lo = Arrays.copyOf(inet6Lo, newLength);
+				}
+				inet6Hi[inet6Size] = hi;
+				inet6Lo[inet6Size] = lo;
+				inet6Size++;
+			}
+			return this;
+		}
+
+		public Builder add(InetAddress address) {
+			return add(address.hi, address.lo);
+		}
+
+		/**
+		 * Sorts and builds the column.  The builder may continue to be used.
+		 */
+		public InetAddressColumn build() {
+			if(inetSize == 0 && inet6Size == 0) return EMPTY;
+			// Flip the sign bit so signed order is unsigned order
+			int[] sortedInet = new int[inetSize];
+			for(int i = 0; i < inetSize; i++) sortedInet[i] = inet[i] ^ Integer.MIN_VALUE;
+			Arrays.sort(sortedInet);
+			for(int i = 0; i < inetSize; i++) sortedInet[i] ^= Integer.MIN_VALUE;
+			long[] sortedHi = Arrays.copyOf(inet6Hi, inet6Size);
+			long[] sortedLo = Arrays.copyOf(inet6Lo, inet6Size);
+			sort(sortedHi, sortedLo, 0, inet6Size - 1);
+			return new InetAddressColumn(sortedInet, inetSize, sortedHi, sortedLo, inet6Size);
+		}
+	}
+
+	private static final int INSERTION_SORT_THRESHOLD = 16;
+
+	/**
+	 * Sorts the parallel columns as unsigned 128-bit values, inclusive of {@code left} and {@code right},
+	 * without boxing.  Recurses only on the smaller partition.
+	 */
+	private static void sort(long[] hi, long[] lo, int left, int right) {
+		while(right - left >= INSERTION_SORT_THRESHOLD) {
+			// Median of three as pivot
+			int mid = (left + right) >>> 1;
+			if(InetAddressBits.compare(hi[mid], lo[mid], hi[left], lo[left]) < 0) swap(hi, lo, left, mid);
+			if(InetAddressBits.compare(hi[right], lo[right], hi[left], lo[left]) < 0) swap(hi, lo, left, right);
+			if(InetAddressBits.compare(hi[right], lo[right], hi[mid], lo[mid]) < 0) swap(hi, lo, mid, right);
+			long pivotHi = hi[mid];
+			long pivotLo = lo[mid];
+			int i = left;
+			int j = right;
+			while(i <= j) {
+				while(InetAddressBits.compare(hi[i], lo[i], pivotHi, pivotLo) < 0) i++;
+				while(InetAddressBits.compare(hi[j], lo[j], pivotHi, pivotLo) > 0) j--;
+				if(i <= j) swap(hi, lo, i++, j--);
+			}
+			if(j - left < right - i) {
+				sort(hi, lo, left, j);
+				left = i;
+			} else {
+				sort(hi, lo, i, right);
+				right = j;
+			}
+		}
+		for(int i = left + 1; i <= right; i++) {
+			long keyHi = hi[i];
+			long keyLo = lo[i];
+			int j = i - 1;
+			while(j >= left && InetAddressBits.compare(hi[j], lo[j], keyHi, keyLo) > 0) {
+				hi[j + 1] = hi[j];
+				lo[j + 1] = lo[j];
+				j--;
+			}
+			hi[j + 1] = keyHi;
+			lo[j + 1] = keyLo;
+		}
+	}
+
+	private static void swap(long[] hi, long[] lo, int i, int j) {
+		long t = hi[i];
+		hi[i] = hi[j];
+		hi[j] = t;
+		t = lo[i];
+		lo[i] = lo[j];
+		lo[j] = t;
+	}
+
+	/**
+	 * Creates a column of the given addresses, in any order.
+	 */
+	public static InetAddressColumn valueOf(Collection<? extends InetAddress> addresses) {
+		Builder builder = new Builder();
+		for(InetAddress address : addresses) builder.add(address);
+		return builder.build();
+	}
+
+	private final int[] inet;
+	private final int inetSize;
+	private final long[] inet6Hi;
+	private final long[] inet6Lo;
+	private final int inet6Size;
+
+	private InetAddressColumn(int[] inet, int inetSize, long[] inet6Hi, long[] inet6Lo, int inet6Size) {
+		this.inet = inet;
+		this.inetSize = inetSize;
+		this.inet6Hi = inet6Hi;
+		this.inet6Lo = inet6Lo;
+		this.inet6Size = inet6Size;
+	}
+
+	/**
+	 * Gets the number of rows.
+	 */
+	public int size() {
+		return inetSize + inet6Size;
+	}
+
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	private void checkIndex(int index) {
+		if(index < 0 || index >= size()) throw new IndexOutOfBoundsException("index=" + index + ", size=" + size());
+	}
+
+	/**
+	 * Gets the high-order 64 bits of the address at the given row.
+	 *
+	 * @see  InetAddress#getHigh()
+	 */
+	public long getHigh(int index) throws IndexOutOfBoundsException {
+		checkIndex(index);
+		return index < inetSize ? InetAddress.IPV4_HI : inet6Hi[index - inetSize];
+	}
+
+	/**
+	 * Gets the low-order 64 bits of the address at the given row.
+	 *
+	 * @see  InetAddress#getLow()
+	 */
+	public long getLow(int index) throws IndexOutOfBoundsException {
+		checkIndex(index);
+		return
+			index < inetSize
+			? (InetAddress.IPV4_NET_MAPPED_LO | (inet[index] & 0xffffffffL))
+			: inet6Lo[index - inetSize];
+	}
+
+	/**
+	 * Gets the address at the given row.
+	 */
+	public InetAddress get(int index) throws IndexOutOfBoundsException {
+		return InetAddress.valueOf(getHigh(index), getLow(index));
+	}
+
+	/**
+	 * Finds the first IPv4 row that is greater than or equal to the given unsigned value.
+	 */
+	private int inetLowerBound(int value) {
+		int low = 0;
+		int high = inetSize;
+		while(low < high) {
+			int mid = (low + high) >>> 1;
+			if(Integer.compareUnsigned(inet[mid], value) < 0) low = mid + 1;
+			else high = mid;
+		}
+		return low;
+	}
+
+	/**
+	 * Finds the first IPv6 row that is greater than or equal to the given unsigned value.
+	 */
+	private int inet6LowerBound(long hi, long lo) {
+		int low = 0;
+		int high = inet6Size;
+		while(low < high) {
+			int mid = (low + high) >>> 1;
+			if(InetAddressBits.compare(inet6Hi[mid], inet6Lo[mid], hi, lo) < 0) low = mid + 1;
+			else high = mid;
+		}
+		return low;
+	}
+
+	/**
+	 * Finds the first row greater than or equal to the given address, in the order of this column.
+	 * <p>
+	 * The family is given separately because the bounds of an IPv6 prefix may be within the IPv4-mapped space,
+	 * which is never present in the IPv6 rows.
+	 * </p>
+	 */
+	private int lowerBound(boolean inet, long hi, long lo) {
+		if(inet) return inetLowerBound((int)lo);
+		return inetSize + inet6LowerBound(hi, lo);
+	}
+
+	/**
+	 * Finds the first row greater than the given address, in the order of this column.
+	 */
+	private int upperBound(boolean inet, long hi, long lo) {
+		if(inet) {
+			int value = (int)lo;
+			return value == -1 ? inetSize : inetLowerBound(value + 1);
+		} else {
+			if(lo != -1) return inetSize + inet6LowerBound(hi, lo + 1);
+			if(hi != -1) return inetSize + inet6LowerBound(hi + 1, 0);
+			return inetSize + inet6Size;
+		}
+	}
+
+	/**
+	 * Gets the rows in the given prefix, which are always contiguous.
+	 *
+	 * @return  A new array of {@code {fromIndex, toIndex}}, where {@code fromIndex} is inclusive and {@code toIndex}
+	 *          is exclusive.  When no rows are in the prefix, {@code fromIndex == toIndex}, which is where rows of the
+	 *          prefix would be inserted.
+	 */
+	public int[] rangeOf(InetAddressPrefix prefix) {
+		InetAddress address = prefix.getAddress();
+		boolean inet = InetAddressBits.isInet(address.hi, address.lo);
+		int bits = InetAddressBits.getKeyBits(prefix);
+		long fromHi = InetAddressBits.maskHi(address.hi, bits);
+		long fromLo = InetAddressBits.maskLo(address.lo, bits);
+		return new int[] {
+			lowerBound(inet, fromHi, fromLo),
+			upperBound(
+				inet,
+				fromHi | InetAddressBits.lowBitsHi(128 - bits),
+				fromLo | InetAddressBits.lowBitsLo(128 - bits)
+			)
+		};
+	}
+
+	/**
+	 * Counts the rows in the given prefix, by binary search.
+	 */
+	public int countIn(InetAddressPrefix prefix) {
+		InetAddress address = prefix.getAddress();
+		boolean inet = InetAddressBits.isInet(address.hi, address.lo);
+		int bits = InetAddressBits.getKeyBits(prefix);
+		long fromHi = InetAddressBits.maskHi(address.hi, bits);
+		long fromLo = InetAddressBits.maskLo(address.lo, bits);
+		return
+			upperBound(
+				inet,
+				fromHi | InetAddressBits.lowBitsHi(128 - bits),
+				fromLo | InetAddressBits.lowBitsLo(128 - bits)
+			)
+			- lowerBound(inet, fromHi, fromLo);
+	}
+
+	/**
+	 * Counts the rows in any of the prefixes of the given set, by binary search per range of the set.
+	 */
+	public int countIn(InetAddressPrefixSet prefixes) {
+		int[] count = {0};
+		prefixes.forEachRange((fromHi, fromLo, toHi, toLo) -> {
+			// IPv6 ranges never start within the IPv4-mapped space, which InetAddressPrefixSet excludes from them
+			boolean inet = InetAddressBits.isInet(fromHi, fromLo);
+			count[0] += upperBound(inet, toHi, toLo) - lowerBound(inet, fromHi, fromLo);
+		});
+		return count[0];
+	}
+
+	/**
+	 * Checks if any row is in the given prefix.
+	 */
+	public boolean containsAny(InetAddressPrefix prefix) {
+		return countIn(prefix) != 0;
+	}
+
+	/**
+	 * Checks if every row is in the given prefix.  An empty column is in every prefix.
+	 * <p>
+	 * Since the rows are sorted, only the first and last rows need to be compared under the prefix mask.
+	 * </p>
+	 */
+	public boolean containsAll(InetAddressPrefix prefix) {
+		int size = size();
+		if(size == 0) return true;
+		InetAddress address = prefix.getAddress();
+		// IPv4 addresses will never match IPv6
+		if(InetAddressBits.isInet(address.hi, address.lo) ? (inet6Size != 0) : (inetSize != 0)) return false;
+		int bits = InetAddressBits.getKeyBits(prefix);
+		long maskedHi = InetAddressBits.maskHi(address.hi, bits);
+		long maskedLo = InetAddressBits.maskLo(address.lo, bits);
+		return
+			InetAddressBits.maskHi(getHigh(0), bits) == maskedHi
+			&& InetAddressBits.maskLo(getLow(0), bits) == maskedLo
+			&& InetAddressBits.maskHi(getHigh(size - 1), bits) == maskedHi
+			&& InetAddressBits.maskLo(getLow(size - 1), bits) == maskedLo;
+	}
+}
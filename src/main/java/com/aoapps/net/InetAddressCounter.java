@@ -0,0 +1,449 @@
+/*
+ * ao-net-types - Networking-related value types.
+ * Copyright (C) 2021  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-net-types.
+ *
+ * ao-net-types is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-net-types is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-net-types.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aoapps.net;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe sliding-window counters keyed by address, or by the network of each address
+ * aggregated to a given prefix, such as per <code>/24</code> for IPv4 and per <code>/64</code> for IPv6.
+ * <p>
+ * The window is divided into buckets; counts older than the window expire one bucket at a time.
+ * Keys are the 128-bit {@link InetAddress#getHigh() high} and {@link InetAddress#getLow() low} bits,
+ * so counting a first-seen address creates no objects.
+ * </p>
+ * <ul>
+ * <li>{@link #newExact(int, int, long, int, int) Exact} counters are lock-striped open-addressing
+ *     hash tables, bounded by a maximum number of keys.  When a stripe is full, expired keys are
+ *     evicted first, then the key with the lowest count among a small sample near the new key.</li>
+ * <li>{@link #newApproximate(int, int, long, int, int, int) Approximate} counters are lock-free
+ *     count-min sketches of fixed size, which never under-count but may over-count on collisions,
+ *     even while concurrently advancing into a new bucket.  Each count within a bucket saturates
+ *     at 2<sup>40</sup>-1.</li>
+ * </ul>
+ *
+ * @author  AO Industries, Inc.
+ */
+public abstract class InetAddressCounter {
+
+	/**
+	 * Creates a new exact counter.
+	 *
+	 * @param  ipv4Prefix    The prefix each IPv4 address is aggregated to, {@code 32} to count each address
+	 * @param  ipv6Prefix    The prefix each IPv6 address is aggregated to, {@code 128} to count each address
+	 * @param  windowMillis  The duration of the sliding window
+	 * @param  buckets       The number of buckets the window is divided into
+	 * @param  maxKeys       The maximum number of keys tracked before eviction
+	 */
+	public static InetAddressCounter newExact(int ipv4Prefix, int ipv6Prefix, long windowMillis, int buckets, int maxKeys) {
+		return new Exact(ipv4Prefix, ipv6Prefix, windowMillis, buckets, maxKeys);
+	}
+
+	/**
+	 * Creates a new approximate counter.
+	 *
+	 * @param  ipv4Prefix    The prefix each IPv4 address is aggregated to, {@code 32} to count each address
+	 * @param  ipv6Prefix    The prefix each IPv6 address is aggregated to, {@code 128} to count each address
+	 * @param  windowMillis  The duration of the sliding window
+	 * @param  buckets       The number of buckets the window is divided into
+	 * @param  width         The number of counters per row of the sketch, rounded up to a power of two
+	 * @param  depth         The number of rows (hash functions) of the sketch
+	 */
+	public static InetAddressCounter newApproximate(int ipv4Prefix, int ipv6Prefix, long windowMillis, int buckets, int width, int depth) {
+		return new Approximate(ipv4Prefix, ipv6Prefix, windowMillis, buckets, width, depth);
+	}
+
+	final int ipv4KeyBits;
+	final int ipv6KeyBits;
+	final long bucketMillis;
+	final int buckets;
+
+	private InetAddressCounter(int ipv4Prefix, int ipv6Prefix, long windowMillis, int buckets) {
+		if(ipv4Prefix < 0 || ipv4Prefix > 32) throw new IllegalArgumentException("ipv4Prefix out of range (0-32): " + ipv4Prefix);
+		if(ipv6Prefix < 0 || ipv6Prefix > 128) throw new IllegalArgumentException("ipv6Prefix out of range (0-128): " + ipv6Prefix);
+		if(buckets < 1) throw new IllegalArgumentException("buckets < 1: " + buckets);
+		if(windowMillis < buckets) throw new IllegalArgumentException("windowMillis < buckets: " + windowMillis + " < " + buckets);
+		this.ipv4KeyBits = InetAddressBits.IPV4_MAPPED_BITS + ipv4Prefix;
+		this.ipv6KeyBits = ipv6Prefix;
+		this.bucketMillis = windowMillis / buckets;
+		this.buckets = buckets;
+	}
+
+	/**
+	 * Gets the number of bits of the key for the given address.
+	 */
+	final int getKeyBits(long hi, long lo) {
+		return InetAddressBits.isInet(hi, lo) ? ipv4KeyBits : ipv6KeyBits;
+	}
+
+	/**
+	 * Gets the duration of the sliding window, which is a multiple of the bucket duration.
+	 */
+	public long getWindowMillis() {
+		return bucketMillis * buckets;
+	}
+
+	/**
+	 * Is this an exact counter?
+	 */
+	public abstract boolean isExact();
+
+	/**
+	 * Adds to the count for the key of the given address.
+	 *
+	 * @param  hi  See {@link InetAddress#getHigh()}
+	 * @param  lo  See {@link InetAddress#getLow()}
+	 * @param  currentTimeMillis  The current time, as from {@link System#currentTimeMillis()}
+	 *
+	 * @return  The count within the window, including this delta
+	 */
+	public abstract long add(long hi, long lo, long delta, long currentTimeMillis);
+
+	/**
+	 * Adds one to the count for the key of the given address, at the current time.
+	 *
+	 * @return  The count within the window, including this increment
+	 */
+	public long increment(InetAddress address) {
+		return add(address.hi, address.lo, 1, System.currentTimeMillis());
+	}
+
+	/**
+	 * Gets the count for the key of the given address.
+	 *
+	 * @param  hi  See {@link InetAddress#getHigh()}
+	 * @param  lo  See {@link InetAddress#getLow()}
+	 * @param  currentTimeMillis  The current time, as from {@link System#currentTimeMillis()}
+	 *
+	 * @return  The count within the window
+	 */
+	public abstract long get(long hi, long lo, long currentTimeMillis);
+
+	/**
+	 * Gets the count for the key of the given address, at the current time.
+	 *
+	 * @return  The count within the window
+	 */
+	public long get(InetAddress address) {
+		return get(address.hi, address.lo, System.currentTimeMillis());
+	}
+
+	/**
+	 * Gets the number of keys evicted to make room for new keys.
+	 * Always zero for approximate counters.
+	 */
+	public abstract long getEvictions();
+
+	private static class Exact extends InetAddressCounter {
+
+		/**
+		 * Each entry is <code>lastEpoch, count[0], ..., count[buckets - 1]</code>,
+		 * where the count for an epoch is at <code>epoch % buckets</code>.
+		 */
+		private static long rotate(LongPages pages, long base, int buckets, long epoch) {
+			long last = pages.get(base);
+			if(epoch <= last) return last;
+			long clearTo = Math.min(epoch, last + buckets);
+			for(long e = last + 1; e <= clearTo; e++) pages.set(base + 1 + (e % buckets), 0);
+			pages.set(base, epoch);
+			return epoch;
+		}
+
+		private static long sum(LongPages pages, long base, int buckets) {
+			long sum = 0;
+			for(int i = 1; i <= buckets; i++) sum += pages.get(base + i);
+			return sum;
+		}
+
+		/**
+		 * The number of occupied slots sampled when evicting a live key.
+		 */
+		private static final int EVICTION_SAMPLES = 8;
+
+		private class Stripe extends InetAddressHashTable {
+
+			private final int maxKeys;
+			private long lastSweepEpoch = -1;
+
+			private Stripe(int maxKeys) {
+				super(3 + buckets, maxKeys, false);
+				this.maxKeys = maxKeys;
+			}
+
+			private long getBase(int slot) {
+				return (long)slot * stride + 2;
+			}
+
+			private synchronized long add(long hi, long lo, long delta, long epoch) {
+				int slot = findSlot(hi, lo);
+				if(slot == -1) {
+					if(tableSize >= maxKeys) evict(hi, lo, epoch);
+					slot = -(addSlot(hi, lo) + 1);
+				}
+				long base = getBase(slot);
+				long last = rotate(table, base, buckets, epoch);
+				long index = base + 1 + (last % buckets);
+				table.set(index, table.get(index) + delta);
+				return sum(table, base, buckets);
+			}
+
+			private synchronized long get(long hi, long lo, long epoch) {
+				int slot = findSlot(hi, lo);
+				if(slot == -1) return 0;
+				long base = getBase(slot);
+				rotate(table, base, buckets, epoch);
+				return sum(table, base, buckets);
+			}
+
+			private void evict(long hi, long lo, long epoch) {
+				// Remove all expired keys, at most once per epoch
+				if(lastSweepEpoch != epoch) {
+					lastSweepEpoch = epoch;
+					int slot = 0;
+					while(slot < getCapacity()) {
+						if(isSlotUsed(slot) && table.get(getBase(slot)) <= epoch - buckets) {
+							removeSlot(slot);
+							// Check the same slot again, since a following key may have shifted back into it
+						} else {
+							slot++;
+						}
+					}
+					if(tableSize < maxKeys) return;
+				}
+				// Remove the lowest count among a sample of keys near the new key
+				int slot = hash(hi, lo) & mask;
+				int minSlot = -1;
+				long minSum = Long.MAX_VALUE;
+				for(int sampled = 0; sampled < EVICTION_SAMPLES; slot = (slot + 1) & mask) {
+					if(isSlotUsed(slot)) {
+						long base = getBase(slot);
+						rotate(table, base, buckets, epoch);
+						long s = sum(table, base, buckets);
+						if(s < minSum) {
+							minSum = s;
+							minSlot = slot;
+						}
+						sampled++;
+						if(sampled == tableSize) break;
+					}
+				}
+				removeSlot(minSlot);
+				evictions.incrementAndGet();
+			}
+		}
+
+		private final Stripe[] stripes;
+
+		/**
+		 * The all-zero key marks empty slots, so its entry is separate.
+		 * Synchronized on itself.
+		 */
+		private final LongPages zeroEntry;
+
+		private final AtomicLong evictions = new AtomicLong();
+
+		private Exact(int ipv4Prefix, int ipv6Prefix, long windowMillis, int buckets, int maxKeys) {
+			super(ipv4Prefix, ipv6Prefix, windowMillis, buckets);
+			if(maxKeys < 1) throw new IllegalArgumentException("maxKeys < 1: " + maxKeys);
+			int numStripes = 1;
+			// At least 32 keys per stripe, so sampled eviction has a reasonable choice
+			while(numStripes < 64 && numStripes * 64 <= maxKeys) numStripes <<= 1;
+			stripes = new Stripe[numStripes];
+			int keysPerStripe = (maxKeys + numStripes - 1) / numStripes;
+			for(int i = 0; i < numStripes; i++) stripes[i] = new Stripe(keysPerStripe);
+			zeroEntry = LongPages.allocate(1 + buckets, false);
+		}
+
+		@Override
+		public boolean isExact() {
+			return true;
+		}
+
+		private Stripe getStripe(long hi, long lo) {
+			// Use the high bits, since the low bits select the slot within the stripe
+			return stripes[(InetAddressHashTable.hash(hi, lo) >>> 26) & (stripes.length - 1)];
+		}
+
+		@Override
+		public long add(long hi, long lo, long delta, long currentTimeMillis) {
+			int keyBits = getKeyBits(hi, lo);
+			hi = InetAddressBits.maskHi(hi, keyBits);
+			lo = InetAddressBits.maskLo(lo, keyBits);
+			long epoch = currentTimeMillis / bucketMillis;
+			if(hi == 0 && lo == 0) {
+				synchronized(zeroEntry) {
+					long last = rotate(zeroEntry, 0, buckets, epoch);
+					long index = 1 + (last % buckets);
+					zeroEntry.set(index, zeroEntry.get(index) + delta);
+					return sum(zeroEntry, 0, buckets);
+				}
+			}
+			return getStripe(hi, lo).add(hi, lo, delta, epoch);
+		}
+
+		@Override
+		public long get(long hi, long lo, long currentTimeMillis) {
+			int keyBits = getKeyBits(hi, lo);
+			hi = InetAddressBits.maskHi(hi, keyBits);
+			lo = InetAddressBits.maskLo(lo, keyBits);
+			long epoch = currentTimeMillis / bucketMillis;
+			if(hi == 0 && lo == 0) {
+				synchronized(zeroEntry) {
+					rotate(zeroEntry, 0, buckets, epoch);
+					return sum(zeroEntry, 0, buckets);
+				}
+			}
+			return getStripe(hi, lo).get(hi, lo, epoch);
+		}
+
+		@Override
+		public long getEvictions() {
+			return evictions.get();
+		}
+	}
+
+	private static class Approximate extends InetAddressCounter {
+
+		private final int widthMask;
+		private final int depth;
+
+		/**
+		 * The counters, indexed by <code>((row * width) + column) * buckets + (epoch % buckets)</code>.
+		 * Each is tagged with its epoch in the high {@link #TAG_BITS} bits, so a counter from an
+		 * earlier epoch is reset by the write that reuses it, rather than by clearing ahead of writers.
+		 */
+		private final AtomicLongArray counts;
+
+		private static final int COUNT_BITS = 40;
+		private static final int TAG_BITS = Long.SIZE - COUNT_BITS;
+		private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+		private static final long TAG_MASK = (1L << TAG_BITS) - 1;
+
+		private final AtomicLong currentEpoch = new AtomicLong();
+
+		private Approximate(int ipv4Prefix, int ipv6Prefix, long windowMillis, int buckets, int width, int depth) {
+			super(ipv4Prefix, ipv6Prefix, windowMillis, buckets);
+			if(width < 1) throw new IllegalArgumentException("width < 1: " + width);
+			if(depth < 1) throw new IllegalArgumentException("depth < 1: " + depth);
+			// Epoch tags must distinguish the window from the epochs before it
+			if(buckets > (1 << (TAG_BITS - 2))) throw new IllegalArgumentException("buckets > " + (1 << (TAG_BITS - 2)) + ": " + buckets);
+			int powerOfTwo = 1;
+			while(powerOfTwo < width) powerOfTwo <<= 1;
+			long size = (long)powerOfTwo * depth * buckets;
+			if(size > Integer.MAX_VALUE) throw new IllegalArgumentException("width * depth * buckets too large: " + size);
+			this.widthMask = powerOfTwo - 1;
+			this.depth = depth;
+			this.counts = new AtomicLongArray((int)size);
+		}
+
+		@Override
+		public boolean isExact() {
+			return false;
+		}
+
+		/**
+		 * Advances the current epoch, never going backwards.
+		 *
+		 * @return  the current epoch, which is at least the given epoch
+		 */
+		private long advance(long epoch) {
+			return currentEpoch.accumulateAndGet(epoch, Math::max);
+		}
+
+		/**
+		 * Gets the index of the first bucket of the cell for the given row.
+		 */
+		private int getCell(int row, long hash) {
+			// Kirsch-Mitzenmacher: row hashes from two 32-bit halves
+			int h1 = (int)hash;
+			int h2 = (int)(hash >>> 32) | 1;
+			int column = (h1 + row * h2) & widthMask;
+			return (row * (widthMask + 1) + column) * buckets;
+		}
+
+		/**
+		 * Adds to a counter, first resetting it when tagged with an earlier epoch.
+		 * A counter already tagged with a later epoch is added to, which may over-count but never under-counts.
+		 */
+		private void add(int index, long tag, long delta) {
+			while(true) {
+				long value = counts.get(index);
+				long valueTag = value >>> COUNT_BITS;
+				long count;
+				if(valueTag != tag && ((tag - valueTag) & TAG_MASK) < (1L << (TAG_BITS - 1))) {
+					// Earlier epoch
+					count = 0;
+					valueTag = tag;
+				} else {
+					count = value & COUNT_MASK;
+				}
+				count += delta;
+				if(count < 0) count = 0;
+				else if(count > COUNT_MASK) count = COUNT_MASK;
+				if(counts.compareAndSet(index, value, (valueTag << COUNT_BITS) | count)) return;
+			}
+		}
+
+		private long estimate(long hash, long epoch) {
+			long min = Long.MAX_VALUE;
+			for(int row = 0; row < depth; row++) {
+				int cell = getCell(row, hash);
+				long sum = 0;
+				for(int i = 0; i < buckets; i++) {
+					long value = counts.get(cell + i);
+					// Only the counters tagged within the window, including any from a concurrently advanced epoch
+					long age = (epoch - (value >>> COUNT_BITS)) & TAG_MASK;
+					if(age < buckets || age >= TAG_MASK - buckets) sum += value & COUNT_MASK;
+				}
+				if(sum < min) min = sum;
+			}
+			return min;
+		}
+
+		@Override
+		public long add(long hi, long lo, long delta, long currentTimeMillis) {
+			int keyBits = getKeyBits(hi, lo);
+			long hash = InetAddressHashTable.hash64(InetAddressBits.maskHi(hi, keyBits), InetAddressBits.maskLo(lo, keyBits));
+			long epoch = advance(currentTimeMillis / bucketMillis);
+			int bucket = (int)(epoch % buckets);
+			long tag = epoch & TAG_MASK;
+			for(int row = 0; row < depth; row++) {
+				add(getCell(row, hash) + bucket, tag, delta);
+			}
+			return estimate(hash, epoch);
+		}
+
+		@Override
+		public long get(long hi, long lo, long currentTimeMillis) {
+			int keyBits = getKeyBits(hi, lo);
+			long hash = InetAddressHashTable.hash64(InetAddressBits.maskHi(hi, keyBits), InetAddressBits.maskLo(lo, keyBits));
+			return estimate(hash, advance(currentTimeMillis / bucketMillis));
+		}
+
+		@Override
+		public long getEvictions() {
+			return 0;
+		}
+	}
+}
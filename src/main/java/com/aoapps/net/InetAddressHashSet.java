@@ -0,0 +1,178 @@
+/*
+ * ao-net-types - Networking-related value types.
+ * Copyright (C) 2021  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-net-types.
+ *
+ * ao-net-types is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-net-types is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-net-types.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aoapps.net;
+
+import java.util.function.Consumer;
+
+/**
+ * A set of {@link InetAddress}, stored as the primitive {@link InetAddress#getHigh() high} and
+ * {@link InetAddress#getLow() low} bits in an open-addressing hash table.  At 16 bytes per slot,
+ * this uses a fraction of the memory of a {@code HashSet<InetAddress>}.  The table may optionally
+ * be stored off-heap.
+ * <p>
+ * {@link InetAddress} are only created at the API edge, by {@link #forEach(java.util.function.Consumer)}.
+ * All other methods have primitive overloads.
+ * </p>
+ * <p>
+ * This class is not thread-safe.
+ * </p>
+ *
+ * @author  AO Industries, Inc.
+ */
+public class InetAddressHashSet extends InetAddressHashTable {
+
+	/**
+	 * Receives addresses without any {@link InetAddress}.
+	 */
+	@FunctionalInterface
+	public static interface AddressConsumer {
+
+		/**
+		 * @param  hi  See {@link InetAddress#getHigh()}
+		 * @param  lo  See {@link InetAddress#getLow()}
+		 */
+		void accept(long hi, long lo);
+	}
+
+	private boolean containsZero;
+
+	/**
+	 * @param  expectedSize  The number of addresses that may be added without resizing
+	 * @param  direct        When {@code true}, stores the table off-heap in direct buffers
+	 */
+	public InetAddressHashSet(int expectedSize, boolean direct) {
+		super(2, expectedSize, direct);
+	}
+
+	/**
+	 * Creates an on-heap set.
+	 *
+	 * @param  expectedSize  The number of addresses that may be added without resizing
+	 */
+	public InetAddressHashSet(int expectedSize) {
+		this(expectedSize, false);
+	}
+
+	public InetAddressHashSet() {
+		this(0, false);
+	}
+
+	/**
+	 * Is this set stored off-heap?
+	 */
+	public boolean isDirect() {
+		return direct;
+	}
+
+	public int size() {
+		return containsZero ? (tableSize + 1) : tableSize;
+	}
+
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	public void clear() {
+		clearTable();
+		containsZero = false;
+	}
+
+	/**
+	 * @param  hi  See {@link InetAddress#getHigh()}
+	 * @param  lo  See {@link InetAddress#getLow()}
+	 */
+	public boolean contains(long hi, long lo) {
+		if(hi == 0 && lo == 0) return containsZero;
+		return findSlot(hi, lo) != -1;
+	}
+
+	public boolean contains(InetAddress address) {
+		return contains(address.hi, address.lo);
+	}
+
+	/**
+	 * @param  hi  See {@link InetAddress#getHigh()}
+	 * @param  lo  See {@link InetAddress#getLow()}
+	 *
+	 * @return  {@code true} when added, {@code false} when already in this set
+	 */
+	public boolean add(long hi, long lo) {
+		if(hi == 0 && lo == 0) {
+			if(containsZero) return false;
+			containsZero = true;
+			return true;
+		}
+		return addSlot(hi, lo) < 0;
+	}
+
+	/**
+	 * @return  {@code true} when added, {@code false} when already in this set
+	 */
+	public boolean add(InetAddress address) {
+		return add(address.hi, address.lo);
+	}
+
+	/**
+	 * @param  hi  See {@link InetAddress#getHigh()}
+	 * @param  lo  See {@link InetAddress#getLow()}
+	 *
+	 * @return  {@code true} when removed, {@code false} when not in this set
+	 */
+	public boolean remove(long hi, long lo) {
+		if(hi == 0 && lo == 0) {
+			if(!containsZero) return false;
+			containsZero = false;
+			return true;
+		}
+		int slot = findSlot(hi, lo);
+		if(slot == -1) return false;
+		removeSlot(slot);
+		return true;
+	}
+
+	/**
+	 * @return  {@code true} when removed, {@code false} when not in this set
+	 */
+	public boolean remove(InetAddress address) {
+		return remove(address.hi, address.lo);
+	}
+
+	/**
+	 * Calls the action for each address, in no particular order, without creating any objects.
+	 * The set must not be modified during iteration.
+	 */
+	public void forEach(AddressConsumer action) {
+		if(containsZero) action.accept(0, 0);
+		for(int slot = 0, capacity = getCapacity(); slot < capacity; slot++) {
+			if(isSlotUsed(slot)) action.accept(getHi(slot), getLo(slot));
+		}
+	}
+
+	/**
+	 * Calls the action for each address, in no particular order.
+	 * The set must not be modified during iteration.
+	 */
+	public void forEach(Consumer<? super InetAddress> action) {
+		forEach((hi, lo) -> action.accept(InetAddress.valueOf(hi, lo)));
+	}
+}
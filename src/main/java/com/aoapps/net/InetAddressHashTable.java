@@ -0,0 +1,217 @@
+/*
+ * ao-net-types - Networking-related value types.
+ * Copyright (C) 2021  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-net-types.
+ *
+ * ao-net-types is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-net-types is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-net-types.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aoapps.net;
+
+/**
+ * An open-addressing, linear-probing hash table of 128-bit {@link InetAddress#hi}/{@link InetAddress#lo}
+ * keys stored in {@link LongPages}.  Each slot is {@code stride} longs: the key followed by any values.
+ * <p>
+ * The all-zero key (<code>::</code>) marks an empty slot, so it is tracked separately by the subclasses.
+ * Removal uses backward-shift deletion, so there are no tombstones.
+ * </p>
+ *
+ * @author  AO Industries, Inc.
+ */
+abstract class InetAddressHashTable {
+
+	private static final float LOAD_FACTOR = 0.75f;
+
+	private static final int MIN_CAPACITY = 16;
+
+	private static final int MAX_CAPACITY = 1 << 30;
+
+	/**
+	 * Mixes all 128 bits into a well-distributed 64-bit hash.
+	 */
+	static long hash64(long hi, long lo) {
+		long h = hi * 0x9e3779b97f4a7c15L + lo;
+		// MurmurHash3 fmix64
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+
+	/**
+	 * Mixes all 128 bits into a well-distributed hash.
+	 */
+	static int hash(long hi, long lo) {
+		return (int)hash64(hi, lo);
+	}
+
+	private static int getCapacity(int expectedSize) {
+		if(expectedSize < 0) throw new IllegalArgumentException("expectedSize < 0: " + expectedSize);
+		long needed = (long)Math.ceil(expectedSize / (double)LOAD_FACTOR) + 1;
+		if(needed > MAX_CAPACITY) throw new IllegalArgumentException("expectedSize too large: " + expectedSize);
+		int capacity = MIN_CAPACITY;
+		while(capacity < needed) capacity <<= 1;
+		return capacity;
+	}
+
+	final int stride;
+	final boolean direct;
+
+	LongPages table;
+	int mask;
+	private int threshold;
+
+	/**
+	 * The number of keys in {@link #table}, not counting any zero key.
+	 */
+	int tableSize;
+
+	/**
+	 * @param  stride  The number of longs per slot, including the two for the key
+	 * @param  direct  When {@code true}, stores off-heap
+	 */
+	InetAddressHashTable(int stride, int expectedSize, boolean direct) {
+		assert stride >= 2;
+		this.stride = stride;
+		this.direct = direct;
+		allocate(getCapacity(expectedSize));
+	}
+
+	private void allocate(int capacity) {
+		table = LongPages.allocate((long)capacity * stride, direct);
+		mask = capacity - 1;
+		threshold = (int)(capacity * LOAD_FACTOR);
+	}
+
+	/**
+	 * Removes all keys from the table, shrinking to the minimum capacity.
+	 */
+	void clearTable() {
+		allocate(MIN_CAPACITY);
+		tableSize = 0;
+	}
+
+	/**
+	 * Finds the slot containing the given non-zero key.
+	 *
+	 * @return  the slot or {@code -1} when not found
+	 */
+	final int findSlot(long hi, long lo) {
+		assert hi != 0 || lo != 0;
+		int slot = hash(hi, lo) & mask;
+		while(true) {
+			long index = (long)slot * stride;
+			long slotHi = table.get(index);
+			long slotLo = table.get(index + 1);
+			if(slotHi == hi && slotLo == lo) return slot;
+			if(slotHi == 0 && slotLo == 0) return -1;
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	/**
+	 * Finds the slot containing the given non-zero key, adding it when not found.
+	 * Values of a newly added key are zero.
+	 *
+	 * @return  the slot when found, or <code>-(slot + 1)</code> when added
+	 */
+	final int addSlot(long hi, long lo) {
+		assert hi != 0 || lo != 0;
+		if(tableSize >= threshold) grow();
+		int slot = hash(hi, lo) & mask;
+		while(true) {
+			long index = (long)slot * stride;
+			long slotHi = table.get(index);
+			long slotLo = table.get(index + 1);
+			if(slotHi == hi && slotLo == lo) return slot;
+			if(slotHi == 0 && slotLo == 0) {
+				table.set(index, hi);
+				table.set(index + 1, lo);
+				tableSize++;
+				return -(slot + 1);
+			}
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	/**
+	 * Removes the key and values at the given slot, shifting back any following keys in its probe sequence.
+	 */
+	final void removeSlot(int slot) {
+		int gap = slot;
+		int i = slot;
+		while(true) {
+			i = (i + 1) & mask;
+			long index = (long)i * stride;
+			long slotHi = table.get(index);
+			long slotLo = table.get(index + 1);
+			if(slotHi == 0 && slotLo == 0) break;
+			int ideal = hash(slotHi, slotLo) & mask;
+			// Move back when the gap is between its ideal slot and its current slot, cyclically
+			if(((i - ideal) & mask) >= ((i - gap) & mask)) {
+				long gapIndex = (long)gap * stride;
+				for(int j = 0; j < stride; j++) table.set(gapIndex + j, table.get(index + j));
+				gap = i;
+			}
+		}
+		long gapIndex = (long)gap * stride;
+		for(int j = 0; j < stride; j++) table.set(gapIndex + j, 0);
+		tableSize--;
+	}
+
+	private void grow() {
+		int oldCapacity = mask + 1;
+		if(oldCapacity >= MAX_CAPACITY) throw new IllegalStateException("Maximum capacity reached: " + MAX_CAPACITY);
+		LongPages oldTable = table;
+		allocate(oldCapacity << 1);
+		for(int oldSlot = 0; oldSlot < oldCapacity; oldSlot++) {
+			long oldIndex = (long)oldSlot * stride;
+			long hi = oldTable.get(oldIndex);
+			long lo = oldTable.get(oldIndex + 1);
+			if(hi != 0 || lo != 0) {
+				int slot = hash(hi, lo) & mask;
+				while(table.get((long)slot * stride) != 0 || table.get((long)slot * stride + 1) != 0) {
+					slot = (slot + 1) & mask;
+				}
+				long index = (long)slot * stride;
+				for(int j = 0; j < stride; j++) table.set(index + j, oldTable.get(oldIndex + j));
+			}
+		}
+	}
+
+	/**
+	 * Gets the number of slots, which may be iterated with {@link #isSlotUsed(int)}.
+	 */
+	final int getCapacity() {
+		return mask + 1;
+	}
+
+	final boolean isSlotUsed(int slot) {
+		long index = (long)slot * stride;
+		return table.get(index) != 0 || table.get(index + 1) != 0;
+	}
+
+	final long getHi(int slot) {
+		return table.get((long)slot * stride);
+	}
+
+	final long getLo(int slot) {
+		return table.get((long)slot * stride + 1);
+	}
+}
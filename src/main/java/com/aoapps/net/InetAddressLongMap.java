@@ -0,0 +1,267 @@
+/*
+ * ao-net-types - Networking-related value types.
+ * Copyright (C) 2021  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-net-types.
+ *
+ * ao-net-types is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-net-types is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-net-types.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aoapps.net;
+
+import java.util.function.ObjLongConsumer;
+
+/**
+ * A map from {@link InetAddress} to {@code long}, stored as the primitive {@link InetAddress#getHigh() high}
+ * and {@link InetAddress#getLow() low} bits and value in an open-addressing hash table.  At 24 bytes
+ * per slot, this uses a fraction of the memory of a {@code HashMap<InetAddress, Long>}, such as for
+ * per-address counters.  The table may optionally be stored off-heap.
+ * <p>
+ * {@link InetAddress} are only created at the API edge, by {@link #forEach(java.util.function.ObjLongConsumer)}.
+ * All other methods have primitive overloads.
+ * </p>
+ * <p>
+ * This class is not thread-safe.
+ * </p>
+ *
+ * @author  AO Industries, Inc.
+ */
+public class InetAddressLongMap extends InetAddressHashTable {
+
+	/**
+	 * Receives entries without any {@link InetAddress}.
+	 */
+	@FunctionalInterface
+	public static interface EntryConsumer {
+
+		/**
+		 * @param  hi  See {@link InetAddress#getHigh()}
+		 * @param  lo  See {@link InetAddress#getLow()}
+		 */
+		void accept(long hi, long lo, long value);
+	}
+
+	private final long noEntryValue;
+
+	private boolean containsZero;
+	private long zeroValue;
+
+	/**
+	 * @param  expectedSize  The number of addresses that may be added without resizing
+	 * @param  direct        When {@code true}, stores the table off-heap in direct buffers
+	 * @param  noEntryValue  The value returned when an address is not in this map
+	 */
+	public InetAddressLongMap(int expectedSize, boolean direct, long noEntryValue) {
+		super(3, expectedSize, direct);
+		this.noEntryValue = noEntryValue;
+	}
+
+	/**
+	 * Creates an on-heap map, returning {@code 0} for addresses not in this map.
+	 *
+	 * @param  expectedSize  The number of addresses that may be added without resizing
+	 */
+	public InetAddressLongMap(int expectedSize) {
+		this(expectedSize, false, 0);
+	}
+
+	public InetAddressLongMap() {
+		this(0, false, 0);
+	}
+
+	/**
+	 * Is this map stored off-heap?
+	 */
+	public boolean isDirect() {
+		return direct;
+	}
+
+	/**
+	 * Gets the value returned when an address is not in this map.
+	 */
+	public long getNoEntryValue() {
+		return noEntryValue;
+	}
+
+	public int size() {
+		return containsZero ? (tableSize + 1) : tableSize;
+	}
+
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	public void clear() {
+		clearTable();
+		containsZero = false;
+		zeroValue = 0;
+	}
+
+	private long getValue(int slot) {
+		return table.get((long)slot * stride + 2);
+	}
+
+	private void setValue(int slot, long value) {
+		table.set((long)slot * stride + 2, value);
+	}
+
+	/**
+	 * @param  hi  See {@link InetAddress#getHigh()}
+	 * @param  lo  See {@link InetAddress#getLow()}
+	 */
+	public boolean containsKey(long hi, long lo) {
+		if(hi == 0 && lo == 0) return containsZero;
+		return findSlot(hi, lo) != -1;
+	}
+
+	public boolean containsKey(InetAddress address) {
+		return containsKey(address.hi, address.lo);
+	}
+
+	/**
+	 * @param  hi  See {@link InetAddress#getHigh()}
+	 * @param  lo  See {@link InetAddress#getLow()}
+	 *
+	 * @return  the value or {@link #getNoEntryValue()} when not in this map
+	 */
+	public long get(long hi, long lo) {
+		if(hi == 0 && lo == 0) return containsZero ? zeroValue : noEntryValue;
+		int slot = findSlot(hi, lo);
+		return slot == -1 ? noEntryValue : getValue(slot);
+	}
+
+	/**
+	 * @return  the value or {@link #getNoEntryValue()} when not in this map
+	 */
+	public long get(InetAddress address) {
+		return get(address.hi, address.lo);
+	}
+
+	/**
+	 * @param  hi  See {@link InetAddress#getHigh()}
+	 * @param  lo  See {@link InetAddress#getLow()}
+	 *
+	 * @return  the previous value or {@link #getNoEntryValue()} when not previously in this map
+	 */
+	public long put(long hi, long lo, long value) {
+		if(hi == 0 && lo == 0) {
+			long old = containsZero ? zeroValue : noEntryValue;
+			containsZero = true;
+			zeroValue = value;
+			return old;
+		}
+		int slot = addSlot(hi, lo);
+		if(slot < 0) {
+			setValue(-(slot + 1), value);
+			return noEntryValue;
+		} else {
+			long old = getValue(slot);
+			setValue(slot, value);
+			return old;
+		}
+	}
+
+	/**
+	 * @return  the previous value or {@link #getNoEntryValue()} when not previously in this map
+	 */
+	public long put(InetAddress address, long value) {
+		return put(address.hi, address.lo, value);
+	}
+
+	/**
+	 * Adds to the value for an address, starting from {@link #getNoEntryValue()} when not in this map.
+	 * This is the primary operation for per-address counters.
+	 *
+	 * @param  hi  See {@link InetAddress#getHigh()}
+	 * @param  lo  See {@link InetAddress#getLow()}
+	 *
+	 * @return  the new value
+	 */
+	public long addTo(long hi, long lo, long delta) {
+		if(hi == 0 && lo == 0) {
+			long value = (containsZero ? zeroValue : noEntryValue) + delta;
+			containsZero = true;
+			zeroValue = value;
+			return value;
+		}
+		int slot = addSlot(hi, lo);
+		long value;
+		if(slot < 0) {
+			slot = -(slot + 1);
+			value = noEntryValue + delta;
+		} else {
+			value = getValue(slot) + delta;
+		}
+		setValue(slot, value);
+		return value;
+	}
+
+	/**
+	 * Adds to the value for an address, starting from {@link #getNoEntryValue()} when not in this map.
+	 *
+	 * @return  the new value
+	 */
+	public long addTo(InetAddress address, long delta) {
+		return addTo(address.hi, address.lo, delta);
+	}
+
+	/**
+	 * @param  hi  See {@link InetAddress#getHigh()}
+	 * @param  lo  See {@link InetAddress#getLow()}
+	 *
+	 * @return  the previous value or {@link #getNoEntryValue()} when not in this map
+	 */
+	public long remove(long hi, long lo) {
+		if(hi == 0 && lo == 0) {
+			if(!containsZero) return noEntryValue;
+			long old = zeroValue;
+			containsZero = false;
+			zeroValue = 0;
+			return old;
+		}
+		int slot = findSlot(hi, lo);
+		if(slot == -1) return noEntryValue;
+		long old = getValue(slot);
+		removeSlot(slot);
+		return old;
+	}
+
+	/**
+	 * @return  the previous value or {@link #getNoEntryValue()} when not in this map
+	 */
+	public long remove(InetAddress address) {
+		return remove(address.hi, address.lo);
+	}
+
+	/**
+	 * Calls the action for each entry, in no particular order, without creating any objects.
+	 * The map must not be modified during iteration.
+	 */
+	public void forEach(EntryConsumer action) {
+		if(containsZero) action.accept(0, 0, zeroValue);
+		for(int slot = 0, capacity = getCapacity(); slot < capacity; slot++) {
+			if(isSlotUsed(slot)) action.accept(getHi(slot), getLo(slot), getValue(slot));
+		}
+	}
+
+	/**
+	 * Calls the action for each entry, in no particular order.
+	 * The map must not be modified during iteration.
+	 */
+	public void forEach(ObjLongConsumer<? super InetAddress> action) {
+		forEach((hi, lo, value) -> action.accept(InetAddress.valueOf(hi, lo), value));
+	}
+}
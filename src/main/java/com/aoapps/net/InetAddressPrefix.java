@@ -28,10 +28,15 @@ import com.aoapps.lang.validation.InvalidResult;
 import com.aoapps.lang.validation.ValidResult;
 import com.aoapps.lang.validation.ValidationException;
 import com.aoapps.lang.validation.ValidationResult;
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
 import java.io.InvalidObjectException;
 import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 import java.util.ResourceBundle;
 
 /**
@@ -90,35 +95,239 @@ final public class InetAddressPrefix implements
 	 * @param address  The address and optional prefix as <code><i>address</i>[/<i>prefix</i>]</code>.
 	 *
 	 * @see  #toString()  for the inverse function
+	 * @see  #parse(java.lang.String, long[])  to parse without creating any objects
 	 */
-	@SuppressWarnings("deprecation")
 	public static InetAddressPrefix valueOf(String address) throws ValidationException {
-		int slashPos = address.indexOf('/');
-		if(slashPos == -1) {
-			InetAddress ia = InetAddress.valueOf(address);
-			return InetAddressPrefix.valueOf(
-				ia,
-				ia.getAddressFamily().getMaxPrefix()
-			);
-		} else {
-			int prefix;
-			{
-				String prefixStr = address.substring(slashPos + 1);
-				try {
-					prefix = Integer.parseInt(prefixStr);
-				} catch(NumberFormatException e) {
-					throw new ValidationException(
-						e,
-						new InvalidResult(RESOURCES, "valueOf.prefix.parseError", prefixStr)
-					);
+		long[] hiLoPrefix = new long[3];
+		int status = parse(address, hiLoPrefix);
+		if(status != PARSE_VALID) throw new ValidationException(getValidationResult(status));
+		return new InetAddressPrefix(
+			InetAddress.valueOf(hiLoPrefix[0], hiLoPrefix[1]),
+			(int)hiLoPrefix[2]
+		);
+	}
+
+	/**
+	 * Parses without throwing an exception, for when invalid input is expected to be common, such as from
+	 * untrusted sources.  When invalid, {@link #parse(java.lang.String, long[])} gives the reason as a status
+	 * without creating any objects.
+	 *
+	 * @param address  when {@code null}, returns {@code null}
+	 *
+	 * @return  the value or {@code null} when invalid
+	 */
+	public static InetAddressPrefix tryValueOf(String address) {
+		if(address == null) return null;
+		long[] hiLoPrefix = new long[3];
+		if(parse(address, hiLoPrefix) != PARSE_VALID) return null;
+		return new InetAddressPrefix(
+			InetAddress.valueOf(hiLoPrefix[0], hiLoPrefix[1]),
+			(int)hiLoPrefix[2]
+		);
+	}
+
+	// <editor-fold defaultstate="collapsed" desc="Parsing">
+	/**
+	 * The status returned by {@link #parse(java.lang.String, long[])} when the prefix is valid.
+	 */
+	public static final int PARSE_VALID = InetAddress.PARSE_VALID;
+
+	// Reasons a prefix is invalid, stored in the low-order byte of a parse status.
+	// Lower reasons are from parsing the address.
+	private static final int
+		PARSE_PREFIX_EMPTY       = 0x80,
+		PARSE_PREFIX_TOO_LONG    = 0x81,
+		PARSE_PREFIX_NON_DECIMAL = 0x82,
+		PARSE_PREFIX_TOO_BIG     = 0x83,
+		PARSE_PREFIX_NEGATIVE    = 0x84;
+
+	/**
+	 * Bit set in a {@link #PARSE_PREFIX_TOO_BIG} status for an IPv6 address.
+	 */
+	private static final int PARSE_PREFIX_TOO_BIG_INET6 = 1 << 24;
+
+	/**
+	 * The largest magnitude of a prefix that fits in a {@link #PARSE_PREFIX_TOO_BIG} or {@link #PARSE_PREFIX_NEGATIVE}
+	 * status.  Any larger is reported as {@link #PARSE_PREFIX_TOO_LONG}.
+	 */
+	private static final int MAX_PREFIX_MAGNITUDE = 0xffff;
+
+	/**
+	 * Converts a status returned by {@link #parse(java.lang.String, long[])} into its {@link ValidationResult}.
+	 * This is where any localized message is created, so callers that only need to know
+	 * whether a prefix is valid may simply compare the status to {@link #PARSE_VALID}.
+	 *
+	 * @return  {@link ValidResult} when {@code status == PARSE_VALID}, otherwise an {@link InvalidResult}
+	 *          explaining why the prefix could not be parsed.
+	 *
+	 * @throws  IllegalArgumentException  when {@code status} is not a status returned by {@code parse}
+	 */
+	public static ValidationResult getValidationResult(int status) throws IllegalArgumentException {
+		int reason = status & 0xff;
+		if(reason < PARSE_PREFIX_EMPTY) return InetAddress.getValidationResult(status);
+		switch(reason) {
+			case PARSE_PREFIX_EMPTY :
+				if(status == PARSE_PREFIX_EMPTY) return new InvalidResult(RESOURCES, "parse.prefix.empty");
+				break;
+			case PARSE_PREFIX_TOO_LONG :
+				if(status == PARSE_PREFIX_TOO_LONG) return new InvalidResult(RESOURCES, "parse.prefix.tooLong");
+				break;
+			case PARSE_PREFIX_NON_DECIMAL :
+				if((status >>> 24) == 0) return new InvalidResult(RESOURCES, "parse.prefix.nonDecimal", (char)(status >>> 8));
+				break;
+			case PARSE_PREFIX_TOO_BIG :
+				if((status & ~PARSE_PREFIX_TOO_BIG_INET6) >>> 24 == 0) {
+					@SuppressWarnings("deprecation")
+					int maxPrefix = ((status & PARSE_PREFIX_TOO_BIG_INET6) == 0 ? AddressFamily.INET : AddressFamily.INET6).getMaxPrefix();
+					return new InvalidResult(RESOURCES, "validate.prefix.tooBig", (status >>> 8) & 0xffff, maxPrefix);
 				}
+				break;
+			case PARSE_PREFIX_NEGATIVE :
+				if((status >>> 24) == 0) return new InvalidResult(RESOURCES, "validate.prefix.lessThanZero", -(status >>> 8));
+				break;
+		}
+		throw new IllegalArgumentException("Invalid parse status: " + status);
+	}
+
+	/**
+	 * Parses an IP address with optional prefix, without creating any objects.
+	 * The prefix has the same syntax as {@link Integer#parseInt(java.lang.String)}: an optional sign followed by one
+	 * or more decimal digits, with any number of leading zeros.  When no prefix is given, the prefix is
+	 * the {@link AddressFamily#getMaxPrefix() maximum} for the address family.
+	 *
+	 * @param  address     The address and optional prefix as <code><i>address</i>[/<i>prefix</i>]</code>, must be non-null
+	 * @param  hiLoPrefix  When valid, the high-order 64 bits of the address are stored at index zero,
+	 *                     the low-order 64 bits at index one, and the prefix at index two.
+	 *                     Unmodified when invalid.  Must be non-null with a length of at least three.
+	 *
+	 * @return  {@link #PARSE_VALID} or a non-zero status explaining why can't parse.
+	 *          See {@link #getValidationResult(int)}.
+	 *
+	 * @see  #valueOf(java.lang.String)
+	 */
+	public static int parse(String address, long[] hiLoPrefix) {
+		return parseImpl(address, 0, address.length(), hiLoPrefix);
+	}
+
+	/**
+	 * Parses an IP address with optional prefix from a range of characters, without creating any objects.
+	 *
+	 * @param  address     must be non-null
+	 * @param  start       the index of the first character, inclusive
+	 * @param  end         the index of the last character, exclusive
+	 * @param  hiLoPrefix  See {@link #parse(java.lang.String, long[])}
+	 *
+	 * @return  {@link #PARSE_VALID} or a non-zero status explaining why can't parse.
+	 *          See {@link #getValidationResult(int)}.
+	 *
+	 * @throws  IndexOutOfBoundsException  when the range is not within {@code address}
+	 *
+	 * @see  #parse(java.lang.String, long[])
+	 */
+	public static int parse(CharSequence address, int start, int end, long[] hiLoPrefix) throws IndexOutOfBoundsException {
+		InetAddress.checkRange(start, end, address.length());
+		return parseImpl(address, start, end, hiLoPrefix);
+	}
+
+	/**
+	 * Parses an IP address with optional prefix from a range of US-ASCII bytes, without creating any objects.
+	 *
+	 * @param  address     must be non-null
+	 * @param  start       the index of the first byte, inclusive
+	 * @param  end         the index of the last byte, exclusive
+	 * @param  hiLoPrefix  See {@link #parse(java.lang.String, long[])}
+	 *
+	 * @return  {@link #PARSE_VALID} or a non-zero status explaining why can't parse.
+	 *          See {@link #getValidationResult(int)}.
+	 *
+	 * @throws  IndexOutOfBoundsException  when the range is not within {@code address}
+	 *
+	 * @see  #parse(java.lang.String, long[])
+	 */
+	public static int parseAscii(byte[] address, int start, int end, long[] hiLoPrefix) throws IndexOutOfBoundsException {
+		InetAddress.checkRange(start, end, address.length);
+		return parseImpl(address, start, end, hiLoPrefix);
+	}
+
+	/**
+	 * Parses an IP address with optional prefix from a range of US-ASCII bytes in a buffer.
+	 * The indexes are absolute, and the position and limit of the buffer are neither used nor changed.
+	 * This creates no objects, reading through the {@linkplain ByteBuffer#array() array} when accessible,
+	 * otherwise by absolute gets, such as from a {@link java.nio.MappedByteBuffer}.
+	 *
+	 * @param  address     must be non-null
+	 * @param  start       the index of the first byte, inclusive
+	 * @param  end         the index of the last byte, exclusive
+	 * @param  hiLoPrefix  See {@link #parse(java.lang.String, long[])}
+	 *
+	 * @return  {@link #PARSE_VALID} or a non-zero status explaining why can't parse.
+	 *          See {@link #getValidationResult(int)}.
+	 *
+	 * @throws  IndexOutOfBoundsException  when the range is not within the capacity of {@code address}
+	 *
+	 * @see  #parse(java.lang.String, long[])
+	 */
+	public static int parseAscii(ByteBuffer address, int start, int end, long[] hiLoPrefix) throws IndexOutOfBoundsException {
+		InetAddress.checkRange(start, end, address.capacity());
+		if(address.hasArray()) {
+			int offset = address.arrayOffset();
+			return parseImpl(address.array(), offset + start, offset + end, hiLoPrefix);
+		}
+		return parseImpl(address, start, end, hiLoPrefix);
+	}
+
+	/**
+	 * Parses from any of the sources supported by {@link InetAddress#charAt(java.lang.Object, int)}.
+	 *
+	 * @see  #parse(java.lang.String, long[])
+	 */
+	private static int parseImpl(Object address, int start, int end, long[] hiLoPrefix) {
+		int slashPos = InetAddress.indexOf(address, '/', start, end);
+		if(slashPos == -1) {
+			int status = InetAddress.parseImpl(address, start, end, hiLoPrefix);
+			if(status == PARSE_VALID) {
+				hiLoPrefix[2] = InetAddressBits.isInet(hiLoPrefix[0], hiLoPrefix[1]) ? 32 : 128;
 			}
-			return InetAddressPrefix.valueOf(
-				InetAddress.valueOf(address.substring(0, slashPos)),
-				prefix
-			);
+			return status;
+		}
+		// Parse prefix first, matching the order of error reporting before parsing was object-free.
+		// The syntax is the same as Integer.parseInt: an optional sign then one or more decimal digits.
+		int i = slashPos + 1;
+		if(i == end) return PARSE_PREFIX_EMPTY;
+		char ch = InetAddress.charAt(address, i);
+		boolean negative = ch == '-';
+		if(negative || ch == '+') {
+			if(++i == end) return PARSE_PREFIX_NON_DECIMAL | (ch << 8);
 		}
+		int prefix = 0;
+		do {
+			ch = InetAddress.charAt(address, i);
+			int digit = (ch >= '0' && ch <= '9') ? (ch - '0') : Character.digit(ch, 10);
+			if(digit == -1) return PARSE_PREFIX_NON_DECIMAL | (ch << 8);
+			// Stop accumulating once too long, but keep checking for non-decimal characters
+			if(prefix <= MAX_PREFIX_MAGNITUDE) prefix = prefix * 10 + digit;
+		} while(++i < end);
+		if(prefix > MAX_PREFIX_MAGNITUDE) return PARSE_PREFIX_TOO_LONG;
+		// Parse the address into locals so hiLoPrefix is unmodified when the prefix is out of range
+		long hi = hiLoPrefix[0];
+		long lo = hiLoPrefix[1];
+		int status = InetAddress.parseImpl(address, start, slashPos, hiLoPrefix);
+		if(status != PARSE_VALID) return status;
+		if(negative && prefix != 0) {
+			hiLoPrefix[0] = hi;
+			hiLoPrefix[1] = lo;
+			return PARSE_PREFIX_NEGATIVE | (prefix << 8);
+		}
+		boolean isInet = InetAddressBits.isInet(hiLoPrefix[0], hiLoPrefix[1]);
+		if(prefix > (isInet ? 32 : 128)) {
+			hiLoPrefix[0] = hi;
+			hiLoPrefix[1] = lo;
+			return PARSE_PREFIX_TOO_BIG | (prefix << 8) | (isInet ? 0 : PARSE_PREFIX_TOO_BIG_INET6);
+		}
+		hiLoPrefix[2] = prefix;
+		return PARSE_VALID;
 	}
+	// </editor-fold>
 
 	private static final long serialVersionUID = 1L;
 
@@ -224,6 +433,84 @@ final public class InetAddressPrefix implements
 		return new com.aoapps.net.dto.InetAddressPrefix(address.getDto(), prefix);
 	}
 
+	// <editor-fold defaultstate="collapsed" desc="Binary">
+	/**
+	 * The maximum number of bytes in the binary format of any address prefix.
+	 * This is a sufficient buffer size for {@link #writeBinary(java.nio.ByteBuffer)}.
+	 */
+	public static final int MAX_BINARY_LENGTH = InetAddress.MAX_BINARY_LENGTH + 1;
+
+	/**
+	 * Gets the number of bytes in the binary format of this prefix: 6 for IPv4 or 18 for IPv6.
+	 */
+	public int getBinaryLength() {
+		return address.getBinaryLength() + 1;
+	}
+
+	/**
+	 * Writes this prefix in its compact binary format: the {@linkplain InetAddress#writeBinary(java.io.DataOutput) binary address}
+	 * followed by a single byte of prefix.
+	 *
+	 * @see  #readBinary(java.io.DataInput)
+	 */
+	public void writeBinary(DataOutput out) throws IOException {
+		address.writeBinary(out);
+		out.writeByte(prefix);
+	}
+
+	/**
+	 * Writes this prefix in its compact binary format, advancing the position of the buffer.
+	 *
+	 * @throws  BufferOverflowException  when fewer than {@link #getBinaryLength()} bytes remain,
+	 *                                   in which case nothing is written
+	 *
+	 * @see  #writeBinary(java.io.DataOutput)
+	 * @see  #readBinary(java.nio.ByteBuffer)
+	 */
+	public void writeBinary(ByteBuffer out) throws BufferOverflowException {
+		if(out.remaining() < getBinaryLength()) throw new BufferOverflowException();
+		address.writeBinary(out);
+		out.put((byte)prefix);
+	}
+
+	/**
+	 * Reads a prefix in the format written by {@link #writeBinary(java.io.DataOutput)}.
+	 *
+	 * @throws  InvalidObjectException  when the prefix is invalid for the address
+	 */
+	public static InetAddressPrefix readBinary(DataInput in) throws IOException {
+		InetAddress address = InetAddress.readBinary(in);
+		int prefix = in.readUnsignedByte();
+		ValidationResult result = validate(address, prefix);
+		if(!result.isValid()) throw new InvalidObjectException(result.toString());
+		return valueOfNoValidate(address, prefix);
+	}
+
+	/**
+	 * Reads a prefix in the format written by {@link #writeBinary(java.nio.ByteBuffer)}, advancing the position
+	 * of the buffer.
+	 *
+	 * @throws  BufferUnderflowException  when the buffer ends before the prefix, in which case the position is unchanged
+	 * @throws  IllegalArgumentException  when the address tag is unexpected or the prefix is invalid for the address,
+	 *                                    in which case the position is unchanged
+	 */
+	public static InetAddressPrefix readBinary(ByteBuffer in) throws BufferUnderflowException, IllegalArgumentException {
+		int pos = in.position();
+		InetAddress address = InetAddress.readBinary(in);
+		if(!in.hasRemaining()) {
+			in.position(pos);
+			throw new BufferUnderflowException();
+		}
+		int prefix = in.get() & 0xff;
+		ValidationResult result = validate(address, prefix);
+		if(!result.isValid()) {
+			in.position(pos);
+			throw new IllegalArgumentException(result.toString());
+		}
+		return valueOfNoValidate(address, prefix);
+	}
+	// </editor-fold>
+
 	/**
 	 * Gets the first address in the network range represented by this address and prefix.
 	 *
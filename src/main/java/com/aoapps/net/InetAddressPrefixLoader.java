@@ -0,0 +1,425 @@
+/*
+ * ao-net-types - Networking-related value types.
+ * Copyright (C) 2021  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-net-types.
+ *
+ * ao-net-types is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-net-types is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-net-types.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aoapps.net;
+
+import com.aoapps.lang.validation.ValidationResult;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Loads large lists of IP addresses and prefixes, such as blocklists or geo-IP CSV files, in parallel.
+ * <p>
+ * The input is US-ASCII lines, split into line-aligned chunks that are parsed on a {@link ForkJoinPool}.
+ * Each line is parsed by {@link InetAddressPrefix#parseAscii(java.nio.ByteBuffer, int, int, long[])} directly from the
+ * bytes, without creating any objects per line.  The results are collected into primitive arrays in the order
+ * of the input.
+ * </p>
+ * <p>
+ * Only the first field of each line is parsed, as <code><i>address</i>[/<i>prefix</i>]</code>.  The field
+ * ends at a comma or whitespace and may be enclosed in double quotes.  Leading whitespace is ignored.
+ * Blank lines and lines starting with <code>#</code> are skipped.  Lines may end with either
+ * <code>\n</code> or <code>\r\n</code>.
+ * </p>
+ * <p>
+ * Invalid lines, including any CSV header, do not stop the load.  They are reported in the {@link Result}
+ * by line number and parse status, and are only converted to a localized message on request.
+ * </p>
+ *
+ * @author  AO Industries, Inc.
+ */
+final public class InetAddressPrefixLoader {
+
+	/**
+	 * Make no instances.
+	 */
+	private InetAddressPrefixLoader() {
+		throw new AssertionError();
+	}
+
+	/**
+	 * The target size of each chunk parsed as a single task.
+	 */
+	private static final int CHUNK_SIZE = 1 << 20;
+
+	/**
+	 * The maximum size of each memory-mapped region of a file.
+	 */
+	private static final int MAP_SIZE = 1 << 30;
+
+	/**
+	 * The number of chunks that may be queued per thread of the pool, bounding memory when reading from a channel.
+	 */
+	private static final int CHUNKS_PER_THREAD = 4;
+
+	private static final long[] EMPTY_LONGS = new long[0];
+	private static final byte[] EMPTY_BYTES = new byte[0];
+	private static final int[] EMPTY_INTS = new int[0];
+
+	private static int grow(int length) {
+		long newLength = Math.max(16, (long)length << 1);
+		if(newLength > Integer.MAX_VALUE - 8) newLength = Integer.MAX_VALUE - 8;
+		if(newLength <= length) throw new IllegalStateException("Maximum size reached: " + length);
+		return (int)newLength;
+	}
+
+	/**
+	 * The results of a load, stored in primitive arrays.
+	 */
+	public static final class Result {
+
+		private long[] hi = EMPTY_LONGS;
+		private long[] lo = EMPTY_LONGS;
+		private byte[] prefix = EMPTY_BYTES;
+		private int size;
+		private long lineCount;
+		private long[] invalidLines = EMPTY_LONGS;
+		private int[] invalidStatuses = EMPTY_INTS;
+		private int invalidCount;
+
+		private Result() {
+		}
+
+		private void add(long hi, long lo, int prefix) {
+			if(size == this.hi.length) {
+				int newLength = grow(size);
+				this.hi = Arrays.copyOf(this.hi, newLength);
+				this.lo = Arrays.copyOf(this.lo, newLength);
+				this.prefix = Arrays.copyOf(this.prefix, newLength);
+			}
+			this.hi[size] = hi;
+			this.lo[size] = lo;
+			this.prefix[size] = (byte)prefix;
+			size++;
+		}
+
+		private void addInvalid(long line, int status) {
+			if(invalidCount == invalidLines.length) {
+				int newLength = grow(invalidCount);
+				invalidLines = Arrays.copyOf(invalidLines, newLength);
+				invalidStatuses = Arrays.copyOf(invalidStatuses, newLength);
+			}
+			invalidLines[invalidCount] = line;
+			invalidStatuses[invalidCount] = status;
+			invalidCount++;
+		}
+
+		/**
+		 * Appends a chunk, offsetting its line numbers by the lines already loaded.
+		 */
+		private void addAll(Result chunk) {
+			int newSize = size + chunk.size;
+			if(newSize < 0 || newSize > Integer.MAX_VALUE - 8) throw new IllegalStateException("Maximum size reached: " + size);
+			if(newSize > hi.length) {
+				int newLength = Math.max(newSize, grow(size));
+				hi = Arrays.copyOf(hi, newLength);
+				lo = Arrays.copyOf(lo, newLength);
+				prefix = Arrays.copyOf(prefix, newLength);
+			}
+			System.arraycopy(chunk.hi, 0, hi, size, chunk.size);
+			System.arraycopy(chunk.lo, 0, lo, size, chunk.size);
+			System.arraycopy(chunk.prefix, 0, prefix, size, chunk.size);
+			size = newSize;
+			for(int i = 0; i < chunk.invalidCount; i++) {
+				addInvalid(lineCount + chunk.invalidLines[i], chunk.invalidStatuses[i]);
+			}
+			lineCount += chunk.lineCount;
+		}
+
+		/**
+		 * Gets the number of valid addresses and prefixes loaded.
+		 */
+		public int size() {
+			return size;
+		}
+
+		/**
+		 * @see  InetAddress#getHigh()
+		 */
+		public long getHigh(int index) throws IndexOutOfBoundsException {
+			checkIndex(index, size);
+			return hi[index];
+		}
+
+		/**
+		 * @see  InetAddress#getLow()
+		 */
+		public long getLow(int index) throws IndexOutOfBoundsException {
+			checkIndex(index, size);
+			return lo[index];
+		}
+
+		/**
+		 * Gets the prefix, which is the {@link AddressFamily#getMaxPrefix() maximum} for the address family when the line
+		 * is only an address.
+		 */
+		public int getPrefix(int index) throws IndexOutOfBoundsException {
+			checkIndex(index, size);
+			return prefix[index] & 0xff;
+		}
+
+		/**
+		 * Creates the address and prefix at the given index.
+		 */
+		public InetAddressPrefix get(int index) throws IndexOutOfBoundsException {
+			checkIndex(index, size);
+			return InetAddressPrefix.valueOfNoValidate(InetAddress.valueOf(hi[index], lo[index]), prefix[index] & 0xff);
+		}
+
+		/**
+		 * Calls the action for each valid address and prefix, in the order of the input.
+		 */
+		public void forEachPrefix(InetAddressRange.PrefixConsumer action) {
+			for(int i = 0; i < size; i++) action.accept(hi[i], lo[i], prefix[i] & 0xff);
+		}
+
+		/**
+		 * Gets the set of all addresses covered by any of the valid prefixes.
+		 */
+		public InetAddressPrefixSet toPrefixSet() {
+			List<InetAddressPrefix> prefixes = new ArrayList<>(size);
+			for(int i = 0; i < size; i++) prefixes.add(get(i));
+			return InetAddressPrefixSet.valueOf(prefixes);
+		}
+
+		/**
+		 * Gets the total number of lines read, including blank, comment, and invalid lines.
+		 */
+		public long getLineCount() {
+			return lineCount;
+		}
+
+		/**
+		 * Gets the number of invalid lines.
+		 */
+		public int getInvalidCount() {
+			return invalidCount;
+		}
+
+		/**
+		 * Gets the line number, starting at one, of an invalid line.
+		 */
+		public long getInvalidLine(int index) throws IndexOutOfBoundsException {
+			checkIndex(index, invalidCount);
+			return invalidLines[index];
+		}
+
+		/**
+		 * Gets the parse status of an invalid line.
+		 *
+		 * @see  InetAddressPrefix#getValidationResult(int)
+		 */
+		public int getInvalidStatus(int index) throws IndexOutOfBoundsException {
+			checkIndex(index, invalidCount);
+			return invalidStatuses[index];
+		}
+
+		/**
+		 * Gets the reason an invalid line could not be parsed.  The localized message is only created here.
+		 */
+		public ValidationResult getInvalidResult(int index) throws IndexOutOfBoundsException {
+			return InetAddressPrefix.getValidationResult(getInvalidStatus(index));
+		}
+
+		private static void checkIndex(int index, int size) throws IndexOutOfBoundsException {
+			if(index < 0 || index >= size) throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+		}
+	}
+
+	/**
+	 * Parses all lines in a range of a buffer.  The range must start at the beginning of a line and end
+	 * at the end of the buffer's content or just after a newline.
+	 *
+	 * @param  buf  only absolute gets are used, so may be shared by concurrent tasks
+	 *
+	 * @return  the results, with line numbers relative to {@code start}
+	 */
+	private static Result parseChunk(ByteBuffer buf, int start, int end) {
+		Result chunk = new Result();
+		long[] hiLoPrefix = new long[3];
+		int lineStart = start;
+		long line = 0;
+		while(lineStart < end) {
+			int lineEnd = lineStart;
+			while(lineEnd < end && buf.get(lineEnd) != '\n') lineEnd++;
+			line++;
+			// Skip leading whitespace
+			int fieldStart = lineStart;
+			byte b = 0;
+			while(fieldStart < lineEnd && ((b = buf.get(fieldStart)) == ' ' || b == '\t')) fieldStart++;
+			if(fieldStart < lineEnd && b != '#' && b != '\r') {
+				int fieldEnd;
+				if(b == '"') {
+					fieldStart++;
+					fieldEnd = fieldStart;
+					while(fieldEnd < lineEnd && buf.get(fieldEnd) != '"') fieldEnd++;
+				} else {
+					fieldEnd = fieldStart + 1;
+					while(
+						fieldEnd < lineEnd
+						&& (b = buf.get(fieldEnd)) != ','
+						&& b != ' '
+						&& b != '\t'
+						&& b != '\r'
+					) {
+						fieldEnd++;
+					}
+				}
+				int status = InetAddressPrefix.parseAscii(buf, fieldStart, fieldEnd, hiLoPrefix);
+				if(status == InetAddressPrefix.PARSE_VALID) {
+					chunk.add(hiLoPrefix[0], hiLoPrefix[1], (int)hiLoPrefix[2]);
+				} else {
+					chunk.addInvalid(line, status);
+				}
+			}
+			lineStart = lineEnd + 1;
+		}
+		chunk.lineCount = line;
+		return chunk;
+	}
+
+	/**
+	 * Finds the end of the line containing the given index.
+	 *
+	 * @return  the index just after the newline, or {@code end} when no newline
+	 */
+	private static int nextLine(ByteBuffer buf, int index, int end) {
+		while(index < end) {
+			if(buf.get(index++) == '\n') return index;
+		}
+		return end;
+	}
+
+	/**
+	 * Splits a line-aligned range of a buffer into chunks of about {@link #CHUNK_SIZE}, queueing a task per chunk.
+	 * Completed chunks are added to the result, in order, whenever more than {@code maxPending} are queued.
+	 */
+	private static void submitChunks(
+		ForkJoinPool pool,
+		ByteBuffer buf,
+		int start,
+		int end,
+		Deque<ForkJoinTask<Result>> pending,
+		int maxPending,
+		Result result
+	) {
+		while(start < end) {
+			int chunkEnd = (end - start) <= CHUNK_SIZE ? end : nextLine(buf, start + CHUNK_SIZE - 1, end);
+			int chunkStart = start;
+			pending.addLast(pool.submit(() -> parseChunk(buf, chunkStart, chunkEnd)));
+			while(pending.size() > maxPending) result.addAll(pending.removeFirst().join());
+			start = chunkEnd;
+		}
+	}
+
+	private static void joinAll(Deque<ForkJoinTask<Result>> pending, Result result) {
+		while(!pending.isEmpty()) result.addAll(pending.removeFirst().join());
+	}
+
+	/**
+	 * Loads a file by memory-mapping it, using the {@link ForkJoinPool#commonPool() common pool}.
+	 *
+	 * @see  #load(java.nio.channels.FileChannel, java.util.concurrent.ForkJoinPool)
+	 */
+	public static Result load(File file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			return load(channel, ForkJoinPool.commonPool());
+		}
+	}
+
+	/**
+	 * Loads a file by memory-mapping it, in regions of up to 1 GiB, from its current position to its end.
+	 * The position of the channel is not changed.
+	 *
+	 * @throws  IOException  when a line is longer than a region
+	 */
+	public static Result load(FileChannel channel, ForkJoinPool pool) throws IOException {
+		Result result = new Result();
+		Deque<ForkJoinTask<Result>> pending = new ArrayDeque<>();
+		int maxPending = pool.getParallelism() * CHUNKS_PER_THREAD;
+		long position = channel.position();
+		long size = channel.size();
+		while(position < size) {
+			int regionSize = (int)Math.min(MAP_SIZE, size - position);
+			ByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, position, regionSize);
+			int regionEnd = regionSize;
+			if(position + regionSize < size) {
+				// End the region after its last complete line
+				while(regionEnd > 0 && region.get(regionEnd - 1) != '\n') regionEnd--;
+				if(regionEnd == 0) throw new IOException("Line too long at byte " + position);
+			}
+			submitChunks(pool, region, 0, regionEnd, pending, maxPending, result);
+			position += regionEnd;
+		}
+		joinAll(pending, result);
+		return result;
+	}
+
+	/**
+	 * Loads from a stream of bytes, parsing each chunk as it is read.  The channel is read to its end,
+	 * but is not closed.  At most a few chunks per thread of the pool are held in memory.
+	 */
+	public static Result load(ReadableByteChannel channel, ForkJoinPool pool) throws IOException {
+		Result result = new Result();
+		Deque<ForkJoinTask<Result>> pending = new ArrayDeque<>();
+		int maxPending = pool.getParallelism() * CHUNKS_PER_THREAD;
+		byte[] bytes = new byte[CHUNK_SIZE];
+		int len = 0;
+		while(true) {
+			ByteBuffer buf = ByteBuffer.wrap(bytes, len, bytes.length - len);
+			int count = channel.read(buf);
+			if(count == -1) break;
+			len += count;
+			if(len == bytes.length) {
+				// Submit all complete lines, keeping the partial last line for the next buffer
+				int end = len;
+				while(end > 0 && bytes[end - 1] != '\n') end--;
+				byte[] next;
+				if(end == 0) {
+					// A single line longer than the buffer
+					next = Arrays.copyOf(bytes, grow(bytes.length));
+				} else {
+					submitChunks(pool, ByteBuffer.wrap(bytes), 0, end, pending, maxPending, result);
+					// The partial line may itself be longer than a chunk after the buffer has grown
+					len -= end;
+					next = new byte[Math.max(CHUNK_SIZE, len)];
+					System.arraycopy(bytes, end, next, 0, len);
+				}
+				bytes = next;
+			}
+		}
+		if(len > 0) submitChunks(pool, ByteBuffer.wrap(bytes), 0, len, pending, maxPending, result);
+		joinAll(pending, result);
+		return result;
+	}
+}
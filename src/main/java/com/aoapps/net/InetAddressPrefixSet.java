@@ -0,0 +1,521 @@
+/*
+ * ao-net-types - Networking-related value types.
+ * Copyright (C) 2021  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-net-types.
+ *
+ * ao-net-types is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-net-types is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-net-types.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aoapps.net;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable set of addresses, built from any number of possibly overlapping {@link InetAddressPrefix}
+ * and always represented as the minimal set of non-overlapping prefixes.
+ * <p>
+ * Internally, each address family is a sorted array of disjoint, non-adjacent, inclusive ranges,
+ * packed into a {@code long[]} as <code>fromHi, fromLo, toHi, toLo</code> per range.  Building a set
+ * is <code>O(n log n)</code>, set algebra is linear in the number of ranges, and
+ * {@link #contains(com.aoapps.net.InetAddress)} is a binary search.
+ * </p>
+ * <p>
+ * IPv4 and IPv6 are independent: the {@link #complement() complement} of the empty set is
+ * <code>0.0.0.0/0</code> and <code>::/0</code>, and IPv4 addresses are never contained by IPv6 prefixes,
+ * consistent with {@link InetAddressPrefix#contains(com.aoapps.net.InetAddress)}.  Accordingly, the
+ * IPv6 ranges always exclude the IPv4-mapped <code>::ffff:0:0/96</code>.
+ * </p>
+ *
+ * @author  AO Industries, Inc.
+ */
+final public class InetAddressPrefixSet {
+
+	private static final int LONGS_PER_RANGE = 4;
+
+	private static final long[] EMPTY_RANGES = new long[0];
+
+	private static final long
+		INET_FROM_HI = InetAddress.IPV4_HI,
+		INET_FROM_LO = InetAddress.IPV4_NET_MAPPED_LO,
+		INET_TO_HI   = InetAddress.IPV4_HI,
+		INET_TO_LO   = InetAddress.IPV4_NET_MAPPED_LO | 0xffffffffL,
+		INET6_FROM_HI = 0,
+		INET6_FROM_LO = 0,
+		INET6_TO_HI   = 0xffffffffffffffffL,
+		INET6_TO_LO   = 0xffffffffffffffffL;
+
+	/**
+	 * All IPv6 addresses: <code>::/0</code> without the IPv4-mapped <code>::ffff:0:0/96</code>, which
+	 * is represented in the IPv4 ranges.
+	 */
+	private static final long[] INET6_UNIVERSE = {
+		INET6_FROM_HI, INET6_FROM_LO, InetAddress.IPV4_HI, InetAddressBits.MAPPED_BEFORE_LO,
+		InetAddress.IPV4_HI, InetAddressBits.MAPPED_AFTER_LO, INET6_TO_HI, INET6_TO_LO
+	};
+
+	/**
+	 * The set containing no addresses.
+	 */
+	public static final InetAddressPrefixSet EMPTY = new InetAddressPrefixSet(EMPTY_RANGES, EMPTY_RANGES);
+
+	/**
+	 * The set containing all IPv4 and IPv6 addresses.
+	 */
+	public static final InetAddressPrefixSet ALL = EMPTY.complement();
+
+	/**
+	 * Accumulates ranges, which must be added in order of their starting address,
+	 * merging overlapping and adjacent ranges.
+	 */
+	private static class RangesBuilder {
+
+		private long[] ranges = EMPTY_RANGES;
+		private int len;
+
+		private void add(long fromHi, long fromLo, long toHi, long toLo) {
+			assert InetAddressBits.compare(fromHi, fromLo, toHi, toLo) <= 0;
+			if(len > 0) {
+				long lastToHi = ranges[len - 2];
+				long lastToLo = ranges[len - 1];
+				assert InetAddressBits.compare(ranges[len - 4], ranges[len - 3], fromHi, fromLo) <= 0 : "Not added in order";
+				// Adjacent when lastTo + 1 == from
+				long nextLo = lastToLo + 1;
+				long nextHi = nextLo == 0 ? (lastToHi + 1) : lastToHi;
+				boolean lastIsMax = lastToHi == 0xffffffffffffffffL && lastToLo == 0xffffffffffffffffL;
+				if(
+					lastIsMax
+					|| InetAddressBits.compare(fromHi, fromLo, nextHi, nextLo) <= 0
+				) {
+					// Overlapping or adjacent, extend when needed
+					if(InetAddressBits.compare(toHi, toLo, lastToHi, lastToLo) > 0) {
+						ranges[len - 2] = toHi;
+						ranges[len - 1] = toLo;
+					}
+					return;
+				}
+			}
+			if(len == ranges.length) ranges = Arrays.copyOf(ranges, Math.max(len * 2, LONGS_PER_RANGE * 8));
+			ranges[len++] = fromHi;
+			ranges[len++] = fromLo;
+			ranges[len++] = toHi;
+			ranges[len++] = toLo;
+		}
+
+		private long[] toRanges() {
+			return len == 0 ? EMPTY_RANGES : Arrays.copyOf(ranges, len);
+		}
+	}
+
+	/**
+	 * Gets the minimal set of addresses covered by any of the given prefixes.
+	 */
+	public static InetAddressPrefixSet valueOf(Collection<? extends InetAddressPrefix> prefixes) {
+		if(prefixes.isEmpty()) return EMPTY;
+		// Normalizing then sorting orders by family then first address
+		List<InetAddressPrefix> sorted = new ArrayList<>(prefixes.size());
+		for(InetAddressPrefix prefix : prefixes) sorted.add(prefix.normalize());
+		Collections.sort(sorted);
+		RangesBuilder inet = new RangesBuilder();
+		RangesBuilder inet6 = new RangesBuilder();
+		for(InetAddressPrefix prefix : sorted) {
+			InetAddress from = prefix.getAddress();
+			int hostBits;
+			RangesBuilder builder;
+			if(InetAddressBits.isInet(from.hi, from.lo)) {
+				hostBits = 32 - prefix.getPrefix();
+				builder = inet;
+			} else {
+				hostBits = 128 - prefix.getPrefix();
+				builder = inet6;
+			}
+			builder.add(
+				from.hi,
+				from.lo,
+				from.hi | InetAddressBits.lowBitsHi(hostBits),
+				from.lo | InetAddressBits.lowBitsLo(hostBits)
+			);
+		}
+		return valueOf(inet.toRanges(), intersection(inet6.toRanges(), INET6_UNIVERSE));
+	}
+
+	/**
+	 * Gets the minimal set of addresses covered by any of the given prefixes.
+	 */
+	public static InetAddressPrefixSet valueOf(InetAddressPrefix ... prefixes) {
+		return valueOf(Arrays.asList(prefixes));
+	}
+
+	private final long[] inet;
+	private final long[] inet6;
+
+	private InetAddressPrefixSet(long[] inet, long[] inet6) {
+		this.inet = inet;
+		this.inet6 = inet6;
+	}
+
+	private static InetAddressPrefixSet valueOf(long[] inet, long[] inet6) {
+		if(inet.length == 0 && inet6.length == 0) return EMPTY;
+		return new InetAddressPrefixSet(inet, inet6);
+	}
+
+	/**
+	 * Two sets are equal when they contain the same addresses.
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if(!(obj instanceof InetAddressPrefixSet)) return false;
+		InetAddressPrefixSet other = (InetAddressPrefixSet)obj;
+		return
+			Arrays.equals(inet, other.inet)
+			&& Arrays.equals(inet6, other.inet6)
+		;
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(inet) * 31 + Arrays.hashCode(inet6);
+	}
+
+	/**
+	 * @return  The minimal prefixes, in the form <code>[<i>prefix</i>, <i>prefix</i>, ...]</code>
+	 *
+	 * @see  #toPrefixes()
+	 */
+	@Override
+	public String toString() {
+		return toPrefixes().toString();
+	}
+
+	public boolean isEmpty() {
+		return inet.length == 0 && inet6.length == 0;
+	}
+
+	/**
+	 * Binary search for the range containing the given address.
+	 */
+	private static boolean contains(long[] ranges, long hi, long lo) {
+		int low = 0;
+		int high = ranges.length / LONGS_PER_RANGE - 1;
+		while(low <= high) {
+			int mid = (low + high) >>> 1;
+			int i = mid * LONGS_PER_RANGE;
+			if(InetAddressBits.compare(hi, lo, ranges[i], ranges[i + 1]) < 0) {
+				high = mid - 1;
+			} else if(InetAddressBits.compare(hi, lo, ranges[i + 2], ranges[i + 3]) > 0) {
+				low = mid + 1;
+			} else {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Checks if this set contains the given address.
+	 */
+	public boolean contains(InetAddress address) {
+		return contains(address.hi, address.lo);
+	}
+
+	/**
+	 * Checks if this set contains the given address, without any {@link InetAddress}.
+	 * This may be combined with {@link InetAddress#parse(java.lang.String, long[])} to avoid all object creation.
+	 *
+	 * @param  hi  See {@link InetAddress#getHigh()}
+	 * @param  lo  See {@link InetAddress#getLow()}
+	 */
+	public boolean contains(long hi, long lo) {
+		return contains(InetAddressBits.isInet(hi, lo) ? inet : inet6, hi, lo);
+	}
+
+	/**
+	 * Checks if the given range is within a single range of the set.
+	 */
+	private static boolean contains(long[] ranges, long fromHi, long fromLo, long toHi, long toLo) {
+		// Find the range containing from, then check it also contains to
+		int low = 0;
+		int high = ranges.length / LONGS_PER_RANGE - 1;
+		while(low <= high) {
+			int mid = (low + high) >>> 1;
+			int i = mid * LONGS_PER_RANGE;
+			if(InetAddressBits.compare(fromHi, fromLo, ranges[i], ranges[i + 1]) < 0) {
+				high = mid - 1;
+			} else if(InetAddressBits.compare(fromHi, fromLo, ranges[i + 2], ranges[i + 3]) > 0) {
+				low = mid + 1;
+			} else {
+				return InetAddressBits.compare(toHi, toLo, ranges[i + 2], ranges[i + 3]) <= 0;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Checks if this set contains every address of the given prefix.
+	 * An IPv6 prefix spanning <code>::ffff:0:0/96</code> only needs its addresses on either side.
+	 */
+	public boolean contains(InetAddressPrefix prefix) {
+		InetAddress from = prefix.getFrom();
+		InetAddress to = prefix.getTo();
+		if(InetAddressBits.isInet(from.hi, from.lo)) return contains(inet, from.hi, from.lo, to.hi, to.lo);
+		if(
+			InetAddressBits.compare(from.hi, from.lo, InetAddress.IPV4_HI, InetAddressBits.MAPPED_BEFORE_LO) > 0
+			|| InetAddressBits.compare(to.hi, to.lo, InetAddress.IPV4_HI, InetAddress.IPV4_NET_MAPPED_LO) < 0
+		) {
+			// Does not reach the IPv4-mapped space
+			return contains(inet6, from.hi, from.lo, to.hi, to.lo);
+		}
+		// Aligned prefixes contain all of the IPv4-mapped space, so only the sides are checked
+		return
+			contains(inet6, from.hi, from.lo, InetAddress.IPV4_HI, InetAddressBits.MAPPED_BEFORE_LO)
+			&& (
+				InetAddressBits.compare(to.hi, to.lo, InetAddress.IPV4_HI, InetAddressBits.MAPPED_AFTER_LO) < 0
+				|| contains(inet6, InetAddress.IPV4_HI, InetAddressBits.MAPPED_AFTER_LO, to.hi, to.lo)
+			);
+	}
+
+	private static long[] union(long[] ranges1, long[] ranges2) {
+		if(ranges2.length == 0) return ranges1;
+		if(ranges1.length == 0) return ranges2;
+		RangesBuilder builder = new RangesBuilder();
+		int i1 = 0;
+		int i2 = 0;
+		while(i1 < ranges1.length || i2 < ranges2.length) {
+			long[] ranges;
+			int i;
+			if(
+				i2 == ranges2.length
+				|| (
+					i1 < ranges1.length
+					&& InetAddressBits.compare(ranges1[i1], ranges1[i1 + 1], ranges2[i2], ranges2[i2 + 1]) <= 0
+				)
+			) {
+				ranges = ranges1;
+				i = i1;
+				i1 += LONGS_PER_RANGE;
+			} else {
+				ranges = ranges2;
+				i = i2;
+				i2 += LONGS_PER_RANGE;
+			}
+			builder.add(ranges[i], ranges[i + 1], ranges[i + 2], ranges[i + 3]);
+		}
+		return builder.toRanges();
+	}
+
+	/**
+	 * Gets the set of addresses in either this set or the other set.
+	 */
+	public InetAddressPrefixSet union(InetAddressPrefixSet other) {
+		if(other.isEmpty()) return this;
+		if(isEmpty()) return other;
+		return valueOf(union(inet, other.inet), union(inet6, other.inet6));
+	}
+
+	private static long[] intersection(long[] ranges1, long[] ranges2) {
+		if(ranges1.length == 0 || ranges2.length == 0) return EMPTY_RANGES;
+		RangesBuilder builder = new RangesBuilder();
+		int i1 = 0;
+		int i2 = 0;
+		while(i1 < ranges1.length && i2 < ranges2.length) {
+			long fromHi, fromLo, toHi, toLo;
+			// From is the greater of the two froms
+			if(InetAddressBits.compare(ranges1[i1], ranges1[i1 + 1], ranges2[i2], ranges2[i2 + 1]) >= 0) {
+				fromHi = ranges1[i1];
+				fromLo = ranges1[i1 + 1];
+			} else {
+				fromHi = ranges2[i2];
+				fromLo = ranges2[i2 + 1];
+			}
+			// To is the lesser of the two tos, advancing the range that ends first
+			if(InetAddressBits.compare(ranges1[i1 + 2], ranges1[i1 + 3], ranges2[i2 + 2], ranges2[i2 + 3]) <= 0) {
+				toHi = ranges1[i1 + 2];
+				toLo = ranges1[i1 + 3];
+				i1 += LONGS_PER_RANGE;
+			} else {
+				toHi = ranges2[i2 + 2];
+				toLo = ranges2[i2 + 3];
+				i2 += LONGS_PER_RANGE;
+			}
+			if(InetAddressBits.compare(fromHi, fromLo, toHi, toLo) <= 0) {
+				builder.add(fromHi, fromLo, toHi, toLo);
+			}
+		}
+		return builder.toRanges();
+	}
+
+	/**
+	 * Gets the set of addresses in both this set and the other set.
+	 */
+	public InetAddressPrefixSet intersection(InetAddressPrefixSet other) {
+		return valueOf(intersection(inet, other.inet), intersection(inet6, other.inet6));
+	}
+
+	/**
+	 * Gets the gaps between the ranges, within the given universe.
+	 */
+	private static long[] complement(long[] ranges, long universeFromHi, long universeFromLo, long universeToHi, long universeToLo) {
+		RangesBuilder builder = new RangesBuilder();
+		long fromHi = universeFromHi;
+		long fromLo = universeFromLo;
+		boolean done = false;
+		for(int i = 0; i < ranges.length; i += LONGS_PER_RANGE) {
+			long rangeFromHi = ranges[i];
+			long rangeFromLo = ranges[i + 1];
+			if(InetAddressBits.compare(fromHi, fromLo, rangeFromHi, rangeFromLo) < 0) {
+				// Gap before this range: [from, rangeFrom - 1]
+				long gapToLo = rangeFromLo - 1;
+				long gapToHi = rangeFromLo == 0 ? (rangeFromHi - 1) : rangeFromHi;
+				builder.add(fromHi, fromLo, gapToHi, gapToLo);
+			}
+			long rangeToHi = ranges[i + 2];
+			long rangeToLo = ranges[i + 3];
+			if(rangeToHi == universeToHi && rangeToLo == universeToLo) {
+				done = true;
+				break;
+			}
+			fromLo = rangeToLo + 1;
+			fromHi = fromLo == 0 ? (rangeToHi + 1) : rangeToHi;
+		}
+		if(!done) builder.add(fromHi, fromLo, universeToHi, universeToLo);
+		return builder.toRanges();
+	}
+
+	/**
+	 * Gets the gaps between the IPv6 ranges, excluding the IPv4-mapped space.
+	 */
+	private static long[] complementInet6(long[] ranges) {
+		return intersection(
+			complement(ranges, INET6_FROM_HI, INET6_FROM_LO, INET6_TO_HI, INET6_TO_LO),
+			INET6_UNIVERSE
+		);
+	}
+
+	/**
+	 * Gets the set of all addresses not in this set, independently for IPv4 and IPv6.
+	 */
+	public InetAddressPrefixSet complement() {
+		return valueOf(
+			complement(inet, INET_FROM_HI, INET_FROM_LO, INET_TO_HI, INET_TO_LO),
+			complementInet6(inet6)
+		);
+	}
+
+	/**
+	 * Gets the set of addresses in this set that are not in the other set.
+	 */
+	public InetAddressPrefixSet difference(InetAddressPrefixSet other) {
+		if(other.isEmpty() || isEmpty()) return this;
+		return valueOf(
+			inet.length == 0 || other.inet.length == 0 ? inet
+				: intersection(inet, complement(other.inet, INET_FROM_HI, INET_FROM_LO, INET_TO_HI, INET_TO_LO)),
+			inet6.length == 0 || other.inet6.length == 0 ? inet6
+				: intersection(inet6, complementInet6(other.inet6))
+		);
+	}
+
+	private static void forEachPrefix(long[] ranges, int maxPrefix, InetAddressRange.PrefixConsumer action) {
+		for(int i = 0; i < ranges.length; i += LONGS_PER_RANGE) {
+			InetAddressBits.forEachPrefix(ranges[i], ranges[i + 1], ranges[i + 2], ranges[i + 3], maxPrefix, action);
+		}
+	}
+
+	/**
+	 * Joins the IPv6 ranges on either side of <code>::ffff:0:0/96</code>, since IPv6 prefixes may span it.
+	 */
+	private static void forEachPrefixInet6(long[] ranges, InetAddressRange.PrefixConsumer action) {
+		for(int i = 0; i < ranges.length; i += LONGS_PER_RANGE) {
+			long fromHi = ranges[i];
+			long fromLo = ranges[i + 1];
+			long toHi = ranges[i + 2];
+			long toLo = ranges[i + 3];
+			int next = i + LONGS_PER_RANGE;
+			if(
+				toHi == InetAddress.IPV4_HI && toLo == InetAddressBits.MAPPED_BEFORE_LO
+				&& next < ranges.length
+				&& ranges[next] == InetAddress.IPV4_HI && ranges[next + 1] == InetAddressBits.MAPPED_AFTER_LO
+			) {
+				toHi = ranges[next + 2];
+				toLo = ranges[next + 3];
+				i = next;
+			}
+			InetAddressBits.forEachPrefixInet6(fromHi, fromLo, toHi, toLo, action);
+		}
+	}
+
+	/**
+	 * Calls the action for each of the minimal, non-overlapping prefixes of this set,
+	 * in {@link InetAddressPrefix#compareTo(com.aoapps.net.InetAddressPrefix) natural order},
+	 * without creating any objects.
+	 */
+	public void forEachPrefix(InetAddressRange.PrefixConsumer action) {
+		forEachPrefix(inet, 32, action);
+		forEachPrefixInet6(inet6, action);
+	}
+
+	/**
+	 * Gets the minimal, non-overlapping prefixes of this set,
+	 * in {@link InetAddressPrefix#compareTo(com.aoapps.net.InetAddressPrefix) natural order}.
+	 *
+	 * @return  a new, unmodifiable list
+	 */
+	public List<InetAddressPrefix> toPrefixes() {
+		List<InetAddressPrefix> prefixes = new ArrayList<>();
+		forEachPrefix(
+			(hi, lo, prefix) -> prefixes.add(
+				InetAddressPrefix.valueOfNoValidate(InetAddress.valueOf(hi, lo), prefix)
+			)
+		);
+		return Collections.unmodifiableList(prefixes);
+	}
+
+	private static void forEachRange(long[] ranges, InetAddressRange.RangeConsumer action) {
+		for(int i = 0; i < ranges.length; i += LONGS_PER_RANGE) {
+			action.accept(ranges[i], ranges[i + 1], ranges[i + 2], ranges[i + 3]);
+		}
+	}
+
+	/**
+	 * Calls the action for each of the maximal, non-adjacent ranges of this set,
+	 * IPv4 then IPv6, in order, without creating any objects.
+	 */
+	public void forEachRange(InetAddressRange.RangeConsumer action) {
+		forEachRange(inet, action);
+		forEachRange(inet6, action);
+	}
+
+	/**
+	 * Gets the maximal, non-adjacent ranges of this set, IPv4 then IPv6, in order.
+	 *
+	 * @return  a new, unmodifiable list
+	 */
+	public List<InetAddressRange> toRanges() {
+		List<InetAddressRange> ranges = new ArrayList<>((inet.length + inet6.length) / LONGS_PER_RANGE);
+		forEachRange(
+			(fromHi, fromLo, toHi, toLo) -> ranges.add(
+				InetAddressRange.valueOfNoValidate(
+					InetAddress.valueOf(fromHi, fromLo),
+					InetAddress.valueOf(toHi, toLo)
+				)
+			)
+		);
+		return Collections.unmodifiableList(ranges);
+	}
+}
@@ -0,0 +1,442 @@
+/*
+ * ao-net-types - Networking-related value types.
+ * Copyright (C) 2021  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-net-types.
+ *
+ * ao-net-types is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-net-types is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-net-types.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aoapps.net;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * A table of values keyed by {@link InetAddressPrefix}, supporting longest-prefix-match,
+ * exact-match, covering-prefix, and covered-prefix queries.
+ * <p>
+ * This is a path-compressed binary (Patricia) trie over the 128-bit {@link InetAddress#getHigh() high}
+ * and {@link InetAddress#getLow() low} bits of the address.  IPv4 prefixes are stored in their
+ * IPv4-mapped form, under a separate root from IPv6 so that IPv4 addresses never match IPv6
+ * prefixes, consistent with {@link InetAddressPrefix#contains(com.aoapps.net.InetAddress)}.
+ * </p>
+ * <p>
+ * Keys are {@link InetAddressPrefix#normalize() normalized}, so <code>10.1.2.3/8</code> and
+ * <code>10.0.0.0/8</code> are the same key.  Values may not be {@code null}.
+ * </p>
+ * <p>
+ * Lookups do not create any objects.  This class is not thread-safe.
+ * </p>
+ *
+ * @author  AO Industries, Inc.
+ */
+public class InetAddressPrefixTable<V> {
+
+	private static class Node<V> {
+
+		/**
+		 * The key bits, with all bits after {@link #bits} zeroed.
+		 */
+		private final long hi, lo;
+
+		/**
+		 * The number of bits in the key, which is 96 + prefix for IPv4.
+		 */
+		private final int bits;
+
+		/**
+		 * The normalized prefix, or {@code null} for an internal node without a value.
+		 */
+		private InetAddressPrefix prefix;
+
+		private V value;
+
+		private Node<V> zero, one;
+
+		private Node(long hi, long lo, int bits) {
+			this.hi = hi;
+			this.lo = lo;
+			this.bits = bits;
+		}
+
+		/**
+		 * Checks if the given bits start with this node's key.
+		 */
+		private boolean matches(long otherHi, long otherLo) {
+			return InetAddressBits.commonPrefixLength(hi, lo, otherHi, otherLo) >= bits;
+		}
+
+		private Node<V> getChild(int bit) {
+			return bit == 0 ? zero : one;
+		}
+
+		private void setChild(int bit, Node<V> child) {
+			if(bit == 0) zero = child;
+			else one = child;
+		}
+	}
+
+	/**
+	 * The root for IPv4, which is the IPv4-mapped <code>::ffff:0:0/96</code>.
+	 * Never removed, holds the value for <code>0.0.0.0/0</code>.
+	 */
+	private final Node<V> inetRoot = new Node<>(InetAddress.IPV4_HI, InetAddress.IPV4_NET_MAPPED_LO, InetAddressBits.IPV4_MAPPED_BITS);
+
+	/**
+	 * The root for IPv6.
+	 * Never removed, holds the value for <code>::/0</code>.
+	 */
+	private final Node<V> inet6Root = new Node<>(0, 0, 0);
+
+	private int size;
+
+	public InetAddressPrefixTable() {
+		// Nothing to initialize
+	}
+
+	private Node<V> getRoot(long hi, long lo) {
+		return InetAddressBits.isInet(hi, lo) ? inetRoot : inet6Root;
+	}
+
+	/**
+	 * Gets the number of prefixes in this table.
+	 */
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Removes all prefixes from this table.
+	 */
+	public void clear() {
+		clear(inetRoot);
+		clear(inet6Root);
+		size = 0;
+	}
+
+	private static void clear(Node<?> root) {
+		root.prefix = null;
+		root.value = null;
+		root.zero = null;
+		root.one = null;
+	}
+
+	/**
+	 * Finds the node exactly matching the given key.
+	 *
+	 * @return  the node or {@code null} when not found.  The node may be an internal node without any value.
+	 */
+	private Node<V> findNode(long hi, long lo, int bits) {
+		Node<V> node = getRoot(hi, lo);
+		while(node != null && node.bits < bits) {
+			node = node.getChild(InetAddressBits.getBit(hi, lo, node.bits));
+			if(node != null && (node.bits > bits || !node.matches(hi, lo))) return null;
+		}
+		return node != null && node.bits == bits ? node : null;
+	}
+
+	/**
+	 * Associates a value with the given prefix.
+	 *
+	 * @param  prefix  normalized before being stored
+	 * @param  value   must be non-null
+	 *
+	 * @return  the previous value or {@code null} when new
+	 */
+	public V put(InetAddressPrefix prefix, V value) {
+		if(value == null) throw new NullPointerException("value is null");
+		prefix = prefix.normalize();
+		InetAddress address = prefix.getAddress();
+		long hi = address.hi;
+		long lo = address.lo;
+		int bits = InetAddressBits.getKeyBits(prefix);
+		Node<V> node = getRoot(hi, lo);
+		while(true) {
+			assert node.bits <= bits && node.matches(hi, lo);
+			if(node.bits == bits) {
+				V old = node.value;
+				if(old == null) size++;
+				node.prefix = prefix;
+				node.value = value;
+				return old;
+			}
+			int bit = InetAddressBits.getBit(hi, lo, node.bits);
+			Node<V> child = node.getChild(bit);
+			if(child == null) {
+				Node<V> leaf = new Node<>(hi, lo, bits);
+				leaf.prefix = prefix;
+				leaf.value = value;
+				node.setChild(bit, leaf);
+				size++;
+				return null;
+			}
+			int common = Math.min(
+				InetAddressBits.commonPrefixLength(hi, lo, child.hi, child.lo),
+				Math.min(bits, child.bits)
+			);
+			if(common == child.bits) {
+				node = child;
+			} else {
+				// Split the edge to child
+				Node<V> split = new Node<>(
+					InetAddressBits.maskHi(hi, common),
+					InetAddressBits.maskLo(lo, common),
+					common
+				);
+				split.setChild(InetAddressBits.getBit(child.hi, child.lo, common), child);
+				if(common == bits) {
+					split.prefix = prefix;
+					split.value = value;
+				} else {
+					Node<V> leaf = new Node<>(hi, lo, bits);
+					leaf.prefix = prefix;
+					leaf.value = value;
+					split.setChild(InetAddressBits.getBit(hi, lo, common), leaf);
+				}
+				node.setChild(bit, split);
+				size++;
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * Gets the value for exactly the given prefix.
+	 *
+	 * @return  the value or {@code null} when not in this table
+	 */
+	public V get(InetAddressPrefix prefix) {
+		InetAddress address = prefix.getAddress();
+		int bits = InetAddressBits.getKeyBits(prefix);
+		Node<V> node = findNode(
+			InetAddressBits.maskHi(address.hi, bits),
+			InetAddressBits.maskLo(address.lo, bits),
+			bits
+		);
+		return node == null ? null : node.value;
+	}
+
+	/**
+	 * Checks if this table contains exactly the given prefix.
+	 */
+	public boolean containsKey(InetAddressPrefix prefix) {
+		return get(prefix) != null;
+	}
+
+	/**
+	 * Removes the value for exactly the given prefix.
+	 *
+	 * @return  the previous value or {@code null} when not in this table
+	 */
+	public V remove(InetAddressPrefix prefix) {
+		InetAddress address = prefix.getAddress();
+		int bits = InetAddressBits.getKeyBits(prefix);
+		long hi = InetAddressBits.maskHi(address.hi, bits);
+		long lo = InetAddressBits.maskLo(address.lo, bits);
+		Node<V> grandparent = null;
+		Node<V> parent = null;
+		Node<V> node = getRoot(hi, lo);
+		while(node.bits < bits) {
+			Node<V> child = node.getChild(InetAddressBits.getBit(hi, lo, node.bits));
+			if(child == null || child.bits > bits || !child.matches(hi, lo)) return null;
+			grandparent = parent;
+			parent = node;
+			node = child;
+		}
+		V old = node.value;
+		if(old == null) return null;
+		node.prefix = null;
+		node.value = null;
+		size--;
+		// Compact the trie, never removing a root
+		if(parent != null) {
+			if(node.zero != null && node.one != null) {
+				// Still required as an internal node
+			} else {
+				int bit = InetAddressBits.getBit(hi, lo, parent.bits);
+				Node<V> onlyChild = node.zero != null ? node.zero : node.one;
+				parent.setChild(bit, onlyChild);
+				if(
+					onlyChild == null
+					&& grandparent != null
+					&& parent.value == null
+				) {
+					// Parent is now an internal node with a single child
+					Node<V> sibling = parent.getChild(bit ^ 1);
+					assert sibling != null;
+					grandparent.setChild(InetAddressBits.getBit(hi, lo, grandparent.bits), sibling);
+				}
+			}
+		}
+		return old;
+	}
+
+	/**
+	 * Finds the longest prefix containing the given address.
+	 *
+	 * @return  the node or {@code null} when no prefix contains the address
+	 */
+	private Node<V> findLongestMatch(long hi, long lo) {
+		Node<V> longest = null;
+		Node<V> node = getRoot(hi, lo);
+		while(node != null && node.matches(hi, lo)) {
+			if(node.value != null) longest = node;
+			if(node.bits == 128) break;
+			node = node.getChild(InetAddressBits.getBit(hi, lo, node.bits));
+		}
+		return longest;
+	}
+
+	/**
+	 * Gets the value of the longest prefix containing the given address.
+	 *
+	 * @return  the value or {@code null} when no prefix contains the address
+	 */
+	public V getLongestMatch(InetAddress address) {
+		return getLongestMatch(address.hi, address.lo);
+	}
+
+	/**
+	 * Gets the value of the longest prefix containing the given address, without any {@link InetAddress}.
+	 * This may be combined with {@link InetAddress#parse(java.lang.String, long[])} to avoid all object creation.
+	 *
+	 * @param  hi  See {@link InetAddress#getHigh()}
+	 * @param  lo  See {@link InetAddress#getLow()}
+	 *
+	 * @return  the value or {@code null} when no prefix contains the address
+	 */
+	public V getLongestMatch(long hi, long lo) {
+		Node<V> node = findLongestMatch(hi, lo);
+		return node == null ? null : node.value;
+	}
+
+	/**
+	 * Gets the longest prefix containing the given address.
+	 *
+	 * @return  the normalized prefix, as stored in this table, or {@code null} when no prefix contains the address
+	 */
+	public InetAddressPrefix getLongestPrefix(InetAddress address) {
+		Node<V> node = findLongestMatch(address.hi, address.lo);
+		return node == null ? null : node.prefix;
+	}
+
+	/**
+	 * Calls the action for each prefix in this table that contains the given address, from the shortest prefix
+	 * to the longest, in a single walk of the trie.
+	 */
+	public void forEachMatch(InetAddress address, BiConsumer<? super InetAddressPrefix, ? super V> action) {
+		forEachMatch(address.hi, address.lo, action);
+	}
+
+	/**
+	 * Calls the action for each prefix in this table that contains the given address, from the shortest prefix
+	 * to the longest, in a single walk of the trie, without any {@link InetAddress}.
+	 *
+	 * @param  hi  See {@link InetAddress#getHigh()}
+	 * @param  lo  See {@link InetAddress#getLow()}
+	 */
+	public void forEachMatch(long hi, long lo, BiConsumer<? super InetAddressPrefix, ? super V> action) {
+		Node<V> node = getRoot(hi, lo);
+		while(node != null && node.matches(hi, lo)) {
+			if(node.value != null) action.accept(node.prefix, node.value);
+			if(node.bits == 128) break;
+			node = node.getChild(InetAddressBits.getBit(hi, lo, node.bits));
+		}
+	}
+
+	/**
+	 * Calls the action for each prefix in this table that contains the given prefix, including
+	 * the prefix itself, from the shortest prefix to the longest.
+	 */
+	public void forEachCovering(InetAddressPrefix prefix, BiConsumer<? super InetAddressPrefix, ? super V> action) {
+		InetAddress address = prefix.getAddress();
+		long hi = address.hi;
+		long lo = address.lo;
+		int bits = InetAddressBits.getKeyBits(prefix);
+		Node<V> node = getRoot(hi, lo);
+		while(node != null && node.bits <= bits && node.matches(hi, lo)) {
+			if(node.value != null) action.accept(node.prefix, node.value);
+			if(node.bits == bits) break;
+			node = node.getChild(InetAddressBits.getBit(hi, lo, node.bits));
+		}
+	}
+
+	/**
+	 * Gets each prefix in this table that contains the given prefix, including
+	 * the prefix itself, from the shortest prefix to the longest.
+	 */
+	public Map<InetAddressPrefix, V> getCovering(InetAddressPrefix prefix) {
+		Map<InetAddressPrefix, V> covering = new LinkedHashMap<>();
+		forEachCovering(prefix, covering::put);
+		return covering;
+	}
+
+	/**
+	 * Calls the action for each prefix in this table that is contained by the given prefix, including
+	 * the prefix itself, in {@link InetAddressPrefix#compareTo(com.aoapps.net.InetAddressPrefix) natural order}.
+	 */
+	public void forEachCovered(InetAddressPrefix prefix, BiConsumer<? super InetAddressPrefix, ? super V> action) {
+		InetAddress address = prefix.getAddress();
+		long hi = address.hi;
+		long lo = address.lo;
+		int bits = InetAddressBits.getKeyBits(prefix);
+		Node<V> node = getRoot(hi, lo);
+		while(node != null && node.bits < bits) {
+			if(!node.matches(hi, lo)) return;
+			node = node.getChild(InetAddressBits.getBit(hi, lo, node.bits));
+		}
+		if(
+			node != null
+			&& InetAddressBits.commonPrefixLength(hi, lo, node.hi, node.lo) >= bits
+		) {
+			forEach(node, action);
+		}
+	}
+
+	/**
+	 * Gets each prefix in this table that is contained by the given prefix, including
+	 * the prefix itself, in {@link InetAddressPrefix#compareTo(com.aoapps.net.InetAddressPrefix) natural order}.
+	 */
+	public Map<InetAddressPrefix, V> getCovered(InetAddressPrefix prefix) {
+		Map<InetAddressPrefix, V> covered = new LinkedHashMap<>();
+		forEachCovered(prefix, covered::put);
+		return covered;
+	}
+
+	/**
+	 * Pre-order traversal, which is the natural order of normalized prefixes.
+	 */
+	private static <V> void forEach(Node<V> node, BiConsumer<? super InetAddressPrefix, ? super V> action) {
+		if(node.value != null) action.accept(node.prefix, node.value);
+		if(node.zero != null) forEach(node.zero, action);
+		if(node.one != null) forEach(node.one, action);
+	}
+
+	/**
+	 * Calls the action for each prefix in this table,
+	 * in {@link InetAddressPrefix#compareTo(com.aoapps.net.InetAddressPrefix) natural order}.
+	 */
+	public void forEach(BiConsumer<? super InetAddressPrefix, ? super V> action) {
+		forEach(inetRoot, action);
+		forEach(inet6Root, action);
+	}
+}
@@ -0,0 +1,323 @@
+/*
+ * ao-net-types - Networking-related value types.
+ * Copyright (C) 2021  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-net-types.
+ *
+ * ao-net-types is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-net-types is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-net-types.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aoapps.net;
+
+import com.aoapps.lang.dto.DtoFactory;
+import com.aoapps.lang.i18n.Resources;
+import com.aoapps.lang.validation.InvalidResult;
+import com.aoapps.lang.validation.ValidResult;
+import com.aoapps.lang.validation.ValidationException;
+import com.aoapps.lang.validation.ValidationResult;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.ResourceBundle;
+
+/**
+ * An inclusive range of IP addresses of a single family, such as <code>192.0.2.10-192.0.2.99</code>.
+ * <p>
+ * Ranges are converted to their minimal list of prefixes by {@link #toPrefixes()}, and any collection of
+ * prefixes is collapsed into maximal ranges by {@link #coalesce(java.util.Collection)}.  Both directions
+ * are also available on primitives, without creating any objects per prefix or range, for large imports.
+ * </p>
+ * <p>
+ * An IPv6 range never contains IPv4 addresses, so any part of <code>::ffff:0:0/96</code> it spans is
+ * excluded from its prefixes.
+ * </p>
+ *
+ * @author  AO Industries, Inc.
+ */
+final public class InetAddressRange implements
+	Comparable<InetAddressRange>,
+	Serializable,
+	DtoFactory<com.aoapps.net.dto.InetAddressRange>
+{
+
+	private static final Resources RESOURCES = Resources.getResources(ResourceBundle::getBundle, InetAddressRange.class);
+
+	/**
+	 * Receives prefixes without any {@link InetAddressPrefix}.
+	 */
+	@FunctionalInterface
+	public static interface PrefixConsumer {
+
+		/**
+		 * @param  hi      See {@link InetAddress#getHigh()}
+		 * @param  lo      See {@link InetAddress#getLow()}
+		 * @param  prefix  The prefix within the address family: up to 32 for IPv4 or 128 for IPv6.
+		 */
+		void accept(long hi, long lo, int prefix);
+	}
+
+	/**
+	 * Receives inclusive ranges without any {@link InetAddressRange}.
+	 */
+	@FunctionalInterface
+	public static interface RangeConsumer {
+
+		/**
+		 * @param  fromHi  See {@link InetAddress#getHigh()}
+		 * @param  fromLo  See {@link InetAddress#getLow()}
+		 * @param  toHi    See {@link InetAddress#getHigh()}
+		 * @param  toLo    See {@link InetAddress#getLow()}
+		 */
+		void accept(long fromHi, long fromLo, long toHi, long toLo);
+	}
+
+	/**
+	 * Checks if the addresses are of the same family and in order.
+	 *
+	 * @param  from  must be non-null
+	 * @param  to    must be non-null
+	 */
+	public static ValidationResult validate(InetAddress from, InetAddress to) {
+		if(from == null) return new InvalidResult(RESOURCES, "validate.from.isNull");
+		if(to == null) return new InvalidResult(RESOURCES, "validate.to.isNull");
+		if(InetAddressBits.isInet(from.hi, from.lo) != InetAddressBits.isInet(to.hi, to.lo)) {
+			return new InvalidResult(RESOURCES, "validate.familyMismatch", from, to);
+		}
+		if(InetAddressBits.compare(to.hi, to.lo, from.hi, from.lo) < 0) {
+			return new InvalidResult(RESOURCES, "validate.toLessThanFrom", to, from);
+		}
+		return ValidResult.getInstance();
+	}
+
+	/**
+	 * Gets a range from its first and last addresses.
+	 *
+	 * @throws  ValidationException  See {@link #validate(com.aoapps.net.InetAddress, com.aoapps.net.InetAddress)}
+	 */
+	public static InetAddressRange valueOf(InetAddress from, InetAddress to) throws ValidationException {
+		ValidationResult result = validate(from, to);
+		if(!result.isValid()) throw new ValidationException(result);
+		return valueOfNoValidate(from, to);
+	}
+
+	static InetAddressRange valueOfNoValidate(InetAddress from, InetAddress to) {
+		return new InetAddressRange(from, to);
+	}
+
+	/**
+	 * Gets the range of addresses in a prefix.
+	 *
+	 * @param  prefix  If prefix is null, returns null.
+	 */
+	public static InetAddressRange valueOf(InetAddressPrefix prefix) {
+		if(prefix == null) return null;
+		return valueOfNoValidate(prefix.getFrom(), prefix.getTo());
+	}
+
+	/**
+	 * Parses a range of addresses.
+	 *
+	 * @param range  The range as <code><i>from</i>[-<i>to</i>]</code>.
+	 *               When null, returns null.
+	 *
+	 * @see  #toString()  for the inverse function
+	 */
+	public static InetAddressRange valueOf(String range) throws ValidationException {
+		if(range == null) return null;
+		// Hyphen is not used in either IPv4 or IPv6 addresses
+		int hyphenPos = range.indexOf('-');
+		if(hyphenPos == -1) {
+			InetAddress address = InetAddress.valueOf(range);
+			return valueOfNoValidate(address, address);
+		} else {
+			return valueOf(
+				InetAddress.valueOf(range, 0, hyphenPos),
+				InetAddress.valueOf(range, hyphenPos + 1, range.length())
+			);
+		}
+	}
+
+	/**
+	 * Decomposes an inclusive range into the minimal list of prefixes, in order, without creating any objects.
+	 * An IPv6 range excludes any IPv4-mapped addresses.
+	 *
+	 * @param  fromHi  See {@link InetAddress#getHigh()}
+	 * @param  fromLo  See {@link InetAddress#getLow()}
+	 * @param  toHi    See {@link InetAddress#getHigh()}
+	 * @param  toLo    See {@link InetAddress#getLow()}
+	 *
+	 * @throws  IllegalArgumentException  when the addresses are of different families or not in order
+	 */
+	public static void forEachPrefix(long fromHi, long fromLo, long toHi, long toLo, PrefixConsumer action) throws IllegalArgumentException {
+		boolean inet = InetAddressBits.isInet(fromHi, fromLo);
+		if(inet != InetAddressBits.isInet(toHi, toLo)) throw new IllegalArgumentException("Addresses are of different families");
+		if(InetAddressBits.compare(toHi, toLo, fromHi, fromLo) < 0) throw new IllegalArgumentException("to < from");
+		if(inet) InetAddressBits.forEachPrefix(fromHi, fromLo, toHi, toLo, 32, action);
+		else InetAddressBits.forEachPrefixInet6(fromHi, fromLo, toHi, toLo, action);
+	}
+
+	/**
+	 * Collapses any collection of prefixes into the maximal, non-adjacent ranges, IPv4 then IPv6, in order.
+	 *
+	 * @return  a new, unmodifiable list
+	 *
+	 * @see  InetAddressPrefixSet#forEachRange(com.aoapps.net.InetAddressRange.RangeConsumer)  to avoid creating objects per range
+	 */
+	public static List<InetAddressRange> coalesce(Collection<? extends InetAddressPrefix> prefixes) {
+		return InetAddressPrefixSet.valueOf(prefixes).toRanges();
+	}
+
+	private static final long serialVersionUID = 1L;
+
+	final private InetAddress from;
+	final private InetAddress to;
+
+	/**
+	 * @param  from  Does not validate, should only be used with a known valid value.
+	 * @param  to  Does not validate, should only be used with a known valid value.
+	 */
+	private InetAddressRange(InetAddress from, InetAddress to) {
+		ValidationResult result;
+		assert (result = validate(from, to)).isValid() : result.toString();
+		this.from = from;
+		this.to = to;
+	}
+
+	private void validate() throws ValidationException {
+		ValidationResult result = validate(from, to);
+		if(!result.isValid()) throw new ValidationException(result);
+	}
+
+	/**
+	 * Perform same validation as constructor on readObject.
+	 */
+	private void readObject(ObjectInputStream ois) throws ClassNotFoundException, IOException {
+		ois.defaultReadObject();
+		try {
+			validate();
+		} catch(ValidationException err) {
+			InvalidObjectException newErr = new InvalidObjectException(err.getMessage());
+			newErr.initCause(err);
+			throw newErr;
+		}
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if(!(obj instanceof InetAddressRange)) return false;
+		InetAddressRange other = (InetAddressRange)obj;
+		return
+			from.equals(other.from)
+			&& to.equals(other.to)
+		;
+	}
+
+	@Override
+	public int hashCode() {
+		return from.hashCode() * 31 + to.hashCode();
+	}
+
+	/**
+	 * @return  The range as <code><i>from</i>[-<i>to</i>]</code>, where <code>-<i>to</i></code> is
+	 *          omitted for a single address.
+	 *
+	 * @see  #valueOf(String)  for the inverse function
+	 */
+	@Override
+	public String toString() {
+		if(from.equals(to)) return from.toString();
+		StringBuilder sb = new StringBuilder(InetAddress.MAX_STRING_LENGTH * 2 + 1);
+		from.appendTo(sb);
+		sb.append('-');
+		to.appendTo(sb);
+		return sb.toString();
+	}
+
+	/**
+	 * Ordered by from, to.
+	 *
+	 * @see  InetAddress#compareTo(com.aoapps.net.InetAddress)
+	 */
+	@Override
+	public int compareTo(InetAddressRange other) {
+		int diff = from.compareTo(other.from);
+		if(diff != 0) return diff;
+		return to.compareTo(other.to);
+	}
+
+	/**
+	 * Gets the first address in the range, inclusive.
+	 */
+	public InetAddress getFrom() {
+		return from;
+	}
+
+	/**
+	 * Gets the last address in the range, inclusive.
+	 */
+	public InetAddress getTo() {
+		return to;
+	}
+
+	@Override
+	public com.aoapps.net.dto.InetAddressRange getDto() {
+		return new com.aoapps.net.dto.InetAddressRange(from.getDto(), to.getDto());
+	}
+
+	/**
+	 * Checks if the given address is in this range.
+	 * IPv4 addresses will never match IPv6.
+	 */
+	public boolean contains(InetAddress address) {
+		return
+			InetAddressBits.isInet(address.hi, address.lo) == InetAddressBits.isInet(from.hi, from.lo)
+			&& InetAddressBits.compare(address.hi, address.lo, from.hi, from.lo) >= 0
+			&& InetAddressBits.compare(address.hi, address.lo, to.hi, to.lo) <= 0
+		;
+	}
+
+	/**
+	 * Calls the action for each of the minimal list of prefixes covering exactly this range, in order,
+	 * without creating any objects.
+	 */
+	public void forEachPrefix(PrefixConsumer action) {
+		if(InetAddressBits.isInet(from.hi, from.lo)) {
+			InetAddressBits.forEachPrefix(from.hi, from.lo, to.hi, to.lo, 32, action);
+		} else {
+			InetAddressBits.forEachPrefixInet6(from.hi, from.lo, to.hi, to.lo, action);
+		}
+	}
+
+	/**
+	 * Gets the minimal list of prefixes covering exactly this range, in order.
+	 *
+	 * @return  a new, unmodifiable list
+	 */
+	public List<InetAddressPrefix> toPrefixes() {
+		List<InetAddressPrefix> prefixes = new ArrayList<>();
+		forEachPrefix(
+			(hi, lo, prefix) -> prefixes.add(
+				InetAddressPrefix.valueOfNoValidate(InetAddress.valueOf(hi, lo), prefix)
+			)
+		);
+		return Collections.unmodifiableList(prefixes);
+	}
+}
@@ -0,0 +1,278 @@
+/*
+ * ao-net-types - Networking-related value types.
+ * Copyright (C) 2021  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-net-types.
+ *
+ * ao-net-types is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-net-types is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-net-types.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aoapps.net;
+
+import com.aoapps.lang.i18n.Resources;
+import com.aoapps.lang.validation.InvalidResult;
+import com.aoapps.lang.validation.ValidationException;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.function.Consumer;
+
+/**
+ * An immutable registry of labeled prefixes, such as the IANA special-purpose address blocks along with any
+ * number of application-defined prefixes.  All prefixes are compiled into a single {@link InetAddressPrefixTable},
+ * so every label matching an address is found in one walk of the trie.
+ * <p>
+ * A prefix may have multiple labels, and a label may be on multiple prefixes.  This class is thread-safe.
+ * </p>
+ *
+ * @author  AO Industries, Inc.
+ */
+final public class InetAddressRegistry {
+
+	private static final Resources RESOURCES = Resources.getResources(ResourceBundle::getBundle, InetAddressRegistry.class);
+
+	/**
+	 * The bundled copy of the IANA IPv4 and IPv6 Special-Purpose Address Registries.
+	 */
+	private static final String IANA_SPECIAL_PURPOSE_RESOURCE = "iana-special-purpose-address-registry.csv";
+
+	/**
+	 * Builds a registry.  Labels are kept in the order added per prefix, and duplicate labels on the same prefix
+	 * are ignored.
+	 */
+	public static class Builder {
+
+		private final Map<InetAddressPrefix, List<String>> labels = new LinkedHashMap<>();
+
+		public Builder() {
+		}
+
+		/**
+		 * Adds a label to a prefix.  The prefix is {@linkplain InetAddressPrefix#normalize() normalized}.
+		 */
+		public Builder add(InetAddressPrefix prefix, String label) {
+			List<String> prefixLabels = labels.computeIfAbsent(prefix.normalize(), p -> new ArrayList<>());
+			if(!prefixLabels.contains(label)) prefixLabels.add(label);
+			return this;
+		}
+
+		/**
+		 * Adds all the prefixes and labels from another registry.
+		 */
+		public Builder addAll(InetAddressRegistry registry) {
+			registry.table.forEach((prefix, prefixLabels) -> {
+				for(String label : prefixLabels) add(prefix, label);
+			});
+			return this;
+		}
+
+		/**
+		 * Adds the bundled IANA IPv4 and IPv6 Special-Purpose Address Registries, labeled by their IANA names.
+		 *
+		 * @see  InetAddressRegistry#getIanaSpecialPurpose()
+		 */
+		public Builder addIanaSpecialPurpose() {
+			return addAll(getIanaSpecialPurpose());
+		}
+
+		/**
+		 * Loads comma-separated lines of <code><i>prefix</i>,<i>label</i>[,...]</code>, where any additional columns
+		 * are ignored.  This is compatible with the CSV exports of the IANA registries with their header removed.
+		 * Fields may be enclosed in double quotes.  Blank lines and lines starting with <code>#</code> are ignored.
+		 *
+		 * @throws  ValidationException  when a line does not have a valid prefix and non-empty label
+		 */
+		public Builder load(Reader in) throws IOException, ValidationException {
+			BufferedReader reader = in instanceof BufferedReader ? (BufferedReader)in : new BufferedReader(in);
+			List<String> fields = new ArrayList<>();
+			String line;
+			int lineNumber = 0;
+			while((line = reader.readLine()) != null) {
+				lineNumber++;
+				String trimmed = line.trim();
+				if(trimmed.isEmpty() || trimmed.charAt(0) == '#') continue;
+				splitFields(trimmed, fields);
+				String label = fields.size() < 2 ? "" : fields.get(1);
+				if(label.isEmpty()) {
+					throw new ValidationException(new InvalidResult(RESOURCES, "load.missingLabel", lineNumber));
+				}
+				InetAddressPrefix prefix;
+				try {
+					prefix = InetAddressPrefix.valueOf(fields.get(0));
+				} catch(ValidationException e) {
+					throw new ValidationException(
+						e,
+						new InvalidResult(RESOURCES, "load.invalidPrefix", lineNumber, e.getMessage())
+					);
+				}
+				add(prefix, label);
+			}
+			return this;
+		}
+
+		/**
+		 * Creates an immutable registry of everything added so far.  The builder may continue to be used.
+		 */
+		public InetAddressRegistry build() {
+			InetAddressPrefixTable<List<String>> table = new InetAddressPrefixTable<>();
+			for(Map.Entry<InetAddressPrefix, List<String>> entry : labels.entrySet()) {
+				table.put(entry.getKey(), Collections.unmodifiableList(Arrays.asList(entry.getValue().toArray(new String[0]))));
+			}
+			return new InetAddressRegistry(table);
+		}
+	}
+
+	/**
+	 * Splits a line into trimmed fields, with optional double quotes and <code>""</code> as an escaped quote.
+	 */
+	private static void splitFields(String line, List<String> fields) {
+		fields.clear();
+		StringBuilder field = new StringBuilder();
+		boolean quoted = false;
+		for(int i = 0, len = line.length(); i < len; i++) {
+			char ch = line.charAt(i);
+			if(quoted) {
+				if(ch == '"') {
+					if(i + 1 < len && line.charAt(i + 1) == '"') {
+						field.append('"');
+						i++;
+					} else {
+						quoted = false;
+					}
+				} else {
+					field.append(ch);
+				}
+			} else if(ch == '"') {
+				quoted = true;
+			} else if(ch == ',') {
+				fields.add(field.toString().trim());
+				field.setLength(0);
+			} else {
+				field.append(ch);
+			}
+		}
+		fields.add(field.toString().trim());
+	}
+
+	private static class IanaSpecialPurposeLazy {
+
+		private static final InetAddressRegistry instance;
+
+		static {
+			try (InputStream in = InetAddressRegistry.class.getResourceAsStream(IANA_SPECIAL_PURPOSE_RESOURCE)) {
+				if(in == null) throw new IOException("Resource not found: " + IANA_SPECIAL_PURPOSE_RESOURCE);
+				instance = new Builder().load(new InputStreamReader(in, StandardCharsets.UTF_8)).build();
+			} catch(IOException e) {
+				throw new UncheckedIOException(e);
+			} catch(ValidationException e) {
+				throw new AssertionError("Bundled registry is valid", e);
+			}
+		}
+	}
+
+	/**
+	 * Gets the registry of the bundled IANA IPv4 and IPv6 Special-Purpose Address Registries,
+	 * labeled by their IANA names, such as <code>"Private-Use"</code> or <code>"Documentation"</code>.
+	 */
+	public static InetAddressRegistry getIanaSpecialPurpose() {
+		return IanaSpecialPurposeLazy.instance;
+	}
+
+	/**
+	 * Never modified after construction, so safe for concurrent reads.
+	 */
+	private final InetAddressPrefixTable<List<String>> table;
+
+	private InetAddressRegistry(InetAddressPrefixTable<List<String>> table) {
+		this.table = table;
+	}
+
+	/**
+	 * Gets the number of distinct prefixes.
+	 */
+	public int size() {
+		return table.size();
+	}
+
+	/**
+	 * Calls the action for every label of every prefix containing the given address, from the shortest prefix to the
+	 * longest, in a single walk.  A label on multiple matching prefixes is given once per prefix.
+	 *
+	 * @param  hi  See {@link InetAddress#getHigh()}
+	 * @param  lo  See {@link InetAddress#getLow()}
+	 */
+	public void forEachLabel(long hi, long lo, Consumer<? super String> action) {
+		table.forEachMatch(hi, lo, (prefix, prefixLabels) -> {
+			for(String label : prefixLabels) action.accept(label);
+		});
+	}
+
+	/**
+	 * Gets the distinct labels of all prefixes containing the given address, from the shortest prefix to the longest.
+	 *
+	 * @return  a new, unmodifiable list, which is empty when no prefix contains the address
+	 */
+	public List<String> getLabels(InetAddress address) {
+		List<String> matched = new ArrayList<>();
+		forEachLabel(address.hi, address.lo, label -> {
+			if(!matched.contains(label)) matched.add(label);
+		});
+		return Collections.unmodifiableList(matched);
+	}
+
+	/**
+	 * Gets the labels for each prefix containing the given address, from the shortest prefix to the longest.
+	 *
+	 * @return  a new, unmodifiable map
+	 */
+	public Map<InetAddressPrefix, List<String>> getMatches(InetAddress address) {
+		Map<InetAddressPrefix, List<String>> matches = new LinkedHashMap<>();
+		table.forEachMatch(address, matches::put);
+		return Collections.unmodifiableMap(matches);
+	}
+
+	/**
+	 * Checks if any prefix containing the given address has the given label.
+	 */
+	public boolean hasLabel(InetAddress address, String label) {
+		boolean[] found = {false};
+		table.forEachMatch(address, (prefix, prefixLabels) -> {
+			if(!found[0] && prefixLabels.contains(label)) found[0] = true;
+		});
+		return found[0];
+	}
+
+	/**
+	 * Gets the labels of the longest prefix containing the given address.
+	 *
+	 * @return  the unmodifiable labels, which are empty when no prefix contains the address
+	 */
+	public List<String> getMostSpecificLabels(InetAddress address) {
+		List<String> labels = table.getLongestMatch(address);
+		return labels == null ? Collections.emptyList() : labels;
+	}
+}
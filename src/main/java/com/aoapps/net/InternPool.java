@@ -0,0 +1,365 @@
+/*
+ * ao-net-types - Networking-related value types.
+ * Copyright (C) 2021  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-net-types.
+ *
+ * ao-net-types is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-net-types is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-net-types.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aoapps.net;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The storage behind the <code>intern()</code> methods of the value types, such as
+ * {@link InetAddress#intern()} and {@link DomainName#intern()}.
+ * <p>
+ * Each type has its own pool, which may be replaced to control how much memory interning may hold:
+ * </p>
+ * <ul>
+ * <li>{@link #strong()} - Retains every interned value forever.  This is the default and is only
+ *     appropriate for a bounded set of trusted values.</li>
+ * <li>{@link #weakValues()} - Retains interned values only while they are otherwise reachable.</li>
+ * <li>{@link #bounded(int)} - Retains up to a maximum number of the most recently used values.</li>
+ * </ul>
+ * <p>
+ * A pool should be replaced before interning anything, since values already interned in the previous pool
+ * will not be the same instances as those interned in the new pool.  Use a {@link #bounded(int) bounded pool}
+ * when interning untrusted values.
+ * </p>
+ * <p>
+ * The same pools may also be used as the optional caches of values by the exact string given to
+ * <code>valueOf(String)</code>, such as {@link InetAddress#setValueOfCache(com.aoapps.net.InternPool)}.
+ * A cached string then skips validation, or the encoding and decoding of {@link URI} and {@link IRI}.  These caches are disabled by default, and should usually be
+ * {@link #bounded(int) bounded}, with {@link #getHits() hits} and {@link #getMisses() misses} giving the hit rate.
+ * </p>
+ * <p>
+ * Keys are chosen by each type and are opaque to callers.  A key must not strongly reference its value,
+ * otherwise {@link #weakValues()} could never release it.
+ * </p>
+ * <p>
+ * All pools are thread-safe and track their hits, misses, and evictions.
+ * </p>
+ *
+ * @author  AO Industries, Inc.
+ */
+abstract public class InternPool<V> {
+
+	/**
+	 * Creates a new pool that retains every value until {@link #clear() cleared}.
+	 */
+	public static <V> InternPool<V> strong() {
+		return new Strong<>();
+	}
+
+	/**
+	 * Creates a new pool that retains each value only until it is no longer strongly reachable elsewhere.
+	 */
+	public static <V> InternPool<V> weakValues() {
+		return new WeakValues<>();
+	}
+
+	/**
+	 * Creates a new pool that retains up to {@code maxSize} values, evicting the least recently used.
+	 * <p>
+	 * The pool is split into independently locked segments to reduce contention, so the least recently
+	 * used value is chosen per segment.
+	 * </p>
+	 *
+	 * @param  maxSize  The maximum number of values, at least one
+	 */
+	public static <V> InternPool<V> bounded(int maxSize) {
+		return new Bounded<>(maxSize);
+	}
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	protected InternPool() {
+	}
+
+	/**
+	 * Gets the value for the given key, recording a hit or miss.
+	 *
+	 * @return  the value or {@code null} when not in this pool
+	 */
+	public final V get(Object key) {
+		V value = lookup(key);
+		if(value != null) hits.increment();
+		else misses.increment();
+		return value;
+	}
+
+	/**
+	 * Gets the value for the given key, without recording a hit or miss.
+	 *
+	 * @return  the value or {@code null} when not in this pool
+	 */
+	protected abstract V lookup(Object key);
+
+	/**
+	 * Adds a value when its key is not already in this pool.
+	 *
+	 * @return  the existing value or {@code null} when added
+	 */
+	public abstract V putIfAbsent(Object key, V value);
+
+	/**
+	 * Gets the number of values currently in this pool.
+	 */
+	public abstract int size();
+
+	/**
+	 * Removes all values from this pool.  The metrics are not reset.
+	 */
+	public abstract void clear();
+
+	/**
+	 * Records that a value has been removed by this pool other than by {@link #clear()}.
+	 */
+	protected final void recordEviction() {
+		evictions.increment();
+	}
+
+	/**
+	 * Gets the number of times {@link #get(java.lang.Object)} has found a value.
+	 */
+	public final long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * Gets the number of times {@link #get(java.lang.Object)} has not found a value.
+	 */
+	public final long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * Gets the number of values removed by this pool, either by eviction or garbage collection.
+	 */
+	public final long getEvictions() {
+		return evictions.sum();
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName()
+			+ "(size=" + size()
+			+ ", hits=" + getHits()
+			+ ", misses=" + getMisses()
+			+ ", evictions=" + getEvictions()
+			+ ')';
+	}
+
+	private static class Strong<V> extends InternPool<V> {
+
+		private final ConcurrentMap<Object, V> map = new ConcurrentHashMap<>();
+
+		@Override
+		protected V lookup(Object key) {
+			return map.get(key);
+		}
+
+		@Override
+		public V putIfAbsent(Object key, V value) {
+			return map.putIfAbsent(key, value);
+		}
+
+		@Override
+		public int size() {
+			return map.size();
+		}
+
+		@Override
+		public void clear() {
+			map.clear();
+		}
+	}
+
+	private static class WeakValues<V> extends InternPool<V> {
+
+		private static class ValueReference<V> extends WeakReference<V> {
+
+			private final Object key;
+
+			private ValueReference(Object key, V value, ReferenceQueue<? super V> queue) {
+				super(value, queue);
+				this.key = key;
+			}
+		}
+
+		private final ConcurrentMap<Object, ValueReference<V>> map = new ConcurrentHashMap<>();
+		private final ReferenceQueue<V> queue = new ReferenceQueue<>();
+
+		/**
+		 * Removes the entries of any collected values.
+		 */
+		private void expunge() {
+			Reference<? extends V> ref;
+			while((ref = queue.poll()) != null) {
+				@SuppressWarnings("unchecked")
+				ValueReference<V> valueRef = (ValueReference<V>)ref;
+				if(map.remove(valueRef.key, valueRef)) recordEviction();
+			}
+		}
+
+		@Override
+		protected V lookup(Object key) {
+			expunge();
+			ValueReference<V> ref = map.get(key);
+			return ref == null ? null : ref.get();
+		}
+
+		@Override
+		public V putIfAbsent(Object key, V value) {
+			expunge();
+			ValueReference<V> newRef = new ValueReference<>(key, value, queue);
+			while(true) {
+				ValueReference<V> ref = map.putIfAbsent(key, newRef);
+				if(ref == null) return null;
+				V existing = ref.get();
+				if(existing != null) return existing;
+				// Collected but not yet expunged
+				if(map.replace(key, ref, newRef)) return null;
+			}
+		}
+
+		/**
+		 * {@inheritDoc}
+		 * <p>
+		 * This may include values that have been collected but not yet removed.
+		 * </p>
+		 */
+		@Override
+		public int size() {
+			expunge();
+			return map.size();
+		}
+
+		@Override
+		public void clear() {
+			map.clear();
+			// Discard any pending, their entries are already gone
+			while(queue.poll() != null) {
+				// Nothing to do
+			}
+		}
+	}
+
+	private static class Bounded<V> extends InternPool<V> {
+
+		private static final int MAX_SEGMENTS = 16;
+
+		private static final int MIN_SEGMENT_SIZE = 64;
+
+		private class Segment extends LinkedHashMap<Object, V> {
+
+			private static final long serialVersionUID = 1L;
+
+			private final int maxSize;
+
+			private Segment(int maxSize) {
+				super(16, 0.75f, true);
+				this.maxSize = maxSize;
+			}
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Object, V> eldest) {
+				if(size() > maxSize) {
+					recordEviction();
+					return true;
+				} else {
+					return false;
+				}
+			}
+		}
+
+		private final Segment[] segments;
+
+		@SuppressWarnings({"unchecked", "rawtypes"})
+		private Bounded(int maxSize) {
+			if(maxSize < 1) throw new IllegalArgumentException("maxSize < 1: " + maxSize);
+			int numSegments = 1;
+			while(
+				numSegments < MAX_SEGMENTS
+				&& maxSize / (numSegments << 1) >= MIN_SEGMENT_SIZE
+			) {
+				numSegments <<= 1;
+			}
+			segments = (Segment[])new Bounded.Segment[numSegments];
+			// Distribute any remainder over the first segments so the total is exactly maxSize
+			int segmentSize = maxSize / numSegments;
+			int remainder = maxSize % numSegments;
+			for(int i = 0; i < numSegments; i++) {
+				segments[i] = new Segment(i < remainder ? segmentSize + 1 : segmentSize);
+			}
+		}
+
+		private Segment getSegment(Object key) {
+			int h = key.hashCode();
+			h ^= h >>> 16;
+			return segments[h & (segments.length - 1)];
+		}
+
+		@Override
+		protected V lookup(Object key) {
+			Segment segment = getSegment(key);
+			synchronized(segment) {
+				return segment.get(key);
+			}
+		}
+
+		@Override
+		public V putIfAbsent(Object key, V value) {
+			Segment segment = getSegment(key);
+			synchronized(segment) {
+				V existing = segment.get(key);
+				if(existing == null) segment.put(key, value);
+				return existing;
+			}
+		}
+
+		@Override
+		public int size() {
+			int size = 0;
+			for(Segment segment : segments) {
+				synchronized(segment) {
+					size += segment.size();
+				}
+			}
+			return size;
+		}
+
+		@Override
+		public void clear() {
+			for(Segment segment : segments) {
+				synchronized(segment) {
+					segment.clear();
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,145 @@
+/*
+ * ao-net-types - Networking-related value types.
+ * Copyright (C) 2021  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-net-types.
+ *
+ * ao-net-types is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-net-types is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-net-types.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aoapps.net;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+
+/**
+ * A fixed-length, zero-initialized array of {@code long}, split into pages so that it may exceed the
+ * size limits of a single array or buffer.  Pages are either on-heap {@code long[]} or off-heap
+ * {@linkplain ByteBuffer#allocateDirect(int) direct buffers}.
+ *
+ * @author  AO Industries, Inc.
+ */
+abstract class LongPages {
+
+	/**
+	 * The number of longs per page, which is 8 MiB per page.
+	 */
+	static final int PAGE_BITS = 20;
+	static final int PAGE_SIZE = 1 << PAGE_BITS;
+	static final int PAGE_MASK = PAGE_SIZE - 1;
+
+	/**
+	 * Allocates a new zero-filled array.
+	 *
+	 * @param  direct  When {@code true}, stores off-heap in direct buffers
+	 */
+	static LongPages allocate(long length, boolean direct) {
+		if(length < 0) throw new IllegalArgumentException("length < 0: " + length);
+		return direct ? new Direct(length) : new Heap(length);
+	}
+
+	private static int getNumPages(long length) {
+		long numPages = (length + PAGE_MASK) >>> PAGE_BITS;
+		if(numPages > Integer.MAX_VALUE) throw new IllegalArgumentException("length too large: " + length);
+		return (int)numPages;
+	}
+
+	private static int getPageLength(long length, int page) {
+		return (int)Math.min(PAGE_SIZE, length - ((long)page << PAGE_BITS));
+	}
+
+	private final long length;
+
+	private LongPages(long length) {
+		this.length = length;
+	}
+
+	final long length() {
+		return length;
+	}
+
+	abstract long get(long index);
+
+	abstract void set(long index, long value);
+
+	/**
+	 * Is this stored off-heap?
+	 */
+	abstract boolean isDirect();
+
+	private static class Heap extends LongPages {
+
+		private final long[][] pages;
+
+		private Heap(long length) {
+			super(length);
+			int numPages = getNumPages(length);
+			pages = new long[numPages][];
+			for(int page = 0; page < numPages; page++) {
+				pages[page] = new long[getPageLength(length, page)];
+			}
+		}
+
+		@Override
+		long get(long index) {
+			return pages[(int)(index >>> PAGE_BITS)][(int)index & PAGE_MASK];
+		}
+
+		@Override
+		void set(long index, long value) {
+			pages[(int)(index >>> PAGE_BITS)][(int)index & PAGE_MASK] = value;
+		}
+
+		@Override
+		boolean isDirect() {
+			return false;
+		}
+	}
+
+	private static class Direct extends LongPages {
+
+		private final LongBuffer[] pages;
+
+		private Direct(long length) {
+			super(length);
+			int numPages = getNumPages(length);
+			pages = new LongBuffer[numPages];
+			for(int page = 0; page < numPages; page++) {
+				// Direct buffers are zero-filled
+				pages[page] = ByteBuffer
+					.allocateDirect(getPageLength(length, page) * Long.BYTES)
+					.order(ByteOrder.nativeOrder())
+					.asLongBuffer();
+			}
+		}
+
+		@Override
+		long get(long index) {
+			return pages[(int)(index >>> PAGE_BITS)].get((int)index & PAGE_MASK);
+		}
+
+		@Override
+		void set(long index, long value) {
+			pages[(int)(index >>> PAGE_BITS)].put((int)index & PAGE_MASK, value);
+		}
+
+		@Override
+		boolean isDirect() {
+			return true;
+		}
+	}
+}
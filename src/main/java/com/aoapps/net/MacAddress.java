@@ -22,6 +22,7 @@
  */
 package com.aoapps.net;
 
+import com.aoapps.lang.NullArgumentException;
 import com.aoapps.lang.dto.DtoFactory;
 import com.aoapps.lang.i18n.Resources;
 import com.aoapps.lang.util.Internable;
@@ -35,8 +36,6 @@ import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.Locale;
 import java.util.ResourceBundle;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 
 /**
  * Represents a 48-bit MAC address in HH:HH:HH:HH:HH:HH format.  Parses case insensitive, produces uppercase.
@@ -108,25 +107,98 @@ final public class MacAddress implements
 		return ValidResult.getInstance();
 	}
 
-	private static final ConcurrentMap<String, MacAddress> interned = new ConcurrentHashMap<>();
+	private static volatile InternPool<MacAddress> internPool = InternPool.strong();
+
+	/**
+	 * Gets the pool used by {@link #intern()}, which defaults to {@link InternPool#strong()}.
+	 *
+	 * @see  InternPool
+	 */
+	public static InternPool<MacAddress> getInternPool() {
+		return internPool;
+	}
+
+	/**
+	 * Replaces the pool used by {@link #intern()}.
+	 *
+	 * @see  InternPool
+	 */
+	public static void setInternPool(InternPool<MacAddress> pool) {
+		internPool = NullArgumentException.checkNotNull(pool, "pool");
+	}
+
+	private static volatile InternPool<MacAddress> valueOfCache;
+
+	/**
+	 * Gets the cache used by {@link #valueOf(java.lang.String)}, or {@code null} when disabled, which is the default.
+	 *
+	 * @see  InternPool
+	 */
+	public static InternPool<MacAddress> getValueOfCache() {
+		return valueOfCache;
+	}
+
+	/**
+	 * Sets the cache used by {@link #valueOf(java.lang.String)}, or {@code null} to disable it.
+	 *
+	 * @see  InternPool
+	 */
+	public static void setValueOfCache(InternPool<MacAddress> cache) {
+		valueOfCache = cache;
+	}
 
 	/**
 	 * @param address  when {@code null}, returns {@code null}
 	 */
 	public static MacAddress valueOf(String address) throws ValidationException {
 		if(address == null) return null;
-		//MacAddress existing = interned.get(address);
-		//return existing!=null ? existing : new MacAddress(address);
-		return new MacAddress(address, true);
+		ValidationResult[] invalid = new ValidationResult[1];
+		MacAddress value = parseValueOf(address, invalid);
+		if(value == null) throw new ValidationException(invalid[0]);
+		return value;
 	}
 
-	final private String address;
+	/**
+	 * Parses without throwing an exception, for when invalid input is expected to be common, such as from
+	 * untrusted sources.  When invalid, {@link #validate(java.lang.String)} gives the reason.
+	 *
+	 * @param address  when {@code null}, returns {@code null}
+	 *
+	 * @return  the value or {@code null} when invalid
+	 */
+	public static MacAddress tryValueOf(String address) {
+		return parseValueOf(address, null);
+	}
 
-	private MacAddress(String address, boolean validate) throws ValidationException {
-		this.address = address.toUpperCase(Locale.ROOT);
-		if(validate) validate();
+	/**
+	 * Parses once for both {@link #valueOf(java.lang.String)} and {@link #tryValueOf(java.lang.String)}.
+	 *
+	 * @param  invalid  when non-null, receives the reason at index 0 when invalid
+	 *
+	 * @return  the value or {@code null} when {@code address} is {@code null} or invalid
+	 */
+	private static MacAddress parseValueOf(String address, ValidationResult[] invalid) {
+		if(address == null) return null;
+		InternPool<MacAddress> cache = valueOfCache;
+		// If found in the cache, it is valid
+		MacAddress value = (cache == null) ? null : cache.get(address);
+		if(value == null) {
+			ValidationResult result = validate(address);
+			if(!result.isValid()) {
+				if(invalid != null) invalid[0] = result;
+				return null;
+			}
+			value = new MacAddress(address.toUpperCase(Locale.ROOT));
+			if(cache != null) {
+				MacAddress existing = cache.putIfAbsent(address, value);
+				if(existing != null) value = existing;
+			}
+		}
+		return value;
 	}
 
+	final private String address;
+
 	/**
 	 * @param  address  Does not validate, should only be used with a known valid value.
 	 */
@@ -186,12 +258,12 @@ final public class MacAddress implements
 	 */
 	@Override
 	public MacAddress intern() {
-		MacAddress existing = interned.get(address);
+		MacAddress existing = internPool.get(address);
 		if(existing==null) {
 			String internedAddress = address.intern();
 			@SuppressWarnings("StringEquality")
 			MacAddress addMe = (address == internedAddress) ? this : new MacAddress(internedAddress);
-			existing = interned.putIfAbsent(internedAddress, addMe);
+			existing = internPool.putIfAbsent(internedAddress, addMe);
 			if(existing==null) existing = addMe;
 		}
 		return existing;
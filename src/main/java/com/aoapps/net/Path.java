@@ -23,6 +23,7 @@
 package com.aoapps.net;
 
 import com.aoapps.lang.LocalizedIllegalArgumentException;
+import com.aoapps.lang.NullArgumentException;
 import com.aoapps.lang.dto.DtoFactory;
 import com.aoapps.lang.i18n.Resources;
 import com.aoapps.lang.util.ComparatorUtils;
@@ -36,8 +37,6 @@ import java.io.InvalidObjectException;
 import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ResourceBundle;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 
 /**
  * Represents a full path.  Paths must:
@@ -126,33 +125,106 @@ final public class Path implements
 		return ValidResult.getInstance();
 	}
 
-	private static final ConcurrentMap<String, Path> interned = new ConcurrentHashMap<>();
+	private static volatile InternPool<Path> internPool = InternPool.strong();
+
+	/**
+	 * Gets the pool used by {@link #intern()}, which defaults to {@link InternPool#strong()}.
+	 *
+	 * @see  InternPool
+	 */
+	public static InternPool<Path> getInternPool() {
+		return internPool;
+	}
+
+	/**
+	 * Replaces the pool used by {@link #intern()}.
+	 *
+	 * @see  InternPool
+	 */
+	public static void setInternPool(InternPool<Path> pool) {
+		internPool = NullArgumentException.checkNotNull(pool, "pool");
+	}
+
+	private static volatile InternPool<Path> valueOfCache;
+
+	/**
+	 * Gets the cache used by {@link #valueOf(java.lang.String)}, or {@code null} when disabled, which is the default.
+	 *
+	 * @see  InternPool
+	 */
+	public static InternPool<Path> getValueOfCache() {
+		return valueOfCache;
+	}
+
+	/**
+	 * Sets the cache used by {@link #valueOf(java.lang.String)}, or {@code null} to disable it.
+	 *
+	 * @see  InternPool
+	 */
+	public static void setValueOfCache(InternPool<Path> cache) {
+		valueOfCache = cache;
+	}
 
 	/**
 	 * @param path  when {@code null}, returns {@code null}
 	 */
 	public static Path valueOf(String path) throws ValidationException {
+		if(path == null) return null;
+		ValidationResult[] invalid = new ValidationResult[1];
+		Path value = parseValueOf(path, invalid);
+		if(value == null) throw new ValidationException(invalid[0]);
+		return value;
+	}
+
+	/**
+	 * Parses without throwing an exception, for when invalid input is expected to be common, such as from
+	 * untrusted sources.  When invalid, {@link #validate(java.lang.String)} gives the reason.
+	 *
+	 * @param path  when {@code null}, returns {@code null}
+	 *
+	 * @return  the value or {@code null} when invalid
+	 */
+	public static Path tryValueOf(String path) {
+		return parseValueOf(path, null);
+	}
+
+	/**
+	 * Parses once for both {@link #valueOf(java.lang.String)} and {@link #tryValueOf(java.lang.String)}.
+	 *
+	 * @param  invalid  when non-null, receives the reason at index 0 when invalid
+	 *
+	 * @return  the value or {@code null} when {@code path} is {@code null} or invalid
+	 */
+	private static Path parseValueOf(String path, ValidationResult[] invalid) {
 		if(path == null) return null;
 		if(path.length() == 1 && path.charAt(0) == SEPARATOR_CHAR) return ROOT;
-		//UnixPath existing = interned.get(path);
-		//return existing!=null ? existing : new UnixPath(path);
-		return new Path(path, true);
+		InternPool<Path> cache = valueOfCache;
+		// If found in the cache, it is valid
+		Path value = (cache == null) ? null : cache.get(path);
+		if(value == null) {
+			ValidationResult result = validate(path);
+			if(!result.isValid()) {
+				if(invalid != null) invalid[0] = result;
+				return null;
+			}
+			value = new Path(path);
+			if(cache != null) {
+				Path existing = cache.putIfAbsent(path, value);
+				if(existing != null) value = existing;
+			}
+		}
+		return value;
 	}
 
 	/**
 	 * The root path {@code "/"}.  This is implemented as a singleton
 	 * as is safe for direct object equality check "{@code ==}".
 	 */
-	// Note: These constants must go below the static checks and interned due to class initialization order
+	// Note: These constants must go below the static checks and internPool due to class initialization order
 	public static final Path ROOT = new Path(SEPARATOR_STRING).intern();
 
 	final private String path;
 
-	private Path(String path, boolean validate) throws ValidationException {
-		this.path = path;
-		if(validate) validate();
-	}
-
 	/**
 	 * @param  path  Does not validate, should only be used with a known valid value.
 	 */
@@ -219,12 +291,12 @@ final public class Path implements
 	 */
 	@Override
 	public Path intern() {
-		Path existing = interned.get(path);
+		Path existing = internPool.get(path);
 		if(existing==null) {
 			String internedPath = path.intern();
 			@SuppressWarnings("StringEquality")
 			Path addMe = (path == internedPath) ? this : new Path(internedPath);
-			existing = interned.putIfAbsent(internedPath, addMe);
+			existing = internPool.putIfAbsent(internedPath, addMe);
 			if(existing==null) existing = addMe;
 		}
 		return existing;
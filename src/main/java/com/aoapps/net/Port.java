@@ -75,6 +75,17 @@ final public class Port extends IPortRange implements
 		return valueOfNoValidate(port, protocol);
 	}
 
+	/**
+	 * Gets a port without throwing an exception, for when invalid input is expected to be common, such as from
+	 * untrusted sources.  When invalid, {@link #validate(int, com.aoapps.net.Protocol)} gives the reason.
+	 *
+	 * @return  the port or {@code null} when invalid
+	 */
+	public static Port tryValueOf(int port, Protocol protocol) {
+		if(!validate(port, protocol).isValid()) return null;
+		return valueOfNoValidate(port, protocol);
+	}
+
 	/**
 	 * @param  port  Does not validate, should only be used with a known valid value.
 	 * @param  protocol  Does not validate, should only be used with a known valid value.
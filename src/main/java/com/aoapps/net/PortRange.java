@@ -80,6 +80,17 @@ final public class PortRange extends IPortRange implements
 		return valueOfNoValidate(from, to, protocol);
 	}
 
+	/**
+	 * Gets a port range without throwing an exception, for when invalid input is expected to be common, such as from
+	 * untrusted sources.  When invalid, {@link #validate(int, int, com.aoapps.net.Protocol)} gives the reason.
+	 *
+	 * @return  the port range or {@code null} when invalid
+	 */
+	public static PortRange tryValueOf(int from, int to, Protocol protocol) {
+		if(!validate(from, to, protocol).isValid()) return null;
+		return valueOfNoValidate(from, to, protocol);
+	}
+
 	static PortRange valueOfNoValidate(int from, int to, Protocol protocol) {
 		return new PortRange(from, to, protocol);
 	}
@@ -22,8 +22,6 @@
  */
 package com.aoapps.net;
 
-import java.util.BitSet;
-
 /**
  * Java helper for <a href="https://tools.ietf.org/html/rfc3986">RFC 3986 - Uniform Resource Identifier (URI): Generic Syntax</a>.
  * <p>
@@ -43,91 +41,121 @@ class RFC3986 {
 	private RFC3986() {
 	}
 
+	// <editor-fold defaultstate="collapsed" desc="Character Classes">
 	/**
-	 * <a href="https://tools.ietf.org/html/rfc3986#section-2.2">Reserved Characters</a>.
+	 * <a href="https://tools.ietf.org/html/rfc3986#section-2.2">gen-delims</a>.
 	 */
-	static final BitSet GEN_DELIMS;
-	static {
-		GEN_DELIMS = new BitSet(128);
-		GEN_DELIMS.set(':');
-		GEN_DELIMS.set('/');
-		GEN_DELIMS.set('?');
-		GEN_DELIMS.set('#');
-		GEN_DELIMS.set('[');
-		GEN_DELIMS.set(']');
-		GEN_DELIMS.set('@');
-	};
+	static final int GEN_DELIM = 0x01;
 
 	/**
-	 * <a href="https://tools.ietf.org/html/rfc3986#section-2.2">Reserved Characters</a>.
+	 * <a href="https://tools.ietf.org/html/rfc3986#section-2.2">sub-delims</a>.
 	 */
-	static boolean isGenDelim(char ch) {
-		return GEN_DELIMS.get(ch);
-	}
+	static final int SUB_DELIM = 0x02;
 
 	/**
 	 * <a href="https://tools.ietf.org/html/rfc3986#section-2.2">Reserved Characters</a>.
 	 */
-	static final BitSet SUB_DELIMS;
+	static final int RESERVED = GEN_DELIM | SUB_DELIM;
+
+	/**
+	 * <a href="https://tools.ietf.org/html/rfc3986#section-2.3">Unreserved Characters</a>.
+	 */
+	static final int UNRESERVED = 0x04;
+
+	/**
+	 * <code>ALPHA</code>, which begins a <a href="https://tools.ietf.org/html/rfc3986#section-3.1">Scheme</a>.
+	 */
+	static final int ALPHA = 0x08;
+
+	/**
+	 * The characters after the first of a <a href="https://tools.ietf.org/html/rfc3986#section-3.1">Scheme</a>.
+	 */
+	static final int SCHEME = 0x10;
+
+	/**
+	 * <code>HEXDIG</code>, in either case.
+	 */
+	static final int HEXDIG = 0x20;
+
+	/**
+	 * The characters not encoded by {@link java.net.URLEncoder}: <code>ALPHA</code>, <code>DIGIT</code>,
+	 * '.', '-', '*', and '_'.
+	 */
+	static final int URL_ENCODER_SAFE = 0x40;
+
+	/**
+	 * '%', which begins a <a href="https://tools.ietf.org/html/rfc3986#section-2.1">Percent-Encoding</a>.
+	 */
+	static final int PERCENT = 0x80;
+
+	/**
+	 * The classes of each ASCII character, shared by all parsing, encoding, and decoding so the classification
+	 * of any character is a single array access.
+	 */
+	private static final byte[] CLASSES = new byte[128];
+
+	private static void set(String chars, int classes) {
+		for(int i = 0, len = chars.length(); i < len; i++) {
+			CLASSES[chars.charAt(i)] |= classes;
+		}
+	}
+
+	private static void set(char first, char last, int classes) {
+		for(char ch = first; ch <= last; ch++) {
+			CLASSES[ch] |= classes;
+		}
+	}
+
 	static {
-		SUB_DELIMS = new BitSet(128);
-		SUB_DELIMS.set('!');
-		SUB_DELIMS.set('$');
-		SUB_DELIMS.set('&');
-		SUB_DELIMS.set('\'');
-		SUB_DELIMS.set('(');
-		SUB_DELIMS.set(')');
-		SUB_DELIMS.set('*');
-		SUB_DELIMS.set('+');
-		SUB_DELIMS.set(',');
-		SUB_DELIMS.set(';');
-		SUB_DELIMS.set('=');
-	};
+		set(":/?#[]@", GEN_DELIM);
+		set("!$&'()*+,;=", SUB_DELIM);
+		set('A', 'Z', UNRESERVED | ALPHA | SCHEME | URL_ENCODER_SAFE);
+		set('a', 'z', UNRESERVED | ALPHA | SCHEME | URL_ENCODER_SAFE);
+		set('0', '9', UNRESERVED | SCHEME | HEXDIG | URL_ENCODER_SAFE);
+		set("-._~", UNRESERVED);
+		set("+-.", SCHEME);
+		set('A', 'F', HEXDIG);
+		set('a', 'f', HEXDIG);
+		set(".-*_", URL_ENCODER_SAFE);
+		set("%", PERCENT);
+	}
 
 	/**
-	 * <a href="https://tools.ietf.org/html/rfc3986#section-2.2">Reserved Characters</a>.
+	 * Checks if a character is in any of the given classes.  Non-ASCII characters are in no class.
+	 *
+	 * @param  ch  A character, or a byte value from 0 to 255
+	 * @param  classes  The bitwise-or of the classes
 	 */
-	static boolean isSubDelim(char ch) {
-		return SUB_DELIMS.get(ch);
+	static boolean is(int ch, int classes) {
+		return ch < 128 && (CLASSES[ch] & classes) != 0;
 	}
 
 	/**
 	 * <a href="https://tools.ietf.org/html/rfc3986#section-2.2">Reserved Characters</a>.
 	 */
-	static final BitSet RESERVED;
-	static {
-		RESERVED = new BitSet(128);
-		RESERVED.or(GEN_DELIMS);
-		RESERVED.or(SUB_DELIMS);
+	static boolean isGenDelim(char ch) {
+		return is(ch, GEN_DELIM);
 	}
 
 	/**
 	 * <a href="https://tools.ietf.org/html/rfc3986#section-2.2">Reserved Characters</a>.
 	 */
-	static boolean isReserved(char ch) {
-		return RESERVED.get(ch);
+	static boolean isSubDelim(char ch) {
+		return is(ch, SUB_DELIM);
 	}
 
 	/**
-	 * <a href="https://tools.ietf.org/html/rfc3986#section-2.3">Unreserved Characters</a>.
+	 * <a href="https://tools.ietf.org/html/rfc3986#section-2.2">Reserved Characters</a>.
 	 */
-	static final BitSet UNRESERVED;
-	static {
-		UNRESERVED = new BitSet(128);
-		UNRESERVED.set('A', 'Z' + 1);
-		UNRESERVED.set('a', 'z' + 1);
-		UNRESERVED.set('0', '9' + 1);
-		UNRESERVED.set('-');
-		UNRESERVED.set('.');
-		UNRESERVED.set('_');
-		UNRESERVED.set('~');
+	static boolean isReserved(char ch) {
+		return is(ch, RESERVED);
 	}
 
 	/**
 	 * <a href="https://tools.ietf.org/html/rfc3986#section-2.3">Unreserved Characters</a>.
 	 */
 	static boolean isUnreserved(char ch) {
-		return UNRESERVED.get(ch);
+		return is(ch, UNRESERVED);
 	}
 
 	/**
@@ -138,9 +166,7 @@ class RFC3986 {
 	 * </blockquote>
 	 */
 	static boolean isSchemeBeginning(char ch) {
-		return
-			(ch >= 'A' && ch <= 'Z')
-			|| (ch >= 'a' && ch <= 'z');
+		return is(ch, ALPHA);
 	}
 
 	/**
@@ -152,14 +178,51 @@ class RFC3986 {
 	 * </blockquote>
 	 */
 	static boolean isSchemeRemaining(char ch) {
-		return
-			(ch >= 'A' && ch <= 'Z')
-			|| (ch >= 'a' && ch <= 'z')
-			|| (ch >= '0' && ch <= '9')
-			|| ch == '+'
-			|| ch == '-'
-			|| ch == '.';
+		return is(ch, SCHEME);
+	}
+	// </editor-fold>
+
+	// <editor-fold defaultstate="collapsed" desc="Percent-Encoding">
+	/**
+	 * The upper-case hex digits of every byte, packed as pairs, which is the normalized form of
+	 * <a href="https://tools.ietf.org/html/rfc3986#section-2.1">Percent-Encoding</a>.
+	 */
+	private static final char[] HEX_PAIRS = new char[256 * 2];
+	static {
+		char[] hexChars = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'A', 'B', 'C', 'D', 'E', 'F'};
+		for(int b = 0; b < 256; b++) {
+			HEX_PAIRS[b << 1] = hexChars[b >>> 4];
+			HEX_PAIRS[(b << 1) + 1] = hexChars[b & 0xF];
+		}
+	}
+
+	/**
+	 * Gets the upper-case hex digit of the high four bits of a byte.
+	 */
+	static char getHexHigh(int b) {
+		return HEX_PAIRS[(b & 0xFF) << 1];
+	}
+
+	/**
+	 * Gets the upper-case hex digit of the low four bits of a byte.
+	 */
+	static char getHexLow(int b) {
+		return HEX_PAIRS[((b & 0xFF) << 1) + 1];
+	}
+
+	/**
+	 * Gets the value of a hex digit, in either case.
+	 *
+	 * @param  ch  A character, or a byte value from 0 to 255
+	 *
+	 * @return  the value or {@code -1} when not a hex digit
+	 */
+	static int hexValue(int ch) {
+		if(!is(ch, HEXDIG)) return -1;
+		// '0' - '9' are 0x30 - 0x39, 'A' - 'F' are 0x41 - 0x46, and 'a' - 'f' are 0x61 - 0x66
+		return (ch & 0xF) + (ch >= 'A' ? 9 : 0);
 	}
+	// </editor-fold>
 
 	/**
 	 * <a href="https://tools.ietf.org/html/rfc3986#section-3.1">Scheme</a>:
@@ -51,11 +51,53 @@ public class URI extends AnyURI {
 
 	private final boolean isEncodingNormalized;
 
+	private static volatile InternPool<URI> valueOfCache;
+
+	/**
+	 * Gets the cache used by {@link #valueOf(java.lang.String)}, or {@code null} when disabled, which is the default.
+	 *
+	 * @see  InternPool
+	 */
+	public static InternPool<URI> getValueOfCache() {
+		return valueOfCache;
+	}
+
+	/**
+	 * Sets the cache used by {@link #valueOf(java.lang.String)}, or {@code null} to disable it.
+	 *
+	 * @see  InternPool
+	 */
+	public static void setValueOfCache(InternPool<URI> cache) {
+		valueOfCache = cache;
+	}
+
+	/**
+	 * Gets the {@link URI} for the given {@code anyUri}, from the {@linkplain #setValueOfCache(com.aoapps.net.InternPool) cache}
+	 * when enabled.  Cached instances retain their {@link #toIRI()}, so it is also only decoded once.
+	 *
+	 * @param  anyUri  when {@code null}, returns {@code null}
+	 *
+	 * @see  #URI(java.lang.String)
+	 */
+	public static URI valueOf(String anyUri) {
+		if(anyUri == null) return null;
+		InternPool<URI> cache = valueOfCache;
+		if(cache == null) return new URI(anyUri);
+		URI value = cache.get(anyUri);
+		if(value == null) {
+			value = new URI(anyUri);
+			URI existing = cache.putIfAbsent(anyUri, value);
+			if(existing != null) value = existing;
+		}
+		return value;
+	}
+
 	/**
 	 * {@linkplain URIEncoder#encodeURI(java.lang.String) Encodes} the given
 	 * {@code anyUri} for this {@link URI}.
+	 *
+	 * @see  #valueOf(java.lang.String)
 	 */
-	// TODO: Thread-local AnyURI/URI/IRI LRU instance caches, getIRI(String) instead of constructor?
 	public URI(String anyUri) {
 		this(anyUri, false);
 	}
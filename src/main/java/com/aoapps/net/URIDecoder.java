@@ -22,12 +22,12 @@
  */
 package com.aoapps.net;
 
-import com.aoapps.lang.Strings;
 import com.aoapps.lang.io.Encoder;
 import java.io.IOException;
-import java.io.UnsupportedEncodingException;
 import java.net.URL;
 import java.net.URLDecoder;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 
 /**
  * URI decoding utilities.
@@ -59,7 +59,8 @@ public class URIDecoder {
 	/**
 	 * Decodes a value from its use in a path component or fragment in the default encoding <code>{@link IRI#ENCODING}</code>.
 	 * <p>
-	 * This uses {@link URLDecoder#decode(java.lang.String, java.lang.String)}.
+	 * This is the same as {@link URLDecoder#decode(java.lang.String, java.lang.String)}, including the replacement of
+	 * malformed UTF-8 and the exceptions on invalid escapes, without the intermediate byte array and {@link String}.
 	 * </p>
 	 * <p>
 	 * See <a href="https://developer.mozilla.org/en-US/docs/Web/JavaScript/Reference/Global_Objects/decodeURIComponent">decodeURIComponent() - JavaScript | MDN</a>
@@ -68,17 +69,24 @@ public class URIDecoder {
 	 * @see URIEncoder#encodeURIComponent(java.lang.String)
 	 */
 	public static String decodeURIComponent(String s) {
+		if(s == null) return null;
+		int pos = indexOfDecodeURIComponentChange(s);
+		if(pos == -1) return s;
+		StringBuilder sb = new StringBuilder(s.length());
+		sb.append(s, 0, pos);
 		try {
-			return (s == null) ? null : URLDecoder.decode(s, IRI.ENCODING.name()); // Java 10: No .name()
-		} catch(UnsupportedEncodingException e) {
-			throw new AssertionError("Standard encoding (" + IRI.ENCODING + ") should always exist", e);
+			decode(s, pos, false, null, sb);
+		} catch(IOException e) {
+			throw new AssertionError("IOException should not occur on StringBuilder", e);
 		}
+		return sb.toString();
 	}
 
 	/**
 	 * Decodes a value from its use in a path component or fragment in the default encoding <code>{@link IRI#ENCODING}</code>.
 	 * <p>
-	 * This uses {@link URLDecoder#decode(java.lang.String, java.lang.String)}.
+	 * This is the same as {@link URLDecoder#decode(java.lang.String, java.lang.String)}, including the replacement of
+	 * malformed UTF-8 and the exceptions on invalid escapes, without the intermediate byte array and {@link String}.
 	 * </p>
 	 * <p>
 	 * See <a href="https://developer.mozilla.org/en-US/docs/Web/JavaScript/Reference/Global_Objects/decodeURIComponent">decodeURIComponent() - JavaScript | MDN</a>
@@ -87,17 +95,14 @@ public class URIDecoder {
 	 * @see URIEncoder#encodeURIComponent(java.lang.String, java.lang.Appendable)
 	 */
 	public static void decodeURIComponent(String s, Appendable out) throws IOException {
-		try {
-			if(s != null) out.append(URLDecoder.decode(s, IRI.ENCODING.name())); // Java 10: No .name()
-		} catch(UnsupportedEncodingException e) {
-			throw new AssertionError("Standard encoding (" + IRI.ENCODING + ") should always exist", e);
-		}
+		if(s != null) decode(s, 0, false, null, out);
 	}
 
 	/**
 	 * Decodes a value from its use in a path component or fragment in the default encoding <code>{@link IRI#ENCODING}</code>.
 	 * <p>
-	 * This uses {@link URLDecoder#decode(java.lang.String, java.lang.String)}.
+	 * This is the same as {@link URLDecoder#decode(java.lang.String, java.lang.String)}, including the replacement of
+	 * malformed UTF-8 and the exceptions on invalid escapes, without the intermediate byte array and {@link String}.
 	 * </p>
 	 * <p>
 	 * See <a href="https://developer.mozilla.org/en-US/docs/Web/JavaScript/Reference/Global_Objects/decodeURIComponent">decodeURIComponent() - JavaScript | MDN</a>
@@ -108,23 +113,14 @@ public class URIDecoder {
 	 * @see URIEncoder#encodeURIComponent(java.lang.String, com.aoapps.lang.io.Encoder, java.lang.Appendable)
 	 */
 	public static void decodeURIComponent(String s, Encoder encoder, Appendable out) throws IOException {
-		try {
-			if(s != null) {
-				if(encoder == null) {
-					decodeURIComponent(s, out);
-				} else {
-					encoder.append(URLDecoder.decode(s, IRI.ENCODING.name()), out); // Java 10: No .name()
-				}
-			}
-		} catch(UnsupportedEncodingException e) {
-			throw new AssertionError("Standard encoding (" + IRI.ENCODING + ") should always exist", e);
-		}
+		if(s != null) decode(s, 0, false, encoder, out);
 	}
 
 	/**
 	 * Decodes a value from its use in a path component or fragment in the default encoding <code>{@link IRI#ENCODING}</code>.
 	 * <p>
-	 * This uses {@link URLDecoder#decode(java.lang.String, java.lang.String)}.
+	 * This is the same as {@link URLDecoder#decode(java.lang.String, java.lang.String)}, including the replacement of
+	 * malformed UTF-8 and the exceptions on invalid escapes, without the intermediate byte array and {@link String}.
 	 * </p>
 	 * <p>
 	 * See <a href="https://developer.mozilla.org/en-US/docs/Web/JavaScript/Reference/Global_Objects/decodeURIComponent">decodeURIComponent() - JavaScript | MDN</a>
@@ -143,7 +139,8 @@ public class URIDecoder {
 	/**
 	 * Decodes a value from its use in a path component or fragment in the default encoding <code>{@link IRI#ENCODING}</code>.
 	 * <p>
-	 * This uses {@link URLDecoder#decode(java.lang.String, java.lang.String)}.
+	 * This is the same as {@link URLDecoder#decode(java.lang.String, java.lang.String)}, including the replacement of
+	 * malformed UTF-8 and the exceptions on invalid escapes, without the intermediate byte array and {@link String}.
 	 * </p>
 	 * <p>
 	 * See <a href="https://developer.mozilla.org/en-US/docs/Web/JavaScript/Reference/Global_Objects/decodeURIComponent">decodeURIComponent() - JavaScript | MDN</a>
@@ -159,44 +156,6 @@ public class URIDecoder {
 		}
 	}
 
-	/**
-	 * Percent-encodes reserved characters (and '%' for already percent-encoded) only.
-	 *
-	 * @param encoder  An optional encoder the output is applied through
-	 */
-	private static void encodeRfc3968ReservedCharacters_and_percent(String value, Encoder encoder, Appendable out) throws IOException {
-		int len = value.length();
-		int pos = 0;
-		while(pos < len) {
-			int nextPos = Strings.indexOf(value, URIEncoder.rfc3986ReservedCharacters_and_percent, pos);
-			if(nextPos == -1) {
-				if(encoder == null) {
-					out.append(value, pos, len);
-				} else {
-					encoder.append(value, pos, len, out);
-				}
-				pos = len;
-			} else {
-				if(nextPos != pos) {
-					if(encoder == null) {
-						out.append(value, pos, nextPos);
-					} else {
-						encoder.append(value, pos, nextPos, out);
-					}
-				}
-				char ch = value.charAt(nextPos++);
-				String replacement = URIEncoder.encodeRfc3986ReservedCharacters_and_percent(ch);
-				if(replacement == null) throw new AssertionError("No replacement found for character: " + ch);
-				if(encoder == null) {
-					out.append(replacement);
-				} else {
-					encoder.append(replacement, out);
-				}
-				pos = nextPos;
-			}
-		}
-	}
-
 	/**
 	 * Decodes a URI to <a href="https://tools.ietf.org/html/rfc3987">RFC 3987 Unicode format</a> in the default encoding <code>{@link IRI#ENCODING}</code>.
 	 * Decodes the characters in the URI, not including any characters defined in
@@ -212,11 +171,16 @@ public class URIDecoder {
 	 */
 	public static String decodeURI(String uri) {
 		if(uri == null) return null;
+		int pos = indexOfDecodeURIChange(uri);
+		if(pos == -1) return uri;
 		StringBuilder sb = new StringBuilder(uri.length());
-		decodeURI(uri, sb);
-		String decoded = sb.toString();
-		// Hex case may have changed during decode, leaving altered but same length
-		return uri.equals(decoded) ? uri : decoded;
+		sb.append(uri, 0, pos);
+		try {
+			decode(uri, pos, true, null, sb);
+		} catch(IOException e) {
+			throw new AssertionError("IOException should not occur on StringBuilder", e);
+		}
+		return sb.toString();
 	}
 
 	/**
@@ -248,29 +212,246 @@ public class URIDecoder {
 	 * @see URIEncoder#encodeURI(java.lang.String, com.aoapps.lang.io.Encoder, java.lang.Appendable)
 	 */
 	public static void decodeURI(String uri, Encoder encoder, Appendable out) throws IOException {
-		if(uri != null) {
-			int len = uri.length();
-			int pos = 0;
-			while(pos < len) {
-				int nextPos = Strings.indexOf(uri, RFC3986.RESERVED, pos);
-				if(nextPos == -1) {
-					// TODO: Avoid substring?
-					encodeRfc3968ReservedCharacters_and_percent(decodeURIComponent(uri.substring(pos)), encoder, out);
-					pos = len;
-				} else {
-					if(nextPos != pos) {
-						// TODO: Avoid substring?
-						encodeRfc3968ReservedCharacters_and_percent(decodeURIComponent(uri.substring(pos, nextPos)), encoder, out);
+		if(uri != null) decode(uri, 0, true, encoder, out);
+	}
+
+	/**
+	 * The characters left percent-encoded by decoding URIs.
+	 */
+	private static final int RESERVED_AND_PERCENT = RFC3986.RESERVED | RFC3986.PERCENT;
+
+	/**
+	 * Gets the byte value of the percent-encoded escape at the given index.
+	 *
+	 * @param  pos   The index of the '%'
+	 * @param  isURI  When {@code true}, a reserved character ends the escape, as in
+	 *                {@link #decodeURI(java.lang.String)}
+	 *
+	 * @throws  IllegalArgumentException  when not followed by two hexadecimal digits, consistent with
+	 *                                    {@link URLDecoder#decode(java.lang.String, java.lang.String)}
+	 */
+	private static int getEscapedByte(String uri, int pos, boolean isURI) throws IllegalArgumentException {
+		assert uri.charAt(pos) == '%';
+		if(
+			(pos + 2) >= uri.length()
+			|| (
+				isURI
+				&& (RFC3986.isReserved(uri.charAt(pos + 1)) || RFC3986.isReserved(uri.charAt(pos + 2)))
+			)
+		) {
+			throw new IllegalArgumentException("URLDecoder: Incomplete trailing escape (%) pattern");
+		}
+		int hi = RFC3986.hexValue(uri.charAt(pos + 1));
+		int lo = RFC3986.hexValue(uri.charAt(pos + 2));
+		if(hi == -1 || lo == -1) {
+			throw new IllegalArgumentException("URLDecoder: Illegal hex characters in escape (%) pattern - " + uri.substring(pos + 1, pos + 3));
+		}
+		return (hi << 4) | lo;
+	}
+
+	/**
+	 * Checks if a percent-encoded escape is left exactly as-is by decoding, which is when it encodes a reserved
+	 * character or '%' in upper-case hex.
+	 */
+	private static boolean isDecodeURIUnchanged(String uri, int pos, int b) {
+		return
+			RFC3986.is(b, RESERVED_AND_PERCENT)
+			&& uri.charAt(pos + 1) == RFC3986.getHexHigh(b)
+			&& uri.charAt(pos + 2) == RFC3986.getHexLow(b);
+	}
+
+	/**
+	 * Finds the first character that {@link #decodeURI(java.lang.String, com.aoapps.lang.io.Encoder, java.lang.Appendable)}
+	 * would change.
+	 *
+	 * @return  the index or {@code -1} when the URI is already decoded
+	 */
+	private static int indexOfDecodeURIChange(String uri) {
+		int pos = uri.indexOf('%');
+		while(pos != -1) {
+			if(!isDecodeURIUnchanged(uri, pos, getEscapedByte(uri, pos, true))) return pos;
+			pos = uri.indexOf('%', pos + 3);
+		}
+		return -1;
+	}
+
+	/**
+	 * Finds the first character that {@link #decodeURIComponent(java.lang.String, com.aoapps.lang.io.Encoder, java.lang.Appendable)}
+	 * would change, which is the first '%' or '+'.
+	 *
+	 * @return  the index or {@code -1} when the value is already decoded
+	 */
+	private static int indexOfDecodeURIComponentChange(String s) {
+		for(int i = 0, len = s.length(); i < len; i++) {
+			char ch = s.charAt(i);
+			if(ch == '%' || ch == '+') return i;
+		}
+		return -1;
+	}
+
+	/**
+	 * Gets the number of continuation bytes following a UTF-8 lead byte.
+	 *
+	 * @return  the number of continuation bytes or {@code -1} when not a valid lead byte of a non-ASCII character
+	 */
+	private static int getUtf8Continuations(int b0) {
+		if(b0 >= 0xC2 && b0 <= 0xDF) return 1;
+		if(b0 >= 0xE0 && b0 <= 0xEF) return 2;
+		if(b0 >= 0xF0 && b0 <= 0xF4) return 3;
+		return -1;
+	}
+
+	/**
+	 * Checks if a byte is valid as the first continuation byte after the given lead byte, which excludes overlong
+	 * forms, surrogates, and code points above U+10FFFF.
+	 */
+	private static boolean isUtf8FirstContinuation(int b0, int b1) {
+		switch(b0) {
+			case 0xE0 : return b1 >= 0xA0 && b1 <= 0xBF; // Overlong
+			case 0xED : return b1 >= 0x80 && b1 <= 0x9F; // Surrogates
+			case 0xF0 : return b1 >= 0x90 && b1 <= 0xBF; // Overlong
+			case 0xF4 : return b1 >= 0x80 && b1 <= 0x8F; // Above U+10FFFF
+			default : return b1 >= 0x80 && b1 <= 0xBF;
+		}
+	}
+
+	/**
+	 * Checks if the given number of consecutive escapes are all non-ASCII and form well-formed UTF-8.
+	 */
+	private static boolean isWellFormedUtf8(String uri, int pos, int count, boolean isURI) {
+		int i = 0;
+		while(i < count) {
+			int b0 = getEscapedByte(uri, pos + i * 3, isURI);
+			int needed = getUtf8Continuations(b0);
+			if(needed == -1 || i + needed >= count) return false;
+			if(!isUtf8FirstContinuation(b0, getEscapedByte(uri, pos + (i + 1) * 3, isURI))) return false;
+			for(int j = 2; j <= needed; j++) {
+				int b = getEscapedByte(uri, pos + (i + j) * 3, isURI);
+				if(b < 0x80 || b > 0xBF) return false;
+			}
+			i += needed + 1;
+		}
+		return true;
+	}
+
+	private static void append(char ch, Encoder encoder, Appendable out) throws IOException {
+		if(encoder == null) out.append(ch);
+		else encoder.append(ch, out);
+	}
+
+	/**
+	 * Decodes in a single pass, writing runs of unchanged characters directly from the URI and UTF-8 escapes
+	 * directly as characters.
+	 * <p>
+	 * When decoding a URI, escapes of reserved characters and '%' are never decoded, only normalized to
+	 * upper-case hex.  This is the same as decoding each run between reserved characters with
+	 * {@link URLDecoder#decode(java.lang.String, java.lang.String)} in UTF-8 then re-encoding any reserved
+	 * characters and '%', including the replacement of malformed UTF-8 and the exceptions on invalid escapes.
+	 * </p>
+	 * <p>
+	 * When decoding a component, all escapes are decoded and '+' is decoded to ' ', the same as
+	 * {@link URLDecoder#decode(java.lang.String, java.lang.String)} in UTF-8.
+	 * </p>
+	 * <p>
+	 * Since malformed UTF-8 never consumes an ASCII byte, only consecutive non-ASCII escapes are decoded together.
+	 * </p>
+	 *
+	 * @param  pos    The index to begin decoding from, any characters before are not written
+	 * @param  isURI  Decodes as {@link #decodeURI(java.lang.String)} when {@code true}, or as
+	 *                {@link #decodeURIComponent(java.lang.String)} when {@code false}
+	 */
+	private static void decode(String uri, int pos, boolean isURI, Encoder encoder, Appendable out) throws IOException {
+		int len = uri.length();
+		// The start of the characters not yet written
+		int unwritten = pos;
+		while(pos < len) {
+			char ch = uri.charAt(pos);
+			if(ch != '%') {
+				if(ch == '+' && !isURI) {
+					if(unwritten < pos) {
+						if(encoder == null) out.append(uri, unwritten, pos);
+						else encoder.append(uri, unwritten, pos, out);
 					}
-					char reserved = uri.charAt(nextPos++);
-					if(encoder == null) {
-						out.append(reserved);
+					append(' ', encoder, out);
+					unwritten = pos + 1;
+				}
+				pos++;
+				continue;
+			}
+			int b = getEscapedByte(uri, pos, isURI);
+			if(b < 0x80) {
+				if(!isURI || !isDecodeURIUnchanged(uri, pos, b)) {
+					if(unwritten < pos) {
+						if(encoder == null) out.append(uri, unwritten, pos);
+						else encoder.append(uri, unwritten, pos, out);
+					}
+					if(isURI && RFC3986.is(b, RESERVED_AND_PERCENT)) {
+						// Normalize to upper-case hex
+						String replacement = URIEncoder.encodeRfc3986ReservedCharacters_and_percent((char)b);
+						if(encoder == null) out.append(replacement);
+						else encoder.append(replacement, out);
 					} else {
-						encoder.append(reserved, out);
+						append((char)b, encoder, out);
 					}
-					pos = nextPos;
+					unwritten = pos + 3;
 				}
+				pos += 3;
+				continue;
+			}
+			if(unwritten < pos) {
+				if(encoder == null) out.append(uri, unwritten, pos);
+				else encoder.append(uri, unwritten, pos, out);
+			}
+			// Find the consecutive non-ASCII escapes
+			int count = 1;
+			while(
+				pos + count * 3 < len
+				&& uri.charAt(pos + count * 3) == '%'
+				&& getEscapedByte(uri, pos + count * 3, isURI) >= 0x80
+			) {
+				count++;
 			}
+			if(isWellFormedUtf8(uri, pos, count, isURI)) {
+				int i = 0;
+				while(i < count) {
+					int b0 = getEscapedByte(uri, pos + i * 3, isURI);
+					int needed;
+					int codePoint;
+					if(b0 < 0xE0) {
+						needed = 1;
+						codePoint = b0 & 0x1F;
+					} else if(b0 < 0xF0) {
+						needed = 2;
+						codePoint = b0 & 0x0F;
+					} else {
+						needed = 3;
+						codePoint = b0 & 0x07;
+					}
+					for(int j = 1; j <= needed; j++) {
+						codePoint = (codePoint << 6) | (getEscapedByte(uri, pos + (i + j) * 3, isURI) & 0x3F);
+					}
+					if(codePoint < Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+						append((char)codePoint, encoder, out);
+					} else {
+						append(Character.highSurrogate(codePoint), encoder, out);
+						append(Character.lowSurrogate(codePoint), encoder, out);
+					}
+					i += needed + 1;
+				}
+			} else {
+				// Malformed, use the standard replacement
+				byte[] bytes = new byte[count];
+				for(int i = 0; i < count; i++) bytes[i] = (byte)getEscapedByte(uri, pos + i * 3, isURI);
+				String decoded = new String(bytes, IRI.ENCODING);
+				if(encoder == null) out.append(decoded);
+				else encoder.append(decoded, out);
+			}
+			pos += count * 3;
+			unwritten = pos;
+		}
+		if(unwritten < len) {
+			if(encoder == null) out.append(uri, unwritten, len);
+			else encoder.append(uri, unwritten, len, out);
 		}
 	}
 
@@ -311,4 +492,206 @@ public class URIDecoder {
 			throw new AssertionError("IOException should not occur on StringBuffer", e);
 		}
 	}
+
+	/**
+	 * Gets the byte value of the percent-encoded escape at the given index.
+	 *
+	 * @param  pos   The index of the '%'
+	 * @param  isURI  When {@code true}, a reserved character ends the escape, as in
+	 *                {@link #decodeURI(java.lang.String)}
+	 *
+	 * @throws  IllegalArgumentException  when not followed by two hexadecimal digits, consistent with
+	 *                                    {@link URLDecoder#decode(java.lang.String, java.lang.String)}
+	 */
+	private static int getEscapedByte(ByteBuffer in, int pos, int limit, boolean isURI) throws IllegalArgumentException {
+		assert in.get(pos) == '%';
+		if((pos + 2) >= limit) throw new IllegalArgumentException("URLDecoder: Incomplete trailing escape (%) pattern");
+		char ch2 = (char)(in.get(pos + 1) & 0xFF);
+		char ch3 = (char)(in.get(pos + 2) & 0xFF);
+		if(isURI && (RFC3986.isReserved(ch2) || RFC3986.isReserved(ch3))) {
+			throw new IllegalArgumentException("URLDecoder: Incomplete trailing escape (%) pattern");
+		}
+		int hi = RFC3986.hexValue(ch2);
+		int lo = RFC3986.hexValue(ch3);
+		if(hi == -1 || lo == -1) {
+			throw new IllegalArgumentException("URLDecoder: Illegal hex characters in escape (%) pattern - " + ch2 + ch3);
+		}
+		return (hi << 4) | lo;
+	}
+
+	/**
+	 * Decodes the consecutive non-ASCII escapes starting at the given index, writing well-formed UTF-8 as-is and
+	 * malformed UTF-8 with the same replacement characters as decoding to a {@link String}.
+	 *
+	 * @return  the index after the escapes
+	 *
+	 * @throws  BufferOverflowException  when {@code out} is too small, in which case nothing is written
+	 */
+	private static int putDecodedUtf8(ByteBuffer in, int pos, int limit, boolean isURI, ByteBuffer out) throws BufferOverflowException {
+		int count = 1;
+		while(
+			pos + count * 3 < limit
+			&& in.get(pos + count * 3) == '%'
+			&& getEscapedByte(in, pos + count * 3, limit, isURI) >= 0x80
+		) {
+			count++;
+		}
+		// Check if well-formed
+		boolean wellFormed = true;
+		int i = 0;
+		while(i < count) {
+			int b0 = getEscapedByte(in, pos + i * 3, limit, isURI);
+			int needed = getUtf8Continuations(b0);
+			if(
+				needed == -1
+				|| i + needed >= count
+				|| !isUtf8FirstContinuation(b0, getEscapedByte(in, pos + (i + 1) * 3, limit, isURI))
+			) {
+				wellFormed = false;
+				break;
+			}
+			for(int j = 2; j <= needed; j++) {
+				int b = getEscapedByte(in, pos + (i + j) * 3, limit, isURI);
+				if(b < 0x80 || b > 0xBF) {
+					wellFormed = false;
+					break;
+				}
+			}
+			if(!wellFormed) break;
+			i += needed + 1;
+		}
+		if(wellFormed) {
+			if(out.remaining() < count) throw new BufferOverflowException();
+			for(i = 0; i < count; i++) out.put((byte)getEscapedByte(in, pos + i * 3, limit, isURI));
+		} else {
+			// Malformed, use the standard replacement
+			byte[] bytes = new byte[count];
+			for(i = 0; i < count; i++) bytes[i] = (byte)getEscapedByte(in, pos + i * 3, limit, isURI);
+			out.put(new String(bytes, IRI.ENCODING).getBytes(IRI.ENCODING));
+		}
+		return pos + count * 3;
+	}
+
+	/**
+	 * Decodes a value from its use in a path component or fragment, from ASCII bytes to UTF-8 bytes.
+	 * This is the same as the UTF-8 encoding of {@link #decodeURIComponent(java.lang.String)} on the input,
+	 * without any {@link String}.
+	 * <p>
+	 * Reads all the remaining bytes of {@code in}, writing to {@code out}, which never requires more than the input
+	 * length.
+	 * </p>
+	 *
+	 * @throws  BufferOverflowException  when {@code out} is too small.  {@code in} is then positioned at the first
+	 *                                   byte not decoded, and {@code out} after the complete decoding of all the bytes
+	 *                                   before it, never ending in a partially written escape or sequence of decoded
+	 *                                   escapes, so decoding may be resumed with more space.
+	 * @throws  IllegalArgumentException  when a '%' is not followed by two hexadecimal digits.  {@code in} is then
+	 *                                    positioned at the '%' or at the first of the consecutive non-ASCII escapes
+	 *                                    containing it, and {@code out} after the decoding of all the bytes before.
+	 *
+	 * @see URIEncoder#encodeURIComponent(java.nio.ByteBuffer, java.nio.ByteBuffer)
+	 */
+	public static void decodeURIComponent(ByteBuffer in, ByteBuffer out) throws BufferOverflowException, IllegalArgumentException {
+		int limit = in.limit();
+		int pos = in.position();
+		while(pos < limit) {
+			byte b = in.get(pos);
+			if(b == '+') {
+				out.put((byte)' ');
+				pos++;
+			} else if(b == '%') {
+				int escaped = getEscapedByte(in, pos, limit, false);
+				if(escaped < 0x80) {
+					out.put((byte)escaped);
+					pos += 3;
+				} else {
+					pos = putDecodedUtf8(in, pos, limit, false, out);
+				}
+			} else {
+				out.put(b);
+				pos++;
+			}
+			in.position(pos);
+		}
+	}
+
+	/**
+	 * Decodes a value from its use in a path component or fragment, from ASCII bytes to UTF-8 bytes.
+	 *
+	 * @return  the number of bytes written
+	 *
+	 * @throws  BufferOverflowException  when {@code out} is too small
+	 * @throws  IllegalArgumentException  when a '%' is not followed by two hexadecimal digits
+	 *
+	 * @see  #decodeURIComponent(java.nio.ByteBuffer, java.nio.ByteBuffer)
+	 * @see URIEncoder#encodeURIComponent(byte[], int, int, byte[], int)
+	 */
+	public static int decodeURIComponent(byte[] in, int off, int len, byte[] out, int outOff) throws BufferOverflowException, IllegalArgumentException {
+		ByteBuffer outBuffer = ByteBuffer.wrap(out, outOff, out.length - outOff);
+		decodeURIComponent(ByteBuffer.wrap(in, off, len), outBuffer);
+		return outBuffer.position() - outOff;
+	}
+
+	/**
+	 * Decodes a URI to <a href="https://tools.ietf.org/html/rfc3987">RFC 3987 Unicode format</a>, from ASCII bytes
+	 * to UTF-8 bytes.  This is the same as the UTF-8 encoding of {@link #decodeURI(java.lang.String)} on the input,
+	 * without any {@link String}, so a request target may be decoded directly from the bytes of a request.
+	 * <p>
+	 * Reads all the remaining bytes of {@code in}, writing to {@code out}, which never requires more than the input
+	 * length.
+	 * </p>
+	 *
+	 * @throws  BufferOverflowException  when {@code out} is too small.  {@code in} is then positioned at the first
+	 *                                   byte not decoded, and {@code out} after the complete decoding of all the bytes
+	 *                                   before it, never ending in a partially written escape or sequence of decoded
+	 *                                   escapes, so decoding may be resumed with more space.
+	 * @throws  IllegalArgumentException  when a '%' is not followed by two hexadecimal digits.  {@code in} is then
+	 *                                    positioned at the '%' or at the first of the consecutive non-ASCII escapes
+	 *                                    containing it, and {@code out} after the decoding of all the bytes before.
+	 *
+	 * @see URIEncoder#encodeURI(java.nio.ByteBuffer, java.nio.ByteBuffer)
+	 */
+	public static void decodeURI(ByteBuffer in, ByteBuffer out) throws BufferOverflowException, IllegalArgumentException {
+		int limit = in.limit();
+		int pos = in.position();
+		while(pos < limit) {
+			byte b = in.get(pos);
+			if(b == '%') {
+				int escaped = getEscapedByte(in, pos, limit, true);
+				if(escaped < 0x80) {
+					if(RFC3986.is(escaped, RESERVED_AND_PERCENT)) {
+						// Left encoded, normalized to upper-case hex
+						URIEncoder.putPercentEncoded(escaped, out);
+					} else {
+						out.put((byte)escaped);
+					}
+					pos += 3;
+				} else {
+					pos = putDecodedUtf8(in, pos, limit, true, out);
+				}
+			} else {
+				out.put(b);
+				pos++;
+			}
+			in.position(pos);
+		}
+	}
+
+	/**
+	 * Decodes a URI to <a href="https://tools.ietf.org/html/rfc3987">RFC 3987 Unicode format</a>, from ASCII bytes
+	 * to UTF-8 bytes.
+	 *
+	 * @return  the number of bytes written
+	 *
+	 * @throws  BufferOverflowException  when {@code out} is too small
+	 * @throws  IllegalArgumentException  when a '%' is not followed by two hexadecimal digits
+	 *
+	 * @see  #decodeURI(java.nio.ByteBuffer, java.nio.ByteBuffer)
+	 * @see URIEncoder#encodeURI(byte[], int, int, byte[], int)
+	 */
+	public static int decodeURI(byte[] in, int off, int len, byte[] out, int outOff) throws BufferOverflowException, IllegalArgumentException {
+		ByteBuffer outBuffer = ByteBuffer.wrap(out, outOff, out.length - outOff);
+		decodeURI(ByteBuffer.wrap(in, off, len), outBuffer);
+		return outBuffer.position() - outOff;
+	}
 }
@@ -22,13 +22,12 @@
  */
 package com.aoapps.net;
 
-import com.aoapps.lang.Strings;
 import com.aoapps.lang.io.Encoder;
 import java.io.IOException;
-import java.io.UnsupportedEncodingException;
 import java.net.URL;
 import java.net.URLEncoder;
-import java.util.BitSet;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 
 /**
  * URI encoding utilities.
@@ -60,28 +59,26 @@ public class URIEncoder {
 	/**
 	 * Encodes a value for use in a path component or fragment in the default encoding <code>{@link IRI#ENCODING}</code>.
 	 * <p>
-	 * This uses {@link URLEncoder#encode(java.lang.String)} then replaces
-	 * '+' with "%20".
+	 * This is the same as {@link URLEncoder#encode(java.lang.String, java.lang.String)} then replacing
+	 * '+' with "%20", in a single pass.
 	 * </p>
 	 * <p>
 	 * See <a href="https://developer.mozilla.org/en-US/docs/Web/JavaScript/Reference/Global_Objects/encodeURIComponent">encodeURIComponent() - JavaScript | MDN</a>
 	 * </p>
 	 *
+	 * @return  The encoded value or {@code s} when not modified
+	 *
 	 * @see URIDecoder#decodeURIComponent(java.lang.String)
 	 */
 	public static String encodeURIComponent(String s) {
-		try {
-			return (s == null) ? null : Strings.replace(URLEncoder.encode(s, IRI.ENCODING.name()), '+', "%20"); // Java 10: No .name()
-		} catch(UnsupportedEncodingException e) {
-			throw new AssertionError("Standard encoding (" + IRI.ENCODING + ") should always exist", e);
-		}
+		return encode(s, false);
 	}
 
 	/**
 	 * Encodes a value for use in a path component or fragment in the default encoding <code>{@link IRI#ENCODING}</code>.
 	 * <p>
-	 * This uses {@link URLEncoder#encode(java.lang.String, java.lang.String)} then replaces
-	 * '+' with "%20".
+	 * This is the same as {@link URLEncoder#encode(java.lang.String, java.lang.String)} then replacing
+	 * '+' with "%20", in a single pass.
 	 * </p>
 	 * <p>
 	 * See <a href="https://developer.mozilla.org/en-US/docs/Web/JavaScript/Reference/Global_Objects/encodeURIComponent">encodeURIComponent() - JavaScript | MDN</a>
@@ -90,18 +87,14 @@ public class URIEncoder {
 	 * @see URIDecoder#decodeURIComponent(java.lang.String, java.lang.Appendable)
 	 */
 	public static void encodeURIComponent(String s, Appendable out) throws IOException {
-		try {
-			if(s != null) Strings.replace(URLEncoder.encode(s, IRI.ENCODING.name()), '+', "%20", out); // Java 10: No .name()
-		} catch(UnsupportedEncodingException e) {
-			throw new AssertionError("Standard encoding (" + IRI.ENCODING + ") should always exist", e);
-		}
+		if(s != null) encode(s, 0, false, null, out);
 	}
 
 	/**
 	 * Encodes a value for use in a path component or fragment in the default encoding <code>{@link IRI#ENCODING}</code>.
 	 * <p>
-	 * This uses {@link URLEncoder#encode(java.lang.String, java.lang.String)} then replaces
-	 * '+' with "%20".
+	 * This is the same as {@link URLEncoder#encode(java.lang.String, java.lang.String)} then replacing
+	 * '+' with "%20", in a single pass.
 	 * </p>
 	 * <p>
 	 * See <a href="https://developer.mozilla.org/en-US/docs/Web/JavaScript/Reference/Global_Objects/encodeURIComponent">encodeURIComponent() - JavaScript | MDN</a>
@@ -112,24 +105,14 @@ public class URIEncoder {
 	 * @see URIDecoder#decodeURIComponent(java.lang.String, com.aoapps.lang.io.Encoder, java.lang.Appendable)
 	 */
 	public static void encodeURIComponent(String s, Encoder encoder, Appendable out) throws IOException {
-		try {
-			if(s != null) {
-				if(encoder == null) {
-					encodeURIComponent(s, out);
-				} else {
-					Strings.replace(URLEncoder.encode(s, IRI.ENCODING.name()), '+', "%20", out, encoder); // Java 10: No .name()
-				}
-			}
-		} catch(UnsupportedEncodingException e) {
-			throw new AssertionError("Standard encoding (" + IRI.ENCODING + ") should always exist", e);
-		}
+		if(s != null) encode(s, 0, false, encoder, out);
 	}
 
 	/**
 	 * Encodes a value for use in a path component or fragment in the default encoding <code>{@link IRI#ENCODING}</code>.
 	 * <p>
-	 * This uses {@link URLEncoder#encode(java.lang.String, java.lang.String)} then replaces
-	 * '+' with "%20".
+	 * This is the same as {@link URLEncoder#encode(java.lang.String, java.lang.String)} then replacing
+	 * '+' with "%20", in a single pass.
 	 * </p>
 	 * <p>
 	 * See <a href="https://developer.mozilla.org/en-US/docs/Web/JavaScript/Reference/Global_Objects/encodeURIComponent">encodeURIComponent() - JavaScript | MDN</a>
@@ -148,8 +131,8 @@ public class URIEncoder {
 	/**
 	 * Encodes a value for use in a path component or fragment in the default encoding <code>{@link IRI#ENCODING}</code>.
 	 * <p>
-	 * This uses {@link URLEncoder#encode(java.lang.String, java.lang.String)} then replaces
-	 * '+' with "%20".
+	 * This is the same as {@link URLEncoder#encode(java.lang.String, java.lang.String)} then replacing
+	 * '+' with "%20", in a single pass.
 	 * </p>
 	 * <p>
 	 * See <a href="https://developer.mozilla.org/en-US/docs/Web/JavaScript/Reference/Global_Objects/encodeURIComponent">encodeURIComponent() - JavaScript | MDN</a>
@@ -182,12 +165,7 @@ public class URIEncoder {
 	 * @see URIDecoder#decodeURI(java.lang.String)
 	 */
 	public static String encodeURI(String uri) {
-		if(uri == null) return null;
-		StringBuilder sb = new StringBuilder(uri.length() + 16);
-		encodeURI(uri, sb);
-		String encoded = sb.toString();
-		// Hex case may have changed during encode, leaving altered but same length
-		return uri.equals(encoded) ? uri : encoded;
+		return encode(uri, true);
 	}
 
 	/**
@@ -208,15 +186,142 @@ public class URIEncoder {
 		encodeURI(uri, null, out);
 	}
 
-	static final BitSet rfc3986ReservedCharacters_and_percent;
-	static {
-		rfc3986ReservedCharacters_and_percent = new BitSet(128);
-		rfc3986ReservedCharacters_and_percent.or(RFC3986.RESERVED);
-		rfc3986ReservedCharacters_and_percent.set('%');
+	/**
+	 * The ASCII characters copied unchanged by {@link #encodeURI(java.lang.String, com.aoapps.lang.io.Encoder, java.lang.Appendable)}:
+	 * the reserved characters along with the characters {@link URLEncoder} does not encode.
+	 * '%' is handled separately.
+	 */
+	private static final int ENCODE_URI_UNCHANGED = RFC3986.RESERVED | RFC3986.URL_ENCODER_SAFE;
+
+	/**
+	 * The ASCII characters copied unchanged by {@link #encodeURIComponent(java.lang.String, com.aoapps.lang.io.Encoder, java.lang.Appendable)}:
+	 * the characters {@link URLEncoder} does not encode.
+	 */
+	private static final int ENCODE_URI_COMPONENT_UNCHANGED = RFC3986.URL_ENCODER_SAFE;
+
+	/**
+	 * Encodes a URI to <a href="https://tools.ietf.org/html/rfc3986">RFC 3986 ASCII format</a> in the default encoding <code>{@link IRI#ENCODING}</code>.
+	 * Encodes the characters in the URI, not including any characters defined in
+	 * <a href="https://tools.ietf.org/html/rfc3986#section-2.2">RFC 3986: Reserved Characters</a>
+	 * (or '%' for already percent-encoded).
+	 * <p>
+	 * Any existing lower-case percent-encoded values are normalized to upper-case.
+	 * </p>
+	 * <p>
+	 * See <a href="https://developer.mozilla.org/en-US/docs/Web/JavaScript/Reference/Global_Objects/encodeURI">encodeURI() - JavaScript | MDN</a>
+	 * </p>
+	 *
+	 * @param encoder  An optional encoder the output is applied through
+	 *
+	 * @see URIDecoder#decodeURI(java.lang.String, com.aoapps.lang.io.Encoder, java.lang.Appendable)
+	 */
+	public static void encodeURI(String uri, Encoder encoder, Appendable out) throws IOException {
+		if(uri != null) encode(uri, 0, true, encoder, out);
+	}
+
+	/**
+	 * Gets the value of the percent-encoding at the given index, when it is followed by two hex digits.
+	 *
+	 * @param  pos  The index of the '%'
+	 *
+	 * @return  the value or {@code -1} when not a percent-encoding
+	 */
+	private static int getPercentEncoded(String uri, int pos) {
+		int hi, lo;
+		if(
+			(pos + 2) < uri.length()
+			&& (hi = RFC3986.hexValue(uri.charAt(pos + 1))) != -1
+			&& (lo = RFC3986.hexValue(uri.charAt(pos + 2))) != -1
+		) {
+			return (hi << 4) | lo;
+		} else {
+			return -1;
+		}
+	}
+
+	/**
+	 * Checks if the percent-encoding at the given index is in upper-case hex.
+	 */
+	private static boolean isNormalized(String uri, int pos, int b) {
+		return
+			uri.charAt(pos + 1) == RFC3986.getHexHigh(b)
+			&& uri.charAt(pos + 2) == RFC3986.getHexLow(b);
+	}
+
+	/**
+	 * Finds the first character that encoding would change.
+	 *
+	 * @param  isURI  Encode as {@link #encodeURI(java.lang.String)} when {@code true}, otherwise as
+	 *                {@link #encodeURIComponent(java.lang.String)}
+	 *
+	 * @return  the index or {@code -1} when already encoded
+	 */
+	private static int indexOfEncodeChange(String s, boolean isURI) {
+		int unchanged = isURI ? ENCODE_URI_UNCHANGED : ENCODE_URI_COMPONENT_UNCHANGED;
+		int len = s.length();
+		int pos = 0;
+		while(pos < len) {
+			char ch = s.charAt(pos);
+			if(RFC3986.is(ch, unchanged)) {
+				pos++;
+			} else if(isURI && ch == '%') {
+				int b = getPercentEncoded(s, pos);
+				if(b == -1) {
+					pos++;
+				} else {
+					if(!isNormalized(s, pos, b)) return pos;
+					pos += 3;
+				}
+			} else {
+				return pos;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @param  isURI  Encode as {@link #encodeURI(java.lang.String)} when {@code true}, otherwise as
+	 *                {@link #encodeURIComponent(java.lang.String)}
+	 *
+	 * @return  The encoded value or {@code s} when not modified
+	 */
+	private static String encode(String s, boolean isURI) {
+		if(s == null) return null;
+		int pos = indexOfEncodeChange(s, isURI);
+		if(pos == -1) return s;
+		StringBuilder sb = new StringBuilder(s.length() + 16);
+		sb.append(s, 0, pos);
+		try {
+			encode(s, pos, isURI, null, sb);
+		} catch(IOException e) {
+			throw new AssertionError("IOException should not occur on StringBuilder", e);
+		}
+		return sb.toString();
 	}
 
+	/**
+	 * Writes one percent-encoded byte.
+	 */
+	private static void appendPercentEncoded(int b, Encoder encoder, Appendable out) throws IOException {
+		char hi = RFC3986.getHexHigh(b);
+		char lo = RFC3986.getHexLow(b);
+		if(encoder == null) {
+			out.append('%').append(hi).append(lo);
+		} else {
+			encoder.append('%', out);
+			encoder.append(hi, out);
+			encoder.append(lo, out);
+		}
+	}
+
+	/**
+	 * Percent-encodes the reserved characters and '%', as left encoded by decoding URIs.
+	 * This remains a <code>switch</code>, since the shared hex table was not measurably faster for
+	 * these characters in <code>CharacterClassBenchmark</code>.
+	 *
+	 * @return  The replacement or {@code null} when not a reserved character or '%'
+	 */
 	static String encodeRfc3986ReservedCharacters_and_percent(char ch) {
-		// TODO: Benchmark switch versus BitSet (this might help all encoders that are switch-based)
 		switch(ch) {
 			// gen-delims
 			case ':' : return "%3A";
@@ -247,15 +352,23 @@ public class URIEncoder {
 	private static boolean assertEncodeRfc3986ReservedCharacters_and_percentConsistent() {
 		for(int i = Character.MIN_VALUE; i <= Character.MAX_VALUE; i++) {
 			char ch = (char)i;
-			boolean isInBitSet = rfc3986ReservedCharacters_and_percent.get(ch);
+			boolean isInTable = RFC3986.is(ch, RFC3986.RESERVED | RFC3986.PERCENT);
 			String replacement = encodeRfc3986ReservedCharacters_and_percent(ch);
-			if(isInBitSet) {
+			if(isInTable) {
 				if(replacement == null) {
-					throw new AssertionError("Character is in encodeRfc3986ReservedCharacters_and_percent but is not encoded: " + ch);
+					throw new AssertionError("Character is reserved or '%' but is not encoded: " + ch);
+				}
+				if(
+					replacement.length() != 3
+					|| replacement.charAt(0) != '%'
+					|| replacement.charAt(1) != RFC3986.getHexHigh(ch)
+					|| replacement.charAt(2) != RFC3986.getHexLow(ch)
+				) {
+					throw new AssertionError("Character is not encoded as upper-case hex: " + ch + " -> " + replacement);
 				}
 			} else {
 				if(replacement != null) {
-					throw new AssertionError("Character is not in encodeRfc3986ReservedCharacters_and_percent but is encoded: " + ch + " -> " + replacement);
+					throw new AssertionError("Character is not reserved or '%' but is encoded: " + ch + " -> " + replacement);
 				}
 			}
 		}
@@ -266,126 +379,97 @@ public class URIEncoder {
 		assert assertEncodeRfc3986ReservedCharacters_and_percentConsistent();
 	}
 
-	private static final BitSet rfc3986ReservedCharacters_percent_and_space;
-	static {
-		rfc3986ReservedCharacters_percent_and_space = new BitSet(128);
-		rfc3986ReservedCharacters_percent_and_space.or(rfc3986ReservedCharacters_and_percent);
-		rfc3986ReservedCharacters_percent_and_space.set(' ');
-	}
-
-	private static boolean isHex(char ch) {
-		return
-			(ch >= '0' && ch <= '9')
-			|| (ch >= 'a' && ch <= 'f')
-			|| (ch >= 'A' && ch <= 'F');
-	}
-
-	private static boolean isLowerHex(char ch) {
-		return (ch >= 'a' && ch <= 'f');
-	}
-
-	private static char upperHex(char ch) {
-		if(isLowerHex(ch)) {
-			return (char)(ch - ('a' - 'A'));
+	/**
+	 * Writes the percent-encoded UTF-8 bytes of a code point.
+	 */
+	private static void appendPercentEncodedUtf8(int codePoint, Encoder encoder, Appendable out) throws IOException {
+		if(codePoint < 0x80) {
+			appendPercentEncoded(codePoint, encoder, out);
+		} else if(codePoint < 0x800) {
+			appendPercentEncoded(0xC0 | (codePoint >>> 6), encoder, out);
+			appendPercentEncoded(0x80 | (codePoint & 0x3F), encoder, out);
+		} else if(codePoint < 0x10000) {
+			appendPercentEncoded(0xE0 | (codePoint >>> 12), encoder, out);
+			appendPercentEncoded(0x80 | ((codePoint >>> 6) & 0x3F), encoder, out);
+			appendPercentEncoded(0x80 | (codePoint & 0x3F), encoder, out);
 		} else {
-			return ch;
+			appendPercentEncoded(0xF0 | (codePoint >>> 18), encoder, out);
+			appendPercentEncoded(0x80 | ((codePoint >>> 12) & 0x3F), encoder, out);
+			appendPercentEncoded(0x80 | ((codePoint >>> 6) & 0x3F), encoder, out);
+			appendPercentEncoded(0x80 | (codePoint & 0x3F), encoder, out);
 		}
 	}
 
 	/**
-	 * Encodes a URI to <a href="https://tools.ietf.org/html/rfc3986">RFC 3986 ASCII format</a> in the default encoding <code>{@link IRI#ENCODING}</code>.
-	 * Encodes the characters in the URI, not including any characters defined in
-	 * <a href="https://tools.ietf.org/html/rfc3986#section-2.2">RFC 3986: Reserved Characters</a>
-	 * (or '%' for already percent-encoded).
-	 * <p>
-	 * Any existing lower-case percent-encoded values are normalized to upper-case.
-	 * </p>
-	 * <p>
-	 * See <a href="https://developer.mozilla.org/en-US/docs/Web/JavaScript/Reference/Global_Objects/encodeURI">encodeURI() - JavaScript | MDN</a>
-	 * </p>
+	 * Encodes in a single pass, writing runs of unchanged characters directly from the input.
+	 * This is the same as encoding each run of characters to be encoded with
+	 * {@link URLEncoder#encode(java.lang.String, java.lang.String)} in UTF-8, including
+	 * encoding unpaired surrogates as <code>"%3F"</code>.
 	 *
-	 * @param encoder  An optional encoder the output is applied through
-	 *
-	 * @see URIDecoder#decodeURI(java.lang.String, com.aoapps.lang.io.Encoder, java.lang.Appendable)
+	 * @param  pos  The index to begin encoding from, any characters before are not written
+	 * @param  isURI  Encode as {@link #encodeURI(java.lang.String)} when {@code true}, otherwise as
+	 *                {@link #encodeURIComponent(java.lang.String)}
 	 */
-	public static void encodeURI(String uri, Encoder encoder, Appendable out) throws IOException {
-		if(uri != null) {
-			try {
-				int len = uri.length();
-				int pos = 0;
-				while(pos < len) {
-					int nextPos = Strings.indexOf(uri, rfc3986ReservedCharacters_percent_and_space, pos);
-					if(nextPos == -1) {
-						// TODO: Avoid substring?
-						String encoded = URLEncoder.encode(uri.substring(pos), IRI.ENCODING.name()); // Java 10: No .name()
-						if(encoder == null) {
-							out.append(encoded);
-						} else {
-							encoder.append(encoded, out);
-						}
-						// Old with second check for space -> '+' -> "%20":
-						// encodeURIComponent(uri.substring(pos), out, encoder);
-						pos = len;
-					} else {
-						if(nextPos != pos) {
-							// TODO: Avoid substring?
-							String encoded = URLEncoder.encode(uri.substring(pos, nextPos), IRI.ENCODING.name()); // Java 10: No .name()
-							if(encoder == null) {
-								out.append(encoded);
-							} else {
-								encoder.append(encoded, out);
-							}
-							// Old with second check for space -> '+' -> "%20":
-							// encodeURIComponent(uri.substring(pos, nextPos), out, encoder);
-						}
-						char reserved = uri.charAt(nextPos);
-						char ch2, ch3;
-						if(
-							reserved == '%'
-							&& (nextPos + 2) < len
-							&& isHex(ch2 = uri.charAt(nextPos + 1))
-							&& isHex(ch3 = uri.charAt(nextPos + 2))
-						) {
-							// Short-cut already percent-encoded
-							pos = nextPos + 3;
-							if(isLowerHex(ch2) || isLowerHex(ch3)) {
-								// Convert to uppercase hex
-								if(encoder == null) {
-									out.append(reserved);
-									out.append(upperHex(ch2));
-									out.append(upperHex(ch3));
-								} else {
-									encoder.append(reserved, out);
-									encoder.append(upperHex(ch2), out);
-									encoder.append(upperHex(ch3), out);
-								}
-							} else {
-								if(encoder == null) {
-									out.append(uri, nextPos, pos);
-								} else {
-									encoder.append(uri, nextPos, pos, out);
-								}
-							}
-						} else if(reserved == ' ') {
-							pos = nextPos + 1;
-							if(encoder == null) {
-								out.append("%20");
-							} else {
-								encoder.append("%20", out);
-							}
-						} else {
-							pos = nextPos + 1;
-							if(encoder == null) {
-								out.append(reserved);
-							} else {
-								encoder.append(reserved, out);
-							}
-						}
+	private static void encode(String s, int pos, boolean isURI, Encoder encoder, Appendable out) throws IOException {
+		int unchanged = isURI ? ENCODE_URI_UNCHANGED : ENCODE_URI_COMPONENT_UNCHANGED;
+		int len = s.length();
+		// The start of the characters not yet written
+		int unwritten = pos;
+		while(pos < len) {
+			char ch = s.charAt(pos);
+			if(RFC3986.is(ch, unchanged)) {
+				pos++;
+				continue;
+			}
+			if(isURI && ch == '%') {
+				int b = getPercentEncoded(s, pos);
+				if(b == -1) {
+					pos++;
+				} else if(isNormalized(s, pos, b)) {
+					// Short-cut already percent-encoded
+					pos += 3;
+				} else {
+					if(unwritten < pos) {
+						if(encoder == null) out.append(s, unwritten, pos);
+						else encoder.append(s, unwritten, pos, out);
 					}
+					// Convert to uppercase hex
+					appendPercentEncoded(b, encoder, out);
+					pos += 3;
+					unwritten = pos;
 				}
-			} catch(UnsupportedEncodingException e) {
-				throw new AssertionError("Standard encoding (" + IRI.ENCODING + ") should always exist", e);
+				continue;
 			}
+			if(unwritten < pos) {
+				if(encoder == null) out.append(s, unwritten, pos);
+				else encoder.append(s, unwritten, pos, out);
+			}
+			char ch2;
+			if(Character.isHighSurrogate(ch)) {
+				if(
+					(pos + 1) < len
+					&& Character.isLowSurrogate(ch2 = s.charAt(pos + 1))
+				) {
+					appendPercentEncodedUtf8(Character.toCodePoint(ch, ch2), encoder, out);
+					pos += 2;
+				} else {
+					// Unpaired, replaced by '?' when encoded to UTF-8
+					appendPercentEncoded('?', encoder, out);
+					pos++;
+				}
+			} else if(Character.isLowSurrogate(ch)) {
+				// Unpaired, replaced by '?' when encoded to UTF-8
+				appendPercentEncoded('?', encoder, out);
+				pos++;
+			} else {
+				appendPercentEncodedUtf8(ch, encoder, out);
+				pos++;
+			}
+			unwritten = pos;
+		}
+		if(unwritten < len) {
+			if(encoder == null) out.append(s, unwritten, len);
+			else encoder.append(s, unwritten, len, out);
 		}
 	}
 
@@ -432,4 +516,124 @@ public class URIEncoder {
 			throw new AssertionError("IOException should not occur on StringBuffer", e);
 		}
 	}
+
+	/**
+	 * Writes one percent-encoded byte.
+	 *
+	 * @throws  BufferOverflowException  when fewer than three bytes remain, in which case nothing is written
+	 */
+	static void putPercentEncoded(int b, ByteBuffer out) throws BufferOverflowException {
+		if(out.remaining() < 3) throw new BufferOverflowException();
+		out.put((byte)'%');
+		out.put((byte)RFC3986.getHexHigh(b));
+		out.put((byte)RFC3986.getHexLow(b));
+	}
+
+	/**
+	 * Encodes a value for use in a path component or fragment, from UTF-8 bytes to ASCII bytes.
+	 * This is the same as {@link #encodeURIComponent(java.lang.String)} on the UTF-8 decoded input,
+	 * without any {@link String}.  Each byte of any malformed UTF-8 is percent-encoded as-is.
+	 * <p>
+	 * Reads all the remaining bytes of {@code in}, writing to {@code out}, which never requires more than
+	 * three times the input length.
+	 * </p>
+	 *
+	 * @throws  BufferOverflowException  when {@code out} is too small.  {@code in} is then positioned at the first
+	 *                                   byte not encoded, and {@code out} after the complete encoding of all the bytes
+	 *                                   before it, never ending in a partial escape, so encoding may be resumed
+	 *                                   with more space.
+	 *
+	 * @see URIDecoder#decodeURIComponent(java.nio.ByteBuffer, java.nio.ByteBuffer)
+	 */
+	public static void encodeURIComponent(ByteBuffer in, ByteBuffer out) throws BufferOverflowException {
+		int limit = in.limit();
+		for(int pos = in.position(); pos < limit; pos++) {
+			int b = in.get(pos) & 0xFF;
+			if(RFC3986.is(b, ENCODE_URI_COMPONENT_UNCHANGED)) {
+				out.put((byte)b);
+			} else {
+				putPercentEncoded(b, out);
+			}
+			in.position(pos + 1);
+		}
+	}
+
+	/**
+	 * Encodes a value for use in a path component or fragment, from UTF-8 bytes to ASCII bytes.
+	 *
+	 * @return  the number of bytes written
+	 *
+	 * @throws  BufferOverflowException  when {@code out} is too small
+	 *
+	 * @see  #encodeURIComponent(java.nio.ByteBuffer, java.nio.ByteBuffer)
+	 * @see URIDecoder#decodeURIComponent(byte[], int, int, byte[], int)
+	 */
+	public static int encodeURIComponent(byte[] in, int off, int len, byte[] out, int outOff) throws BufferOverflowException {
+		ByteBuffer outBuffer = ByteBuffer.wrap(out, outOff, out.length - outOff);
+		encodeURIComponent(ByteBuffer.wrap(in, off, len), outBuffer);
+		return outBuffer.position() - outOff;
+	}
+
+	/**
+	 * Encodes a URI to <a href="https://tools.ietf.org/html/rfc3986">RFC 3986 ASCII format</a>, from UTF-8 bytes
+	 * to ASCII bytes.  This is the same as {@link #encodeURI(java.lang.String)} on the UTF-8 decoded input,
+	 * without any {@link String}.  Each byte of any malformed UTF-8 is percent-encoded as-is.
+	 * <p>
+	 * Reads all the remaining bytes of {@code in}, writing to {@code out}, which never requires more than
+	 * three times the input length.
+	 * </p>
+	 *
+	 * @throws  BufferOverflowException  when {@code out} is too small.  {@code in} is then positioned at the first
+	 *                                   byte not encoded, and {@code out} after the complete encoding of all the bytes
+	 *                                   before it, never ending in a partial escape, so encoding may be resumed
+	 *                                   with more space.
+	 *
+	 * @see URIDecoder#decodeURI(java.nio.ByteBuffer, java.nio.ByteBuffer)
+	 */
+	public static void encodeURI(ByteBuffer in, ByteBuffer out) throws BufferOverflowException {
+		int limit = in.limit();
+		int pos = in.position();
+		while(pos < limit) {
+			int b = in.get(pos) & 0xFF;
+			if(RFC3986.is(b, ENCODE_URI_UNCHANGED)) {
+				out.put((byte)b);
+				pos++;
+			} else if(b == '%') {
+				int hi, lo;
+				if(
+					(pos + 2) < limit
+					&& (hi = RFC3986.hexValue(in.get(pos + 1) & 0xFF)) != -1
+					&& (lo = RFC3986.hexValue(in.get(pos + 2) & 0xFF)) != -1
+				) {
+					// Already percent-encoded, converted to uppercase hex
+					putPercentEncoded((hi << 4) | lo, out);
+					pos += 3;
+				} else {
+					out.put((byte)b);
+					pos++;
+				}
+			} else {
+				putPercentEncoded(b, out);
+				pos++;
+			}
+			in.position(pos);
+		}
+	}
+
+	/**
+	 * Encodes a URI to <a href="https://tools.ietf.org/html/rfc3986">RFC 3986 ASCII format</a>, from UTF-8 bytes
+	 * to ASCII bytes.
+	 *
+	 * @return  the number of bytes written
+	 *
+	 * @throws  BufferOverflowException  when {@code out} is too small
+	 *
+	 * @see  #encodeURI(java.nio.ByteBuffer, java.nio.ByteBuffer)
+	 * @see URIDecoder#decodeURI(byte[], int, int, byte[], int)
+	 */
+	public static int encodeURI(byte[] in, int off, int len, byte[] out, int outOff) throws BufferOverflowException {
+		ByteBuffer outBuffer = ByteBuffer.wrap(out, outOff, out.length - outOff);
+		encodeURI(ByteBuffer.wrap(in, off, len), outBuffer);
+		return outBuffer.position() - outOff;
+	}
 }
@@ -0,0 +1,107 @@
+/*
+ * ao-net-types - Networking-related value types.
+ * Copyright (C) 2021  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-net-types.
+ *
+ * ao-net-types is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-net-types is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-net-types.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aoapps.net;
+
+import com.aoapps.lang.util.ComparatorUtils;
+import com.aoapps.lang.validation.ValidationException;
+import java.util.Locale;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * @see DomainName
+ *
+ * @author  AO Industries, Inc.
+ */
+public class DomainNameTest {
+
+	/**
+	 * The previous implementation, which created substrings for each label.
+	 */
+	@SuppressWarnings("StringEquality")
+	private static int compareLabelsSubstrings(String labels1, String labels2) {
+		if(labels1==labels2) return 0;
+		while(labels1.length()>0 && labels2.length()>0) {
+			int pos=labels1.lastIndexOf('.');
+			String section1;
+			if(pos==-1) {
+				section1=labels1;
+				labels1="";
+			} else {
+				section1=labels1.substring(pos+1);
+				labels1=labels1.substring(0, pos);
+			}
+			pos=labels2.lastIndexOf('.');
+			String section2;
+			if(pos==-1) {
+				section2=labels2;
+				labels2="";
+			} else {
+				section2=labels2.substring(pos+1);
+				labels2=labels2.substring(0, pos);
+			}
+			int diff=ComparatorUtils.compareIgnoreCaseConsistentWithEquals(section1, section2);
+			if(diff!=0) return diff;
+		}
+		return ComparatorUtils.compareIgnoreCaseConsistentWithEquals(labels1, labels2);
+	}
+
+	private static final char[] CHARS = {'a', 'A', 'b', 'B', 'z', '0', '9', '-', '.', '.', 'ß', 'İ', 'i', 'I', 'ı'};
+
+	private static String randomLabels(Random random) {
+		int len = random.nextInt(8);
+		StringBuilder sb = new StringBuilder(len);
+		for(int i = 0; i < len; i++) sb.append(CHARS[random.nextInt(CHARS.length)]);
+		return sb.toString();
+	}
+
+	@Test
+	public void testCompareLabelsMatchesSubstrings() {
+		Random random = new Random(0);
+		for(int i = 0; i < 100000; i++) {
+			String labels1 = randomLabels(random);
+			String labels2 = random.nextInt(4) == 0 ? labels1.toUpperCase(Locale.ROOT) : randomLabels(random);
+			assertEquals(
+				labels1 + " <=> " + labels2,
+				compareLabelsSubstrings(labels1, labels2),
+				DomainName.compareLabels(labels1, labels2)
+			);
+		}
+	}
+
+	@Test
+	public void testCompareLabels() {
+		assertTrue(DomainName.compareLabels("www.example.com", "example.com") > 0);
+		assertTrue(DomainName.compareLabels("example.com", "www.example.com") < 0);
+		assertTrue(DomainName.compareLabels("example.org", "www.example.com") > 0);
+		assertTrue(DomainName.compareLabels("Example.com", "example.com") < 0);
+		assertEquals(0, DomainName.compareLabels("example.com", new String("example.com")));
+	}
+
+	@Test
+	public void testCompareTo() throws ValidationException {
+		assertTrue(DomainName.valueOf("a.example.com").compareTo(DomainName.valueOf("b.example.com")) < 0);
+		assertTrue(DomainName.valueOf("z.example.com").compareTo(DomainName.valueOf("a.example.net")) < 0);
+	}
+}
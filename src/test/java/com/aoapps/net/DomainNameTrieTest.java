@@ -0,0 +1,155 @@
+/*
+ * ao-net-types - Networking-related value types.
+ * Copyright (C) 2021  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-net-types.
+ *
+ * ao-net-types is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-net-types is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-net-types.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aoapps.net;
+
+import com.aoapps.lang.validation.ValidationException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * @see DomainNameTrie
+ *
+ * @author  AO Industries, Inc.
+ */
+public class DomainNameTrieTest {
+
+	private static DomainName domain(String domain) throws ValidationException {
+		return DomainName.valueOf(domain);
+	}
+
+	private static DomainNameTrie<String> createTrie() throws ValidationException {
+		return new DomainNameTrie.Builder<String>()
+			.putSuffix(domain("example.com"), "zone")
+			.put(domain("www.example.com"), "www")
+			.putWildcard(domain("dev.example.com"), "dev")
+			.put(domain("Mail.Example.Net"), "mail")
+			.build();
+	}
+
+	@Test
+	public void testGet() throws ValidationException {
+		DomainNameTrie<String> trie = createTrie();
+		assertEquals(5, trie.size());
+		assertEquals("zone", trie.get(domain("example.com")));
+		assertEquals("zone", trie.get(domain("EXAMPLE.COM")));
+		assertEquals("www", trie.get(domain("www.example.com")));
+		assertEquals("mail", trie.get(domain("mail.example.net")));
+		assertNull(trie.get(domain("dev.example.com")));
+		assertNull(trie.get(domain("com")));
+		assertNull(trie.get(domain("other.example.com")));
+		assertEquals("zone", trie.getWildcard(domain("example.com")));
+		assertEquals("dev", trie.getWildcard(domain("dev.example.com")));
+		assertNull(trie.getWildcard(domain("www.example.com")));
+	}
+
+	@Test
+	public void testLongestMatch() throws ValidationException {
+		DomainNameTrie<String> trie = createTrie();
+		assertEquals("zone", trie.getLongestMatch(domain("example.com")));
+		assertEquals("www", trie.getLongestMatch(domain("WWW.example.com")));
+		assertEquals("zone", trie.getLongestMatch(domain("a.www.example.com")));
+		assertEquals("zone", trie.getLongestMatch(domain("other.example.com")));
+		// Wildcard does not match the domain itself
+		assertEquals("zone", trie.getLongestMatch(domain("dev.example.com")));
+		assertEquals("dev", trie.getLongestMatch(domain("a.dev.example.com")));
+		assertEquals("dev", trie.getLongestMatch(domain("b.a.dev.example.com")));
+		assertEquals("mail", trie.getLongestMatch(domain("mail.example.net")));
+		assertNull(trie.getLongestMatch(domain("a.mail.example.net")));
+		assertNull(trie.getLongestMatch(domain("example.net")));
+		assertNull(trie.getLongestMatch(domain("com")));
+		assertNull(trie.getLongestMatch(domain("example.org")));
+		assertTrue(trie.matches(domain("x.example.com")));
+		assertFalse(trie.matches(domain("example.org")));
+		assertEquals("dev.example.com", trie.getLongestSuffix(domain("a.dev.example.com")).toString());
+		assertEquals("example.com", trie.getLongestSuffix(domain("dev.example.com")).toString());
+		assertEquals("Mail.Example.Net", trie.getLongestSuffix(domain("MAIL.example.net")).toString());
+		assertNull(trie.getLongestSuffix(domain("example.org")));
+	}
+
+	@Test
+	public void testForEachMatch() throws ValidationException {
+		DomainNameTrie<String> trie = createTrie();
+		List<String> matches = new ArrayList<>();
+		trie.forEachMatch(domain("a.dev.example.com"), (d, wildcard, value) -> matches.add((wildcard ? "*." : "") + d + '=' + value));
+		assertEquals(Arrays.asList("*.example.com=zone", "*.dev.example.com=dev"), matches);
+		matches.clear();
+		trie.forEachMatch(domain("www.example.com"), (d, wildcard, value) -> matches.add((wildcard ? "*." : "") + d + '=' + value));
+		assertEquals(Arrays.asList("*.example.com=zone", "www.example.com=www"), matches);
+	}
+
+	@Test
+	public void testSubtree() throws ValidationException {
+		DomainNameTrie<String> trie = createTrie();
+		List<String> entries = new ArrayList<>();
+		trie.forEach((d, wildcard, value) -> entries.add((wildcard ? "*." : "") + d));
+		assertEquals(
+			Arrays.asList("example.com", "*.example.com", "*.dev.example.com", "www.example.com", "Mail.Example.Net"),
+			entries
+		);
+		assertEquals(
+			Arrays.asList(domain("example.com"), domain("www.example.com")),
+			trie.getDomainsUnder(domain("example.com"))
+		);
+		assertEquals(Collections.emptyList(), trie.getDomainsUnder(domain("dev.example.com")));
+		assertEquals(Collections.emptyList(), trie.getDomainsUnder(domain("example.org")));
+		assertEquals(Collections.singletonList(domain("mail.example.net")), trie.getDomainsUnder(domain("net")));
+	}
+
+	@Test
+	public void testSnapshot() throws ValidationException {
+		DomainNameTrie<String> trie = createTrie();
+		DomainNameTrie.Builder<String> builder = new DomainNameTrie.Builder<>(trie);
+		builder.put(domain("www.example.com"), "www2").put(domain("example.org"), "org");
+		DomainNameTrie<String> updated = builder.build();
+		assertEquals(6, updated.size());
+		assertEquals("www2", updated.get(domain("www.example.com")));
+		assertEquals("org", updated.get(domain("example.org")));
+		// The original is unchanged
+		assertEquals(5, trie.size());
+		assertEquals("www", trie.get(domain("www.example.com")));
+		assertNull(trie.get(domain("example.org")));
+	}
+
+	@Test
+	public void testEmpty() throws ValidationException {
+		DomainNameTrie<String> trie = DomainNameTrie.empty();
+		assertTrue(trie.isEmpty());
+		assertNull(trie.getLongestMatch(domain("example.com")));
+	}
+
+	@Test
+	public void testMatchesSortedOrder() throws ValidationException {
+		String[] domains = {"b.com", "a.b.com", "a-b.com", "a0.com", "aa.com", "ab.com", "b.de", "x.co.uk", "localhost"};
+		DomainNameTrie.Builder<String> builder = new DomainNameTrie.Builder<>();
+		for(String d : domains) builder.put(domain(d), d);
+		List<String> expected = new ArrayList<>(Arrays.asList(domains));
+		expected.sort(DomainName::compareLabels);
+		List<String> actual = new ArrayList<>();
+		builder.build().forEach((d, wildcard, value) -> actual.add(value));
+		assertEquals(expected, actual);
+	}
+}
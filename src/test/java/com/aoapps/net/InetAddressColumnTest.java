@@ -0,0 +1,120 @@
+/*
+ * ao-net-types - Networking-related value types.
+ * Copyright (C) 2021  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-net-types.
+ *
+ * ao-net-types is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-net-types is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-net-types.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aoapps.net;
+
+import com.aoapps.lang.validation.ValidationException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * @see InetAddressColumn
+ *
+ * @author  AO Industries, Inc.
+ */
+public class InetAddressColumnTest {
+
+	@Test
+	public void testEmpty() throws ValidationException {
+		InetAddressColumn column = new InetAddressColumn.Builder().build();
+		assertSame(InetAddressColumn.EMPTY, column);
+		assertTrue(column.isEmpty());
+		assertEquals(0, column.countIn(InetAddressPrefix.valueOf("0.0.0.0/0")));
+		assertTrue(column.containsAll(InetAddressPrefix.valueOf("192.0.2.0/24")));
+	}
+
+	@Test
+	public void testSortedAsCompareTo() throws ValidationException {
+		List<InetAddress> addresses = Arrays.asList(
+			InetAddress.valueOf("2001:db8::1"),
+			InetAddress.valueOf("255.255.255.255"),
+			InetAddress.valueOf("::"),
+			InetAddress.valueOf("192.0.2.1"),
+			InetAddress.valueOf("ffff:ffff:ffff:ffff:ffff:ffff:ffff:ffff"),
+			InetAddress.valueOf("0.0.0.0"),
+			InetAddress.valueOf("192.0.2.1"),
+			InetAddress.valueOf("8000::")
+		);
+		InetAddressColumn column = InetAddressColumn.valueOf(addresses);
+		List<InetAddress> expected = new ArrayList<>(addresses);
+		Collections.sort(expected);
+		List<InetAddress> actual = new ArrayList<>();
+		for(int i = 0; i < column.size(); i++) actual.add(column.get(i));
+		assertEquals(expected, actual);
+		assertEquals(2, column.countIn(InetAddressPrefix.valueOf("192.0.2.1/32")));
+		assertArrayEquals(new int[] {1, 3}, column.rangeOf(InetAddressPrefix.valueOf("192.0.2.0/24")));
+		assertArrayEquals(new int[] {1, 1}, column.rangeOf(InetAddressPrefix.valueOf("10.0.0.0/8")));
+		assertEquals(4, column.countIn(InetAddressPrefix.valueOf("0.0.0.0/0")));
+		assertEquals(4, column.countIn(InetAddressPrefix.valueOf("::/0")));
+		assertEquals(2, column.countIn(InetAddressPrefix.valueOf("8000::/1")));
+	}
+
+	@Test
+	public void testContainsAll() throws ValidationException {
+		InetAddressColumn column = InetAddressColumn.valueOf(Arrays.asList(
+			InetAddress.valueOf("192.0.2.1"),
+			InetAddress.valueOf("192.0.2.200")
+		));
+		assertTrue(column.containsAll(InetAddressPrefix.valueOf("192.0.2.0/24")));
+		assertFalse(column.containsAll(InetAddressPrefix.valueOf("192.0.2.0/25")));
+		assertTrue(column.containsAny(InetAddressPrefix.valueOf("192.0.2.0/25")));
+		assertFalse(column.containsAll(InetAddressPrefix.valueOf("::/0")));
+	}
+
+	@Test
+	public void testRandomAgainstContains() throws ValidationException {
+		Random random = new Random(13);
+		List<InetAddress> addresses = new ArrayList<>();
+		for(int i = 0; i < 2000; i++) {
+			if(random.nextBoolean()) {
+				addresses.add(InetAddress.valueOf(InetAddress.IPV4_HI, InetAddress.IPV4_NET_MAPPED_LO | (random.nextInt() & 0xffffffffL)));
+			} else {
+				addresses.add(InetAddress.valueOf(random.nextLong(), random.nextLong()));
+			}
+		}
+		// Duplicates
+		addresses.addAll(addresses.subList(0, 100));
+		InetAddressColumn column = InetAddressColumn.valueOf(addresses);
+		List<InetAddressPrefix> prefixes = new ArrayList<>();
+		for(int i = 0; i < 200; i++) {
+			InetAddress address = addresses.get(random.nextInt(addresses.size()));
+			prefixes.add(InetAddressPrefix.valueOf(address, random.nextInt(address.getAddressFamily().getMaxPrefix() + 1)).normalize());
+		}
+		for(InetAddressPrefix prefix : prefixes) {
+			int expected = 0;
+			for(InetAddress address : addresses) if(prefix.contains(address)) expected++;
+			assertEquals(prefix.toString(), expected, column.countIn(prefix));
+			int[] range = column.rangeOf(prefix);
+			assertEquals(expected, range[1] - range[0]);
+			for(int i = range[0]; i < range[1]; i++) assertTrue(prefix.contains(column.get(i)));
+		}
+		InetAddressPrefixSet set = InetAddressPrefixSet.valueOf(prefixes);
+		int expected = 0;
+		for(InetAddress address : addresses) if(set.contains(address)) expected++;
+		assertEquals(expected, column.countIn(set));
+	}
+}
@@ -0,0 +1,151 @@
+/*
+ * ao-net-types - Networking-related value types.
+ * Copyright (C) 2021  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-net-types.
+ *
+ * ao-net-types is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-net-types is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-net-types.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aoapps.net;
+
+import com.aoapps.lang.validation.ValidationException;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * @see InetAddressCounter
+ *
+ * @author  AO Industries, Inc.
+ */
+public class InetAddressCounterTest {
+
+	private static long add(InetAddressCounter counter, String address, long time) throws ValidationException {
+		InetAddress ia = InetAddress.valueOf(address);
+		return counter.add(ia.getHigh(), ia.getLow(), 1, time);
+	}
+
+	private static long get(InetAddressCounter counter, String address, long time) throws ValidationException {
+		InetAddress ia = InetAddress.valueOf(address);
+		return counter.get(ia.getHigh(), ia.getLow(), time);
+	}
+
+	private static void testSlidingWindow(InetAddressCounter counter) throws ValidationException {
+		// Window of 10 seconds in 10 buckets
+		assertEquals(1, add(counter, "192.0.2.1", 1000));
+		assertEquals(2, add(counter, "192.0.2.200", 1500));
+		assertEquals("Aggregated by /24", 2, get(counter, "192.0.2.99", 1500));
+		assertEquals(0, get(counter, "192.0.3.1", 1500));
+		assertEquals(3, add(counter, "192.0.2.1", 5000));
+		assertEquals("Also aggregated by /64", 1, add(counter, "2001:db8::1", 5000));
+		assertEquals(2, add(counter, "2001:db8::ffff", 5000));
+		assertEquals(1, add(counter, "::1", 5000));
+		assertEquals(2, add(counter, "::2", 5000));
+		assertEquals(3, get(counter, "192.0.2.1", 10999));
+		assertEquals("First bucket expired", 1, get(counter, "192.0.2.1", 11000));
+		assertEquals(1, get(counter, "192.0.2.1", 14999));
+		assertEquals("All expired", 0, get(counter, "192.0.2.1", 15000));
+		assertEquals(0, get(counter, "::1", 15000));
+		assertEquals(1, add(counter, "192.0.2.1", 1000000));
+	}
+
+	@Test
+	public void testExact() throws ValidationException {
+		InetAddressCounter counter = InetAddressCounter.newExact(24, 64, 10000, 10, 1000);
+		assertTrue(counter.isExact());
+		assertEquals(10000, counter.getWindowMillis());
+		testSlidingWindow(counter);
+		assertEquals(0, counter.getEvictions());
+	}
+
+	@Test
+	public void testApproximate() throws ValidationException {
+		InetAddressCounter counter = InetAddressCounter.newApproximate(24, 64, 10000, 10, 1024, 4);
+		assertFalse(counter.isExact());
+		testSlidingWindow(counter);
+	}
+
+	@Test
+	public void testExactEviction() {
+		InetAddressCounter counter = InetAddressCounter.newExact(32, 128, 1000, 10, 100);
+		// The heavy hitter survives eviction
+		for(int i = 0; i < 10; i++) counter.add(0, 0x0000ffff0a000001L, 1, 0);
+		for(int i = 0; i < 10000; i++) {
+			assertEquals(1, counter.add(0, 0x0000ffff0b000000L + i, 1, 0));
+		}
+		assertTrue(counter.getEvictions() > 0);
+		assertEquals(10, counter.get(0, 0x0000ffff0a000001L, 0));
+		// Expired keys are evicted before live keys
+		long evictions = counter.getEvictions();
+		for(int i = 0; i < 50; i++) counter.add(0, 0x0000ffff0c000000L + i, 1, 5000);
+		assertEquals(evictions, counter.getEvictions());
+	}
+
+	@Test
+	public void testApproximateNeverUnderCounts() {
+		Random random = new Random(6);
+		InetAddressCounter counter = InetAddressCounter.newApproximate(32, 128, 1000, 1, 256, 4);
+		InetAddressLongMap exact = new InetAddressLongMap();
+		for(int i = 0; i < 10000; i++) {
+			long lo = 0x0000ffff00000000L | random.nextInt(2000);
+			counter.add(0, lo, 1, 0);
+			exact.addTo(0, lo, 1);
+		}
+		exact.forEach((long hi, long lo, long count) -> assertTrue(counter.get(hi, lo, 0) >= count));
+	}
+
+	@Test
+	public void testConcurrent() throws InterruptedException {
+		InetAddressCounter counter = InetAddressCounter.newExact(32, 128, 1000, 10, 10000);
+		Thread[] threads = new Thread[4];
+		for(int t = 0; t < threads.length; t++) {
+			threads[t] = new Thread(() -> {
+				for(int i = 0; i < 10000; i++) counter.add(0, 0x0000ffff00000000L | (i % 100), 1, 0);
+			});
+			threads[t].start();
+		}
+		for(Thread thread : threads) thread.join();
+		for(int i = 0; i < 100; i++) assertEquals(400, counter.get(0, 0x0000ffff00000000L | i, 0));
+	}
+
+	/**
+	 * Threads add across bucket boundaries while others are advancing the epoch, and every add must remain
+	 * counted for the duration of the window.
+	 */
+	@Test
+	public void testApproximateConcurrentAdvanceNeverUnderCounts() throws InterruptedException {
+		for(int round = 0; round < 20; round++) {
+			InetAddressCounter counter = InetAddressCounter.newApproximate(32, 128, 100, 100, 64, 2);
+			Thread[] threads = new Thread[4];
+			int perEpoch = 200;
+			for(int t = 0; t < threads.length; t++) {
+				threads[t] = new Thread(() -> {
+					for(long time = 0; time < 100; time++) {
+						for(int i = 0; i < perEpoch; i++) counter.add(0, 0x0000ffff0a000001L, 1, time);
+					}
+				});
+				threads[t].start();
+			}
+			for(Thread thread : threads) thread.join();
+			// A single key has no collisions, so is exact
+			assertEquals(threads.length * 100L * perEpoch, counter.get(0, 0x0000ffff0a000001L, 99));
+			// Late adds are counted in the latest epoch seen
+			assertTrue(counter.get(0, 0x0000ffff0a000001L, 198) >= threads.length * perEpoch);
+			assertEquals(0, counter.get(0, 0x0000ffff0a000001L, 199));
+		}
+	}
+}
@@ -0,0 +1,95 @@
+/*
+ * ao-net-types - Networking-related value types.
+ * Copyright (C) 2021  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-net-types.
+ *
+ * ao-net-types is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-net-types is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-net-types.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aoapps.net;
+
+import com.aoapps.lang.validation.ValidationException;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * @see InetAddressHashSet
+ *
+ * @author  AO Industries, Inc.
+ */
+public class InetAddressHashSetTest {
+
+	@Test
+	public void testBasic() throws ValidationException {
+		InetAddressHashSet set = new InetAddressHashSet();
+		assertTrue(set.isEmpty());
+		assertTrue(set.add(InetAddress.valueOf("192.0.2.1")));
+		assertFalse(set.add(InetAddress.valueOf("192.0.2.1")));
+		assertTrue(set.add(InetAddress.valueOf("::")));
+		assertFalse(set.add(InetAddress.valueOf("::")));
+		assertEquals(2, set.size());
+		assertTrue(set.contains(InetAddress.valueOf("::")));
+		assertFalse(set.contains(InetAddress.valueOf("::1")));
+		assertTrue(set.remove(InetAddress.valueOf("::")));
+		assertFalse(set.contains(InetAddress.valueOf("::")));
+		assertEquals(1, set.size());
+		Set<InetAddress> forEach = new HashSet<>();
+		set.forEach((InetAddress address) -> forEach.add(address));
+		assertEquals(1, forEach.size());
+		assertTrue(forEach.contains(InetAddress.valueOf("192.0.2.1")));
+		set.clear();
+		assertTrue(set.isEmpty());
+	}
+
+	private static void testRandom(boolean direct) {
+		Random random = new Random(4);
+		InetAddressHashSet set = new InetAddressHashSet(0, direct);
+		assertEquals(direct, set.isDirect());
+		Set<InetAddress> expected = new HashSet<>();
+		for(int i = 0; i < 100000; i++) {
+			// Small key space to exercise collisions and removal
+			InetAddress address = InetAddress.valueOf(random.nextInt(4), random.nextInt(20000));
+			switch(random.nextInt(3)) {
+				case 0 :
+					assertEquals(expected.remove(address), set.remove(address));
+					break;
+				case 1 :
+					assertEquals(expected.add(address), set.add(address));
+					break;
+				default :
+					assertEquals(expected.contains(address), set.contains(address));
+			}
+			assertEquals(expected.size(), set.size());
+		}
+		Set<InetAddress> forEach = new HashSet<>();
+		set.forEach((InetAddress address) -> assertTrue(forEach.add(address)));
+		assertEquals(expected, forEach);
+	}
+
+	@Test
+	public void testRandomHeap() {
+		testRandom(false);
+	}
+
+	@Test
+	public void testRandomDirect() {
+		testRandom(true);
+	}
+}
@@ -0,0 +1,100 @@
+/*
+ * ao-net-types - Networking-related value types.
+ * Copyright (C) 2021  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-net-types.
+ *
+ * ao-net-types is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-net-types is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-net-types.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aoapps.net;
+
+import com.aoapps.lang.validation.ValidationException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * @see InetAddressLongMap
+ *
+ * @author  AO Industries, Inc.
+ */
+public class InetAddressLongMapTest {
+
+	@Test
+	public void testBasic() throws ValidationException {
+		InetAddressLongMap map = new InetAddressLongMap(10, false, -1);
+		InetAddress address = InetAddress.valueOf("2001:db8::1");
+		assertEquals(-1, map.get(address));
+		assertEquals(-1, map.put(address, 5));
+		assertEquals(5, map.put(address, 6));
+		assertEquals(6, map.get(address));
+		assertEquals(-1, map.addTo(InetAddress.valueOf("::"), 0));
+		assertEquals(1, map.addTo(InetAddress.valueOf("::"), 2));
+		assertEquals(2, map.size());
+		assertEquals(1, map.remove(InetAddress.valueOf("::")));
+		assertFalse(map.containsKey(InetAddress.valueOf("::")));
+		assertEquals(6, map.remove(address));
+		assertTrue(map.isEmpty());
+	}
+
+	private static void testRandom(boolean direct) {
+		Random random = new Random(5);
+		InetAddressLongMap map = new InetAddressLongMap(0, direct, 0);
+		Map<InetAddress, Long> expected = new HashMap<>();
+		for(int i = 0; i < 100000; i++) {
+			InetAddress address = InetAddress.valueOf(random.nextInt(4), random.nextInt(20000));
+			Long old = expected.get(address);
+			switch(random.nextInt(4)) {
+				case 0 : {
+					expected.remove(address);
+					assertEquals(old == null ? 0 : old, map.remove(address));
+					break;
+				}
+				case 1 : {
+					long value = random.nextLong();
+					expected.put(address, value);
+					assertEquals(old == null ? 0 : old, map.put(address, value));
+					break;
+				}
+				case 2 : {
+					long value = (old == null ? 0 : old) + 1;
+					expected.put(address, value);
+					assertEquals(value, map.addTo(address, 1));
+					break;
+				}
+				default :
+					assertEquals(old == null ? 0 : old, map.get(address));
+			}
+			assertEquals(expected.size(), map.size());
+		}
+		Map<InetAddress, Long> forEach = new HashMap<>();
+		map.forEach((InetAddress address, long value) -> assertNull(forEach.put(address, value)));
+		assertEquals(expected, forEach);
+	}
+
+	@Test
+	public void testRandomHeap() {
+		testRandom(false);
+	}
+
+	@Test
+	public void testRandomDirect() {
+		testRandom(true);
+	}
+}
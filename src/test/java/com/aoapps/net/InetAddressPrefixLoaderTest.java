@@ -0,0 +1,157 @@
+/*
+ * ao-net-types - Networking-related value types.
+ * Copyright (C) 2021  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-net-types.
+ *
+ * ao-net-types is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-net-types is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-net-types.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aoapps.net;
+
+import com.aoapps.lang.validation.ValidationException;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.ForkJoinPool;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * @see InetAddressPrefixLoader
+ *
+ * @author  AO Industries, Inc.
+ */
+public class InetAddressPrefixLoaderTest {
+
+	private static InetAddressPrefixLoader.Result load(String input) throws IOException {
+		return InetAddressPrefixLoader.load(
+			Channels.newChannel(new ByteArrayInputStream(input.getBytes(StandardCharsets.US_ASCII))),
+			ForkJoinPool.commonPool()
+		);
+	}
+
+	@Test
+	public void testLoad() throws IOException, ValidationException {
+		InetAddressPrefixLoader.Result result = load(
+			"network,geoname_id\r\n"
+			+ "192.0.2.0/24,123\r\n"
+			+ "\n"
+			+ "# Comment\n"
+			+ "  2001:db8::/32 # Documentation\n"
+			+ "\"198.51.100.7\",\"quoted\"\n"
+			+ "192.0.2.0/33\n"
+			+ "10.0.0.1"
+		);
+		assertEquals(8, result.getLineCount());
+		assertEquals(4, result.size());
+		assertEquals(InetAddressPrefix.valueOf("192.0.2.0/24"), result.get(0));
+		assertEquals(InetAddressPrefix.valueOf("2001:db8::/32"), result.get(1));
+		assertEquals(InetAddressPrefix.valueOf("198.51.100.7/32"), result.get(2));
+		assertEquals(2, result.getInvalidCount());
+		assertEquals(1, result.getInvalidLine(0));
+		assertEquals(7, result.getInvalidLine(1));
+		assertFalse(result.getInvalidResult(1).isValid());
+		assertEquals(InetAddressPrefix.valueOf("10.0.0.1/32"), result.get(3));
+	}
+
+	/**
+	 * Builds enough lines to span many chunks, with an invalid line every 1000 lines.
+	 */
+	private static String manyLines(int count) {
+		StringBuilder sb = new StringBuilder();
+		for(int i = 0; i < count; i++) {
+			if(i % 1000 == 999) {
+				sb.append("invalid\n");
+			} else {
+				sb.append("10.").append((i >>> 16) & 0xff).append('.').append((i >>> 8) & 0xff).append('.').append(i & 0xff).append("/32,").append(i).append('\n');
+			}
+		}
+		return sb.toString();
+	}
+
+	private static void checkManyLines(InetAddressPrefixLoader.Result result, int count) {
+		assertEquals(count, result.getLineCount());
+		assertEquals(count / 1000, result.getInvalidCount());
+		assertEquals(count - count / 1000, result.size());
+		for(int i = 0; i < result.getInvalidCount(); i++) {
+			assertEquals((i + 1) * 1000L, result.getInvalidLine(i));
+		}
+		// Order is preserved across chunks
+		int index = 0;
+		for(int i = 0; i < count; i++) {
+			if(i % 1000 != 999) {
+				assertEquals(0x0a000000 | i, (int)result.getLow(index));
+				index++;
+			}
+		}
+	}
+
+	@Test
+	public void testChannelChunks() throws IOException {
+		int count = 200000;
+		checkManyLines(load(manyLines(count)), count);
+	}
+
+	/**
+	 * Lines longer than a chunk grow the buffer, and the partial line left after such a buffer may itself be
+	 * longer than a chunk.
+	 */
+	@Test
+	public void testChannelLongLines() throws IOException, ValidationException {
+		final int chunkSize = 1 << 20;
+		StringBuilder sb = new StringBuilder();
+		sb.append("192.0.2.1\n");
+		int[] lengths = {chunkSize * 5 / 2, chunkSize * 4, chunkSize * 3 / 2, chunkSize + 1};
+		for(int i = 0; i < lengths.length; i++) {
+			int lineStart = sb.length();
+			sb.append("192.0.2.").append(i + 2).append(',');
+			while(sb.length() - lineStart < lengths[i]) sb.append('x');
+			sb.append('\n');
+		}
+		sb.append("192.0.2.6\n");
+		InetAddressPrefixLoader.Result result = load(sb.toString());
+		assertEquals(6, result.getLineCount());
+		assertEquals(0, result.getInvalidCount());
+		assertEquals(6, result.size());
+		for(int i = 0; i < 6; i++) {
+			assertEquals(InetAddressPrefix.valueOf("192.0.2." + (i + 1) + "/32"), result.get(i));
+		}
+	}
+
+	@Test
+	public void testFileChunks() throws IOException {
+		int count = 200000;
+		File tempFile = File.createTempFile("InetAddressPrefixLoaderTest", null);
+		try {
+			Files.write(tempFile.toPath(), manyLines(count).getBytes(StandardCharsets.US_ASCII));
+			checkManyLines(InetAddressPrefixLoader.load(tempFile), count);
+		} finally {
+			Files.delete(tempFile.toPath());
+		}
+	}
+
+	@Test
+	public void testToPrefixSet() throws IOException, ValidationException {
+		InetAddressPrefixSet set = load("192.0.2.0/25\n192.0.2.128/25\n2001:db8::1\n").toPrefixSet();
+		assertTrue(set.contains(InetAddressPrefix.valueOf("192.0.2.0/24")));
+		assertTrue(set.contains(InetAddress.valueOf("2001:db8::1")));
+		assertFalse(set.contains(InetAddress.valueOf("2001:db8::2")));
+	}
+}
@@ -0,0 +1,194 @@
+/*
+ * ao-net-types - Networking-related value types.
+ * Copyright (C) 2021  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-net-types.
+ *
+ * ao-net-types is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-net-types is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-net-types.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aoapps.net;
+
+import com.aoapps.lang.validation.ValidationException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * @see InetAddressPrefixSet
+ *
+ * @author  AO Industries, Inc.
+ */
+public class InetAddressPrefixSetTest {
+
+	private static InetAddressPrefixSet set(String ... prefixes) throws ValidationException {
+		List<InetAddressPrefix> list = new ArrayList<>(prefixes.length);
+		for(String prefix : prefixes) list.add(InetAddressPrefix.valueOf(prefix));
+		return InetAddressPrefixSet.valueOf(list);
+	}
+
+	@Test
+	public void testCoalesce() throws ValidationException {
+		assertEquals("[]", set().toString());
+		assertEquals(
+			"[10.0.0.0/7]",
+			set("10.0.0.0/9", "10.128.0.0/9", "11.0.0.0/8", "10.1.2.3").toString()
+		);
+		assertEquals(
+			"[10.0.0.0/8, 2001:db8::/32]",
+			set("2001:db8:8000::/33", "10.0.0.0/8", "2001:db8::/33", "10.1.0.0/16").toString()
+		);
+		// Adjacent, but not along a prefix boundary
+		assertEquals(
+			"[10.0.0.1, 10.0.0.2/31]",
+			set("10.0.0.1", "10.0.0.2", "10.0.0.3").toString()
+		);
+	}
+
+	@Test
+	public void testComplement() throws ValidationException {
+		assertEquals("[0.0.0.0/0, ::/0]", InetAddressPrefixSet.ALL.toString());
+		assertEquals(InetAddressPrefixSet.EMPTY, InetAddressPrefixSet.ALL.complement());
+		assertEquals(
+			"[0.0.0.0/1, 192.0.0.0/2, ::/0]",
+			set("128.0.0.0/2").complement().toString()
+		);
+		assertEquals("[0.0.0.0/0, ::/1]", set("8000::/1").complement().toString());
+		assertEquals("[::/0]", set("0.0.0.0/0").complement().toString());
+	}
+
+	@Test
+	public void testAlgebra() throws ValidationException {
+		InetAddressPrefixSet a = set("10.0.0.0/8", "2001:db8::/32");
+		InetAddressPrefixSet b = set("10.128.0.0/9", "192.0.2.0/24");
+		assertEquals("[10.0.0.0/8, 192.0.2.0/24, 2001:db8::/32]", a.union(b).toString());
+		assertEquals("[10.128.0.0/9]", a.intersection(b).toString());
+		assertEquals("[10.0.0.0/9, 2001:db8::/32]", a.difference(b).toString());
+		assertEquals("[192.0.2.0/24]", b.difference(a).toString());
+		assertEquals(InetAddressPrefixSet.EMPTY, a.difference(a));
+	}
+
+	@Test
+	public void testContains() throws ValidationException {
+		InetAddressPrefixSet s = set("10.0.0.0/8", "192.0.2.0/24", "::/0");
+		assertTrue(s.contains(InetAddress.valueOf("10.255.255.255")));
+		assertFalse(s.contains(InetAddress.valueOf("11.0.0.0")));
+		assertTrue(s.contains(InetAddress.valueOf("192.0.2.7")));
+		assertFalse("IPv4 never in IPv6 prefix", s.contains(InetAddress.valueOf("8.8.8.8")));
+		assertTrue(s.contains(InetAddress.valueOf("2001:db8::1")));
+		assertTrue(s.contains(InetAddressPrefix.valueOf("10.1.0.0/16")));
+		assertFalse(s.contains(InetAddressPrefix.valueOf("10.0.0.0/7")));
+	}
+
+	@Test
+	public void testIPv4MappedExcludedFromIPv6() throws ValidationException {
+		// Subtract all of ::/80 except the IPv4-mapped ::ffff:0:0/96
+		List<InetAddressPrefix> below = new ArrayList<>();
+		long lo = 0;
+		for(int prefix = 81; prefix <= 96; prefix++) {
+			below.add(InetAddressPrefix.valueOf(InetAddress.valueOf(0, lo), prefix));
+			lo += 1L << (128 - prefix);
+		}
+		InetAddressPrefixSet remaining = set("::/80").difference(InetAddressPrefixSet.valueOf(below));
+		assertTrue(remaining.isEmpty());
+		assertEquals(InetAddressPrefixSet.EMPTY, remaining);
+		assertEquals("[]", remaining.toString());
+		assertEquals(InetAddressPrefixSet.EMPTY, set("::/80").intersection(set("0.0.0.0/0")));
+		assertEquals(set("0.0.0.0/0"), InetAddressPrefixSet.valueOf(below).complement().difference(set("::/0")));
+		// Prefixes may still span the IPv4-mapped space
+		assertEquals("[::/80]", set("::/80").toString());
+		assertEquals("[::/80]", InetAddressPrefixSet.valueOf(below).union(set("::1:0:0:0/80").complement().intersection(set("::/80"))).toString());
+		// Only spans when it gives fewer prefixes
+		assertEquals("[::fffe:0:0/96]", set("::fffe:0:0/95").toString());
+		assertEquals("[::fffe:0:0/96]", set("::fffe:0:0/96").toString());
+		assertTrue(InetAddressPrefixSet.valueOf(below).contains(InetAddressPrefix.valueOf("::fffe:0:0/96")));
+		assertTrue(InetAddressPrefixSet.valueOf(below).contains(InetAddressPrefix.valueOf("::fffe:0:0/95")));
+		assertFalse(InetAddressPrefixSet.valueOf(below).contains(InetAddressPrefix.valueOf("::/79")));
+		assertTrue(InetAddressPrefixSet.valueOf(below).union(set("::1:0:0:0/80")).contains(InetAddressPrefix.valueOf("::/79")));
+		assertTrue(InetAddressPrefixSet.ALL.contains(InetAddressPrefix.valueOf("::/0")));
+		for(InetAddressPrefix prefix : InetAddressPrefixSet.ALL.complement().union(set("::/80")).toPrefixes()) {
+			assertEquals(prefix.toString(), InetAddressPrefix.valueOf(prefix.toString()).toString());
+		}
+	}
+
+	@Test
+	public void testRandomAroundIPv4Mapped() throws ValidationException {
+		Random random = new Random(3);
+		for(int round = 0; round < 50; round++) {
+			List<InetAddressPrefix> list = new ArrayList<>();
+			for(int i = 0; i < 10; i++) {
+				int prefix = 78 + random.nextInt(36);
+				long lo = InetAddressBits.maskLo(random.nextLong() & 0x0003ffffffffffffL, prefix);
+				// Skip addresses within the IPv4-mapped space, which are IPv4
+				if(!InetAddressBits.isInet(0, lo)) list.add(InetAddressPrefix.valueOf(InetAddress.valueOf(0, lo), prefix));
+			}
+			InetAddressPrefixSet set = InetAddressPrefixSet.valueOf(list);
+			assertEquals(set, InetAddressPrefixSet.valueOf(set.toPrefixes()));
+			for(InetAddressPrefix prefix : set.toPrefixes()) {
+				assertTrue(set.contains(prefix));
+				assertFalse(InetAddressBits.isInet(prefix.getAddress().hi, prefix.getAddress().lo));
+			}
+			for(int i = 0; i < 500; i++) {
+				InetAddress address = InetAddress.valueOf(0, random.nextLong() & 0x0003ffffffffffffL);
+				boolean in = false;
+				for(InetAddressPrefix prefix : list) in |= prefix.contains(address);
+				assertEquals(in, set.contains(address));
+				assertEquals(!in, set.complement().contains(address));
+			}
+		}
+	}
+
+	private static InetAddressPrefix randomPrefix(Random random) throws ValidationException {
+		return InetAddressPrefix.valueOf(
+			InetAddress.valueOf(InetAddress.IPV4_HI, InetAddress.IPV4_NET_MAPPED_LO | (random.nextInt() & 0xfff00000L)),
+			1 + random.nextInt(12)
+		);
+	}
+
+	@Test
+	public void testRandomAgainstPrefixes() throws ValidationException {
+		Random random = new Random(2);
+		for(int round = 0; round < 50; round++) {
+			List<InetAddressPrefix> list1 = new ArrayList<>();
+			List<InetAddressPrefix> list2 = new ArrayList<>();
+			for(int i = 0; i < 20; i++) {
+				list1.add(randomPrefix(random));
+				list2.add(randomPrefix(random));
+			}
+			InetAddressPrefixSet set1 = InetAddressPrefixSet.valueOf(list1);
+			InetAddressPrefixSet set2 = InetAddressPrefixSet.valueOf(list2);
+			InetAddressPrefixSet union = set1.union(set2);
+			InetAddressPrefixSet intersection = set1.intersection(set2);
+			InetAddressPrefixSet difference = set1.difference(set2);
+			InetAddressPrefixSet complement = set1.complement();
+			assertEquals(set1, InetAddressPrefixSet.valueOf(set1.toPrefixes()));
+			for(int i = 0; i < 500; i++) {
+				InetAddress address = InetAddress.valueOf(InetAddress.IPV4_HI, InetAddress.IPV4_NET_MAPPED_LO | (random.nextInt() & 0xffffffffL));
+				boolean in1 = false;
+				for(InetAddressPrefix prefix : list1) in1 |= prefix.contains(address);
+				boolean in2 = false;
+				for(InetAddressPrefix prefix : list2) in2 |= prefix.contains(address);
+				assertEquals(in1, set1.contains(address));
+				assertEquals(in1 || in2, union.contains(address));
+				assertEquals(in1 && in2, intersection.contains(address));
+				assertEquals(in1 && !in2, difference.contains(address));
+				assertEquals(!in1, complement.contains(address));
+			}
+		}
+	}
+}
@@ -0,0 +1,158 @@
+/*
+ * ao-net-types - Networking-related value types.
+ * Copyright (C) 2021  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-net-types.
+ *
+ * ao-net-types is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-net-types is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-net-types.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aoapps.net;
+
+import com.aoapps.lang.validation.ValidationException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * @see InetAddressPrefixTable
+ *
+ * @author  AO Industries, Inc.
+ */
+public class InetAddressPrefixTableTest {
+
+	private static InetAddressPrefix p(String prefix) throws ValidationException {
+		return InetAddressPrefix.valueOf(prefix);
+	}
+
+	private static InetAddress a(String address) throws ValidationException {
+		return InetAddress.valueOf(address);
+	}
+
+	@Test
+	public void testLongestMatch() throws ValidationException {
+		InetAddressPrefixTable<String> table = new InetAddressPrefixTable<>();
+		assertNull(table.put(p("10.0.0.0/8"), "ten"));
+		assertNull(table.put(p("10.1.0.0/16"), "ten-one"));
+		assertNull(table.put(p("10.1.2.3/32"), "host"));
+		assertNull(table.put(p("0.0.0.0/0"), "default4"));
+		assertNull(table.put(p("2001:db8::/32"), "doc"));
+		assertEquals(5, table.size());
+		assertEquals("host", table.getLongestMatch(a("10.1.2.3")));
+		assertEquals("ten-one", table.getLongestMatch(a("10.1.2.4")));
+		assertEquals("ten", table.getLongestMatch(a("10.2.0.0")));
+		assertEquals("default4", table.getLongestMatch(a("192.0.2.1")));
+		assertEquals("doc", table.getLongestMatch(a("2001:db8::1")));
+		assertNull(table.getLongestMatch(a("2001:db9::1")));
+		assertEquals(p("10.1.0.0/16"), table.getLongestPrefix(a("10.1.200.1")));
+	}
+
+	@Test
+	public void testFamiliesSeparate() throws ValidationException {
+		InetAddressPrefixTable<String> table = new InetAddressPrefixTable<>();
+		table.put(p("::/0"), "default6");
+		assertNull("IPv4 never matches IPv6", table.getLongestMatch(a("192.0.2.1")));
+		assertEquals("default6", table.getLongestMatch(a("::")));
+		table.put(p("0.0.0.0/0"), "default4");
+		assertEquals("default4", table.getLongestMatch(a("192.0.2.1")));
+		assertEquals("default6", table.getLongestMatch(a("::1")));
+	}
+
+	@Test
+	public void testExactNormalized() throws ValidationException {
+		InetAddressPrefixTable<Integer> table = new InetAddressPrefixTable<>();
+		assertNull(table.put(p("10.1.2.3/8"), 1));
+		assertEquals(Integer.valueOf(1), table.get(p("10.0.0.0/8")));
+		assertEquals(Integer.valueOf(1), table.put(p("10.0.0.0/8"), 2));
+		assertEquals(1, table.size());
+		assertNull(table.get(p("10.0.0.0/9")));
+		assertNull(table.get(p("10.0.0.0/7")));
+		assertTrue(table.containsKey(p("10.9.9.9/8")));
+		assertEquals(Integer.valueOf(2), table.remove(p("10.0.0.0/8")));
+		assertNull(table.remove(p("10.0.0.0/8")));
+		assertTrue(table.isEmpty());
+	}
+
+	@Test
+	public void testCoveringAndCovered() throws ValidationException {
+		InetAddressPrefixTable<String> table = new InetAddressPrefixTable<>();
+		for(String prefix : new String[] {"10.0.0.0/8", "10.1.0.0/16", "10.1.2.0/24", "10.1.3.0/24", "10.2.0.0/16", "11.0.0.0/8"}) {
+			table.put(p(prefix), prefix);
+		}
+		List<String> covering = new ArrayList<>(table.getCovering(p("10.1.2.128/25")).values());
+		assertEquals("[10.0.0.0/8, 10.1.0.0/16, 10.1.2.0/24]", covering.toString());
+		List<String> covered = new ArrayList<>(table.getCovered(p("10.1.0.0/16")).values());
+		assertEquals("[10.1.0.0/16, 10.1.2.0/24, 10.1.3.0/24]", covered.toString());
+		assertEquals(6, table.getCovered(p("10.0.0.0/7")).size());
+		assertEquals(5, table.getCovered(p("10.0.0.0/8")).size());
+		assertEquals(0, table.getCovered(p("12.0.0.0/8")).size());
+	}
+
+	@Test
+	public void testRandomAgainstLinearScan() throws ValidationException {
+		Random random = new Random(1);
+		InetAddressPrefixTable<InetAddressPrefix> table = new InetAddressPrefixTable<>();
+		Map<InetAddressPrefix, InetAddressPrefix> expected = new TreeMap<>();
+		for(int i = 0; i < 2000; i++) {
+			InetAddressPrefix prefix;
+			if(random.nextBoolean()) {
+				prefix = InetAddressPrefix.valueOf(
+					InetAddress.valueOf(InetAddress.IPV4_HI, InetAddress.IPV4_NET_MAPPED_LO | (random.nextInt() & 0xff0f0000L)),
+					random.nextInt(33)
+				).normalize();
+			} else {
+				prefix = InetAddressPrefix.valueOf(
+					InetAddress.valueOf(random.nextLong() & 0xff0f000000000000L, 0),
+					random.nextInt(129)
+				).normalize();
+			}
+			if(random.nextInt(4) == 0) {
+				assertEquals(expected.remove(prefix), table.remove(prefix));
+			} else {
+				assertEquals(expected.put(prefix, prefix), table.put(prefix, prefix));
+			}
+			assertEquals(expected.size(), table.size());
+		}
+		// Natural order
+		List<InetAddressPrefix> forEach = new ArrayList<>();
+		table.forEach((prefix, value) -> forEach.add(prefix));
+		assertEquals(new ArrayList<>(expected.keySet()), forEach);
+		for(int i = 0; i < 2000; i++) {
+			InetAddress address = random.nextBoolean()
+				? InetAddress.valueOf(InetAddress.IPV4_HI, InetAddress.IPV4_NET_MAPPED_LO | (random.nextInt() & 0xff0fffffL))
+				: InetAddress.valueOf(random.nextLong() & 0xff0fffffffffffffL, random.nextLong());
+			InetAddressPrefix longest = null;
+			for(InetAddressPrefix prefix : expected.keySet()) {
+				if(prefix.contains(address) && (longest == null || prefix.getPrefix() > longest.getPrefix())) longest = prefix;
+			}
+			assertEquals(longest, table.getLongestMatch(address));
+			InetAddressPrefix query = InetAddressPrefix.valueOf(address, random.nextInt(address.isIPv4() ? 33 : 129));
+			List<InetAddressPrefix> covering = new ArrayList<>();
+			List<InetAddressPrefix> covered = new ArrayList<>();
+			for(InetAddressPrefix prefix : expected.keySet()) {
+				if(prefix.contains(query)) covering.add(prefix);
+				if(query.contains(prefix)) covered.add(prefix);
+			}
+			covering.sort((p1, p2) -> Integer.compare(p1.getPrefix(), p2.getPrefix()));
+			assertEquals(covering, new ArrayList<>(table.getCovering(query).keySet()));
+			assertEquals(covered, new ArrayList<>(table.getCovered(query).keySet()));
+		}
+	}
+}
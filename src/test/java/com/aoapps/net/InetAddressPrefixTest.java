@@ -23,6 +23,13 @@
 package com.aoapps.net;
 
 import com.aoapps.lang.validation.ValidationException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.nio.ByteBuffer;
 import static org.junit.Assert.*;
 import org.junit.Test;
 
@@ -1286,4 +1293,178 @@ public class InetAddressPrefixTest {
 			)
 		);
 	}
+
+	@Test
+	public void testBinary() throws ValidationException, IOException {
+		InetAddressPrefix ipv4 = InetAddressPrefix.valueOf("192.0.2.0/24");
+		InetAddressPrefix ipv6 = InetAddressPrefix.valueOf("2001:db8::/32");
+		ByteArrayOutputStream bout = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bout)) {
+			ipv4.writeBinary(out);
+			ipv6.writeBinary(out);
+		}
+		byte[] bytes = bout.toByteArray();
+		assertEquals(ipv4.getBinaryLength() + ipv6.getBinaryLength(), bytes.length);
+		assertEquals(6 + InetAddressPrefix.MAX_BINARY_LENGTH, bytes.length);
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+		assertEquals(ipv4, InetAddressPrefix.readBinary(in));
+		assertEquals(ipv6, InetAddressPrefix.readBinary(in));
+	}
+
+	@Test(expected = InvalidObjectException.class)
+	public void testBinary_invalidPrefix() throws IOException {
+		InetAddressPrefix.readBinary(new DataInputStream(new ByteArrayInputStream(new byte[] {InetAddress.BINARY_TAG_INET, (byte)192, 0, 2, 0, 33})));
+	}
+
+	@Test
+	public void testBinary_ByteBuffer() throws ValidationException {
+		InetAddressPrefix prefix = InetAddressPrefix.valueOf("2001:db8::/48");
+		ByteBuffer buffer = ByteBuffer.allocate(InetAddressPrefix.MAX_BINARY_LENGTH);
+		prefix.writeBinary(buffer);
+		assertFalse(buffer.hasRemaining());
+		buffer.flip();
+		assertEquals(prefix, InetAddressPrefix.readBinary(buffer));
+		assertFalse(buffer.hasRemaining());
+		buffer.put(buffer.limit() - 1, (byte)129).rewind();
+		try {
+			InetAddressPrefix.readBinary(buffer);
+			fail("IllegalArgumentException expected");
+		} catch(IllegalArgumentException e) {
+			assertEquals(0, buffer.position());
+		}
+	}
+
+	@Test
+	public void testParse() throws ValidationException {
+		long[] hiLoPrefix = new long[3];
+		assertEquals(InetAddressPrefix.PARSE_VALID, InetAddressPrefix.parse("192.0.2.0/24", hiLoPrefix));
+		InetAddress address = InetAddress.valueOf("192.0.2.0");
+		assertEquals(address.getHigh(), hiLoPrefix[0]);
+		assertEquals(address.getLow(), hiLoPrefix[1]);
+		assertEquals(24, hiLoPrefix[2]);
+		assertEquals(InetAddressPrefix.PARSE_VALID, InetAddressPrefix.parse("2001:db8::", hiLoPrefix));
+		assertEquals(128, hiLoPrefix[2]);
+		byte[] ascii = " 10.0.0.0/8 ".getBytes(java.nio.charset.StandardCharsets.US_ASCII);
+		assertEquals(InetAddressPrefix.PARSE_VALID, InetAddressPrefix.parseAscii(ascii, 1, ascii.length - 1, hiLoPrefix));
+		assertEquals(8, hiLoPrefix[2]);
+		assertEquals(InetAddressPrefix.PARSE_VALID, InetAddressPrefix.parseAscii(ByteBuffer.wrap(ascii), 1, 9, hiLoPrefix));
+		assertEquals(32, hiLoPrefix[2]);
+		ByteBuffer direct = ByteBuffer.allocateDirect(ascii.length);
+		direct.put(ascii);
+		assertEquals(InetAddressPrefix.PARSE_VALID, InetAddressPrefix.parseAscii(direct, 1, ascii.length - 1, hiLoPrefix));
+		assertEquals(8, hiLoPrefix[2]);
+		ByteBuffer slice = ByteBuffer.wrap(ascii, 1, ascii.length - 1).slice();
+		assertEquals(InetAddressPrefix.PARSE_VALID, InetAddressPrefix.parseAscii(slice, 0, ascii.length - 2, hiLoPrefix));
+		assertEquals(8, hiLoPrefix[2]);
+	}
+
+	@Test
+	public void testParseInvalid() {
+		long[] hiLoPrefix = {1, 2, 3};
+		for(String invalid : new String[] {
+			"192.0.2.0/", "192.0.2.0/-1", "192.0.2.0/+", "192.0.2.0/-", "192.0.2.0/+-1", "192.0.2.0/2 4", "192.0.2.0/1a",
+			"192.0.2.0/99999999999", "192.0.2.0/-99999", "192.0.2.0/33", "192.0.2.0/65536", "2001:db8::/129", "192.0.2/24", "/24"
+		}) {
+			int status = InetAddressPrefix.parse(invalid, hiLoPrefix);
+			assertNotEquals(invalid, InetAddressPrefix.PARSE_VALID, status);
+			assertFalse(invalid, InetAddressPrefix.getValidationResult(status).isValid());
+			assertArrayEquals(invalid, new long[] {1, 2, 3}, hiLoPrefix);
+			try {
+				InetAddressPrefix.valueOf(invalid);
+				fail(invalid);
+			} catch(ValidationException e) {
+				assertEquals(InetAddressPrefix.getValidationResult(status).toString(), e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Runs each case through every source, which all share one parser, so any divergence fails.
+	 * Bytes are ISO-8859-1, which the ASCII parsers see as the same characters.
+	 */
+	@Test
+	public void testParse_allSourcesAgree() {
+		java.util.List<String> cases = new java.util.ArrayList<>(java.util.Arrays.asList(
+			"192.0.2.0/24", "192.0.2.0", "2001:db8::/32", "2001:db8::", "192.0.2.0/", "192.0.2.0/-1", "192.0.2.0/-0",
+			"192.0.2.0/+24", "192.0.2.0/0024", "192.0.2.0/+", "192.0.2.0/-", "192.0.2.0/+-1", "192.0.2.0/2 4", "192.0.2.0/1a",
+			"192.0.2.0/\u00b2", "192.0.2.0/99999999999", "192.0.2.0/-99999", "192.0.2.0/33", "192.0.2.0/65536",
+			"2001:db8::/129", "192.0.2/24", "/24", "/", "", "[2001:db8::]/64", "192.0.2.0/24/24"
+		));
+		java.util.Random random = new java.util.Random(3);
+		final String alphabet = "0123456789abcdef:.[]/+- \u00b2\u00e9";
+		for(int i = 0; i < 10000; i++) {
+			int len = random.nextInt(56);
+			StringBuilder sb = new StringBuilder(len);
+			for(int j = 0; j < len; j++) sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+			cases.add(sb.toString());
+		}
+		for(String address : cases) {
+			long[] expected = {-1, -1, -1};
+			int status = InetAddressPrefix.parse(address, expected);
+			String padded = "x " + address + " x";
+			int start = 2;
+			int end = start + address.length();
+			byte[] bytes = padded.getBytes(java.nio.charset.StandardCharsets.ISO_8859_1);
+			ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+			direct.put(bytes);
+			long[] hiLoPrefix = new long[3];
+			java.util.Arrays.fill(hiLoPrefix, -1);
+			assertEquals(address, status, InetAddressPrefix.parse(new StringBuilder(padded), start, end, hiLoPrefix));
+			assertArrayEquals(address, expected, hiLoPrefix);
+			java.util.Arrays.fill(hiLoPrefix, -1);
+			assertEquals(address, status, InetAddressPrefix.parseAscii(bytes, start, end, hiLoPrefix));
+			assertArrayEquals(address, expected, hiLoPrefix);
+			java.util.Arrays.fill(hiLoPrefix, -1);
+			assertEquals(address, status, InetAddressPrefix.parseAscii(ByteBuffer.wrap(bytes), start, end, hiLoPrefix));
+			assertArrayEquals(address, expected, hiLoPrefix);
+			java.util.Arrays.fill(hiLoPrefix, -1);
+			assertEquals(address, status, InetAddressPrefix.parseAscii(ByteBuffer.wrap(bytes).asReadOnlyBuffer(), start, end, hiLoPrefix));
+			assertArrayEquals(address, expected, hiLoPrefix);
+			java.util.Arrays.fill(hiLoPrefix, -1);
+			assertEquals(address, status, InetAddressPrefix.parseAscii(direct, start, end, hiLoPrefix));
+			assertArrayEquals(address, expected, hiLoPrefix);
+		}
+	}
+
+	/**
+	 * The prefix is parsed with the same syntax as {@link Integer#parseInt(java.lang.String)}, as it always has been.
+	 */
+	@Test
+	public void testParseIntegerSyntax() throws ValidationException {
+		InetAddressPrefix expected = InetAddressPrefix.valueOf(InetAddress.valueOf("10.0.0.0"), 24);
+		for(String prefix : new String[] {"10.0.0.0/+24", "10.0.0.0/0024", "10.0.0.0/0000000000000000024", "10.0.0.0/\u0662\u0664"}) {
+			assertEquals(prefix, expected, InetAddressPrefix.valueOf(prefix));
+		}
+		for(String prefix : new String[] {"10.0.0.0/+24", "10.0.0.0/0024"}) {
+			byte[] bytes = prefix.getBytes(java.nio.charset.StandardCharsets.US_ASCII);
+			long[] hiLoPrefix = new long[3];
+			assertEquals(prefix, InetAddressPrefix.PARSE_VALID, InetAddressPrefix.parseAscii(bytes, 0, bytes.length, hiLoPrefix));
+			assertEquals(prefix, 24, hiLoPrefix[2]);
+		}
+		assertEquals(
+			InetAddressPrefix.valueOf(InetAddress.valueOf("10.0.0.0"), 0),
+			InetAddressPrefix.valueOf("10.0.0.0/-0")
+		);
+		assertEquals(
+			InetAddressPrefix.validate(InetAddress.valueOf("10.0.0.0"), -1).toString(),
+			InetAddressPrefix.getValidationResult(InetAddressPrefix.parse("10.0.0.0/-1", new long[3])).toString()
+		);
+		assertEquals(
+			InetAddressPrefix.validate(InetAddress.valueOf("10.0.0.0"), 33).toString(),
+			InetAddressPrefix.getValidationResult(InetAddressPrefix.parse("10.0.0.0/+033", new long[3])).toString()
+		);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testGetValidationResult_invalidStatus() {
+		InetAddressPrefix.getValidationResult(0xff);
+	}
+
+	@Test
+	public void testTryValueOf() throws ValidationException {
+		assertEquals(InetAddressPrefix.valueOf("192.0.2.0/24"), InetAddressPrefix.tryValueOf("192.0.2.0/24"));
+		assertEquals(InetAddressPrefix.valueOf("2001:db8::1"), InetAddressPrefix.tryValueOf("2001:db8::1"));
+		assertNull(InetAddressPrefix.tryValueOf("192.0.2.0/33"));
+		assertNull(InetAddressPrefix.tryValueOf("192.0.2/24"));
+	}
 }
@@ -0,0 +1,118 @@
+/*
+ * ao-net-types - Networking-related value types.
+ * Copyright (C) 2021  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-net-types.
+ *
+ * ao-net-types is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-net-types is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-net-types.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aoapps.net;
+
+import com.aoapps.lang.validation.ValidationException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * @see InetAddressRange
+ *
+ * @author  AO Industries, Inc.
+ */
+public class InetAddressRangeTest {
+
+	@Test
+	public void testToPrefixes() throws ValidationException {
+		assertEquals(
+			"[192.0.2.10/31, 192.0.2.12/30, 192.0.2.16/28, 192.0.2.32/27, 192.0.2.64/27, 192.0.2.96/30]",
+			InetAddressRange.valueOf("192.0.2.10-192.0.2.99").toPrefixes().toString()
+		);
+		assertEquals("[0.0.0.0/0]", InetAddressRange.valueOf("0.0.0.0-255.255.255.255").toPrefixes().toString());
+		assertEquals("[::/0]", InetAddressRange.valueOf("::-ffff:ffff:ffff:ffff:ffff:ffff:ffff:ffff").toPrefixes().toString());
+		assertEquals("[2001:db8::1]", InetAddressRange.valueOf("2001:db8::1").toPrefixes().toString());
+		assertEquals(
+			"[2001:db8::ffff:ffff:ffff:ffff, 2001:db8:0:1::/64]",
+			InetAddressRange.valueOf("2001:db8::ffff:ffff:ffff:ffff-2001:db8::1:ffff:ffff:ffff:ffff").toPrefixes().toString()
+		);
+	}
+
+	@Test
+	public void testToPrefixesAroundIPv4Mapped() throws ValidationException {
+		assertEquals(
+			"[::fffe:ffff:ffff, ::1:0:0:0]",
+			InetAddressRange.valueOf("::fffe:ffff:ffff-::1:0:0:0").toPrefixes().toString()
+		);
+		List<String> prefixes = new ArrayList<>();
+		InetAddressRange.forEachPrefix(0, 0xfffeffffffffL, 0, 0x1000000000000L, (hi, lo, prefix) -> prefixes.add(InetAddress.valueOf(hi, lo) + "/" + prefix));
+		assertEquals("[::fffe:ffff:ffff/128, ::1:0:0:0/128]", prefixes.toString());
+		assertEquals("[::/80]", InetAddressRange.valueOf("::-::1:0:0:0").toPrefixes().subList(0, 1).toString());
+		assertEquals("[::/0]", InetAddressRange.valueOf("::-ffff:ffff:ffff:ffff:ffff:ffff:ffff:ffff").toPrefixes().toString());
+		assertFalse(InetAddressRange.valueOf("::-::1:0:0:0").contains(InetAddress.valueOf("0.0.0.0")));
+	}
+
+	@Test
+	public void testValueOf() throws ValidationException {
+		InetAddressRange range = InetAddressRange.valueOf("10.0.0.5-10.0.0.9");
+		assertEquals("10.0.0.5-10.0.0.9", range.toString());
+		assertEquals(range, InetAddressRange.valueOf(InetAddress.valueOf("10.0.0.5"), InetAddress.valueOf("10.0.0.9")));
+		assertTrue(range.contains(InetAddress.valueOf("10.0.0.9")));
+		assertFalse(range.contains(InetAddress.valueOf("10.0.0.10")));
+		assertEquals("10.0.0.0-10.0.0.255", InetAddressRange.valueOf(InetAddressPrefix.valueOf("10.0.0.77/24")).toString());
+	}
+
+	@Test(expected = ValidationException.class)
+	public void testValueOf_toLessThanFrom() throws ValidationException {
+		InetAddressRange.valueOf("10.0.0.9-10.0.0.5");
+	}
+
+	@Test(expected = ValidationException.class)
+	public void testValueOf_familyMismatch() throws ValidationException {
+		InetAddressRange.valueOf("10.0.0.9-::1");
+	}
+
+	@Test
+	public void testCoalesce() throws ValidationException {
+		assertEquals(
+			"[10.0.0.0-10.0.1.255, 10.0.3.0-10.0.3.255, ::1]",
+			InetAddressRange.coalesce(
+				Arrays.asList(
+					InetAddressPrefix.valueOf("10.0.1.0/24"),
+					InetAddressPrefix.valueOf("::1"),
+					InetAddressPrefix.valueOf("10.0.3.0/24"),
+					InetAddressPrefix.valueOf("10.0.0.0/24")
+				)
+			).toString()
+		);
+	}
+
+	@Test
+	public void testRandomRoundTrip() throws ValidationException {
+		Random random = new Random(3);
+		for(int i = 0; i < 1000; i++) {
+			long a = random.nextInt() & 0xffffffffL;
+			long b = random.nextInt() & 0xffffffffL;
+			InetAddressRange range = InetAddressRange.valueOf(
+				InetAddress.valueOf(InetAddress.IPV4_HI, InetAddress.IPV4_NET_MAPPED_LO | Math.min(a, b)),
+				InetAddress.valueOf(InetAddress.IPV4_HI, InetAddress.IPV4_NET_MAPPED_LO | Math.max(a, b))
+			);
+			assertTrue(range.toPrefixes().size() <= 62);
+			assertEquals(Arrays.asList(range), InetAddressRange.coalesce(range.toPrefixes()));
+		}
+	}
+}
@@ -0,0 +1,127 @@
+/*
+ * ao-net-types - Networking-related value types.
+ * Copyright (C) 2021  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-net-types.
+ *
+ * ao-net-types is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-net-types is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-net-types.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aoapps.net;
+
+import com.aoapps.lang.validation.ValidationException;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Collections;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * @see InetAddressRegistry
+ *
+ * @author  AO Industries, Inc.
+ */
+public class InetAddressRegistryTest {
+
+	private static InetAddress addr(String address) throws ValidationException {
+		return InetAddress.valueOf(address);
+	}
+
+	private static InetAddressPrefix prefix(String prefix) throws ValidationException {
+		return InetAddressPrefix.valueOf(prefix);
+	}
+
+	@Test
+	public void testIanaSpecialPurpose() throws ValidationException {
+		InetAddressRegistry iana = InetAddressRegistry.getIanaSpecialPurpose();
+		assertEquals(50, iana.size());
+		assertEquals(Arrays.asList("This network", "This host on this network"), iana.getLabels(addr("0.0.0.0")));
+		assertEquals(Collections.singletonList("Private-Use"), iana.getLabels(addr("10.1.2.3")));
+		assertEquals(Collections.singletonList("Shared Address Space"), iana.getLabels(addr("100.64.0.1")));
+		assertEquals(Arrays.asList("IETF Protocol Assignments", "TEREDO"), iana.getLabels(addr("2001:0:1::1")));
+		assertEquals(Arrays.asList("IETF Protocol Assignments", "ORCHIDv2"), iana.getLabels(addr("2001:20::1")));
+		assertEquals(Collections.singletonList("Documentation"), iana.getLabels(addr("2001:db8::1")));
+		assertEquals(Collections.singletonList("Documentation"), iana.getLabels(addr("3fff::1")));
+		assertEquals(Collections.singletonList("Segment Routing (SRv6) SIDs"), iana.getLabels(addr("5f00::1")));
+		assertEquals(
+			Arrays.asList("IETF Protocol Assignments", "Drone Remote ID Protocol Entity Tags (DETs) Prefix"),
+			iana.getLabels(addr("2001:30::1"))
+		);
+		assertEquals(Collections.singletonList("Loopback Address"), iana.getLabels(addr("::1")));
+		assertEquals(Collections.emptyList(), iana.getLabels(addr("8.8.8.8")));
+		assertEquals(Collections.emptyList(), iana.getLabels(addr("2600::1")));
+		assertSame(iana, InetAddressRegistry.getIanaSpecialPurpose());
+	}
+
+	@Test
+	public void testIpv4DoesNotMatchIpv6Blocks() throws ValidationException {
+		// IPv4 is stored IPv4-mapped, which must not match ::/128 or similar
+		InetAddressRegistry iana = InetAddressRegistry.getIanaSpecialPurpose();
+		assertEquals(Collections.emptyList(), iana.getLabels(addr("1.1.1.1")));
+		assertEquals(Collections.singletonList("Loopback"), iana.getLabels(addr("127.0.0.1")));
+	}
+
+	@Test
+	public void testUserDefined() throws ValidationException {
+		InetAddressRegistry registry = new InetAddressRegistry.Builder()
+			.addIanaSpecialPurpose()
+			.add(prefix("10.0.0.0/16"), "Office")
+			.add(prefix("10.0.5.0/24"), "Lab")
+			.add(prefix("10.0.5.0/24"), "Restricted")
+			.add(prefix("10.0.5.0/24"), "Lab")
+			.add(prefix("10.0.5.77/24"), "Restricted")
+			.build();
+		InetAddress lab = addr("10.0.5.1");
+		assertEquals(Arrays.asList("Private-Use", "Office", "Lab", "Restricted"), registry.getLabels(lab));
+		assertEquals(Arrays.asList("Lab", "Restricted"), registry.getMostSpecificLabels(lab));
+		assertEquals(3, registry.getMatches(lab).size());
+		assertTrue(registry.hasLabel(lab, "Office"));
+		assertFalse(registry.hasLabel(addr("10.1.0.1"), "Office"));
+		assertEquals(Collections.emptyList(), registry.getMostSpecificLabels(addr("8.8.8.8")));
+		StringBuilder labels = new StringBuilder();
+		registry.forEachLabel(lab.getHigh(), lab.getLow(), label -> labels.append(label).append(';'));
+		assertEquals("Private-Use;Office;Lab;Restricted;", labels.toString());
+	}
+
+	@Test
+	public void testLoad() throws IOException, ValidationException {
+		InetAddressRegistry registry = new InetAddressRegistry.Builder().load(new StringReader(
+			"# Comment\n"
+			+ "\n"
+			+ "192.0.2.0/24, \"Test, \"\"quoted\"\"\" ,ignored\n"
+			+ "2001:db8::/32,Docs\n"
+		)).build();
+		assertEquals(2, registry.size());
+		assertEquals(Collections.singletonList("Test, \"quoted\""), registry.getLabels(addr("192.0.2.5")));
+		assertEquals(Collections.singletonList("Docs"), registry.getLabels(addr("2001:db8::5")));
+	}
+
+	@Test
+	public void testLoadInvalidPrefix() throws IOException {
+		try {
+			new InetAddressRegistry.Builder().load(new StringReader("192.0.2.0/24,Good\n\n192.0.2.0/33,Bad\n"));
+			fail("ValidationException expected");
+		} catch(ValidationException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains("3"));
+		}
+	}
+
+	@Test(expected = ValidationException.class)
+	public void testLoadMissingLabel() throws IOException, ValidationException {
+		new InetAddressRegistry.Builder().load(new StringReader("192.0.2.0/24\n"));
+	}
+}
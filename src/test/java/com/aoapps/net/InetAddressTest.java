@@ -0,0 +1,598 @@
+/*
+ * ao-net-types - Networking-related value types.
+ * Copyright (C) 2021  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-net-types.
+ *
+ * ao-net-types is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-net-types is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-net-types.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aoapps.net;
+
+import com.aoapps.lang.validation.ValidationException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.StreamCorruptedException;
+import java.net.Inet4Address;
+import java.net.Inet6Address;
+import java.net.UnknownHostException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * @see InetAddress
+ *
+ * @author  AO Industries, Inc.
+ */
+public class InetAddressTest {
+
+	@Test
+	public void testParse_IPv4() {
+		long[] hiLo = new long[2];
+		assertEquals(InetAddress.PARSE_VALID, InetAddress.parse("192.0.2.127", hiLo));
+		assertEquals(0x0000000000000000L, hiLo[0]);
+		assertEquals(0x0000ffffc000027fL, hiLo[1]);
+	}
+
+	@Test
+	public void testParse_IPv6() {
+		long[] hiLo = new long[2];
+		assertEquals(InetAddress.PARSE_VALID, InetAddress.parse("[2001:db8::1:2:3:4]", hiLo));
+		assertEquals(0x20010db800000000L, hiLo[0]);
+		assertEquals(0x0001000200030004L, hiLo[1]);
+	}
+
+	@Test
+	public void testParse_nullHiLo() {
+		assertEquals(InetAddress.PARSE_VALID, InetAddress.parse("::1", null));
+		assertNotEquals(InetAddress.PARSE_VALID, InetAddress.parse("::1::", null));
+	}
+
+	@Test
+	public void testParse_invalidLeavesHiLoUnmodified() {
+		long[] hiLo = {1, 2};
+		assertNotEquals(InetAddress.PARSE_VALID, InetAddress.parse("192.0.2.256", hiLo));
+		assertEquals(1, hiLo[0]);
+		assertEquals(2, hiLo[1]);
+	}
+
+	@Test
+	public void testParse_sameResultsAsValueOf() throws ValidationException {
+		long[] hiLo = new long[2];
+		for(String address : new String[] {
+			"0.0.0.0",
+			"255.255.255.255",
+			"::",
+			"::1",
+			"1::",
+			"::ffff:192.0.2.1",
+			"::192.0.2.1",
+			"64:ff9b::192.0.2.1",
+			"1:2:3:4:5:6:7:8",
+			"[1:2:3:4:5:6:7:8]",
+			"fe80::aBcD:0:0:1"
+		}) {
+			assertEquals(address, InetAddress.PARSE_VALID, InetAddress.parse(address, hiLo));
+			InetAddress ia = InetAddress.valueOf(address);
+			assertEquals(address, ia.getHigh(), hiLo[0]);
+			assertEquals(address, ia.getLow(), hiLo[1]);
+		}
+	}
+
+	@Test
+	public void testParse_charSequenceRange() throws ValidationException {
+		String line = "client=[2001:db8::1]:443 ok";
+		long[] hiLo = new long[2];
+		assertEquals(InetAddress.PARSE_VALID, InetAddress.parse(line, 7, 20, hiLo));
+		assertEquals(0x20010db800000000L, hiLo[0]);
+		assertEquals(0x0000000000000001L, hiLo[1]);
+		assertEquals(
+			InetAddress.valueOf("2001:db8::1"),
+			InetAddress.valueOf(new StringBuilder(line), 8, 19)
+		);
+		// Must not see characters outside of the range
+		assertNotEquals(InetAddress.PARSE_VALID, InetAddress.parse("1.2.3.4", 1, 7, null));
+		assertEquals(InetAddress.PARSE_VALID, InetAddress.parse("1.2.3.4x", 0, 7, null));
+		assertEquals(InetAddress.PARSE_VALID, InetAddress.parse("x::1x", 1, 4, null));
+	}
+
+	@Test
+	public void testParse_charArrayRange() throws ValidationException {
+		char[] chars = "  192.0.2.1  ".toCharArray();
+		assertEquals(InetAddress.valueOf("192.0.2.1"), InetAddress.valueOf(chars, 2, 11));
+	}
+
+	@Test
+	public void testParseAscii_bytes() throws ValidationException {
+		byte[] bytes = "PROXY TCP4 192.0.2.1 198.51.100.7 56324 443".getBytes(java.nio.charset.StandardCharsets.US_ASCII);
+		assertEquals(InetAddress.valueOf("192.0.2.1"), InetAddress.valueOfAscii(bytes, 11, 20));
+		assertEquals(InetAddress.valueOf("198.51.100.7"), InetAddress.valueOfAscii(bytes, 21, 33));
+		// Non-ASCII is never valid
+		assertEquals(
+			"IP address word contains a non-hexadecimal character: \u00e9",
+			InetAddress.getValidationResult(InetAddress.parseAscii(new byte[] {':', ':', (byte)0xe9}, 0, 3, null)).toString()
+		);
+	}
+
+	@Test
+	public void testParseAscii_byteBuffer() throws ValidationException {
+		java.nio.ByteBuffer buffer = java.nio.ByteBuffer.allocateDirect(32);
+		buffer.put("GET fe80::1 ".getBytes(java.nio.charset.StandardCharsets.US_ASCII));
+		buffer.flip();
+		buffer.position(4).limit(11);
+		assertEquals(InetAddress.valueOf("fe80::1"), InetAddress.valueOfAscii(buffer));
+		assertEquals("position unchanged", 4, buffer.position());
+		// Heap buffer with an array offset
+		java.nio.ByteBuffer heap = java.nio.ByteBuffer.wrap("xxGET 192.0.2.1 ".getBytes(java.nio.charset.StandardCharsets.US_ASCII));
+		heap.position(2);
+		java.nio.ByteBuffer slice = heap.slice();
+		slice.position(4).limit(13);
+		assertEquals(InetAddress.valueOf("192.0.2.1"), InetAddress.valueOfAscii(slice));
+		// Read-only heap buffer has no accessible array
+		assertEquals(InetAddress.valueOf("192.0.2.1"), InetAddress.valueOfAscii(slice.asReadOnlyBuffer()));
+		slice.limit(14);
+		assertNotEquals(InetAddress.PARSE_VALID, InetAddress.parseAscii(slice, null));
+	}
+
+	/**
+	 * Every source shares one state machine, but this runs each case through all of them so any divergence fails.
+	 * The cases are one of each parse status, random valid addresses, and random strings of the characters that
+	 * matter to the parser.  Bytes are ISO-8859-1, which the ASCII parsers see as the same characters.
+	 */
+	@Test
+	public void testParse_allSourcesAgree() {
+		java.util.List<String> cases = new java.util.ArrayList<>(java.util.Arrays.asList(
+			"", "[]", "[192.0.2.1]", "1.2.3", "1.2", "1.2.3.", ".1.2.3", "1.2.3.4.5", "1.2.3.1000", "1.2.3.256", "1.2.3.x",
+			"1.2.3.\u00e9", "::", "::1", "1::", "1:2:3:4:5:6:7:8", "1:2:3:4:5:6:7:8:9", "1:2:3:4:5:6:7", "1::2::3",
+			":1:2:3:4:5:6:7", "1:2:3:4:5:6:7:", "12345::", "g::", "::\u00e9", "::ffff:192.0.2.1", "::192.0.2.1",
+			"[::ffff:192.0.2.1]", "1:2:3:4:5:6:1.2.3.4", "1:2:3:4:5:6:7:1.2.3.4", "[2001:db8::1", "2001:db8::1]",
+			"[hhhh:hhhh:hhhh:hhhh:hhhh:hhhh:ddd.ddd.ddd.ddd]", "[hhhh:hhhh:hhhh:hhhh:hhhh:hhhh:ddd.ddd.ddd.ddd]x"
+		));
+		Random random = new Random(2);
+		for(int i = 0; i < 1000; i++) {
+			cases.add(InetAddress.valueOf(random.nextLong(), random.nextLong()).toString());
+			cases.add(InetAddress.valueOf(0, 0xffff00000000L | (random.nextInt() & 0xffffffffL)).toString());
+		}
+		final String alphabet = "0123456789abcdefABCDEFx:.[] \u00e9";
+		for(int i = 0; i < 10000; i++) {
+			int len = random.nextInt(48);
+			StringBuilder sb = new StringBuilder(len);
+			for(int j = 0; j < len; j++) sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+			cases.add(sb.toString());
+		}
+		for(String address : cases) {
+			long[] expected = {-1, -1};
+			int status = InetAddress.parse(address, expected);
+			String padded = "x[" + address + "]x";
+			int start = 2;
+			int end = start + address.length();
+			byte[] bytes = padded.getBytes(java.nio.charset.StandardCharsets.ISO_8859_1);
+			ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+			direct.put(bytes);
+			direct.position(start).limit(end);
+			ByteBuffer heap = ByteBuffer.wrap(bytes, start, address.length());
+			long[] hiLo = new long[2];
+			hiLo[0] = hiLo[1] = -1;
+			assertEquals(address, status, InetAddress.parse(padded, start, end, hiLo));
+			assertArrayEquals(address, expected, hiLo);
+			hiLo[0] = hiLo[1] = -1;
+			assertEquals(address, status, InetAddress.parse(new StringBuilder(padded), start, end, hiLo));
+			assertArrayEquals(address, expected, hiLo);
+			hiLo[0] = hiLo[1] = -1;
+			assertEquals(address, status, InetAddress.parse(padded.toCharArray(), start, end, hiLo));
+			assertArrayEquals(address, expected, hiLo);
+			hiLo[0] = hiLo[1] = -1;
+			assertEquals(address, status, InetAddress.parseAscii(bytes, start, end, hiLo));
+			assertArrayEquals(address, expected, hiLo);
+			hiLo[0] = hiLo[1] = -1;
+			assertEquals(address, status, InetAddress.parseAscii(heap, hiLo));
+			assertArrayEquals(address, expected, hiLo);
+			hiLo[0] = hiLo[1] = -1;
+			assertEquals(address, status, InetAddress.parseAscii(heap.asReadOnlyBuffer(), hiLo));
+			assertArrayEquals(address, expected, hiLo);
+			hiLo[0] = hiLo[1] = -1;
+			assertEquals(address, status, InetAddress.parseAscii(direct, hiLo));
+			assertArrayEquals(address, expected, hiLo);
+		}
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testParse_rangeOutOfBounds() {
+		InetAddress.parse("::1", 0, 4, null);
+	}
+
+	@Test
+	public void testToString_rfc5952() throws ValidationException {
+		// Section 4.1: leading zeros suppressed; Section 4.3: lower-case
+		assertEquals("2001:db8::1", InetAddress.valueOf("2001:0DB8:0000:0000:0000:0000:0000:0001").toString());
+		// Section 4.2.2: single 16-bit 0 field not shortened
+		assertEquals("2001:db8:0:1:1:1:1:1", InetAddress.valueOf("2001:db8::1:1:1:1:1").toString());
+		assertEquals("1:2:3:4:5:6:7:0", InetAddress.valueOf("1:2:3:4:5:6:7::").toString());
+		// Section 4.2.3: first of equal-length runs shortened
+		assertEquals("2001:db8::1:0:0:1", InetAddress.valueOf("2001:db8:0:0:1:0:0:1").toString());
+		// Section 4.2.3: longest run shortened
+		assertEquals("2001:0:0:1::1", InetAddress.valueOf("2001:0:0:1:0:0:0:1").toString());
+		assertEquals("::", InetAddress.valueOf("0:0:0:0:0:0:0:0").toString());
+		assertEquals("::1", InetAddress.valueOf("0:0:0:0:0:0:0:1").toString());
+		assertEquals("1::", InetAddress.valueOf("1:0:0:0:0:0:0:0").toString());
+		assertEquals("::1.2.3.4", InetAddress.valueOf("::1.2.3.4").toString());
+		assertEquals("0.0.0.0", InetAddress.valueOf("0.0.0.0").toString());
+		assertEquals("255.10.100.9", InetAddress.valueOf("255.10.100.9").toString());
+		assertEquals(
+			"ffff:ffff:ffff:ffff:ffff:ffff:ffff:ffff",
+			InetAddress.valueOf("FFFF:FFFF:FFFF:FFFF:FFFF:FFFF:FFFF:FFFF").toString()
+		);
+	}
+
+	@Test
+	public void testWriteTo_byteArray() throws ValidationException {
+		byte[] buf = new byte[2 + InetAddress.MAX_STRING_LENGTH];
+		for(String address : new String[] {"192.0.2.1", "2001:db8::ff00:42:8329", "::", "::1", "ffff:ffff:ffff:ffff:ffff:ffff:ffff:ffff"}) {
+			int len = InetAddress.valueOf(address).writeTo(buf, 2);
+			assertEquals(address, new String(buf, 2, len, java.nio.charset.StandardCharsets.US_ASCII));
+		}
+	}
+
+	@Test
+	public void testWriteTo_byteBuffer() throws ValidationException {
+		java.nio.ByteBuffer buffer = java.nio.ByteBuffer.allocate(64);
+		buffer.put((byte)'[');
+		int len = InetAddress.valueOf("fe80::1").writeTo(buffer);
+		assertEquals(7, len);
+		assertEquals(8, buffer.position());
+		assertEquals("[fe80::1", new String(buffer.array(), 0, buffer.position(), java.nio.charset.StandardCharsets.US_ASCII));
+	}
+
+	@Test
+	public void testWriteTo_byteArrayOverflowWritesNothing() throws ValidationException {
+		byte[] buf = new byte[10];
+		try {
+			InetAddress.valueOf("2001:db8::ff00:42:8329").writeTo(buf, 2);
+			fail("IndexOutOfBoundsException expected");
+		} catch(IndexOutOfBoundsException e) {
+			assertArrayEquals(new byte[10], buf);
+		}
+		assertEquals(7, InetAddress.valueOf("fe80::1").writeTo(buf, 3));
+		assertEquals("fe80::1", new String(buf, 3, 7, java.nio.charset.StandardCharsets.US_ASCII));
+	}
+
+	@Test
+	public void testWriteTo_byteBufferOverflowWritesNothing() throws ValidationException {
+		for(ByteBuffer buffer : new ByteBuffer[] {ByteBuffer.allocate(10), ByteBuffer.allocateDirect(10)}) {
+			buffer.put((byte)'[');
+			try {
+				InetAddress.valueOf("2001:db8::ff00:42:8329").writeTo(buffer);
+				fail("BufferOverflowException expected");
+			} catch(BufferOverflowException e) {
+				assertEquals(1, buffer.position());
+				assertEquals(0, buffer.get(1));
+			}
+			assertEquals(7, InetAddress.valueOf("fe80::1").writeTo(buffer));
+			assertEquals(8, buffer.position());
+		}
+	}
+
+	/**
+	 * Buffers of exactly the formatted length are enough, one byte less writes nothing.
+	 */
+	@Test
+	public void testWriteToExactLength() {
+		Random random = new Random(0);
+		for(int i = 0; i < 10000; i++) {
+			long hi = random.nextBoolean() ? 0 : random.nextLong();
+			long lo = random.nextLong();
+			// Favor zero words
+			for(int shift = 0; shift < 64; shift += 16) {
+				if(random.nextBoolean()) hi &= ~(0xffffL << shift);
+				if(random.nextBoolean()) lo &= ~(0xffffL << shift);
+			}
+			InetAddress address = InetAddress.valueOf(hi, lo);
+			String expected = address.toString();
+			int len = expected.length();
+			byte[] buf = new byte[1 + len];
+			assertEquals(expected, len, address.writeTo(buf, 1));
+			assertEquals(expected, new String(buf, 1, len, java.nio.charset.StandardCharsets.US_ASCII));
+			try {
+				address.writeTo(new byte[len], 1);
+				fail("IndexOutOfBoundsException expected: " + expected);
+			} catch(IndexOutOfBoundsException e) {
+				// Expected
+			}
+			for(ByteBuffer buffer : new ByteBuffer[] {ByteBuffer.allocate(len), ByteBuffer.allocateDirect(len)}) {
+				assertEquals(expected, len, address.writeTo(buffer));
+				assertEquals(len, buffer.position());
+				buffer.flip();
+				assertEquals(expected, java.nio.charset.StandardCharsets.US_ASCII.decode(buffer).toString());
+				buffer.clear().position(1);
+				try {
+					address.writeTo(buffer);
+					fail("BufferOverflowException expected: " + expected);
+				} catch(BufferOverflowException e) {
+					assertEquals(1, buffer.position());
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testAppendTo() throws ValidationException {
+		StringBuilder sb = new StringBuilder("from=");
+		InetAddress.valueOf("198.51.100.7").appendTo(sb);
+		assertEquals("from=198.51.100.7", sb.toString());
+	}
+
+	@Test
+	public void testGetValidationResult_valid() {
+		assertTrue(InetAddress.getValidationResult(InetAddress.PARSE_VALID).isValid());
+	}
+
+	@Test
+	public void testGetValidationResult_messages() {
+		assertEquals(
+			InetAddress.validate("192.0.x.1").toString(),
+			InetAddress.getValidationResult(InetAddress.parse("192.0.x.1", null)).toString()
+		);
+		assertEquals(
+			"IP address octet contains a non-decimal character: x",
+			InetAddress.getValidationResult(InetAddress.parse("192.0.x.1", null)).toString()
+		);
+		assertEquals(
+			"IP address word contains a non-hexadecimal character: g",
+			InetAddress.getValidationResult(InetAddress.parse("2001:db8::g", null)).toString()
+		);
+		assertEquals(
+			"IP address is empty",
+			InetAddress.getValidationResult(InetAddress.parse("", null)).toString()
+		);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testGetValidationResult_invalidStatus() {
+		InetAddress.getValidationResult(-1);
+	}
+
+	@Test
+	public void testValidate() {
+		assertFalse(InetAddress.validate(null).isValid());
+		assertTrue(InetAddress.validate("192.0.2.1").isValid());
+		assertFalse(InetAddress.validate("[192.0.2.1]").isValid());
+		assertFalse(InetAddress.validate("1:2:3:4:5:6:7:8:9").isValid());
+		assertFalse(InetAddress.validate("1.2.3").isValid());
+	}
+
+	private static byte[] writeBinary(InetAddress address) throws IOException {
+		ByteArrayOutputStream bout = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bout)) {
+			address.writeBinary(out);
+		}
+		return bout.toByteArray();
+	}
+
+	@Test
+	public void testBinary_IPv4() throws ValidationException, IOException {
+		InetAddress address = InetAddress.valueOf("192.0.2.127");
+		byte[] bytes = writeBinary(address);
+		assertArrayEquals(new byte[] {InetAddress.BINARY_TAG_INET, (byte)192, 0, 2, 127}, bytes);
+		assertEquals(bytes.length, address.getBinaryLength());
+		assertEquals(address, InetAddress.readBinary(new DataInputStream(new ByteArrayInputStream(bytes))));
+	}
+
+	@Test
+	public void testBinary_IPv6() throws ValidationException, IOException {
+		InetAddress address = InetAddress.valueOf("2001:db8::ffff:1");
+		byte[] bytes = writeBinary(address);
+		assertEquals(InetAddress.MAX_BINARY_LENGTH, bytes.length);
+		assertEquals(InetAddress.BINARY_TAG_INET6, bytes[0]);
+		assertEquals(address, InetAddress.readBinary(new DataInputStream(new ByteArrayInputStream(bytes))));
+	}
+
+	@Test(expected = StreamCorruptedException.class)
+	public void testBinary_badTag() throws IOException {
+		InetAddress.readBinary(new DataInputStream(new ByteArrayInputStream(new byte[] {5, 0, 0, 0, 0})));
+	}
+
+	@Test
+	public void testBinary_ByteBuffer() throws ValidationException {
+		InetAddress ipv4 = InetAddress.valueOf("192.0.2.1");
+		InetAddress ipv6 = InetAddress.valueOf("::fffe:0:1");
+		ByteBuffer buffer = ByteBuffer.allocate(1 + 4 + 1 + 16);
+		ipv4.writeBinary(buffer);
+		ipv6.writeBinary(buffer);
+		assertFalse(buffer.hasRemaining());
+		try {
+			ipv4.writeBinary(buffer);
+			fail("BufferOverflowException expected");
+		} catch(BufferOverflowException e) {
+			// Expected
+		}
+		buffer.flip();
+		assertEquals(ipv4, InetAddress.readBinary(buffer));
+		assertEquals(ipv6, InetAddress.readBinary(buffer));
+		assertFalse(buffer.hasRemaining());
+		// Truncate the IPv6 address
+		buffer.position(1 + 4).limit(buffer.limit() - 1);
+		try {
+			InetAddress.readBinary(buffer);
+			fail("BufferUnderflowException expected");
+		} catch(BufferUnderflowException e) {
+			assertEquals(1 + 4, buffer.position());
+		}
+	}
+
+	@Test
+	public void testSerialization() throws ValidationException, IOException, ClassNotFoundException {
+		InetAddress ipv4 = InetAddress.valueOf("192.0.2.1");
+		InetAddress ipv6 = InetAddress.valueOf("2001:db8::1");
+		ByteArrayOutputStream bout = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bout)) {
+			out.writeObject(ipv4);
+			out.writeObject(ipv6);
+		}
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bout.toByteArray()))) {
+			assertEquals(ipv4, in.readObject());
+			assertEquals(ipv6, in.readObject());
+		}
+	}
+
+	/**
+	 * Serialized by the previous release, before the binary format was added.
+	 */
+	private static final String SERIALIZED_V2 =
+		"aced00057372001a636f6d2e616f617070732e6e65742e496e65744164647265737300000000000000020200024a000268694a00026c6f"
+		+ "787000000000000000000000ffffc00002017371007e000020010db8000000000000000000000001";
+
+	private static byte[] fromHex(String hex) {
+		byte[] bytes = new byte[hex.length() / 2];
+		for(int i = 0; i < bytes.length; i++) bytes[i] = (byte)Integer.parseInt(hex.substring(i * 2, i * 2 + 2), 16);
+		return bytes;
+	}
+
+	@Test
+	public void testSerializationCompatible() throws ValidationException, IOException, ClassNotFoundException {
+		byte[] serialized = fromHex(SERIALIZED_V2);
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+			assertEquals(InetAddress.valueOf("192.0.2.1"), in.readObject());
+			assertEquals(InetAddress.valueOf("2001:db8::1"), in.readObject());
+		}
+		ByteArrayOutputStream bout = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bout)) {
+			out.writeObject(InetAddress.valueOf("192.0.2.1"));
+			out.writeObject(InetAddress.valueOf("2001:db8::1"));
+		}
+		assertArrayEquals(serialized, bout.toByteArray());
+	}
+
+	@Test
+	public void testValueOfBytes() throws ValidationException {
+		assertNull(InetAddress.valueOf((byte[])null));
+		assertEquals(InetAddress.valueOf("192.0.2.255"), InetAddress.valueOf(new byte[] {(byte)192, 0, 2, (byte)255}));
+		byte[] ipv6 = new byte[16];
+		ipv6[0] = 0x20;
+		ipv6[1] = 0x01;
+		ipv6[2] = 0x0d;
+		ipv6[3] = (byte)0xb8;
+		ipv6[15] = (byte)0x80;
+		assertEquals(InetAddress.valueOf("2001:db8::80"), InetAddress.valueOf(ipv6));
+	}
+
+	@Test(expected = ValidationException.class)
+	public void testValueOfBytes_badLength() throws ValidationException {
+		InetAddress.valueOf(new byte[5]);
+	}
+
+	@Test
+	public void testWriteBytes() throws ValidationException {
+		byte[] buf = new byte[18];
+		assertEquals(4, InetAddress.valueOf("192.0.2.1").writeBytes(buf, 1));
+		assertArrayEquals(new byte[] {0, (byte)192, 0, 2, 1, 0}, java.util.Arrays.copyOf(buf, 6));
+		InetAddress ipv6 = InetAddress.valueOf("2001:db8:1:2:3:4:5:ff00");
+		assertEquals(16, ipv6.writeBytes(buf, 2));
+		assertEquals(ipv6, InetAddress.valueOf(java.util.Arrays.copyOfRange(buf, 2, 18)));
+		try {
+			ipv6.writeBytes(buf, 3);
+			fail("IndexOutOfBoundsException expected");
+		} catch(IndexOutOfBoundsException e) {
+			// Expected
+		}
+	}
+
+	@Test
+	public void testJavaInetAddress() throws ValidationException, UnknownHostException {
+		InetAddress ipv4 = InetAddress.valueOf("192.0.2.1");
+		java.net.InetAddress javaIpv4 = ipv4.toJavaInetAddress();
+		assertTrue(javaIpv4 instanceof Inet4Address);
+		assertEquals(java.net.InetAddress.getByAddress(new byte[] {(byte)192, 0, 2, 1}), javaIpv4);
+		assertEquals(ipv4, InetAddress.valueOf(javaIpv4));
+		InetAddress ipv6 = InetAddress.valueOf("2001:db8::1");
+		java.net.InetAddress javaIpv6 = ipv6.toJavaInetAddress();
+		assertTrue(javaIpv6 instanceof Inet6Address);
+		assertEquals(ipv6, InetAddress.valueOf(javaIpv6));
+		assertNull(InetAddress.valueOf((java.net.InetAddress)null));
+	}
+
+	@Test
+	public void testClassification() throws ValidationException {
+		assertEquals(InetAddress.CLASS_LOOPBACK, InetAddress.valueOf("127.0.0.1").getClassification());
+		assertEquals(InetAddress.CLASS_LOOPBACK, InetAddress.valueOf("::1").getClassification());
+		assertEquals(InetAddress.CLASS_UNSPECIFIED, InetAddress.valueOf("::").getClassification());
+		assertEquals(InetAddress.CLASS_BROADCAST, InetAddress.valueOf("255.255.255.255").getClassification());
+		assertEquals(InetAddress.CLASS_DOCUMENTATION, InetAddress.valueOf("2001:db8::1").getClassification());
+		assertEquals(InetAddress.CLASS_TEREDO, InetAddress.valueOf("2001:0:1::1").getClassification());
+		assertEquals(InetAddress.CLASS_ORCHID, InetAddress.valueOf("2001:20::1").getClassification());
+		assertEquals(InetAddress.CLASS_MULTICAST, InetAddress.valueOf("ff02::1").getClassification());
+		assertEquals(0, InetAddress.valueOf("8.8.8.8").getClassification());
+		assertTrue(InetAddress.valueOf("10.1.2.3").isAny(InetAddress.CLASS_LOOPBACK | InetAddress.CLASS_UNIQUE_LOCAL));
+		assertFalse(InetAddress.valueOf("10.1.2.3").isAny(InetAddress.CLASS_LOOPBACK | InetAddress.CLASS_LINK_LOCAL));
+		assertEquals(AddressType.LINK_LOCAL_UNICAST, InetAddress.valueOf("fe80::1").getAddressType());
+		assertEquals(AddressType.GLOBAL_UNICAST, InetAddress.valueOf("192.0.2.1").getAddressType());
+	}
+
+	@Test
+	public void testClassificationMatchesPrefixes() throws ValidationException {
+		Random random = new Random(14);
+		InetAddressPrefix[] prefixes = {
+			InetAddressPrefixes.LINK_LOCAL_IPV4,
+			InetAddressPrefixes.UNIQUE_LOCAL_IPV4_12,
+			InetAddressPrefixes.CARRIER_GRADE_NAT_IPV4,
+			InetAddressPrefixes.UNIQUE_LOCAL_IPV6,
+			InetAddressPrefixes.ORCHID_IPV6,
+			InetAddressPrefixes.BENCHMARK_IPV6
+		};
+		for(int i = 0; i < 10000; i++) {
+			InetAddress address;
+			InetAddressPrefix near = prefixes[random.nextInt(prefixes.length)];
+			// Randomize the low bits near a classifying prefix
+			int keepBits = InetAddressBits.getKeyBits(near) - random.nextInt(4);
+			long hi = (near.getAddress().getHigh() & InetAddressBits.maskHi(-1, keepBits)) | (random.nextLong() & ~InetAddressBits.maskHi(-1, keepBits));
+			long lo = (near.getAddress().getLow() & InetAddressBits.maskLo(-1, keepBits)) | (random.nextLong() & ~InetAddressBits.maskLo(-1, keepBits));
+			address = InetAddress.valueOf(hi, lo);
+			assertEquals(
+				address.toString(),
+				InetAddressPrefixes.LINK_LOCAL_IPV4.contains(address) || InetAddressPrefixes.LINK_LOCAL_IPV6.contains(address),
+				address.isLinkLocal()
+			);
+			assertEquals(
+				address.toString(),
+				InetAddressPrefixes.UNIQUE_LOCAL_IPV4_8.contains(address)
+					|| InetAddressPrefixes.UNIQUE_LOCAL_IPV4_12.contains(address)
+					|| InetAddressPrefixes.UNIQUE_LOCAL_IPV4_16.contains(address)
+					|| InetAddressPrefixes.UNIQUE_LOCAL_IPV6.contains(address),
+				address.isUniqueLocal()
+			);
+			assertEquals(address.toString(), InetAddressPrefixes.CARRIER_GRADE_NAT_IPV4.contains(address), address.isCarrierGradeNat());
+			assertEquals(address.toString(), InetAddressPrefixes.ORCHID_IPV6.contains(address), address.isOrchid());
+			assertEquals(address.toString(), InetAddressPrefixes.BENCHMARK_IPV6.contains(address), address.isNetworkBenchmark());
+		}
+	}
+
+	@Test
+	public void testTryValueOf() throws ValidationException {
+		assertEquals(InetAddress.valueOf("192.0.2.1"), InetAddress.tryValueOf("192.0.2.1"));
+		assertEquals(InetAddress.valueOf("[2001:db8::1]"), InetAddress.tryValueOf("[2001:db8::1]"));
+		assertNull(InetAddress.tryValueOf("192.0.2"));
+		assertNull(InetAddress.tryValueOf(""));
+		assertNull(InetAddress.tryValueOf(null));
+	}
+}
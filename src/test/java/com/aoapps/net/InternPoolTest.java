@@ -0,0 +1,267 @@
+/*
+ * ao-net-types - Networking-related value types.
+ * Copyright (C) 2021  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-net-types.
+ *
+ * ao-net-types is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-net-types is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-net-types.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aoapps.net;
+
+import com.aoapps.lang.validation.ValidationException;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * @see InternPool
+ *
+ * @author  AO Industries, Inc.
+ */
+public class InternPoolTest {
+
+	private static void testPool(InternPool<String> pool) {
+		assertNull(pool.get("one"));
+		String one = new String("one");
+		assertNull(pool.putIfAbsent("one", one));
+		assertSame(one, pool.putIfAbsent("one", new String("one")));
+		assertSame(one, pool.get("one"));
+		assertEquals(1, pool.size());
+		assertEquals(1, pool.getHits());
+		assertEquals(1, pool.getMisses());
+		pool.clear();
+		assertEquals(0, pool.size());
+		assertNull(pool.get("one"));
+		assertEquals(2, pool.getMisses());
+	}
+
+	@Test
+	public void testStrong() {
+		testPool(InternPool.strong());
+	}
+
+	@Test
+	public void testWeakValues() {
+		testPool(InternPool.weakValues());
+	}
+
+	@Test
+	public void testBounded() {
+		testPool(InternPool.bounded(10));
+	}
+
+	@Test
+	public void testBoundedEvictsLeastRecentlyUsed() {
+		InternPool<Integer> pool = InternPool.bounded(3);
+		for(int i = 0; i < 3; i++) assertNull(pool.putIfAbsent(i, i));
+		// Make 0 the most recently used
+		assertEquals(Integer.valueOf(0), pool.get(0));
+		assertNull(pool.putIfAbsent(3, 3));
+		assertEquals(3, pool.size());
+		assertEquals(1, pool.getEvictions());
+		assertNull(pool.get(1));
+		assertEquals(Integer.valueOf(0), pool.get(0));
+		assertEquals(Integer.valueOf(2), pool.get(2));
+		assertEquals(Integer.valueOf(3), pool.get(3));
+	}
+
+	@Test
+	public void testBoundedSegmentsTotalMaxSize() {
+		InternPool<Integer> pool = InternPool.bounded(1000);
+		for(int i = 0; i < 10000; i++) pool.putIfAbsent(i, i);
+		assertTrue(pool.size() <= 1000);
+		assertEquals(10000 - pool.size(), pool.getEvictions());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testBoundedInvalidMaxSize() {
+		InternPool.bounded(0);
+	}
+
+	@Test
+	public void testInetAddressInternPool() throws ValidationException {
+		InternPool<InetAddress> original = InetAddress.getInternPool();
+		InternPool<InetAddress> pool = InternPool.bounded(2);
+		InetAddress.setInternPool(pool);
+		try {
+			InetAddress interned = InetAddress.valueOf("192.0.2.1").intern();
+			assertSame(interned, InetAddress.valueOf("192.0.2.1").intern());
+			InetAddress.valueOf("192.0.2.2").intern();
+			InetAddress.valueOf("192.0.2.3").intern();
+			assertEquals(2, pool.size());
+			assertEquals(1, pool.getEvictions());
+		} finally {
+			InetAddress.setInternPool(original);
+		}
+	}
+
+	@Test
+	public void testEmailInternPool() throws ValidationException {
+		InternPool<Email> original = Email.getInternPool();
+		InternPool<Email> pool = InternPool.weakValues();
+		Email.setInternPool(pool);
+		try {
+			Email interned = Email.valueOf("user@example.com").intern();
+			assertSame(interned, Email.valueOf("user@EXAMPLE.com").intern());
+			assertNotSame(interned, Email.valueOf("User@example.com").intern());
+			assertEquals(2, pool.size());
+		} finally {
+			Email.setInternPool(original);
+		}
+	}
+
+	@Test
+	public void testInetAddressValueOfCache() throws ValidationException {
+		assertNull(InetAddress.getValueOfCache());
+		InternPool<InetAddress> cache = InternPool.bounded(100);
+		InetAddress.setValueOfCache(cache);
+		try {
+			InetAddress parsed = InetAddress.valueOf("2001:db8::1");
+			assertSame(parsed, InetAddress.valueOf("2001:db8::1"));
+			// Different strings for the same address are cached separately
+			assertEquals(parsed, InetAddress.valueOf("2001:DB8::1"));
+			assertEquals(1, cache.getHits());
+			assertEquals(2, cache.getMisses());
+			assertEquals(2, cache.size());
+			try {
+				InetAddress.valueOf("2001:db8::g");
+				fail("Invalid address must not be cached");
+			} catch(ValidationException e) {
+				// Expected
+			}
+			assertEquals(2, cache.size());
+		} finally {
+			InetAddress.setValueOfCache(null);
+		}
+	}
+
+	@Test
+	public void testDomainNameValueOfCache() throws ValidationException {
+		InternPool<DomainName> cache = InternPool.bounded(100);
+		DomainName.setValueOfCache(cache);
+		try {
+			DomainName parsed = DomainName.valueOf("Example.com");
+			assertSame(parsed, DomainName.valueOf("Example.com"));
+			assertEquals("Example.com", DomainName.valueOf("Example.com").toString());
+			assertEquals("example.com", DomainName.valueOf("example.com").toString());
+		} finally {
+			DomainName.setValueOfCache(null);
+		}
+	}
+
+	@Test
+	public void testTryValueOf() throws ValidationException {
+		assertEquals(DomainName.valueOf("example.com"), DomainName.tryValueOf("example.com"));
+		assertNull(DomainName.tryValueOf("example..com"));
+		assertNull(DomainLabel.tryValueOf("-label"));
+		assertEquals(DomainLabels.valueOf("www.example"), DomainLabels.tryValueOf("www.example"));
+		assertEquals(MacAddress.valueOf("00:11:22:AA:BB:CC"), MacAddress.tryValueOf("00:11:22:aa:bb:cc"));
+		assertNull(MacAddress.tryValueOf("00:11:22:aa:bb"));
+		assertEquals(Email.valueOf("user@example.com"), Email.tryValueOf("user@example.com"));
+		assertNull(Email.tryValueOf(""));
+		assertNull(Email.tryValueOf("user"));
+		assertNull(Email.tryValueOf("user@example..com"));
+		assertNull(Email.tryValueOf("us..er@example.com"));
+		assertEquals(HostAddress.valueOf("example.com"), HostAddress.tryValueOf("example.com"));
+		assertEquals(HostAddress.valueOf("192.0.2.1"), HostAddress.tryValueOf("192.0.2.1"));
+		assertNull(HostAddress.tryValueOf("192.0.2.256"));
+	}
+
+	@Test
+	public void testValueOfReportsValidateReason() {
+		try {
+			DomainName.valueOf("example..com");
+			fail("ValidationException expected");
+		} catch(ValidationException e) {
+			assertEquals(DomainName.validate("example..com").toString(), e.getResult().toString());
+		}
+		for(String email : new String[] {"", "user", "user@example..com", "us..er@example.com"}) {
+			try {
+				Email.valueOf(email);
+				fail("ValidationException expected");
+			} catch(ValidationException e) {
+				assertEquals(Email.validate(email).toString(), e.getResult().toString());
+			}
+		}
+		for(String address : new String[] {"192.0.2.256", "-example.com"}) {
+			try {
+				HostAddress.valueOf(address);
+				fail("ValidationException expected");
+			} catch(ValidationException e) {
+				assertEquals(HostAddress.validate(address).toString(), e.getResult().toString());
+			}
+		}
+	}
+
+	@Test
+	public void testTryValueOfCache() throws ValidationException {
+		InternPool<Email> cache = InternPool.bounded(100);
+		Email.setValueOfCache(cache);
+		try {
+			Email parsed = Email.tryValueOf("user@example.com");
+			assertSame(parsed, Email.valueOf("user@example.com"));
+			assertNull(Email.tryValueOf("user@"));
+			assertEquals(1, cache.size());
+			assertEquals(1, cache.getHits());
+		} finally {
+			Email.setValueOfCache(null);
+		}
+	}
+
+	@Test
+	public void testURIValueOfCache() {
+		assertNull(URI.getValueOfCache());
+		assertNotSame(URI.valueOf("http://example.com/a b"), URI.valueOf("http://example.com/a b"));
+		InternPool<URI> cache = InternPool.bounded(100);
+		URI.setValueOfCache(cache);
+		try {
+			assertNull(URI.valueOf(null));
+			URI uri = URI.valueOf("http://example.com/a b");
+			assertEquals("http://example.com/a%20b", uri.toString());
+			assertSame(uri, URI.valueOf("http://example.com/a b"));
+			assertEquals(1, cache.getHits());
+			assertEquals(1, cache.getMisses());
+			// Cross-links are retained on the cached instance
+			IRI iri = uri.toIRI();
+			assertSame(iri, URI.valueOf("http://example.com/a b").toIRI());
+			assertSame(uri, uri.toURI());
+		} finally {
+			URI.setValueOfCache(null);
+		}
+	}
+
+	@Test
+	public void testIRIValueOfCache() {
+		assertNull(IRI.getValueOfCache());
+		InternPool<IRI> cache = InternPool.bounded(100);
+		IRI.setValueOfCache(cache);
+		try {
+			assertNull(IRI.valueOf(null));
+			IRI iri = IRI.valueOf("http://example.com/a%20b");
+			assertEquals("http://example.com/a b", iri.toString());
+			assertSame(iri, IRI.valueOf("http://example.com/a%20b"));
+			URI uri = iri.toURI();
+			assertSame(uri, IRI.valueOf("http://example.com/a%20b").toURI());
+			assertSame(iri, uri.toIRI());
+			// AnyURI.toIRI() shares the cache
+			assertSame(iri, new AnyURI("http://example.com/a%20b").toIRI());
+			assertEquals(3, cache.getHits());
+			assertEquals(1, cache.getMisses());
+		} finally {
+			IRI.setValueOfCache(null);
+		}
+	}
+}
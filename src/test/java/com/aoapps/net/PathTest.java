@@ -31,6 +31,7 @@ import com.aoapps.lang.LocalizedIllegalArgumentException;
 import com.aoapps.lang.validation.ValidationException;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertNull;
 import org.junit.Test;
 
 public class PathTest {
@@ -114,4 +115,12 @@ public class PathTest {
 	public void testSuffixInvalidBegin3() throws ValidationException {
 		Path.valueOf("/test").suffix(5);
 	}
+
+	@Test
+	public void testTryValueOf() throws ValidationException {
+		assertSame(Path.ROOT, Path.tryValueOf("/"));
+		assertEquals(Path.valueOf("/home/user"), Path.tryValueOf("/home/user"));
+		assertNull(Path.tryValueOf("relative"));
+		assertNull(Path.tryValueOf(null));
+	}
 }
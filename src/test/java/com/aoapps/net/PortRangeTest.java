@@ -89,4 +89,13 @@ public class PortRangeTest {
 			PortRange.valueOf(10, 1, Protocol.TCP)
 		);
 	}
+
+	@Test
+	public void testTryValueOf() throws ValidationException {
+		assertEquals(PortRange.valueOf(1, 1024, Protocol.TCP), PortRange.tryValueOf(1, 1024, Protocol.TCP));
+		assertNull(PortRange.tryValueOf(1024, 1, Protocol.TCP));
+		assertNull(PortRange.tryValueOf(1, 1, Protocol.TCP));
+		assertEquals(Port.valueOf(22, Protocol.TCP), IPortRange.tryValueOf(22, 22, Protocol.TCP));
+		assertNull(IPortRange.tryValueOf(0, 22, Protocol.TCP));
+	}
 }
@@ -62,4 +62,12 @@ public class PortTest {
 			Port.valueOf(1, Protocol.TCP)
 		);
 	}
+
+	@Test
+	public void testTryValueOf() throws ValidationException {
+		assertSame(Port.valueOf(80, Protocol.TCP), Port.tryValueOf(80, Protocol.TCP));
+		assertNull(Port.tryValueOf(0, Protocol.TCP));
+		assertNull(Port.tryValueOf(65536, Protocol.UDP));
+		assertNull(Port.tryValueOf(80, Protocol.ICMP));
+	}
 }
@@ -0,0 +1,68 @@
+/*
+ * ao-net-types - Networking-related value types.
+ * Copyright (C) 2021  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-net-types.
+ *
+ * ao-net-types is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-net-types is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-net-types.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.aoapps.net;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * @see RFC3986
+ *
+ * @author  AO Industries, Inc.
+ */
+public class RFC3986Test {
+
+	private static final String GEN_DELIMS = ":/?#[]@";
+	private static final String SUB_DELIMS = "!$&'()*+,;=";
+	private static final String ALPHA = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+	private static final String DIGIT = "0123456789";
+
+	@Test
+	public void testCharacterClasses() {
+		for(int i = 0; i <= 0xFFFF; i++) {
+			char ch = (char)i;
+			String str = String.valueOf(ch);
+			boolean alpha = ALPHA.contains(str);
+			boolean digit = DIGIT.contains(str);
+			assertEquals(str, GEN_DELIMS.contains(str), RFC3986.isGenDelim(ch));
+			assertEquals(str, SUB_DELIMS.contains(str), RFC3986.isSubDelim(ch));
+			assertEquals(str, GEN_DELIMS.contains(str) || SUB_DELIMS.contains(str), RFC3986.isReserved(ch));
+			assertEquals(str, alpha || digit || "-._~".contains(str), RFC3986.isUnreserved(ch));
+			assertEquals(str, alpha, RFC3986.isSchemeBeginning(ch));
+			assertEquals(str, alpha || digit || "+-.".contains(str), RFC3986.isSchemeRemaining(ch));
+			assertEquals(str, alpha || digit || ".-*_".contains(str), RFC3986.is(ch, RFC3986.URL_ENCODER_SAFE));
+			assertEquals(str, ch == '%', RFC3986.is(ch, RFC3986.PERCENT));
+			assertEquals(str, Character.digit(ch, 16) != -1 && ch < 128 ? Character.digit(ch, 16) : -1, RFC3986.hexValue(ch));
+		}
+	}
+
+	@Test
+	public void testHex() {
+		for(int b = 0; b < 256; b++) {
+			String expected = String.format("%02X", b);
+			assertEquals(expected.charAt(0), RFC3986.getHexHigh(b));
+			assertEquals(expected.charAt(1), RFC3986.getHexLow(b));
+			assertEquals(expected.charAt(0), RFC3986.getHexHigh((byte)b));
+		}
+	}
+}
@@ -22,7 +22,19 @@
  */
 package com.aoapps.net;
 
+import com.aoapps.lang.Strings;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
 import org.junit.Test;
 
 public class URIDecoderTest {
@@ -46,4 +58,231 @@ public class URIDecoderTest {
 			URIDecoder.decodeURI("https://search.maven.org/#search%7Cgav%7C1%7Cg:%22@com.aoapps%22%20AND%20a:%22@ao-hodgepodge%22")
 		);
 	}
+
+	@Test
+	public void testDecodeURIUnchanged() {
+		String uri = "https://aoindustries.com/path/to/file.html?a=b&c=%2F%25%3D#top";
+		assertSame(uri, URIDecoder.decodeURI(uri));
+		String iri = "https://aointernet.net/shared/ホスティング.do?花=true";
+		assertSame(iri, URIDecoder.decodeURI(iri));
+	}
+
+	@Test
+	public void testDecodeURISpecialCases() {
+		assertEquals("%2F%25%3D a~", URIDecoder.decodeURI("%2f%25%3d%20a%7e"));
+		assertEquals("\ud83d\ude00", URIDecoder.decodeURI("%F0%9F%98%80"));
+		assertEquals("\ufffd/\ufffd", URIDecoder.decodeURI("%E3/%80"));
+		assertEquals("\ufffd%2F", URIDecoder.decodeURI("%E3%2F"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testDecodeURIIncompleteEscape() {
+		URIDecoder.decodeURI("a%2");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testDecodeURIIllegalEscape() {
+		URIDecoder.decodeURI("a%zz");
+	}
+
+	private static final String RESERVED = ":/?#[]@!$&'()*+,;=";
+
+	private static final BitSet reserved = new BitSet(128);
+	static {
+		for(char ch : RESERVED.toCharArray()) reserved.set(ch);
+	}
+
+	/**
+	 * The previous implementation, which decoded each run between reserved characters with {@link URLDecoder},
+	 * then re-encoded reserved characters and '%'.
+	 */
+	private static String decodeURIWithURLDecoder(String uri) throws UnsupportedEncodingException {
+		StringBuilder out = new StringBuilder();
+		int len = uri.length();
+		int pos = 0;
+		while(pos < len) {
+			int nextPos = Strings.indexOf(uri, reserved, pos);
+			if(nextPos == -1) nextPos = len;
+			if(nextPos != pos) {
+				String decoded = URLDecoder.decode(uri.substring(pos, nextPos), "UTF-8");
+				for(int i = 0; i < decoded.length(); i++) {
+					char ch = decoded.charAt(i);
+					if(ch == '%' || RESERVED.indexOf(ch) != -1) {
+						out.append(String.format("%%%02X", (int)ch));
+					} else {
+						out.append(ch);
+					}
+				}
+			}
+			if(nextPos == len) break;
+			out.append(uri.charAt(nextPos));
+			pos = nextPos + 1;
+		}
+		return out.toString();
+	}
+
+	private static final String[] PARTS = {
+		"a", "Z", "~", " ", "/", "?", "#", "&", "=", "+", "\u00e9", "\ud83d\ude00", "%", "%2",
+		"%20", "%2f", "%2F", "%25", "%3d", "%41", "%7e", "%C3", "%A9", "%c3%a9", "%E3%81%82", "%E3%81",
+		"%F0%9F%98%80", "%ED%A0%80", "%C0%AF", "%FF", "%80", "%zz"
+	};
+
+	@Test
+	public void testDecodeURIMatchesURLDecoder() throws UnsupportedEncodingException {
+		Random random = new Random(0);
+		StringBuilder sb = new StringBuilder();
+		for(int i = 0; i < 100000; i++) {
+			sb.setLength(0);
+			int parts = random.nextInt(8);
+			for(int j = 0; j < parts; j++) sb.append(PARTS[random.nextInt(PARTS.length)]);
+			String uri = sb.toString();
+			String expected;
+			try {
+				expected = decodeURIWithURLDecoder(uri);
+			} catch(IllegalArgumentException e) {
+				try {
+					URIDecoder.decodeURI(uri);
+					fail("IllegalArgumentException expected: " + uri);
+				} catch(IllegalArgumentException e2) {
+					// Expected
+				}
+				continue;
+			}
+			assertEquals(uri, expected, URIDecoder.decodeURI(uri));
+		}
+	}
+
+	@Test
+	public void testDecodeURIComponentMatchesURLDecoder() throws UnsupportedEncodingException {
+		Random random = new Random(0);
+		StringBuilder sb = new StringBuilder();
+		for(int i = 0; i < 100000; i++) {
+			sb.setLength(0);
+			int parts = random.nextInt(8);
+			for(int j = 0; j < parts; j++) sb.append(PARTS[random.nextInt(PARTS.length)]);
+			String s = sb.toString();
+			// URLDecoder accepts a sign in escapes, such as "%+a", which is rejected here
+			if(s.contains("%+")) continue;
+			String expected;
+			try {
+				expected = URLDecoder.decode(s, "UTF-8");
+			} catch(IllegalArgumentException e) {
+				try {
+					URIDecoder.decodeURIComponent(s);
+					fail("IllegalArgumentException expected: " + s);
+				} catch(IllegalArgumentException e2) {
+					// Expected
+				}
+				continue;
+			}
+			assertEquals(s, expected, URIDecoder.decodeURIComponent(s));
+			StringBuilder out = new StringBuilder();
+			URIDecoder.decodeURIComponent(s, out);
+			assertEquals(s, expected, out.toString());
+		}
+	}
+
+	@Test
+	public void testDecodeURIComponentUnchanged() {
+		String s = "/path/to/file.html?a=b&c";
+		assertSame(s, URIDecoder.decodeURIComponent(s));
+		assertEquals("a b/=", URIDecoder.decodeURIComponent("a+b%2f%3D"));
+	}
+
+	private static String decodeURIBytes(String uri) {
+		byte[] in = uri.getBytes(StandardCharsets.UTF_8);
+		byte[] out = new byte[in.length + 2];
+		int len = URIDecoder.decodeURI(in, 0, in.length, out, 2);
+		return new String(out, 2, len, StandardCharsets.UTF_8);
+	}
+
+	private static String decodeURIComponentBytes(String s) {
+		ByteBuffer in = ByteBuffer.allocateDirect(s.length() * 3);
+		in.put(s.getBytes(StandardCharsets.UTF_8)).flip();
+		ByteBuffer out = ByteBuffer.allocate(in.remaining());
+		URIDecoder.decodeURIComponent(in, out);
+		assertEquals(0, in.remaining());
+		out.flip();
+		return StandardCharsets.UTF_8.decode(out).toString();
+	}
+
+	@Test
+	public void testDecodeBytes() {
+		assertEquals(
+			"https://aointernet.net/shared/ホスティング.do?花=true%2F",
+			decodeURIBytes("https://aointernet.net/shared/%E3%83%9B%E3%82%B9%E3%83%86%E3%82%A3%E3%83%B3%E3%82%B0.do?%E8%8A%B1=true%2f")
+		);
+		assertEquals("a b/花", decodeURIComponentBytes("a+b%2f%E8%8A%B1"));
+		byte[] out = new byte[1];
+		assertEquals(1, URIDecoder.decodeURI(new byte[] {'%', '4', '1'}, 0, 3, out, 0));
+		assertArrayEquals(new byte[] {'A'}, out);
+	}
+
+	private static byte[] decodeBytes(boolean isURI, byte[] in, int len) {
+		byte[] out = new byte[len];
+		int outLen = isURI
+			? URIDecoder.decodeURI(in, 0, len, out, 0)
+			: URIDecoder.decodeURIComponent(in, 0, len, out, 0);
+		return Arrays.copyOf(out, outLen);
+	}
+
+	/**
+	 * On overflow, the output must be exactly the decoding of the input consumed, without any partially written
+	 * escape or sequence of decoded escapes, and decoding must resume from there.
+	 */
+	@Test
+	public void testDecodeBytesOverflowWritesWholeSequences() {
+		byte[] bytes = "a+b%2f%E8%8A%B1%C3%28%41\u00e9%F0%9F%98%80~".getBytes(StandardCharsets.UTF_8);
+		for(boolean isURI : new boolean[] {true, false}) {
+			byte[] expected = decodeBytes(isURI, bytes, bytes.length);
+			for(int capacity = 0; capacity < expected.length; capacity++) {
+				ByteBuffer in = ByteBuffer.wrap(bytes);
+				ByteBuffer out = ByteBuffer.allocate(capacity);
+				try {
+					if(isURI) URIDecoder.decodeURI(in, out);
+					else URIDecoder.decodeURIComponent(in, out);
+					fail("BufferOverflowException expected");
+				} catch(BufferOverflowException e) {
+					assertArrayEquals(decodeBytes(isURI, bytes, in.position()), Arrays.copyOf(out.array(), out.position()));
+					out = ByteBuffer.allocate(expected.length).put(out.array(), 0, out.position());
+					if(isURI) URIDecoder.decodeURI(in, out);
+					else URIDecoder.decodeURIComponent(in, out);
+					assertArrayEquals(expected, out.array());
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testDecodeBytesMatchesString() {
+		Random random = new Random(0);
+		StringBuilder sb = new StringBuilder();
+		for(int i = 0; i < 100000; i++) {
+			sb.setLength(0);
+			int parts = random.nextInt(8);
+			for(int j = 0; j < parts; j++) sb.append(PARTS[random.nextInt(PARTS.length)]);
+			String s = sb.toString();
+			String expected;
+			try {
+				expected = URIDecoder.decodeURI(s);
+			} catch(IllegalArgumentException e) {
+				expected = null;
+			}
+			try {
+				assertEquals(s, expected, decodeURIBytes(s));
+			} catch(IllegalArgumentException e) {
+				assertEquals(s, null, expected);
+			}
+			try {
+				expected = URIDecoder.decodeURIComponent(s);
+			} catch(IllegalArgumentException e) {
+				expected = null;
+			}
+			try {
+				assertEquals(s, expected, decodeURIComponentBytes(s));
+			} catch(IllegalArgumentException e) {
+				assertEquals(s, null, expected);
+			}
+		}
+	}
 }
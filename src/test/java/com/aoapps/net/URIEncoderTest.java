@@ -22,7 +22,17 @@
  */
 package com.aoapps.net;
 
+import com.aoapps.lang.Strings;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+import java.util.Random;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
 import org.junit.Test;
 
 public class URIEncoderTest {
@@ -46,4 +56,158 @@ public class URIEncoderTest {
 			URIEncoder.encodeURI("https://search.maven.org/#search|gav|1|g:%22@com.aoapps%22%20AND%20a:%22@ao-hodgepodge%22")
 		);
 	}
+
+	@Test
+	public void testEncodeURIUnchanged() {
+		String uri = "https://aoindustries.com/path/to/file.html?a=b&c=%2F#top";
+		assertSame(uri, URIEncoder.encodeURI(uri));
+		String percent = "100%";
+		assertSame(percent, URIEncoder.encodeURI(percent));
+	}
+
+	@Test
+	public void testEncodeURISpecialCases() {
+		assertEquals("a%20b%7E%7F%25%2F", URIEncoder.encodeURI("a b~\u007f%25%2f"));
+		assertEquals("%3Fa%3F", URIEncoder.encodeURI("\udc00a\ud800"));
+		assertEquals("%F0%9F%98%80", URIEncoder.encodeURI("\ud83d\ude00"));
+		assertEquals("%2F%AB", URIEncoder.encodeURI("%2f%aB"));
+	}
+
+	private static final BitSet reservedAndPercent = new BitSet(128);
+	static {
+		for(char ch : ":/?#[]@!$&'()*+,;=%".toCharArray()) reservedAndPercent.set(ch);
+	}
+
+	/**
+	 * The previous implementation, which encoded each run between reserved characters with {@link URLEncoder}.
+	 */
+	private static String encodeURIWithURLEncoder(String uri) throws UnsupportedEncodingException {
+		StringBuilder out = new StringBuilder();
+		int len = uri.length();
+		int pos = 0;
+		while(pos < len) {
+			int nextPos = Strings.indexOf(uri, reservedAndPercent, pos);
+			if(nextPos == -1) nextPos = len;
+			int spacePos = uri.indexOf(' ', pos);
+			if(spacePos != -1 && spacePos < nextPos) nextPos = spacePos;
+			if(nextPos != pos) out.append(URLEncoder.encode(uri.substring(pos, nextPos), "UTF-8"));
+			if(nextPos == len) break;
+			char reserved = uri.charAt(nextPos);
+			if(
+				reserved == '%'
+				&& (nextPos + 2) < len
+				&& Character.digit(uri.charAt(nextPos + 1), 16) != -1
+				&& Character.digit(uri.charAt(nextPos + 2), 16) != -1
+			) {
+				out.append(uri.substring(nextPos, nextPos + 3).toUpperCase());
+				pos = nextPos + 3;
+			} else {
+				out.append(reserved == ' ' ? "%20" : String.valueOf(reserved));
+				pos = nextPos + 1;
+			}
+		}
+		return out.toString();
+	}
+
+	private static final char[] CHARS = {
+		'a', 'Z', '0', '.', '-', '_', '*', '~', ' ', '%', '%', 'f', 'F', '2', '/', '?', '#', '&', '=', '+',
+		'"', '<', '\\', '^', '`', '{', '|', '\u007f', '\n', '\u00e9', '\u3042', '\ud83d', '\ude00'
+	};
+
+	@Test
+	public void testEncodeURIMatchesURLEncoder() throws UnsupportedEncodingException {
+		Random random = new Random(0);
+		StringBuilder sb = new StringBuilder();
+		for(int i = 0; i < 100000; i++) {
+			sb.setLength(0);
+			int len = random.nextInt(12);
+			for(int j = 0; j < len; j++) sb.append(CHARS[random.nextInt(CHARS.length)]);
+			String uri = sb.toString();
+			assertEquals(uri, encodeURIWithURLEncoder(uri), URIEncoder.encodeURI(uri));
+			assertEquals(uri, URLEncoder.encode(uri, "UTF-8").replace("+", "%20"), URIEncoder.encodeURIComponent(uri));
+		}
+	}
+
+	@Test
+	public void testEncodeURIComponent() {
+		assertEquals("a%20b%2B%2F*.-_%7E%25", URIEncoder.encodeURIComponent("a b+/*.-_~%"));
+		String unchanged = "abc.-*_";
+		assertSame(unchanged, URIEncoder.encodeURIComponent(unchanged));
+	}
+
+	private static String encodeURIBytes(String uri) {
+		byte[] in = uri.getBytes(StandardCharsets.UTF_8);
+		byte[] out = new byte[in.length * 3 + 1];
+		int len = URIEncoder.encodeURI(in, 0, in.length, out, 1);
+		return new String(out, 1, len, StandardCharsets.US_ASCII);
+	}
+
+	private static String encodeURIComponentBytes(String s) {
+		ByteBuffer in = ByteBuffer.wrap(s.getBytes(StandardCharsets.UTF_8));
+		ByteBuffer out = ByteBuffer.allocateDirect(in.remaining() * 3);
+		URIEncoder.encodeURIComponent(in, out);
+		assertEquals(0, in.remaining());
+		out.flip();
+		return StandardCharsets.US_ASCII.decode(out).toString();
+	}
+
+	@Test
+	public void testEncodeBytesMatchesString() {
+		Random random = new Random(0);
+		StringBuilder sb = new StringBuilder();
+		for(int i = 0; i < 100000; i++) {
+			sb.setLength(0);
+			int len = random.nextInt(12);
+			for(int j = 0; j < len; j++) {
+				char ch = CHARS[random.nextInt(CHARS.length)];
+				// Only well-formed UTF-8
+				if(!Character.isSurrogate(ch)) sb.append(ch);
+			}
+			if(random.nextBoolean()) sb.append("\ud83d\ude00");
+			String s = sb.toString();
+			assertEquals(s, URIEncoder.encodeURI(s), encodeURIBytes(s));
+			assertEquals(s, URIEncoder.encodeURIComponent(s), encodeURIComponentBytes(s));
+		}
+	}
+
+	@Test(expected = java.nio.BufferOverflowException.class)
+	public void testEncodeBytesOverflow() {
+		URIEncoder.encodeURI(ByteBuffer.wrap(new byte[] {' '}), ByteBuffer.allocate(2));
+	}
+
+	private static String encodeBytes(boolean isURI, byte[] in, int len) {
+		byte[] out = new byte[len * 3];
+		int outLen = isURI
+			? URIEncoder.encodeURI(in, 0, len, out, 0)
+			: URIEncoder.encodeURIComponent(in, 0, len, out, 0);
+		return new String(out, 0, outLen, StandardCharsets.US_ASCII);
+	}
+
+	/**
+	 * On overflow, the output must be exactly the encoding of the input consumed, without any partial escape,
+	 * and encoding must resume from there.
+	 */
+	@Test
+	public void testEncodeBytesOverflowWritesWholeEscapes() {
+		byte[] bytes = "a b/\u00e9%41%zz\ud83d\ude00~".getBytes(StandardCharsets.UTF_8);
+		for(boolean isURI : new boolean[] {true, false}) {
+			String expected = encodeBytes(isURI, bytes, bytes.length);
+			for(int capacity = 0; capacity < expected.length(); capacity++) {
+				ByteBuffer in = ByteBuffer.wrap(bytes);
+				ByteBuffer out = ByteBuffer.allocate(capacity);
+				try {
+					if(isURI) URIEncoder.encodeURI(in, out);
+					else URIEncoder.encodeURIComponent(in, out);
+					fail("BufferOverflowException expected");
+				} catch(BufferOverflowException e) {
+					String written = new String(out.array(), 0, out.position(), StandardCharsets.US_ASCII);
+					assertEquals(encodeBytes(isURI, bytes, in.position()), written);
+					ByteBuffer rest = ByteBuffer.allocate(expected.length());
+					if(isURI) URIEncoder.encodeURI(in, rest);
+					else URIEncoder.encodeURIComponent(in, rest);
+					assertEquals(expected, written + new String(rest.array(), 0, rest.position(), StandardCharsets.US_ASCII));
+				}
+			}
+		}
+	}
 }